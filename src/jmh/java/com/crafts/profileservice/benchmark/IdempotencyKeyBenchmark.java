@@ -0,0 +1,25 @@
+package com.crafts.profileservice.benchmark;
+
+import com.crafts.profileservice.util.IdempotencyKeyGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class IdempotencyKeyBenchmark {
+
+    private String email = "finance@crafts-demo.example";
+    private String pan = "ABCDE1234F";
+    private String legalName = "Crafts Demo Private Limited";
+
+    @Benchmark
+    public String generate() throws NoSuchAlgorithmException {
+        return IdempotencyKeyGenerator.generate(email, pan, legalName);
+    }
+}
@@ -0,0 +1,74 @@
+package com.crafts.profileservice.benchmark;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.dto.AddressDTO;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.TaxIdentifiersDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Realistic user profiles for the benchmarks. Every subscription has a validation entry, half of
+ * them rejected with two errors, which is what the validation result consumer writes back.
+ */
+final class ProfileFixtures {
+
+    static final int REJECTED_ERROR_COUNT = 2;
+
+    private ProfileFixtures() {
+    }
+
+    static UserProfileDTO userProfile(int subscriptionCount) {
+        UserProfileDTO userProfile = new UserProfileDTO();
+        userProfile.setUserId(UUID.randomUUID().toString());
+        userProfile.setIdempotencyKey("n4bQgYhMfWWaL+qgxVrQFaO/TxsrC4Is0V1sFbDwCgg=");
+        userProfile.setCompanyName("Crafts Demo Private Limited");
+        userProfile.setLegalName("Crafts Demo Private Limited");
+        userProfile.setBusinessAddress(new AddressDTO("221B Baker Street", "Floor 2", "Bengaluru", "Karnataka", "560001", "IN"));
+        userProfile.setLegalAddress(new AddressDTO("14 Residency Road", null, "Bengaluru", "Karnataka", "560025", "IN"));
+        userProfile.setTaxIdentifiers(new TaxIdentifiersDTO("ABCDE1234F", "12-3456789"));
+        userProfile.setEmail("finance@crafts-demo.example");
+        userProfile.setWebsite("https://crafts-demo.example");
+        userProfile.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+        userProfile.setConsolidatedMessage("Validation in progress for subscribed products");
+        userProfile.setTimestamp("2024-01-15T10:15:30.123Z");
+        List<String> subscriptions = new ArrayList<>(subscriptionCount);
+        Map<String, ProductValidationStatus> subscriptionValidations = new HashMap<>();
+        for (int i = 0; i < subscriptionCount; i++) {
+            String productId = "product_" + i;
+            subscriptions.add(productId);
+            subscriptionValidations.put(productId, i % 2 == 0
+                    ? new ProductValidationStatus(ValidationStatusEnum.SUCCESS.getStatus(), new ArrayList<>())
+                    : new ProductValidationStatus(ValidationStatusEnum.REJECTED.getStatus(), errors(REJECTED_ERROR_COUNT)));
+        }
+        userProfile.setSubscriptions(subscriptions);
+        userProfile.setSubscriptionValidations(subscriptionValidations);
+        return userProfile;
+    }
+
+    static AttributeValue validationStatusAttribute(int errorCount) {
+        List<AttributeValue> errors = new ArrayList<>(errorCount);
+        for (String error : errors(errorCount)) {
+            errors.add(new AttributeValue().withS(error));
+        }
+        Map<String, AttributeValue> status = new HashMap<>();
+        ValidationStatusEnum validationStatus = errorCount == 0 ? ValidationStatusEnum.SUCCESS : ValidationStatusEnum.REJECTED;
+        status.put("status", new AttributeValue().withS(validationStatus.getStatus()));
+        status.put("errors", new AttributeValue().withL(errors));
+        return new AttributeValue().withM(status);
+    }
+
+    private static List<String> errors(int errorCount) {
+        List<String> errors = new ArrayList<>(errorCount);
+        for (int i = 0; i < errorCount; i++) {
+            errors.add("Validation error " + i);
+        }
+        return errors;
+    }
+}
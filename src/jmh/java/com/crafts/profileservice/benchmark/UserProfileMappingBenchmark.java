@@ -0,0 +1,64 @@
+package com.crafts.profileservice.benchmark;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.mapper.UserProfileMapperHelper;
+import com.crafts.profileservice.mapper.UserProfileMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO/EO conversion done on every read and write, and the per-product validation status mapping
+ * done for status reads.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserProfileMappingBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int subscriptionCount;
+
+    private UserProfileMapper userProfileMapper;
+    private UserProfileDTO userProfileDTO;
+    private UserProfileEO userProfileEO;
+    private AttributeValue validationStatusAttribute;
+
+    @Setup
+    public void setUp() {
+        userProfileMapper = new UserProfileMapperImpl();
+        userProfileDTO = ProfileFixtures.userProfile(subscriptionCount);
+        userProfileEO = userProfileMapper.convertDTOTOEO(userProfileDTO);
+        // One rejected product, its size does not depend on the number of subscriptions
+        validationStatusAttribute = ProfileFixtures.validationStatusAttribute(ProfileFixtures.REJECTED_ERROR_COUNT);
+    }
+
+    @Benchmark
+    public UserProfileEO convertDTOTOEO() {
+        return userProfileMapper.convertDTOTOEO(userProfileDTO);
+    }
+
+    @Benchmark
+    public UserProfileDTO convertEOtoDTO() {
+        return userProfileMapper.convertEOtoDTO(userProfileEO);
+    }
+
+    // The timestamp expression of convertDTOTOEO on its own
+    @Benchmark
+    public String instantNowToString() {
+        return Instant.now().toString();
+    }
+
+    @Benchmark
+    public ProductValidationStatus mapToProductValidationStatus() {
+        return UserProfileMapperHelper.mapToProductValidationStatus(validationStatusAttribute);
+    }
+}
@@ -0,0 +1,88 @@
+package com.crafts.profileservice.benchmark;
+
+import com.crafts.profileservice.cache.codec.CacheValueCodecFactory;
+import com.crafts.profileservice.cache.codec.CacheValueSerializer;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.util.JsonUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka message serialization and the cache value formats: Java serialization, which memcached
+ * entries used before the codecs, against the binary and JSON cache codecs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserProfileSerializationBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int subscriptionCount;
+
+    private UserProfileDTO userProfileDTO;
+    private CacheValueSerializer binarySerializer;
+    private CacheValueSerializer jsonSerializer;
+    private byte[] javaSerialized;
+    private byte[] binarySerialized;
+    private byte[] jsonSerialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        userProfileDTO = ProfileFixtures.userProfile(subscriptionCount);
+        binarySerializer = CacheValueCodecFactory.getSerializer(CacheValueCodecFactory.BINARY);
+        jsonSerializer = CacheValueCodecFactory.getSerializer(CacheValueCodecFactory.JSON);
+        javaSerialized = javaSerialize();
+        binarySerialized = binarySerializer.serialize(userProfileDTO);
+        jsonSerialized = jsonSerializer.serialize(userProfileDTO);
+    }
+
+    @Benchmark
+    public String jsonUtilWriteToJson() {
+        return JsonUtil.writeToJson(userProfileDTO);
+    }
+
+    @Benchmark
+    public byte[] javaSerialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(userProfileDTO);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object javaDeserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(javaSerialized))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] binaryCodecSerialize() {
+        return binarySerializer.serialize(userProfileDTO);
+    }
+
+    @Benchmark
+    public Object binaryCodecDeserialize() {
+        return binarySerializer.deserialize(binarySerialized);
+    }
+
+    @Benchmark
+    public byte[] jsonCodecSerialize() {
+        return jsonSerializer.serialize(userProfileDTO);
+    }
+
+    @Benchmark
+    public Object jsonCodecDeserialize() {
+        return jsonSerializer.deserialize(jsonSerialized);
+    }
+}
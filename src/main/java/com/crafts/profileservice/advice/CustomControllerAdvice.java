@@ -3,6 +3,7 @@ package com.crafts.profileservice.advice;
 import com.crafts.profileservice.exception.UserProfileBusinessException;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -17,6 +18,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import java.util.NoSuchElementException;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomControllerAdvice extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(UserProfileBusinessException.class)
@@ -0,0 +1,42 @@
+package com.crafts.profileservice.advice;
+
+import com.crafts.profileservice.advice.CustomControllerAdvice.ErrorResponse;
+import com.crafts.profileservice.exception.UserProfileBusinessException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.MethodNotAllowedException;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Error responses of the reactive API, identical to those of {@link CustomControllerAdvice}.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveControllerAdvice {
+
+    @ExceptionHandler(UserProfileBusinessException.class)
+    public ResponseEntity<String> handleUserProfileBusinessException(UserProfileBusinessException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<ErrorResponse> handleNoSuchElementException(NoSuchElementException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MethodNotAllowedException.class)
+    public ResponseEntity<Object> handleMethodNotAllowed(MethodNotAllowedException ex) {
+        return new ResponseEntity<>("Please change your HTTP method type", HttpStatus.METHOD_NOT_ALLOWED);
+    }
+}
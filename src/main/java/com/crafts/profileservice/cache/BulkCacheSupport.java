@@ -0,0 +1,124 @@
+package com.crafts.profileservice.cache;
+
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.spring.SSMCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Multi-key operations on Spring caches. Spring's {@link Cache} abstraction has no multi-get,
+ * so this looks through the decorators built in CacheConfig and issues a single memcached
+ * bulk get for every key the near cache could not answer. Unknown cache types fall back to
+ * one lookup per key. Hits and misses are reported to a {@link MeteredCache} in the chain.
+ * {@link #remoteKey} is the one definition of the memcached key of an entry, shared by this class,
+ * the reactive cache and the prefix SSM is configured with in CacheConfig.
+ */
+@Slf4j
+public final class BulkCacheSupport {
+
+    private BulkCacheSupport() {
+    }
+
+    public static <T> Map<String, T> getAll(Cache cache, Collection<String> keys, Class<T> type) {
+        Map<String, T> values = new HashMap<>();
+        if (cache == null || keys.isEmpty()) {
+            return values;
+        }
+        MeteredCache meteredCache = findMeteredCache(cache);
+        Cache target = unwrap(cache);
+        if (target instanceof TwoTierCache twoTierCache) {
+            List<String> nearMisses = new ArrayList<>();
+            for (String key : keys) {
+                T value = twoTierCache.getNearCache().get(key, type);
+                if (value != null) {
+                    values.put(key, value);
+                } else {
+                    nearMisses.add(key);
+                }
+            }
+            Map<String, T> remoteValues = getAllFromRemote(twoTierCache.getRemoteCache(), nearMisses, type, meteredCache);
+            remoteValues.forEach(twoTierCache.getNearCache()::put);
+            values.putAll(remoteValues);
+        } else {
+            values.putAll(getAllFromRemote(target, keys, type, meteredCache));
+        }
+        if (meteredCache != null) {
+            meteredCache.recordBulkGet(values.size(), keys.size() - values.size());
+        }
+        return values;
+    }
+
+    public static void putAll(Cache cache, Map<String, ?> values) {
+        if (cache != null) {
+            values.forEach(cache::put);
+        }
+    }
+
+    private static <T> Map<String, T> getAllFromRemote(Cache cache, Collection<String> keys, Class<T> type, MeteredCache meteredCache) {
+        Map<String, T> values = new HashMap<>();
+        if (keys.isEmpty()) {
+            return values;
+        }
+        if (cache instanceof SSMCache ssmCache && ssmCache.getCache().isEnabled()) {
+            try {
+                ssmCache.getCache().getBulk(keys, null).forEach((key, value) -> {
+                    if (type.isInstance(value)) {
+                        values.put(key, type.cast(value));
+                    }
+                });
+            } catch (TimeoutException | CacheException | RuntimeException e) {
+                // Treat the whole bulk as a miss, the caller loads from the database
+                log.warn("Bulk get of {} keys from cache {} failed: {}", keys.size(), cache.getName(), e.getMessage());
+                if (meteredCache != null) {
+                    meteredCache.recordError("getBulk");
+                }
+            }
+            return values;
+        }
+        for (String key : keys) {
+            T value = cache.get(key, type);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The key memcached stores an entry under: the SSM cache name, the configured separator and the
+     * cache key. SSM applies the same prefix to the keys of the blocking API, the reactive API applies
+     * it itself because it talks to the spymemcached client directly.
+     */
+    public static String remoteKey(SSMCache ssmCache, String separator, String key) {
+        return ssmCache.getCache().getName() + separator + key;
+    }
+
+    public static Cache unwrap(Cache cache) {
+        Cache target = cache;
+        while (true) {
+            if (target instanceof TransactionAwareCacheDecorator decorator) {
+                target = decorator.getTargetCache();
+            } else if (target instanceof MeteredCache meteredCache) {
+                target = meteredCache.getTargetCache();
+            } else {
+                return target;
+            }
+        }
+    }
+
+    public static MeteredCache findMeteredCache(Cache cache) {
+        Cache target = cache;
+        while (target instanceof TransactionAwareCacheDecorator decorator) {
+            target = decorator.getTargetCache();
+        }
+        return target instanceof MeteredCache meteredCache ? meteredCache : null;
+    }
+}
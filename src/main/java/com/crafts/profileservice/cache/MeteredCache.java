@@ -0,0 +1,148 @@
+package com.crafts.profileservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+import static com.crafts.profileservice.constans.MetricsConstants.*;
+
+/**
+ * Counts hits, misses and errors of the cache it decorates, tagged with the cache name.
+ * Errors are counted per operation and rethrown unchanged.
+ */
+public class MeteredCache implements Cache {
+
+    private final Cache targetCache;
+    private final Counter hits;
+    private final Counter misses;
+    private final MeterRegistry meterRegistry;
+
+    public MeteredCache(Cache targetCache, MeterRegistry meterRegistry) {
+        this.targetCache = targetCache;
+        this.meterRegistry = meterRegistry;
+        this.hits = gets("hit");
+        this.misses = gets("miss");
+    }
+
+    public Cache getTargetCache() {
+        return targetCache;
+    }
+
+    @Override
+    public String getName() {
+        return targetCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return targetCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        try {
+            return record(targetCache.get(key));
+        } catch (RuntimeException e) {
+            recordError("get");
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        try {
+            T value = targetCache.get(key, type);
+            (value != null ? hits : misses).increment();
+            return value;
+        } catch (RuntimeException e) {
+            recordError("get");
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            @SuppressWarnings("unchecked")
+            T cached = (T) value.get();
+            return cached;
+        }
+        try {
+            return targetCache.get(key, valueLoader);
+        } catch (RuntimeException e) {
+            recordError("get");
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        try {
+            targetCache.put(key, value);
+        } catch (RuntimeException e) {
+            recordError("put");
+            throw e;
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        try {
+            return targetCache.putIfAbsent(key, value);
+        } catch (RuntimeException e) {
+            recordError("put");
+            throw e;
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            targetCache.evict(key);
+        } catch (RuntimeException e) {
+            recordError("evict");
+            throw e;
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            targetCache.clear();
+        } catch (RuntimeException e) {
+            recordError("clear");
+            throw e;
+        }
+    }
+
+    /**
+     * Records the outcome of a multi-key lookup that bypassed {@link #get(Object)}.
+     */
+    public void recordBulkGet(int hitCount, int missCount) {
+        hits.increment(hitCount);
+        misses.increment(missCount);
+    }
+
+    public void recordError(String operation) {
+        Counter.builder(CACHE_ERRORS)
+                .tag(TAG_CACHE, getName())
+                .tag(TAG_OPERATION, operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private ValueWrapper record(ValueWrapper value) {
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    private Counter gets(String result) {
+        return Counter.builder(CACHE_GETS)
+                .tag(TAG_CACHE, getName())
+                .tag(TAG_RESULT, result)
+                .register(meterRegistry);
+    }
+}
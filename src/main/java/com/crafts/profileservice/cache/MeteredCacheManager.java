@@ -0,0 +1,38 @@
+package com.crafts.profileservice.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager} that decorates every cache of the target manager with a {@link MeteredCache}.
+ */
+public class MeteredCacheManager implements CacheManager {
+
+    private final CacheManager targetCacheManager;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, MeteredCache> caches = new ConcurrentHashMap<>();
+
+    public MeteredCacheManager(CacheManager targetCacheManager, MeterRegistry meterRegistry) {
+        this.targetCacheManager = targetCacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache targetCache = targetCacheManager.getCache(name);
+        if (targetCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(targetCache.getName(), targetName -> new MeteredCache(targetCache, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return targetCacheManager.getCacheNames();
+    }
+}
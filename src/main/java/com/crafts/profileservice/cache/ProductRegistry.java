@@ -0,0 +1,96 @@
+package com.crafts.profileservice.cache;
+
+import com.crafts.profileservice.entity.ProductRegistryEO;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.impl.ProductRegistryRepositoryImpl;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The product registry held in memory. Products are added every few months, so the whole table is
+ * loaded into an immutable snapshot that is replaced as a whole on refresh, and lookups never read
+ * DynamoDB. Until the first load succeeded no product is known and unknown products are not rejected,
+ * so a registry outage at startup does not stop profile creation. An empty registry is treated the
+ * same way, it is a missing or misconfigured table rather than a registry without products. Each
+ * instance holds its own snapshot and refreshes it on its own schedule.
+ */
+@Component
+@Slf4j
+public class ProductRegistry {
+
+    private final ProductRegistryRepositoryImpl productRegistryRepository;
+    private final AtomicReference<Map<String, ProductRegistryEO>> snapshot = new AtomicReference<>();
+
+    public ProductRegistry(ProductRegistryRepositoryImpl productRegistryRepository) {
+        this.productRegistryRepository = productRegistryRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (UserProfileRepositoryException e) {
+            log.error("Failed to load product registry, retrying on the next scheduled refresh", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${product.registry.refresh.interval.ms:300000}", fixedDelayString = "${product.registry.refresh.interval.ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (UserProfileRepositoryException e) {
+            log.error("Failed to refresh product registry, keeping the current snapshot", e);
+        }
+    }
+
+    /**
+     * Loads the registry and swaps it in. Concurrent lookups see either the old or the new snapshot.
+     * An empty registry drops the snapshot, so unknown products are not rejected until products are
+     * registered again.
+     *
+     * @return the number of registered products
+     */
+    public synchronized int refresh() {
+        Map<String, ProductRegistryEO> products = new HashMap<>();
+        for (ProductRegistryEO product : productRegistryRepository.findAll()) {
+            products.put(product.getProductId(), product);
+        }
+        if (products.isEmpty()) {
+            snapshot.set(null);
+            log.warn("Product registry is empty, products are not checked until products are registered");
+            return 0;
+        }
+        snapshot.set(Map.copyOf(products));
+        log.info("Loaded {} products from product registry", products.size());
+        return products.size();
+    }
+
+    public Optional<ProductRegistryEO> getProduct(String productId) {
+        Map<String, ProductRegistryEO> products = snapshot.get();
+        return products != null && productId != null ? Optional.ofNullable(products.get(productId)) : Optional.empty();
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the products that are not registered
+     */
+    public void requireRegistered(Collection<String> productIds) {
+        Map<String, ProductRegistryEO> products = snapshot.get();
+        if (products == null || productIds == null) {
+            return;
+        }
+        Set<String> unknownProductIds = new TreeSet<>();
+        for (String productId : productIds) {
+            if (productId == null || !products.containsKey(productId)) {
+                unknownProductIds.add(String.valueOf(productId));
+            }
+        }
+        if (!unknownProductIds.isEmpty()) {
+            throw new IllegalArgumentException("Unknown product: " + String.join(", ", unknownProductIds));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.crafts.profileservice.cache;
+
+import com.crafts.profileservice.cache.codec.SpymemcachedTranscoderAdapter;
+import com.crafts.profileservice.config.props.CachePropsConfig;
+import com.crafts.profileservice.constans.ProfileServiceCache;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.google.code.ssm.spring.SSMCache;
+import lombok.extern.slf4j.Slf4j;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.transcoders.Transcoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking access to the user profile and status caches for the reactive API. The near tier is
+ * read in place, memcached is read through the async API of the spymemcached client SSM created, so
+ * keys, node hashing and value encoding are shared with the blocking service. Errors and timeouts are
+ * treated as misses, puts and evictions are fire-and-forget.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveProfileCache {
+
+    private final CacheManager cacheManager;
+    private final CachePropsConfig cachePropsConfig;
+    private final Transcoder<Object> transcoder;
+
+    public ReactiveProfileCache(CacheManager cacheManager, CachePropsConfig cachePropsConfig) {
+        this.cacheManager = cacheManager;
+        this.cachePropsConfig = cachePropsConfig;
+        this.transcoder = SpymemcachedTranscoderAdapter.forCodec(cachePropsConfig.getCacheCodec());
+    }
+
+    public Mono<UserProfileDTO> get(String userId) {
+        return getAll(List.of(userId)).mapNotNull(profiles -> profiles.get(userId));
+    }
+
+    public Mono<Map<String, UserProfileDTO>> getAll(Collection<String> userIds) {
+        return getAll(ProfileServiceCache.USER_PROFILE_CACHE, userIds, UserProfileDTO.class);
+    }
+
+    public Mono<UserProfileValidationResultDTO> getStatus(String userId) {
+        return getAll(ProfileServiceCache.USER_PROFILE_STATUS_CACHE, List.of(userId), UserProfileValidationResultDTO.class)
+                .mapNotNull(statuses -> statuses.get(userId));
+    }
+
+    private <T> Mono<Map<String, T>> getAll(String cacheName, Collection<String> userIds, Class<T> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || userIds.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+        Cache target = BulkCacheSupport.unwrap(cache);
+        Cache nearCache = target instanceof TwoTierCache twoTierCache ? twoTierCache.getNearCache() : null;
+        Cache remoteCache = target instanceof TwoTierCache twoTierCache ? twoTierCache.getRemoteCache() : target;
+        MemcachedClient client = getNativeClient(remoteCache);
+        if (client == null) {
+            // Not backed by an enabled memcached cache, use the blocking lookup off the event loop
+            return Mono.fromCallable(() -> BulkCacheSupport.getAll(cache, userIds, type))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        MeteredCache meteredCache = BulkCacheSupport.findMeteredCache(cache);
+        Map<String, T> values = new HashMap<>();
+        List<String> nearMisses = new ArrayList<>();
+        for (String userId : userIds) {
+            T value = nearCache != null ? nearCache.get(userId, type) : null;
+            if (value != null) {
+                values.put(userId, value);
+            } else {
+                nearMisses.add(userId);
+            }
+        }
+        return getAllFromRemote(client, (SSMCache) remoteCache, nearMisses, type, meteredCache)
+                .map(remoteValues -> {
+                    if (nearCache != null) {
+                        remoteValues.forEach(nearCache::put);
+                    }
+                    values.putAll(remoteValues);
+                    if (meteredCache != null) {
+                        meteredCache.recordBulkGet(values.size(), userIds.size() - values.size());
+                    }
+                    return values;
+                });
+    }
+
+    public void put(String userId, UserProfileDTO userProfileDTO) {
+        put(ProfileServiceCache.USER_PROFILE_CACHE, userId, userProfileDTO);
+    }
+
+    public void evict(String userId) {
+        evict(ProfileServiceCache.USER_PROFILE_CACHE, userId);
+    }
+
+    /**
+     * Writes through to the status cache the blocking API serves polling from.
+     */
+    public void putStatus(UserProfileValidationResultDTO statusDTO) {
+        put(ProfileServiceCache.USER_PROFILE_STATUS_CACHE, statusDTO.getUserId(), statusDTO);
+    }
+
+    public void evictStatus(String userId) {
+        evict(ProfileServiceCache.USER_PROFILE_STATUS_CACHE, userId);
+    }
+
+    private void put(String cacheName, String userId, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        Cache target = BulkCacheSupport.unwrap(cache);
+        Cache remoteCache = target instanceof TwoTierCache twoTierCache ? twoTierCache.getRemoteCache() : target;
+        MemcachedClient client = getNativeClient(remoteCache);
+        if (client == null) {
+            Schedulers.boundedElastic().schedule(() -> cache.put(userId, value));
+            return;
+        }
+        try {
+            int expiration = ProfileServiceCache.USER_PROFILE_STATUS_CACHE.equals(cacheName)
+                    ? cachePropsConfig.getStatusExpiration() : cachePropsConfig.getExpiration();
+            client.set(getCacheKey((SSMCache) remoteCache, userId), expiration, value, transcoder);
+            if (target instanceof TwoTierCache twoTierCache) {
+                twoTierCache.getNearCache().put(userId, value);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache {} entry {}: {}", cacheName, userId, e.getMessage());
+            recordError(cache, "put");
+        }
+    }
+
+    private void evict(String cacheName, String userId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        Cache target = BulkCacheSupport.unwrap(cache);
+        Cache remoteCache = target instanceof TwoTierCache twoTierCache ? twoTierCache.getRemoteCache() : target;
+        MemcachedClient client = getNativeClient(remoteCache);
+        if (client == null) {
+            Schedulers.boundedElastic().schedule(() -> cache.evict(userId));
+            return;
+        }
+        try {
+            client.delete(getCacheKey((SSMCache) remoteCache, userId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict {} entry {}: {}", cacheName, userId, e.getMessage());
+            recordError(cache, "evict");
+        } finally {
+            if (target instanceof TwoTierCache twoTierCache) {
+                twoTierCache.getNearCache().evict(userId);
+            }
+        }
+    }
+
+    private <T> Mono<Map<String, T>> getAllFromRemote(MemcachedClient client, SSMCache ssmCache, List<String> userIds, Class<T> type,
+                                                      MeteredCache meteredCache) {
+        if (userIds.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+        Map<String, String> userIdsByCacheKey = new LinkedHashMap<>();
+        userIds.forEach(userId -> userIdsByCacheKey.put(getCacheKey(ssmCache, userId), userId));
+        return Mono.<Map<String, Object>>create(sink -> {
+                    BulkFuture<Map<String, Object>> future = client.asyncGetBulk(userIdsByCacheKey.keySet(), transcoder);
+                    sink.onCancel(() -> future.cancel(false));
+                    // The listener runs once all nodes answered, so get() does not block
+                    future.addListener(completed -> {
+                        try {
+                            sink.success(future.get());
+                        } catch (Exception e) {
+                            sink.error(e);
+                        }
+                    });
+                })
+                .timeout(Duration.ofMillis(cachePropsConfig.getOperationTimeout()))
+                .map(values -> {
+                    Map<String, T> typedValues = new HashMap<>();
+                    values.forEach((cacheKey, value) -> {
+                        if (type.isInstance(value)) {
+                            typedValues.put(userIdsByCacheKey.get(cacheKey), type.cast(value));
+                        }
+                    });
+                    return typedValues;
+                })
+                .onErrorResume(e -> {
+                    // Treat the whole bulk as a miss, the caller loads from the database
+                    log.warn("Async bulk get of {} keys from cache {} failed: {}", userIds.size(), ssmCache.getName(), e.toString());
+                    if (meteredCache != null) {
+                        meteredCache.recordError("getBulk");
+                    }
+                    return Mono.just(new HashMap<>());
+                });
+    }
+
+    private MemcachedClient getNativeClient(Cache cache) {
+        if (cache instanceof SSMCache ssmCache && ssmCache.getCache().isEnabled()
+                && ssmCache.getCache().getNativeClient() instanceof MemcachedClient client) {
+            return client;
+        }
+        return null;
+    }
+
+    private String getCacheKey(SSMCache ssmCache, String userId) {
+        return BulkCacheSupport.remoteKey(ssmCache, cachePropsConfig.getCacheKeySeparator(), userId);
+    }
+
+    private void recordError(Cache cache, String operation) {
+        MeteredCache meteredCache = BulkCacheSupport.findMeteredCache(cache);
+        if (meteredCache != null) {
+            meteredCache.recordError(operation);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.crafts.profileservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache with a bounded in-process near tier (L1) in front of a remote tier (L2, memcached).
+ * Reads are served from L1 when possible and back-filled from L2 on an L1 miss.
+ * Writes and evictions are applied to both tiers, L2 first, so that a failure on the
+ * remote tier never leaves a value in L1 that the remote tier does not know about.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache nearCache;
+    private final Cache remoteCache;
+
+    public TwoTierCache(Cache nearCache, Cache remoteCache) {
+        this.nearCache = nearCache;
+        this.remoteCache = remoteCache;
+    }
+
+    @Override
+    public String getName() {
+        return remoteCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    public Cache getNearCache() {
+        return nearCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper nearValue = nearCache.get(key);
+        if (nearValue != null) {
+            return nearValue;
+        }
+        ValueWrapper remoteValue = remoteCache.get(key);
+        if (remoteValue != null && remoteValue.get() != null) {
+            nearCache.put(key, remoteValue.get());
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null || value.get() == null) {
+            return null;
+        }
+        Object cached = value.get();
+        if (type != null && !type.isInstance(cached)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + cached);
+        }
+        return (T) cached;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        if (value != null) {
+            nearCache.put(key, value);
+        } else {
+            nearCache.evict(key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        // Always drop the near copy, even if the remote eviction fails
+        try {
+            remoteCache.evict(key);
+        } finally {
+            nearCache.evict(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            remoteCache.clear();
+        } finally {
+            nearCache.clear();
+        }
+    }
+}
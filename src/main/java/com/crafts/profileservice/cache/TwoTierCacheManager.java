@@ -0,0 +1,69 @@
+package com.crafts.profileservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Composite {@link CacheManager} that layers a bounded Caffeine near cache over every cache
+ * of the remote (memcached) cache manager. Near caches are keyed by the remote cache name so
+ * that aliases of the same remote cache share one near cache and are invalidated together.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final long nearCacheMaximumSize;
+    private final Duration nearCacheExpireAfterWrite;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, long nearCacheMaximumSize, Duration nearCacheExpireAfterWrite) {
+        this(remoteCacheManager, nearCacheMaximumSize, nearCacheExpireAfterWrite, null);
+    }
+
+    /**
+     * With a meter registry, near cache statistics are published as the standard {@code cache.*} meters
+     * tagged with {@code tier=near}.
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, long nearCacheMaximumSize, Duration nearCacheExpireAfterWrite,
+                               MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.nearCacheMaximumSize = nearCacheMaximumSize;
+        this.nearCacheExpireAfterWrite = nearCacheExpireAfterWrite;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(remoteCache.getName(), remoteName -> new TwoTierCache(createNearCache(remoteName), remoteCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private Cache createNearCache(String name) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaximumSize)
+                .expireAfterWrite(nearCacheExpireAfterWrite);
+        if (meterRegistry == null) {
+            return new CaffeineCache(name, builder.build(), false);
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = builder.recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, name, "tier", "near");
+        return new CaffeineCache(name, nativeCache, false);
+    }
+}
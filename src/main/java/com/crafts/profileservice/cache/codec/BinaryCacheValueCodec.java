@@ -0,0 +1,110 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.crafts.profileservice.dto.TaxIdentifiersDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static com.crafts.profileservice.cache.codec.BinaryCodecSupport.*;
+
+/**
+ * Schema-aware binary codec for the cached profile DTOs. Fields are written positionally in
+ * declaration order, so no field names or class descriptors end up in memcached.
+ * Any change to the field layout must bump {@link #SCHEMA_VERSION} and keep the old layout decodable.
+ */
+public class BinaryCacheValueCodec implements CacheValueCodec {
+
+    public static final byte CODEC_ID = 1;
+    static final byte SCHEMA_VERSION = 2;
+
+    private static final byte USER_PROFILE_TYPE = 1;
+
+    @Override
+    public byte getCodecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public byte getSchemaVersion() {
+        return SCHEMA_VERSION;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        return value instanceof UserProfileDTO;
+    }
+
+    @Override
+    public void encode(Object value, DataOutputStream out) throws IOException {
+        out.writeByte(USER_PROFILE_TYPE);
+        writeUserProfile(out, (UserProfileDTO) value);
+    }
+
+    @Override
+    public Object decode(DataInputStream in, byte schemaVersion) throws IOException {
+        if (schemaVersion < 1 || schemaVersion > SCHEMA_VERSION) {
+            throw new IOException("Unsupported binary cache schema version " + schemaVersion);
+        }
+        byte type = in.readByte();
+        if (type == USER_PROFILE_TYPE) {
+            return readUserProfile(in, schemaVersion);
+        }
+        throw new IOException("Unknown binary cache value type " + type);
+    }
+
+    private void writeUserProfile(DataOutputStream out, UserProfileDTO profile) throws IOException {
+        writeString(out, profile.getUserId());
+        writeString(out, profile.getIdempotencyKey());
+        writeString(out, profile.getProductId());
+        out.writeBoolean(profile.isCreateFlow());
+        writeString(out, profile.getCompanyName());
+        writeString(out, profile.getLegalName());
+        writeAddress(out, profile.getBusinessAddress());
+        writeAddress(out, profile.getLegalAddress());
+        if (writePresence(out, profile.getTaxIdentifiers())) {
+            writeString(out, profile.getTaxIdentifiers().getPan());
+            writeString(out, profile.getTaxIdentifiers().getEin());
+        }
+        writeString(out, profile.getEmail());
+        writeString(out, profile.getWebsite());
+        writeString(out, profile.getConsolidatedStatus());
+        writeString(out, profile.getConsolidatedMessage());
+        writeString(out, profile.getTimestamp());
+        writeStringList(out, profile.getSubscriptions());
+        writeStringList(out, profile.getExistingSubscriptions());
+        writeValidations(out, profile.getSubscriptionValidations());
+        if (writePresence(out, profile.getVersion())) {
+            out.writeLong(profile.getVersion());
+        }
+    }
+
+    private UserProfileDTO readUserProfile(DataInputStream in, byte schemaVersion) throws IOException {
+        UserProfileDTO profile = new UserProfileDTO();
+        profile.setUserId(readString(in));
+        profile.setIdempotencyKey(readString(in));
+        profile.setProductId(readString(in));
+        profile.setCreateFlow(in.readBoolean());
+        profile.setCompanyName(readString(in));
+        profile.setLegalName(readString(in));
+        profile.setBusinessAddress(readAddress(in));
+        profile.setLegalAddress(readAddress(in));
+        if (in.readBoolean()) {
+            profile.setTaxIdentifiers(new TaxIdentifiersDTO(readString(in), readString(in)));
+        }
+        profile.setEmail(readString(in));
+        profile.setWebsite(readString(in));
+        profile.setConsolidatedStatus(readString(in));
+        profile.setConsolidatedMessage(readString(in));
+        profile.setTimestamp(readString(in));
+        profile.setSubscriptions(readStringList(in));
+        profile.setExistingSubscriptions(readStringList(in));
+        profile.setSubscriptionValidations(readValidations(in));
+        // Version 1 entries predate the version attribute
+        if (schemaVersion >= 2 && in.readBoolean()) {
+            profile.setVersion(in.readLong());
+        }
+        return profile;
+    }
+}
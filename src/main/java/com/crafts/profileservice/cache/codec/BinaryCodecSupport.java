@@ -0,0 +1,143 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.crafts.profileservice.dto.AddressDTO;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoders shared by the binary cache and event codecs. Lengths are written as unsigned varints,
+ * nullable values use {@code length + 1} so that {@code 0} encodes {@code null}.
+ */
+public final class BinaryCodecSupport {
+
+    private BinaryCodecSupport() {
+    }
+
+    public static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeStringList(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, values.size() + 1);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    public static List<String> readStringList(DataInputStream in) throws IOException {
+        int size = readVarInt(in);
+        if (size == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    public static boolean writePresence(DataOutputStream out, Object value) throws IOException {
+        out.writeBoolean(value != null);
+        return value != null;
+    }
+
+    public static void writeAddress(DataOutputStream out, AddressDTO address) throws IOException {
+        if (writePresence(out, address)) {
+            writeString(out, address.getLine1());
+            writeString(out, address.getLine2());
+            writeString(out, address.getCity());
+            writeString(out, address.getState());
+            writeString(out, address.getZip());
+            writeString(out, address.getCountry());
+        }
+    }
+
+    public static AddressDTO readAddress(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new AddressDTO(readString(in), readString(in), readString(in), readString(in), readString(in), readString(in));
+    }
+
+    public static void writeValidations(DataOutputStream out, Map<String, ProductValidationStatus> validations) throws IOException {
+        if (validations == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, validations.size() + 1);
+        for (Map.Entry<String, ProductValidationStatus> entry : validations.entrySet()) {
+            writeString(out, entry.getKey());
+            if (writePresence(out, entry.getValue())) {
+                writeString(out, entry.getValue().getStatus());
+                writeStringList(out, entry.getValue().getErrors());
+            }
+        }
+    }
+
+    public static Map<String, ProductValidationStatus> readValidations(DataInputStream in) throws IOException {
+        int size = readVarInt(in);
+        if (size == 0) {
+            return null;
+        }
+        Map<String, ProductValidationStatus> validations = new HashMap<>();
+        for (int i = 0; i < size - 1; i++) {
+            String productId = readString(in);
+            ProductValidationStatus status = null;
+            if (in.readBoolean()) {
+                String value = readString(in);
+                List<String> errors = readStringList(in);
+                status = new ProductValidationStatus(value, errors != null ? errors : new ArrayList<>());
+            }
+            validations.put(productId, status);
+        }
+        return validations;
+    }
+}
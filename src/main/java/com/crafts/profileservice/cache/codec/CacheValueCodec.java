@@ -0,0 +1,23 @@
+package com.crafts.profileservice.cache.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes cache values into the payload stored in memcached. Every payload is prefixed by
+ * {@link CodecCacheTranscoder} with the codec id and the schema version it was written with,
+ * so a codec must keep decoding every schema version it has ever written.
+ */
+public interface CacheValueCodec {
+
+    byte getCodecId();
+
+    byte getSchemaVersion();
+
+    boolean supports(Object value);
+
+    void encode(Object value, DataOutputStream out) throws IOException;
+
+    Object decode(DataInputStream in, byte schemaVersion) throws IOException;
+}
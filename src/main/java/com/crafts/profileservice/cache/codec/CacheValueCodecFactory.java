@@ -0,0 +1,27 @@
+package com.crafts.profileservice.cache.codec;
+
+/**
+ * Resolves the configured cache codec by name.
+ */
+public final class CacheValueCodecFactory {
+
+    public static final String BINARY = "binary";
+    public static final String JSON = "json";
+
+    private CacheValueCodecFactory() {
+    }
+
+    public static CacheValueCodec getCodec(String name) {
+        if (JSON.equalsIgnoreCase(name)) {
+            return new JsonCacheValueCodec();
+        }
+        if (name == null || BINARY.equalsIgnoreCase(name)) {
+            return new BinaryCacheValueCodec();
+        }
+        throw new IllegalArgumentException("Unknown cache codec: " + name);
+    }
+
+    public static CacheValueSerializer getSerializer(String name) {
+        return new CacheValueSerializer(getCodec(name), new JsonCacheValueCodec());
+    }
+}
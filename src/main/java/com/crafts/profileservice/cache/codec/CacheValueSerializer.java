@@ -0,0 +1,99 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.crafts.profileservice.exception.CacheCodecException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Turns cache values into memcached payloads and back.
+ * <p>
+ * Layout: {@code [MAGIC][codec id][schema version][codec payload]}. Values the preferred codec
+ * cannot handle are written with the fallback codec. Entries written before the codecs were
+ * introduced (plain or gzipped Java serialization) are still decoded, restricted to the DTO package.
+ */
+public class CacheValueSerializer {
+
+    static final byte MAGIC = (byte) 0xC5;
+
+    private static final byte JAVA_STREAM_MAGIC_0 = (byte) 0xAC;
+    private static final byte JAVA_STREAM_MAGIC_1 = (byte) 0xED;
+    private static final byte GZIP_MAGIC_0 = (byte) 0x1F;
+    private static final byte GZIP_MAGIC_1 = (byte) 0x8B;
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+            "com.crafts.profileservice.dto.*;java.lang.*;java.util.*;!*");
+
+    private final CacheValueCodec preferredCodec;
+    private final CacheValueCodec fallbackCodec;
+    private final Map<Byte, CacheValueCodec> codecsById;
+
+    public CacheValueSerializer(CacheValueCodec preferredCodec, CacheValueCodec fallbackCodec) {
+        this.preferredCodec = preferredCodec;
+        this.fallbackCodec = fallbackCodec;
+        this.codecsById = Stream.of(new BinaryCacheValueCodec(), new JsonCacheValueCodec(), preferredCodec, fallbackCodec)
+                .collect(Collectors.toMap(CacheValueCodec::getCodecId, Function.identity(), (first, second) -> second));
+    }
+
+    public byte[] serialize(Object value) {
+        CacheValueCodec codec = preferredCodec.supports(value) ? preferredCodec : fallbackCodec;
+        if (!codec.supports(value)) {
+            throw new CacheCodecException("No cache codec supports value of type " + (value == null ? null : value.getClass().getName()));
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(codec.getCodecId());
+            out.writeByte(codec.getSchemaVersion());
+            codec.encode(value, out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new CacheCodecException("Failed to encode cache value", e);
+        }
+    }
+
+    public Object deserialize(byte[] data) {
+        if (data == null || data.length < 2) {
+            return null;
+        }
+        try {
+            if (data[0] == GZIP_MAGIC_0 && data[1] == GZIP_MAGIC_1) {
+                return readLegacy(new GZIPInputStream(new ByteArrayInputStream(data)));
+            }
+            if (data[0] == JAVA_STREAM_MAGIC_0 && data[1] == JAVA_STREAM_MAGIC_1) {
+                return readLegacy(new ByteArrayInputStream(data));
+            }
+            if (data[0] != MAGIC || data.length < 3) {
+                throw new CacheCodecException("Unrecognised cache value format");
+            }
+            CacheValueCodec codec = codecsById.get(data[1]);
+            if (codec == null) {
+                throw new CacheCodecException("Unknown cache codec id " + data[1]);
+            }
+            return codec.decode(new DataInputStream(new ByteArrayInputStream(data, 3, data.length - 3)), data[2]);
+        } catch (IOException e) {
+            throw new CacheCodecException("Failed to decode cache value", e);
+        }
+    }
+
+    private Object readLegacy(InputStream inputStream) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(inputStream)) {
+            in.setObjectInputFilter(LEGACY_FILTER);
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in legacy cache value", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+
+/**
+ * SSM custom transcoder backed by {@link CacheValueSerializer}.
+ */
+public class CodecCacheTranscoder implements CacheTranscoder {
+
+    // Flag bit outside of the range used by the spymemcached serializing transcoder
+    static final int CODEC_FLAG = 1 << 8;
+
+    private final CacheValueSerializer cacheValueSerializer;
+
+    public CodecCacheTranscoder(CacheValueSerializer cacheValueSerializer) {
+        this.cacheValueSerializer = cacheValueSerializer;
+    }
+
+    @Override
+    public Object decode(CachedObject data) {
+        return cacheValueSerializer.deserialize(data.getData());
+    }
+
+    @Override
+    public CachedObject encode(Object value) {
+        return new CachedObjectImpl(CODEC_FLAG, cacheValueSerializer.serialize(value));
+    }
+}
@@ -0,0 +1,57 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.crafts.profileservice.util.JsonUtil;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static com.crafts.profileservice.cache.codec.BinaryCodecSupport.readString;
+import static com.crafts.profileservice.cache.codec.BinaryCodecSupport.writeString;
+
+/**
+ * JSON codec used for values the binary codec has no schema for. The payload carries the value
+ * class name, which is restricted to this service's DTO package on decode.
+ */
+public class JsonCacheValueCodec implements CacheValueCodec {
+
+    public static final byte CODEC_ID = 2;
+    static final byte SCHEMA_VERSION = 1;
+
+    private static final String ALLOWED_PACKAGE = "com.crafts.profileservice.dto.";
+
+    @Override
+    public byte getCodecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public byte getSchemaVersion() {
+        return SCHEMA_VERSION;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        return value != null && value.getClass().getName().startsWith(ALLOWED_PACKAGE);
+    }
+
+    @Override
+    public void encode(Object value, DataOutputStream out) throws IOException {
+        writeString(out, value.getClass().getName());
+        out.write(JsonUtil.writeToJson(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object decode(DataInputStream in, byte schemaVersion) throws IOException {
+        String className = readString(in);
+        if (className == null || !className.startsWith(ALLOWED_PACKAGE)) {
+            throw new IOException("Cached JSON value type is not allowed: " + className);
+        }
+        try {
+            return JsonUtil.readValue(new String(in.readAllBytes(), StandardCharsets.UTF_8), Class.forName(className));
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown cached JSON value type " + className, e);
+        }
+    }
+}
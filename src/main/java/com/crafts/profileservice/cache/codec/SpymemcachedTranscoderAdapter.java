@@ -0,0 +1,54 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import net.spy.memcached.CachedData;
+import net.spy.memcached.transcoders.Transcoder;
+
+/**
+ * Exposes the SSM transcoder configured for the profile cache as a spymemcached {@link Transcoder},
+ * so entries read or written with the native client are byte-compatible with those of SSM.
+ */
+public class SpymemcachedTranscoderAdapter implements Transcoder<Object> {
+
+    private static final String JAVA_CODEC = "java";
+
+    private final CacheTranscoder cacheTranscoder;
+
+    public SpymemcachedTranscoderAdapter(CacheTranscoder cacheTranscoder) {
+        this.cacheTranscoder = cacheTranscoder;
+    }
+
+    /**
+     * Adapter for the transcoder SSM uses with the given {@code cache.codec} setting.
+     */
+    public static SpymemcachedTranscoderAdapter forCodec(String codecName) {
+        if (JAVA_CODEC.equalsIgnoreCase(codecName)) {
+            return new SpymemcachedTranscoderAdapter(new JavaTranscoder());
+        }
+        return new SpymemcachedTranscoderAdapter(new CodecCacheTranscoder(CacheValueCodecFactory.getSerializer(codecName)));
+    }
+
+    @Override
+    public boolean asyncDecode(CachedData data) {
+        return false;
+    }
+
+    @Override
+    public CachedData encode(Object value) {
+        CachedObject cachedObject = cacheTranscoder.encode(value);
+        return new CachedData(cachedObject.getFlags(), cachedObject.getData(), getMaxSize());
+    }
+
+    @Override
+    public Object decode(CachedData data) {
+        return cacheTranscoder.decode(new CachedObjectImpl(data.getFlags(), data.getData()));
+    }
+
+    @Override
+    public int getMaxSize() {
+        return CachedData.MAX_SIZE;
+    }
+}
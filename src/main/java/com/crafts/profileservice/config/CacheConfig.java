@@ -1,5 +1,9 @@
 package com.crafts.profileservice.config;
 
+import com.crafts.profileservice.cache.MeteredCacheManager;
+import com.crafts.profileservice.cache.TwoTierCacheManager;
+import com.crafts.profileservice.cache.codec.CacheValueCodecFactory;
+import com.crafts.profileservice.cache.codec.CodecCacheTranscoder;
 import com.crafts.profileservice.config.props.CachePropsConfig;
 import com.crafts.profileservice.constans.ServiceConstants;
 import com.google.code.ssm.CacheFactory;
@@ -10,6 +14,7 @@ import com.google.code.ssm.providers.spymemcached.SpymemcachedConfiguration;
 import com.google.code.ssm.spring.ExtendedSSMCacheManager;
 import com.google.code.ssm.spring.SSMCache;
 import com.google.code.ssm.spring.SSMCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.spy.memcached.MemcachedClient;
 import net.spy.memcached.spring.MemcachedClientFactoryBean;
@@ -23,49 +28,60 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.DependsOn;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 import static com.crafts.profileservice.constans.ProfileServiceCache.USER_PROFILE_CACHE;
+import static com.crafts.profileservice.constans.ProfileServiceCache.USER_PROFILE_STATUS_CACHE;
 
 @Configuration
 @EnableCaching
 @Slf4j
 public class CacheConfig {
 
+    private static final String JAVA_CODEC = "java";
+
     @Autowired
     private CachePropsConfig cachePropsConfig;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean("profileServiceCacheFactory")
     public CacheFactory getCacheFactory() {
-        CacheFactory cacheFactory = new CacheFactory();
-        cacheFactory.setCacheClientFactory(new MemcacheClientFactoryImpl());
-        cacheFactory.setAddressProvider(new DefaultAddressProvider(cachePropsConfig.getMemcacheServers()));
-        SpymemcachedConfiguration cacheConfiguration = new SpymemcachedConfiguration();
-        cacheConfiguration.setConsistentHashing(ServiceConstants.TRUE);
-        cacheConfiguration.setUseBinaryProtocol(ServiceConstants.FALSE);
-        cacheConfiguration.setOperationTimeout(cachePropsConfig.getOperationTimeout());
-        cacheConfiguration.setTimeoutExceptionThreshold(cachePropsConfig.getTimoutExceptionThreshold());
-        cacheConfiguration.setUseNameAsKeyPrefix(ServiceConstants.TRUE);
-        log.error("****************************** Cache Key prefix saparator = {}", cachePropsConfig.getCacheKeySeparator());
-        cacheConfiguration.setKeyPrefixSeparator(cachePropsConfig.getCacheKeySeparator());
-        cacheFactory.setDefaultSerializationType(SerializationType.JAVA);
-        cacheFactory.setCacheName(ServiceConstants.PROFILE_SERVICE_CACHE);
-        cacheFactory.setCacheAliases(Collections.singleton(USER_PROFILE_CACHE));
-        cacheFactory.setConfiguration(cacheConfiguration);
-        return cacheFactory;
+        return createCacheFactory(ServiceConstants.PROFILE_SERVICE_CACHE, USER_PROFILE_CACHE);
+    }
+
+    /**
+     * Separate SSM cache for the polled validation status. SSM prefixes keys with the cache name,
+     * so an alias of the profile cache would store both values under the same key.
+     */
+    @Bean("profileStatusCacheFactory")
+    public CacheFactory getStatusCacheFactory() {
+        return createCacheFactory(ServiceConstants.PROFILE_STATUS_CACHE, USER_PROFILE_STATUS_CACHE);
     }
 
     @Bean("cacheManager")
-    @DependsOn("profileServiceCacheFactory")
+    @DependsOn({"profileServiceCacheFactory", "profileStatusCacheFactory"})
     @RefreshScope
-    public CacheManager getCacheManager(@Qualifier("profileServiceCacheFactory") CacheFactory profileServiceCacheFactory)
+    public CacheManager getCacheManager(@Qualifier("profileServiceCacheFactory") CacheFactory profileServiceCacheFactory,
+                                        @Qualifier("profileStatusCacheFactory") CacheFactory profileStatusCacheFactory)
             throws Exception {
         SSMCacheManager ssmCacheManager = new ExtendedSSMCacheManager();
         SSMCache ssmCache = new SSMCache(profileServiceCacheFactory.getObject(), cachePropsConfig.getExpiration(), ServiceConstants.FALSE, ServiceConstants.TRUE,
                 cachePropsConfig.isMuteException());
-        ssmCacheManager.setCaches(Collections.singleton(ssmCache));
+        SSMCache statusSsmCache = new SSMCache(profileStatusCacheFactory.getObject(), cachePropsConfig.getStatusExpiration(), ServiceConstants.FALSE, ServiceConstants.TRUE,
+                cachePropsConfig.isMuteException());
+        ssmCacheManager.setCaches(List.of(ssmCache, statusSsmCache));
         ssmCacheManager.afterPropertiesSet();
-        return new TransactionAwareCacheManagerProxy(ssmCacheManager);
+        if (!cachePropsConfig.isNearCacheEnabled()) {
+            return new TransactionAwareCacheManagerProxy(new MeteredCacheManager(ssmCacheManager, meterRegistry));
+        }
+        // Hot profiles are served from a bounded in-process tier, memcached remains the shared tier
+        CacheManager twoTierCacheManager = new TwoTierCacheManager(ssmCacheManager, cachePropsConfig.getNearCacheMaxSize(),
+                Duration.ofSeconds(cachePropsConfig.getNearCacheExpireAfterWriteSeconds()), meterRegistry);
+        return new TransactionAwareCacheManagerProxy(new MeteredCacheManager(twoTierCacheManager, meterRegistry));
     }
 
     @Bean
@@ -82,4 +98,31 @@ public class CacheConfig {
         return clientFactoryBean;
     }
 
+    private CacheFactory createCacheFactory(String cacheName, String alias) {
+        CacheFactory cacheFactory = new CacheFactory();
+        cacheFactory.setCacheClientFactory(new MemcacheClientFactoryImpl());
+        cacheFactory.setAddressProvider(new DefaultAddressProvider(cachePropsConfig.getMemcacheServers()));
+        SpymemcachedConfiguration cacheConfiguration = new SpymemcachedConfiguration();
+        cacheConfiguration.setConsistentHashing(ServiceConstants.TRUE);
+        cacheConfiguration.setUseBinaryProtocol(ServiceConstants.FALSE);
+        cacheConfiguration.setOperationTimeout(cachePropsConfig.getOperationTimeout());
+        cacheConfiguration.setTimeoutExceptionThreshold(cachePropsConfig.getTimoutExceptionThreshold());
+        // Keys are BulkCacheSupport.remoteKey, the reactive cache builds the same keys for the native client
+        cacheConfiguration.setUseNameAsKeyPrefix(ServiceConstants.TRUE);
+        log.error("****************************** Cache Key prefix saparator = {}", cachePropsConfig.getCacheKeySeparator());
+        cacheConfiguration.setKeyPrefixSeparator(cachePropsConfig.getCacheKeySeparator());
+        if (JAVA_CODEC.equalsIgnoreCase(cachePropsConfig.getCacheCodec())) {
+            cacheFactory.setDefaultSerializationType(SerializationType.JAVA);
+        } else {
+            // Compact codec payloads, entries written with Java serialization remain readable
+            cacheFactory.setDefaultSerializationType(SerializationType.CUSTOM);
+            cacheFactory.setCustomTranscoder(new CodecCacheTranscoder(
+                    CacheValueCodecFactory.getSerializer(cachePropsConfig.getCacheCodec())));
+        }
+        cacheFactory.setCacheName(cacheName);
+        cacheFactory.setCacheAliases(Collections.singleton(alias));
+        cacheFactory.setConfiguration(cacheConfiguration);
+        return cacheFactory;
+    }
+
 }
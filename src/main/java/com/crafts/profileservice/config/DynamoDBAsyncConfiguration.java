@@ -0,0 +1,52 @@
+package com.crafts.profileservice.config;
+
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
+import com.crafts.profileservice.config.secrets.DatabaseSecretConfig;
+import com.crafts.profileservice.metrics.DynamoDBAsyncMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+
+import java.net.URI;
+
+/**
+ * Non-blocking DynamoDB client for the reactive API. It talks to the same endpoint with the same
+ * credentials as the v1 client, over Netty, so a few event loop threads serve all in-flight calls.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class DynamoDBAsyncConfiguration {
+
+    @Autowired
+    private DatabaseSecretConfig databaseSecretConfig;
+
+    @Autowired
+    private DynamoDBPropsConfig dynamoDBPropsConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean(destroyMethod = "close")
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        return DynamoDbAsyncClient.builder()
+                .endpointOverride(URI.create(databaseSecretConfig.getAwsDynamoDbServiceEndpoint()))
+                .region(Region.of(databaseSecretConfig.getAwsDynamoDbServiceSigningRegion()))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                        databaseSecretConfig.getAwsDynamoDbServiceAccesKey(),
+                        databaseSecretConfig.getAwsDynamoDbServiceSecretKey())))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(dynamoDBPropsConfig.getMaxConnections()))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(new DynamoDBAsyncMetricsInterceptor(meterRegistry))
+                        .build())
+                .build();
+    }
+}
@@ -1,12 +1,17 @@
 package com.crafts.profileservice.config;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
 import com.crafts.profileservice.config.secrets.DatabaseSecretConfig;
+import com.crafts.profileservice.metrics.DynamoDBMetricsRequestHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,12 +21,21 @@ public class DynamoDBConfiguration {
 
     @Bean
     public DynamoDBMapper dynamoDBMapper() {
-        return new DynamoDBMapper(buildAmazonDynamoDB());
+        // The repositories that use the clients directly apply the same prefix
+        return new DynamoDBMapper(buildAmazonDynamoDB(), DynamoDBMapperConfig.builder()
+                .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNamePrefix(dynamoDBPropsConfig.getTableNamePrefix()))
+                .build());
     }
 
     @Autowired
     private DatabaseSecretConfig databaseSecretConfig;
 
+    @Autowired
+    private DynamoDBPropsConfig dynamoDBPropsConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public AmazonDynamoDB buildAmazonDynamoDB() {
         return AmazonDynamoDBClientBuilder.standard()
@@ -30,6 +44,9 @@ public class DynamoDBConfiguration {
                         databaseSecretConfig.getAwsDynamoDbServiceSigningRegion()))
                 .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(
                         databaseSecretConfig.getAwsDynamoDbServiceAccesKey(),
-                        databaseSecretConfig.getAwsDynamoDbServiceSecretKey()))).build();
+                        databaseSecretConfig.getAwsDynamoDbServiceSecretKey())))
+                .withClientConfiguration(new ClientConfiguration().withMaxConnections(dynamoDBPropsConfig.getMaxConnections()))
+                .withRequestHandlers(new DynamoDBMetricsRequestHandler(meterRegistry))
+                .build();
     }
 }
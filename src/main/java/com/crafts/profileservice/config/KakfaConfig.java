@@ -1,25 +1,36 @@
 package com.crafts.profileservice.config;
 
 import com.crafts.profileservice.config.props.KafkaPropsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import lombok.Getter;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.util.StringUtils;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @Getter
 public class KakfaConfig {
 
+    static final String THROUGHPUT_PROFILE = "throughput";
+
     @Autowired
     private KafkaPropsConfig kafkaPropsConfig;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public Map<String, Object> getKafkaTemplate() {
         Map<String, Object> props = new HashMap<>();
@@ -33,11 +44,13 @@ public class KakfaConfig {
     }
 
     @Bean(name = "userProfileSubmissionKafkaTemplate")
-    public KafkaTemplate<String, String> userProfileSubmissionKafkaTemplate() {
+    public KafkaTemplate<String, byte[]> userProfileSubmissionKafkaTemplate() {
         Map<String, Object> props = getKafkaTemplate();
+        // JSON or binary, see ProfileEventSerializer
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaPropsConfig.getBootstrapServers());
         props.put(ConsumerConfig.GROUP_ID_CONFIG, kafkaPropsConfig.getUpsConsumerGroupId());
-        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        return newKafkaTemplate(props, "userProfileSubmissionKafkaTemplate");
     }
 
     @Bean(name = "userProfileValidationResultKafkaTemplate")
@@ -45,6 +58,46 @@ public class KakfaConfig {
         Map<String, Object> props = getKafkaTemplate();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaPropsConfig.getBootstrapServers());
         props.put(ConsumerConfig.GROUP_ID_CONFIG, kafkaPropsConfig.getUpvConsumerGroupId());
-        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        return newKafkaTemplate(props, "userProfileValidationResultKafkaTemplate");
+    }
+
+    /**
+     * Applies the partitioning and the selected producer profile, and binds the producer's own
+     * metrics (batch size, compression rate, record send rate, buffer usage) to the meter registry
+     * tagged with the template, so the effect of a profile can be compared on the dashboards.
+     */
+    private <V> KafkaTemplate<String, V> newKafkaTemplate(Map<String, Object> props, String templateName) {
+        props.putAll(getProducerProfile(kafkaPropsConfig));
+        DefaultKafkaProducerFactory<String, V> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of("template", templateName))));
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * The throughput profile trades a few milliseconds of latency for fewer, larger and compressed
+     * batches. The producer is idempotent, so the Kafka client's own retries within the five in-flight
+     * requests neither duplicate nor reorder the events of a user. That does not cover the
+     * {@code kafka-producer-retry} of {@link com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer},
+     * which re-sends a failed event as a new record, so an event can still be duplicated or overtaken
+     * by a later event of the same user, consumers apply results idempotently.
+     */
+    static Map<String, Object> getProducerProfile(KafkaPropsConfig kafkaPropsConfig) {
+        Map<String, Object> props = new HashMap<>();
+        if (!kafkaPropsConfig.isProducerPartitionByKey()) {
+            props.put(ProducerConfig.PARTITIONER_IGNORE_KEYS_CONFIG, true);
+        }
+        if (StringUtils.hasText(kafkaPropsConfig.getProducerPartitionerClass())) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, kafkaPropsConfig.getProducerPartitionerClass());
+        }
+        if (THROUGHPUT_PROFILE.equalsIgnoreCase(kafkaPropsConfig.getProducerProfile())) {
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+            props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, kafkaPropsConfig.getProducerThroughputCompressionType());
+            props.put(ProducerConfig.LINGER_MS_CONFIG, kafkaPropsConfig.getProducerThroughputLingerMs());
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaPropsConfig.getProducerThroughputBatchSize());
+            props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, kafkaPropsConfig.getProducerThroughputBufferMemory());
+        }
+        return props;
     }
 }
@@ -0,0 +1,65 @@
+package com.crafts.profileservice.config;
+
+import com.crafts.profileservice.config.props.VirtualThreadPropsConfig;
+import com.crafts.profileservice.metrics.VirtualThreadPinningMonitor;
+import com.crafts.profileservice.util.VirtualThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opt-in mode that runs every request on its own virtual thread instead of Tomcat's worker pool.
+ * Controllers, the service, DynamoDB, memcached and Kafka calls all run on the request thread, so
+ * blocking on them parks a virtual thread instead of holding a platform thread. Concurrency is then
+ * bounded by Tomcat's max connections and the DynamoDB connection pool rather than the thread count.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "server.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Autowired
+    private VirtualThreadPropsConfig virtualThreadPropsConfig;
+
+    private final Optional<ExecutorService> requestExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        if (requestExecutor.isEmpty()) {
+            log.warn("Virtual threads requested but not supported on Java {}, requests stay on the Tomcat worker pool", Runtime.version());
+            return protocolHandler -> {
+            };
+        }
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor.get());
+    }
+
+    /**
+     * Only on runtimes where virtual threads are final, older runtimes never emit the pinning event
+     * and the recording would only cost overhead.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(virtualThreadPropsConfig.getPinnedThresholdMs()));
+    }
+
+    /**
+     * Tomcat has stopped by now, so the executor has no new requests to accept.
+     */
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.ifPresent(ExecutorService::shutdown);
+    }
+}
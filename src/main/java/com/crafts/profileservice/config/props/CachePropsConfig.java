@@ -21,6 +21,9 @@ public class CachePropsConfig {
     @Value("${cache.timeout}")
     private int expiration;
 
+    @Value("${cache.status.timeout:300}")
+    private int statusExpiration;
+
     @Value("${cache.exception.threshold.timeout}")
     private int timoutExceptionThreshold;
 
@@ -29,4 +32,16 @@ public class CachePropsConfig {
 
     @Value("${cache.key.separator}")
     private String cacheKeySeparator;
+
+    @Value("${cache.codec:binary}")
+    private String cacheCodec;
+
+    @Value("${cache.near.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${cache.near.max.size:10000}")
+    private long nearCacheMaxSize;
+
+    @Value("${cache.near.expire.after.write.seconds:5}")
+    private long nearCacheExpireAfterWriteSeconds;
 }
@@ -0,0 +1,32 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class DynamoDBPropsConfig {
+
+    // Upper bound on concurrent DynamoDB calls, size it to the request concurrency when virtual threads are enabled
+    @Value("${aws.dynamoDB.max-connections:50}")
+    private int maxConnections;
+
+    // Threads writing the profiles of a bulk import in parallel, each holds a connection while it writes
+    @Value("${aws.dynamoDB.bulk-write-threads:8}")
+    private int bulkWriteThreads;
+
+    // Prepended to every table name, e.g. to keep the tables of several environments in one account
+    @Value("${aws.dynamoDB.table-name-prefix:}")
+    private String tableNamePrefix;
+
+    // Also checks new idempotency keys on the idempotencyKey GSI, one query per create outside the
+    // transaction. Switch it on only until the markers of profiles created before markers existed are
+    // backfilled, see IdempotencyMarkerMigration
+    @Value("${aws.dynamoDB.idempotency-index-fallback-enabled:false}")
+    private boolean idempotencyIndexFallbackEnabled;
+}
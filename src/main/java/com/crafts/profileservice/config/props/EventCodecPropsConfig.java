@@ -0,0 +1,23 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class EventCodecPropsConfig {
+
+    // "json" or "binary", consumers read both so producers can be switched once consumers are upgraded
+    @Value("${event.encoding:json}")
+    private String encoding;
+
+    // Local stand-in for a schema registry, only used for binary events. Point it to storage all
+    // instances share before switching to binary, or they assign the same id to different schemas
+    @Value("${event.schema.registry.file:event-schemas.json}")
+    private String schemaRegistryFile;
+}
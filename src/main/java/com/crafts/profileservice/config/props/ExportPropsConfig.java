@@ -0,0 +1,25 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class ExportPropsConfig {
+
+    // Segments scanned in parallel when the request does not ask for a number
+    @Value("${export.segments:4}")
+    private int segments;
+
+    @Value("${export.max.segments:64}")
+    private int maxSegments;
+
+    // Items read per Scan page, at most two pages per segment are held in memory
+    @Value("${export.page.size:200}")
+    private int pageSize;
+}
@@ -0,0 +1,21 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class ImportPropsConfig {
+
+    // Lines handled per import chunk, bounds the memory of a streaming import
+    @Value("${import.chunk.size:500}")
+    private int chunkSize;
+
+    @Value("${import.send.timeout.ms:30000}")
+    private long sendTimeoutMs;
+}
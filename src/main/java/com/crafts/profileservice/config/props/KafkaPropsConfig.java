@@ -44,4 +44,37 @@ public class KafkaPropsConfig {
     @Value("${spring.kafka.user.profile.validation.result.topic}")
     private String userProfileValidationResultTopic;
 
+    @Value("${spring.kafka.producer.max.in.flight.records:1000}")
+    private int producerMaxInFlightRecords;
+
+    @Value("${spring.kafka.producer.in.flight.acquire.timeout.ms:50}")
+    private long producerInFlightAcquireTimeoutMs;
+
+    @Value("${spring.kafka.producer.callback.threads:4}")
+    private int producerCallbackThreads;
+
+    // Events are keyed by userId and partitioned by the key hash, false spreads them over partitions without per user order
+    @Value("${spring.kafka.producer.partition.by.key:true}")
+    private boolean producerPartitionByKey;
+
+    // Optional custom partitioner, replaces the key hash when set
+    @Value("${spring.kafka.producer.partitioner.class:}")
+    private String producerPartitionerClass;
+
+    // "default" keeps the client defaults, "throughput" batches and compresses with an idempotent producer
+    @Value("${spring.kafka.producer.profile:default}")
+    private String producerProfile;
+
+    @Value("${spring.kafka.producer.throughput.compression.type:lz4}")
+    private String producerThroughputCompressionType;
+
+    @Value("${spring.kafka.producer.throughput.linger.ms:20}")
+    private int producerThroughputLingerMs;
+
+    @Value("${spring.kafka.producer.throughput.batch.size:131072}")
+    private int producerThroughputBatchSize;
+
+    @Value("${spring.kafka.producer.throughput.buffer.memory:67108864}")
+    private long producerThroughputBufferMemory;
+
 }
@@ -0,0 +1,35 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class OutboxPropsConfig {
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    // Changing the shard count re-routes users to other shards, drain the outbox before changing it
+    @Value("${outbox.shard.count:8}")
+    private int shardCount;
+
+    @Value("${outbox.relay.batch.size:100}")
+    private int relayBatchSize;
+
+    @Value("${outbox.relay.send.timeout.ms:10000}")
+    private long relaySendTimeoutMs;
+
+    // Batches relayed per shard and run, the remaining events wait for the next run
+    @Value("${outbox.relay.max.batches.per.run:10}")
+    private int relayMaxBatchesPerRun;
+
+    // Must be longer than one batch can take, a held lease is renewed before every batch
+    @Value("${outbox.relay.lease.duration.ms:30000}")
+    private long relayLeaseDurationMs;
+}
@@ -0,0 +1,41 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class RedrivePropsConfig {
+
+    // Units of work with a lease each, instances split the shards between them
+    @Value("${redrive.shard.count:4}")
+    private int shardCount;
+
+    // Must be longer than the run interval, a held lease is renewed on every run
+    @Value("${redrive.lease.duration.ms:180000}")
+    private long leaseDurationMs;
+
+    // IN_PROGRESS for longer than this means the validation response was lost
+    @Value("${redrive.in.progress.after.ms:900000}")
+    private long inProgressAfterMs;
+
+    @Value("${redrive.not.complete.after.ms:300000}")
+    private long notCompleteAfterMs;
+
+    // Profiles re-driven per shard and run
+    @Value("${redrive.batch.size:100}")
+    private int batchSize;
+
+    // Events re-published per second by one instance
+    @Value("${redrive.rate.per.second:20}")
+    private int ratePerSecond;
+
+    // Deadline of a run's sends, with fan-out enabled of the in-service validations
+    @Value("${redrive.send.timeout.ms:10000}")
+    private long sendTimeoutMs;
+}
@@ -0,0 +1,21 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class StatusStreamPropsConfig {
+
+    // Picks up results written by other instances, reads are served by the status cache
+    @Value("${status.stream.recheck.interval.ms:2000}")
+    private long recheckIntervalMs;
+
+    @Value("${status.stream.timeout.ms:300000}")
+    private long timeoutMs;
+}
@@ -0,0 +1,44 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class ValidationPropsConfig {
+
+    // Validates in this service instead of publishing the event for the external validation consumer
+    @Value("${validation.fanout.enabled:false}")
+    private boolean fanoutEnabled;
+
+    // Pool, timeout and resilience settings apply to each product on its first validation
+    @Value("${validation.connect.timeout.ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${validation.response.timeout.ms:5000}")
+    private long responseTimeoutMs;
+
+    @Value("${validation.max.connections.per.product:50}")
+    private int maxConnectionsPerProduct;
+
+    @Value("${validation.pending.acquire.timeout.ms:1000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${validation.max.concurrent.calls.per.product:25}")
+    private int maxConcurrentCallsPerProduct;
+
+    @Value("${validation.circuit.failure.rate.threshold:50}")
+    private float circuitFailureRateThreshold;
+
+    @Value("${validation.circuit.open.ms:30000}")
+    private long circuitOpenMs;
+
+    // A second call is raced against a validator that did not answer within this time, 0 disables hedging
+    @Value("${validation.hedge.after.ms:0}")
+    private long hedgeAfterMs;
+}
@@ -0,0 +1,35 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class ValidationResultConsumerPropsConfig {
+
+    // 0 uses one worker per core, the worker count does not depend on the partition count
+    @Value("${validation.result.consumer.workers:0}")
+    private int workers;
+
+    // Partitions are paused while this many records are dispatched and not completed
+    @Value("${validation.result.consumer.max.in.flight:1000}")
+    private int maxInFlight;
+
+    @Value("${validation.result.consumer.poll.timeout.ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${validation.result.consumer.max.attempts:3}")
+    private int maxAttempts;
+
+    @Value("${validation.result.consumer.retry.backoff.ms:200}")
+    private long retryBackoffMs;
+
+    // Bounds how long a rebalance or shutdown waits for dispatched records to complete
+    @Value("${validation.result.consumer.drain.timeout.ms:10000}")
+    private long drainTimeoutMs;
+}
@@ -0,0 +1,18 @@
+package com.crafts.profileservice.config.props;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+@Component
+@RefreshScope
+@Getter
+@Setter
+public class VirtualThreadPropsConfig {
+
+    // Virtual threads are switched on by server.virtual-threads.enabled, see VirtualThreadConfig
+    @Value("${server.virtual-threads.pinned.threshold.ms:20}")
+    private long pinnedThresholdMs;
+}
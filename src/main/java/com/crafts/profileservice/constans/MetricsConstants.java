@@ -0,0 +1,30 @@
+package com.crafts.profileservice.constans;
+
+public class MetricsConstants {
+
+    private MetricsConstants() {
+        super();
+    }
+
+    public static final String SERVICE_TIMER = "profile.service";
+    public static final String DYNAMODB_OPERATION_TIMER = "profile.dynamodb.operation";
+    public static final String DYNAMODB_CONSUMED_CAPACITY = "profile.dynamodb.consumed.capacity";
+    public static final String CACHE_GETS = "profile.cache.gets";
+    public static final String CACHE_ERRORS = "profile.cache.errors";
+    public static final String KAFKA_SEND_TIMER = "profile.kafka.send";
+    public static final String KAFKA_SEND_FAILURES = "profile.kafka.send.failures";
+    public static final String KAFKA_IN_FLIGHT = "profile.kafka.in.flight";
+    public static final String KAFKA_PAYLOAD_SIZE = "profile.kafka.payload.size";
+
+    public static final String TAG_OPERATION = "operation";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_TABLE = "table";
+    public static final String TAG_CACHE = "cache";
+    public static final String TAG_RESULT = "result";
+    public static final String TAG_EVENT_TYPE = "event.type";
+    public static final String TAG_REASON = "reason";
+    public static final String TAG_ENCODING = "encoding";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+}
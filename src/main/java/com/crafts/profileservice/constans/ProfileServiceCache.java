@@ -8,4 +8,6 @@ public class ProfileServiceCache {
 
     public static final String USER_PROFILE_CACHE = "USER_PROFILE_CACHE";
 
+    public static final String USER_PROFILE_STATUS_CACHE = "USER_PROFILE_STATUS_CACHE";
+
 }
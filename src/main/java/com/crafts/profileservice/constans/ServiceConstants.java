@@ -4,4 +4,8 @@ public class ServiceConstants {
     public static final boolean TRUE = true;
     public static final boolean FALSE = false;
     public static final String PROFILE_SERVICE_CACHE = "profileServiceCache";
+    public static final String PROFILE_STATUS_CACHE = "profileStatusCache";
+    public static final int MAX_BATCH_READ_SIZE = 300;
+    public static final int DEFAULT_STATUS_PAGE_SIZE = 50;
+    public static final int MAX_STATUS_PAGE_SIZE = 200;
 }
@@ -0,0 +1,72 @@
+package com.crafts.profileservice.consumer;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.*;
+
+/**
+ * Tracks the records of each partition that were handed to workers and not completed yet. Records
+ * complete out of order across user ids, the committable offset of a partition only moves past a
+ * record once it and every record before it completed, so a restart never skips an unprocessed record.
+ */
+class PartitionOffsetTracker {
+
+    private final Map<TopicPartition, PartitionState> partitions = new HashMap<>();
+
+    synchronized void dispatched(TopicPartition partition, long offset) {
+        PartitionState state = partitions.computeIfAbsent(partition, ignored -> new PartitionState());
+        state.inFlight.add(offset);
+        state.nextOffset = Math.max(state.nextOffset, offset + 1);
+    }
+
+    synchronized void completed(TopicPartition partition, long offset) {
+        PartitionState state = partitions.get(partition);
+        if (state != null) {
+            state.inFlight.remove(offset);
+        }
+    }
+
+    synchronized int inFlight() {
+        int inFlight = 0;
+        for (PartitionState state : partitions.values()) {
+            inFlight += state.inFlight.size();
+        }
+        return inFlight;
+    }
+
+    synchronized int inFlight(Collection<TopicPartition> partitionsToCheck) {
+        int inFlight = 0;
+        for (TopicPartition partition : partitionsToCheck) {
+            PartitionState state = partitions.get(partition);
+            inFlight += state != null ? state.inFlight.size() : 0;
+        }
+        return inFlight;
+    }
+
+    /**
+     * The offsets to commit for the partitions whose contiguous completion advanced since the last
+     * call: the first record still in flight, or the record after the last dispatched one.
+     */
+    synchronized Map<TopicPartition, OffsetAndMetadata> committableOffsets() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        partitions.forEach((partition, state) -> {
+            long committable = state.inFlight.isEmpty() ? state.nextOffset : state.inFlight.first();
+            if (committable > state.committedOffset) {
+                state.committedOffset = committable;
+                offsets.put(partition, new OffsetAndMetadata(committable));
+            }
+        });
+        return offsets;
+    }
+
+    synchronized void remove(Collection<TopicPartition> revokedPartitions) {
+        revokedPartitions.forEach(partitions::remove);
+    }
+
+    private static final class PartitionState {
+        private final TreeSet<Long> inFlight = new TreeSet<>();
+        private long nextOffset = -1;
+        private long committedOffset = -1;
+    }
+}
@@ -0,0 +1,275 @@
+package com.crafts.profileservice.consumer;
+
+import com.crafts.profileservice.config.props.KafkaPropsConfig;
+import com.crafts.profileservice.config.props.ValidationResultConsumerPropsConfig;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.event.ProfileEventSerializer;
+import com.crafts.profileservice.exception.EventCodecException;
+import com.crafts.profileservice.exception.JsonDeserializationException;
+import com.crafts.profileservice.service.UserProfileService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies validation results from the result topic. One thread polls and hands each record to a
+ * worker chosen by user id, so the results of a user are applied one after the other in offset order
+ * while different users are applied in parallel on as many workers as configured, independent of
+ * the number of partitions. Offsets are committed only up to the first record that has not completed,
+ * so a restart re-delivers rather than loses results; applying a result twice is harmless.
+ * Results may be JSON or binary, see {@link ProfileEventSerializer}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "validation.result.consumer.enabled", havingValue = "true")
+public class UserProfileValidationResultConsumer {
+
+    private static final String USER_ID_HEADER = "USER_ID";
+
+    private final Consumer<String, byte[]> consumer;
+    private final String topic;
+    private final UserProfileService userProfileService;
+    private final ProfileEventSerializer profileEventSerializer;
+    private final ValidationResultConsumerPropsConfig consumerPropsConfig;
+    private final PartitionOffsetTracker offsetTracker = new PartitionOffsetTracker();
+    private ExecutorService[] workers;
+    private Thread pollThread;
+    private volatile boolean running;
+
+    @Autowired
+    public UserProfileValidationResultConsumer(KafkaPropsConfig kafkaPropsConfig, UserProfileService userProfileService,
+                                               ProfileEventSerializer profileEventSerializer, ValidationResultConsumerPropsConfig consumerPropsConfig) {
+        this(new DefaultKafkaConsumerFactory<String, byte[]>(consumerProperties(kafkaPropsConfig)).createConsumer(),
+                kafkaPropsConfig.getUserProfileValidationResultTopic(), userProfileService, profileEventSerializer, consumerPropsConfig);
+    }
+
+    UserProfileValidationResultConsumer(Consumer<String, byte[]> consumer, String topic, UserProfileService userProfileService,
+                                        ProfileEventSerializer profileEventSerializer, ValidationResultConsumerPropsConfig consumerPropsConfig) {
+        this.consumer = consumer;
+        this.topic = topic;
+        this.userProfileService = userProfileService;
+        this.profileEventSerializer = profileEventSerializer;
+        this.consumerPropsConfig = consumerPropsConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        int workerCount = consumerPropsConfig.getWorkers() > 0 ? consumerPropsConfig.getWorkers() : Runtime.getRuntime().availableProcessors();
+        workers = new ExecutorService[workerCount];
+        CustomizableThreadFactory workerThreadFactory = new CustomizableThreadFactory("validation-result-worker-");
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(workerThreadFactory);
+        }
+        consumer.subscribe(List.of(topic), new DrainingRebalanceListener());
+        running = true;
+        pollThread = new Thread(this::run, "validation-result-poller");
+        pollThread.start();
+        log.info("Consuming validation results from {} with {} workers", topic, workerCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        pollThread.join(consumerPropsConfig.getDrainTimeoutMs() + consumerPropsConfig.getPollTimeoutMs());
+    }
+
+    /**
+     * Polls until stopped. A failed poll or commit, e.g. while the brokers are unreachable, is logged
+     * and retried after a backoff, the records already dispatched keep their offsets in the tracker.
+     */
+    private void run() {
+        try {
+            while (running) {
+                try {
+                    pollOnce();
+                } catch (WakeupException e) {
+                    // stop() interrupts a blocked poll
+                } catch (RuntimeException e) {
+                    log.error("Failed to poll validation results from {}, retrying", topic, e);
+                    if (!sleep(consumerPropsConfig.getRetryBackoffMs())) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            shutdownWorkers();
+            commitCompleted(true);
+            consumer.close();
+        }
+    }
+
+    /**
+     * Commits what completed since the last poll, pauses the partitions while too many records are
+     * in flight so the workers' backlog stays bounded, and dispatches the polled records.
+     */
+    void pollOnce() {
+        commitCompleted(false);
+        if (offsetTracker.inFlight() >= consumerPropsConfig.getMaxInFlight()) {
+            consumer.pause(consumer.assignment());
+        } else if (!consumer.paused().isEmpty()) {
+            consumer.resume(consumer.paused());
+        }
+        ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(consumerPropsConfig.getPollTimeoutMs()));
+        for (ConsumerRecord<String, byte[]> consumerRecord : records) {
+            dispatch(consumerRecord);
+        }
+    }
+
+    private void dispatch(ConsumerRecord<String, byte[]> consumerRecord) {
+        TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+        String userId = resolveUserId(consumerRecord);
+        offsetTracker.dispatched(partition, consumerRecord.offset());
+        workers[Math.floorMod(Objects.hashCode(userId), workers.length)].execute(() -> {
+            try {
+                apply(consumerRecord, userId);
+            } finally {
+                offsetTracker.completed(partition, consumerRecord.offset());
+            }
+        });
+    }
+
+    private void apply(ConsumerRecord<String, byte[]> consumerRecord, String userId) {
+        UserProfileDTO userProfileDTO;
+        try {
+            userProfileDTO = profileEventSerializer.deserialize(consumerRecord.value(), consumerRecord.headers());
+        } catch (JsonDeserializationException | EventCodecException e) {
+            log.error("Skipping malformed validation result at {}-{}@{}", consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset(), e);
+            return;
+        }
+        if (userProfileDTO.getUserId() == null) {
+            userProfileDTO.setUserId(userId);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                userProfileService.updateAfterValidation(userProfileDTO);
+                return;
+            } catch (NoSuchElementException e) {
+                log.warn("Skipping validation result of deleted userId {}", userProfileDTO.getUserId());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= consumerPropsConfig.getMaxAttempts()) {
+                    log.error("Dropping validation result of userId {} at {}-{}@{} after {} attempts", userProfileDTO.getUserId(),
+                            consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset(), attempt, e);
+                    return;
+                }
+                log.warn("Failed to apply validation result of userId {}, attempt {}", userProfileDTO.getUserId(), attempt, e);
+                if (!sleep(consumerPropsConfig.getRetryBackoffMs() * attempt)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Results are keyed by user id. Records of producers that do not set the key are routed by the
+     * USER_ID header, and as a last resort all go to the same worker.
+     */
+    private static String resolveUserId(ConsumerRecord<String, byte[]> consumerRecord) {
+        if (consumerRecord.key() != null) {
+            return consumerRecord.key();
+        }
+        Header userIdHeader = consumerRecord.headers().lastHeader(USER_ID_HEADER);
+        return userIdHeader != null ? new String(userIdHeader.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private void commitCompleted(boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets();
+        if (offsets.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            consumer.commitSync(offsets);
+        } else {
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null) {
+                    // a later commit covers these offsets
+                    log.warn("Failed to commit validation result offsets {}", committed, e);
+                }
+            });
+        }
+    }
+
+    private void shutdownWorkers() {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(consumerPropsConfig.getDrainTimeoutMs());
+        try {
+            for (ExecutorService worker : workers) {
+                worker.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Map<String, Object> consumerProperties(KafkaPropsConfig kafkaPropsConfig) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaPropsConfig.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, kafkaPropsConfig.getUpvConsumerGroupId());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, kafkaPropsConfig.getConsumerKeyDeserializer());
+        // JSON or binary, see ProfileEventSerializer
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, kafkaPropsConfig.getConsumerAutoOffsetReset());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, kafkaPropsConfig.getConsumerMaxPollRecords());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return props;
+    }
+
+    /**
+     * Before partitions move to another consumer, waits for their dispatched records and commits
+     * them, so the new owner neither repeats nor races the results still being applied here.
+     */
+    private final class DrainingRebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(consumerPropsConfig.getDrainTimeoutMs());
+            while (offsetTracker.inFlight(partitions) > 0 && System.nanoTime() < deadline) {
+                if (!sleep(10)) {
+                    break;
+                }
+            }
+            commitCompleted(true);
+            offsetTracker.remove(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            log.info("Assigned validation result partitions {}", partitions);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.crafts.profileservice.controller;
 
-import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.cache.ProductRegistry;
 import com.crafts.profileservice.service.UserProfileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,16 +24,27 @@ public class CacheController {
     @Autowired
     private UserProfileService userProfileService;
 
+    @Autowired
+    private ProductRegistry productRegistry;
+
+    @Operation(summary = "Reload the product registry and return the number of registered products",
+            description = "Reloads the registry of the instance that serves the request only, the other instances pick the "
+                    + "change up on their next scheduled refresh")
+    @PostMapping(value = "/product-registry/refresh", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Integer> refreshProductRegistry() {
+        return ResponseEntity.ok(productRegistry.refresh());
+    }
+
     @Operation(summary = "Get cached data with a specific key")
     @GetMapping(value = "/{cacheName}/{key}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
-    public ResponseEntity<UserProfileDTO> getCacheWithKey(
+    public ResponseEntity<Object> getCacheWithKey(
             @Parameter(description = "The name of the cache", required = true)
             @PathVariable("cacheName") String cacheName,
             @Parameter(description = "The key for the cached data", required = true)
             @PathVariable("key") String key) throws NoSuchElementException {
         Cache.ValueWrapper value = getCache(cacheName).get(key);
         if (value != null) {
-            return ResponseEntity.status(HttpStatus.OK).body((UserProfileDTO) value.get());
+            return ResponseEntity.status(HttpStatus.OK).body(value.get());
         }
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
@@ -0,0 +1,181 @@
+package com.crafts.profileservice.controller;
+
+import com.crafts.profileservice.config.props.ImportPropsConfig;
+import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileImportResultDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.service.ReactiveUserProfileService;
+import com.crafts.profileservice.service.UserProfileExportService;
+import com.crafts.profileservice.service.UserProfileImportService;
+import com.crafts.profileservice.util.ETagUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link UserProfileController} with the same paths, payloads and status
+ * codes. Active when the service runs with {@code spring.main.web-application-type=reactive}.
+ */
+@RestController
+@RequestMapping("/user")
+@CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserProfileController {
+
+    private static final String STATUS_EVENT = "status";
+    private static final String CHECKPOINT_FIELD = "checkpoint";
+
+    private final ReactiveUserProfileService userProfileService;
+    private final UserProfileImportService userProfileImportService;
+    private final ImportPropsConfig importPropsConfig;
+    private final UserProfileExportService userProfileExportService;
+
+    public ReactiveUserProfileController(ReactiveUserProfileService userProfileService, UserProfileImportService userProfileImportService,
+                                         ImportPropsConfig importPropsConfig, UserProfileExportService userProfileExportService) {
+        this.userProfileService = userProfileService;
+        this.userProfileImportService = userProfileImportService;
+        this.importPropsConfig = importPropsConfig;
+        this.userProfileExportService = userProfileExportService;
+    }
+
+    @Operation(summary = "Get user profile by ID")
+    @ApiResponse(responseCode = "304", description = "The profile matches the If-None-Match entity tag")
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<UserProfileDTO>> getUserProfile(
+            @Parameter(description = "The user ID", required = true)
+            @PathVariable("userId") String userId,
+            @Parameter(description = "Comma separated profile fields to return, all fields when omitted")
+            @RequestParam(value = "fields", required = false) List<String> fields) {
+        Mono<UserProfileDTO> userProfileDTO = fields == null || fields.isEmpty()
+                ? userProfileService.getUserProfileById(userId)
+                : userProfileService.getUserProfileById(userId, fields);
+        return userProfileDTO
+                .map(userProfile -> ResponseEntity.ok().eTag(ETagUtil.profileETag(userProfile, fields)).body(userProfile));
+    }
+
+    @Operation(summary = "List user profiles by status")
+    @GetMapping(params = "status")
+    public Mono<ResponseEntity<UserProfilePageDTO>> getUserProfilesByStatus(
+            @Parameter(description = "Pending consolidated status, IN_PROGRESS or NOT_COMPLETE", required = true)
+            @RequestParam("status") String status,
+            @Parameter(description = "Cursor of the next page from the previous response")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Profiles per page")
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return userProfileService.getUserProfilesByStatus(status, cursor, limit).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Get user profiles by IDs")
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<UserProfileBatchResponseDTO>> getUserProfiles(
+            @RequestBody UserProfileBatchRequestDTO userProfileBatchRequest) {
+        return userProfileService.getUserProfilesByIds(userProfileBatchRequest.getUserIds()).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Create user profile")
+    @ApiResponse(responseCode = "201", description = "User profile created")
+    @PostMapping("/create")
+    public Mono<ResponseEntity<UserProfileDTO>> createUserProfile(
+            @RequestBody UserProfileDTO userProfile) {
+        return userProfileService.saveUserProfile(userProfile).map(userProfileDTO -> ResponseEntity.created(UriComponentsBuilder
+                        .fromPath("/users/{userId}")
+                        .buildAndExpand(userProfileDTO)
+                        .toUri())
+                .body(userProfileDTO));
+    }
+
+    /**
+     * The import writes with the blocking batch APIs, so each chunk of lines is imported on the
+     * bounded elastic scheduler. Chunks are imported one after another to keep the results in line
+     * order and to apply backpressure to the upload.
+     */
+    @Operation(summary = "Import user profiles from NDJSON, one profile per line")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserProfileImportResultDTO> importUserProfiles(@RequestBody Flux<String> profiles) {
+        return profiles.index()
+                .buffer(importPropsConfig.getChunkSize())
+                .concatMap(chunk -> Mono.fromCallable(() -> userProfileImportService.importProfiles(
+                                chunk.stream().map(Tuple2::getT2).toList(), chunk.get(0).getT1() + 1))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * Streams every profile, optionally only those with the given consolidated status, as NDJSON.
+     * Each page of profiles is followed by a {@code {"checkpoint": ...}} line; pass the last one
+     * received as {@code checkpoint} to resume an interrupted export.
+     */
+    @Operation(summary = "Export user profiles as NDJSON")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> exportUserProfiles(
+            @Parameter(description = "Only export profiles with this consolidated status")
+            @RequestParam(value = "status", required = false) String status,
+            @Parameter(description = "Number of scan segments read in parallel")
+            @RequestParam(value = "segments", required = false) Integer segments,
+            @Parameter(description = "Checkpoint line of an interrupted export to resume from")
+            @RequestParam(value = "checkpoint", required = false) String checkpoint) {
+        return userProfileExportService.exportProfiles(status, segments, checkpoint)
+                .concatMapIterable(page -> {
+                    List<Object> lines = new ArrayList<>(page.getProfiles());
+                    lines.add(Collections.singletonMap(CHECKPOINT_FIELD, page.getCheckpoint()));
+                    return lines;
+                }, 1);
+    }
+
+    @Operation(summary = "Update user profile")
+    @PutMapping("/update/{userId}")
+    public Mono<ResponseEntity<Void>> updateUserProfile(
+            @Parameter(description = "The user ID", required = true)
+            @PathVariable("userId") String userId,
+            @RequestBody UserProfileDTO userProfile) {
+        return userProfileService.update(userId, userProfile).then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    @Operation(summary = "Get user status")
+    @GetMapping("/status/{userId}")
+    public Mono<ResponseEntity<UserProfileValidationResultDTO>> getStatus(@PathVariable("userId") String userId) {
+        return userProfileService.getStatus(userId).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Stream user status until validation completes")
+    @GetMapping(value = "/status/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<UserProfileValidationResultDTO>> streamStatus(@PathVariable("userId") String userId) {
+        return userProfileService.streamStatus(userId)
+                .map(statusDTO -> ServerSentEvent.builder(statusDTO).event(STATUS_EVENT).build());
+    }
+
+    @Operation(summary = "Subscribe to a new product")
+    @PutMapping("/{userId}/subscriptions")
+    public Mono<ResponseEntity<Void>> addSubscription(@PathVariable("userId") String userId,
+                                                      @RequestBody SubscriptionRequestDTO subscriptionRequestDTO) {
+        return userProfileService.addSubscription(userId, subscriptionRequestDTO).then(Mono.fromSupplier(() -> ResponseEntity.ok().build()));
+    }
+
+    @Operation(summary = "Delete user profile")
+    @ApiResponse(responseCode = "200", description = "User profile deleted")
+    @DeleteMapping("/delete/{userId}")
+    public Mono<ResponseEntity<Void>> deleteUserProfile(
+            @Parameter(description = "The user ID", required = true)
+            @PathVariable("userId") String userId) {
+        return userProfileService.delete(userId).then(Mono.fromSupplier(() -> ResponseEntity.ok().build()));
+    }
+
+}
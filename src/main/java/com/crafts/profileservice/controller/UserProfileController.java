@@ -1,36 +1,110 @@
 package com.crafts.profileservice.controller;
 
+import com.crafts.profileservice.config.props.ImportPropsConfig;
+import com.crafts.profileservice.config.props.StatusStreamPropsConfig;
 import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
 import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileExportPageDTO;
+import com.crafts.profileservice.dto.UserProfileImportResultDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
 import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.service.UserProfileExportService;
+import com.crafts.profileservice.service.UserProfileImportService;
 import com.crafts.profileservice.service.UserProfileService;
+import com.crafts.profileservice.util.ETagUtil;
+import com.crafts.profileservice.util.JsonUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/user")
 @CrossOrigin
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserProfileController {
 
+    private static final String STATUS_EVENT = "status";
+    private static final String CHECKPOINT_FIELD = "checkpoint";
+
     private final UserProfileService userProfileService;
+    private final StatusStreamPropsConfig statusStreamPropsConfig;
+    private final UserProfileImportService userProfileImportService;
+    private final ImportPropsConfig importPropsConfig;
+    private final UserProfileExportService userProfileExportService;
 
-    public UserProfileController(UserProfileService userProfileService) {
+    public UserProfileController(UserProfileService userProfileService, StatusStreamPropsConfig statusStreamPropsConfig,
+                                 UserProfileImportService userProfileImportService, ImportPropsConfig importPropsConfig,
+                                 UserProfileExportService userProfileExportService) {
         this.userProfileService = userProfileService;
+        this.statusStreamPropsConfig = statusStreamPropsConfig;
+        this.userProfileImportService = userProfileImportService;
+        this.importPropsConfig = importPropsConfig;
+        this.userProfileExportService = userProfileExportService;
     }
 
+    /**
+     * The response carries the profile's ETag. A matching {@code If-None-Match} is answered with
+     * 304 by the entity handling before the body is serialized. With {@code fields} only the listed
+     * fields, plus the id and version, are read and returned, under an ETag that includes the fields.
+     */
     @Operation(summary = "Get user profile by ID")
+    @ApiResponse(responseCode = "304", description = "The profile matches the If-None-Match entity tag")
     @GetMapping("/{userId}")
     public ResponseEntity<UserProfileDTO> getUserProfile(
             @Parameter(description = "The user ID", required = true)
-            @PathVariable("userId") String userId) {
-        UserProfileDTO userProfile = userProfileService.getUserProfileById(userId);
-        return ResponseEntity.ok(userProfile);
+            @PathVariable("userId") String userId,
+            @Parameter(description = "Comma separated profile fields to return, all fields when omitted")
+            @RequestParam(value = "fields", required = false) List<String> fields) {
+        UserProfileDTO userProfile = fields == null || fields.isEmpty()
+                ? userProfileService.getUserProfileById(userId)
+                : userProfileService.getUserProfileById(userId, fields);
+        return ResponseEntity.ok().eTag(ETagUtil.profileETag(userProfile, fields)).body(userProfile);
+    }
+
+    @Operation(summary = "List user profiles by status")
+    @GetMapping(params = "status")
+    public ResponseEntity<UserProfilePageDTO> getUserProfilesByStatus(
+            @Parameter(description = "Pending consolidated status, IN_PROGRESS or NOT_COMPLETE", required = true)
+            @RequestParam("status") String status,
+            @Parameter(description = "Cursor of the next page from the previous response")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Profiles per page")
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(userProfileService.getUserProfilesByStatus(status, cursor, limit));
+    }
+
+    @Operation(summary = "Get user profiles by IDs")
+    @PostMapping("/batch")
+    public ResponseEntity<UserProfileBatchResponseDTO> getUserProfiles(
+            @RequestBody UserProfileBatchRequestDTO userProfileBatchRequest) {
+        UserProfileBatchResponseDTO userProfiles = userProfileService.getUserProfilesByIds(userProfileBatchRequest.getUserIds());
+        return ResponseEntity.ok(userProfiles);
     }
 
     @Operation(summary = "Create user profile")
@@ -46,6 +120,68 @@ public class UserProfileController {
         return ResponseEntity.created(locationUri).body(userProfileDTO);
     }
 
+    /**
+     * Creates a profile per NDJSON line and streams a result per line back. The body is read and
+     * imported chunk by chunk, so the file is never held in memory as a whole.
+     */
+    @Operation(summary = "Import user profiles from NDJSON, one profile per line")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importUserProfiles(InputStream profiles) {
+        StreamingResponseBody results = outputStream -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(profiles, StandardCharsets.UTF_8));
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            int chunkSize = importPropsConfig.getChunkSize();
+            List<String> lines = new ArrayList<>(chunkSize);
+            long firstLineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    writeImportResults(writer, userProfileImportService.importProfiles(lines, firstLineNumber));
+                    firstLineNumber += lines.size();
+                    lines.clear();
+                }
+            }
+            if (!lines.isEmpty()) {
+                writeImportResults(writer, userProfileImportService.importProfiles(lines, firstLineNumber));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(results);
+    }
+
+    /**
+     * Streams every profile, optionally only those with the given consolidated status, as NDJSON.
+     * Each page of profiles is followed by a {@code {"checkpoint": ...}} line; pass the last one
+     * received as {@code checkpoint} to resume an interrupted export.
+     */
+    @Operation(summary = "Export user profiles as NDJSON")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserProfiles(
+            @Parameter(description = "Only export profiles with this consolidated status")
+            @RequestParam(value = "status", required = false) String status,
+            @Parameter(description = "Number of scan segments read in parallel")
+            @RequestParam(value = "segments", required = false) Integer segments,
+            @Parameter(description = "Checkpoint line of an interrupted export to resume from")
+            @RequestParam(value = "checkpoint", required = false) String checkpoint) {
+        Flux<UserProfileExportPageDTO> pages = userProfileExportService.exportProfiles(status, segments, checkpoint);
+        StreamingResponseBody profiles = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            // Pages are requested one at a time; closing the stream cancels the scan when the client goes away
+            try (Stream<UserProfileExportPageDTO> pageStream = pages.toStream(1)) {
+                Iterator<UserProfileExportPageDTO> iterator = pageStream.iterator();
+                while (iterator.hasNext()) {
+                    UserProfileExportPageDTO page = iterator.next();
+                    for (UserProfileDTO userProfileDTO : page.getProfiles()) {
+                        writeLine(writer, userProfileDTO);
+                    }
+                    writeLine(writer, Collections.singletonMap(CHECKPOINT_FIELD, page.getCheckpoint()));
+                    writer.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(profiles);
+    }
+
     @Operation(summary = "Update user profile")
     @PutMapping("/update/{userId}")
     public ResponseEntity<Void> updateUserProfile(
@@ -63,6 +199,29 @@ public class UserProfileController {
         return ResponseEntity.ok(userProfileValidationResultDTO);
     }
 
+    /**
+     * Server-sent events with the current status and every change of it, completed once validation
+     * left IN_PROGRESS. The request thread is released while the stream waits for changes.
+     */
+    @Operation(summary = "Stream user status until validation completes")
+    @GetMapping(value = "/status/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@PathVariable("userId") String userId) {
+        Flux<UserProfileValidationResultDTO> statuses = userProfileService.streamStatus(userId);
+        SseEmitter emitter = new SseEmitter(statusStreamPropsConfig.getTimeoutMs());
+        Disposable subscription = statuses.subscribe(statusDTO -> {
+            try {
+                emitter.send(SseEmitter.event().name(STATUS_EVENT).data(statusDTO));
+            } catch (IOException e) {
+                // The client went away, stop the stream
+                throw Exceptions.propagate(e);
+            }
+        }, emitter::completeWithError, emitter::complete);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        return emitter;
+    }
+
     @Operation(summary = "Subscribe to a new product")
     @PutMapping("/{userId}/subscriptions")
     public ResponseEntity<Void> addSubscription(@PathVariable("userId") String userId,
@@ -81,4 +240,16 @@ public class UserProfileController {
         return ResponseEntity.ok().build();
     }
 
+    private static void writeImportResults(Writer writer, List<UserProfileImportResultDTO> results) throws IOException {
+        for (UserProfileImportResultDTO result : results) {
+            writeLine(writer, result);
+        }
+        writer.flush();
+    }
+
+    private static void writeLine(Writer writer, Object value) throws IOException {
+        writer.write(JsonUtil.writeToJson(value));
+        writer.write('\n');
+    }
+
 }
@@ -0,0 +1,24 @@
+package com.crafts.profileservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Position of an export in every segment of its parallel scan. A segment without an entry in
+ * {@code lastEvaluatedUserIds} and not in {@code completedSegments} starts from the beginning.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileExportCheckpointDTO {
+    private int totalSegments;
+    private String consolidatedStatus;
+    private Map<Integer, String> lastEvaluatedUserIds = new HashMap<>();
+    private Set<Integer> completedSegments = new HashSet<>();
+}
@@ -0,0 +1,14 @@
+package com.crafts.profileservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileBatchRequestDTO {
+    private List<String> userIds;
+}
@@ -0,0 +1,16 @@
+package com.crafts.profileservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileBatchResponseDTO {
+    private List<UserProfileDTO> profiles = new ArrayList<>();
+    private List<String> missingUserIds = new ArrayList<>();
+}
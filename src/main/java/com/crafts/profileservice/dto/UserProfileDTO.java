@@ -50,6 +50,8 @@ public class UserProfileDTO implements Serializable {
 
     private Map<String, ProductValidationStatus> subscriptionValidations = new HashMap<>();
 
+    private Long version;
+
 }
 
 
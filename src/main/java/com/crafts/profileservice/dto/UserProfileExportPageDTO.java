@@ -0,0 +1,17 @@
+package com.crafts.profileservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileExportPageDTO {
+    private List<UserProfileDTO> profiles = new ArrayList<>();
+    // resumes the export after this page
+    private String checkpoint;
+}
@@ -0,0 +1,15 @@
+package com.crafts.profileservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileImportResultDTO {
+    private long line;
+    private String userId;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.crafts.profileservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfilePageDTO {
+    private List<UserProfileDTO> profiles = new ArrayList<>();
+    // null on the last page
+    private String nextCursor;
+}
@@ -4,13 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserProfileValidationResultDTO {
+public class UserProfileValidationResultDTO implements Serializable {
     private String userId;
     private String consolidatedStatus;
     private String consolidatedMessage;
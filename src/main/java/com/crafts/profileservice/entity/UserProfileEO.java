@@ -3,8 +3,11 @@ package com.crafts.profileservice.entity;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAutoGeneratedKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexRangeKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -47,6 +50,11 @@ public class  UserProfileEO {
     @DynamoDBAttribute
     private String consolidatedStatus;
 
+    // The consolidated status while it is In Progress or Not Complete and absent otherwise, so the
+    // status index only holds the profiles that wait for a validation result, oldest write first
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "pendingStatus-timestamp-index")
+    private String pendingStatus;
+
     @DynamoDBAttribute
     private String consolidatedMessage;
 
@@ -56,9 +64,18 @@ public class  UserProfileEO {
     @DynamoDBAttribute
     private Map<String, ProductValidationStatusEO> subscriptionValidations;
 
-    @DynamoDBAttribute
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = "pendingStatus-timestamp-index")
     private String timestamp;
 
+    // Incremented by every write, updates that merge changes are conditional on it
+    @DynamoDBAttribute
+    private Long version;
+
+    public void setConsolidatedStatus(String consolidatedStatus) {
+        this.consolidatedStatus = consolidatedStatus;
+        this.pendingStatus = ValidationStatusEnum.toPendingStatus(consolidatedStatus);
+    }
+
 }
 
 
@@ -0,0 +1,32 @@
+package com.crafts.profileservice.entity;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marker item that reserves an idempotency key for a user profile. It is written in the same
+ * transaction as the profile, so a second create with the same key fails atomically.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamoDBTable(tableName = "user_profile_idempotency")
+public class UserProfileIdempotencyEO {
+
+    @DynamoDBHashKey
+    private String idempotencyKey;
+
+    @DynamoDBAttribute
+    private String userId;
+
+    @DynamoDBAttribute
+    private String createdAt;
+
+    public UserProfileIdempotencyEO(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+}
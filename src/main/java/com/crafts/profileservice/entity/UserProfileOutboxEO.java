@@ -0,0 +1,43 @@
+package com.crafts.profileservice.entity;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBRangeKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Profile event waiting to be relayed to Kafka. Events are spread over a fixed number of shards
+ * by userId, and the range key starts with the creation time, so a query on one shard returns the
+ * events of every user on that shard in the order they were written.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamoDBTable(tableName = "user_profile_outbox")
+public class UserProfileOutboxEO {
+
+    @DynamoDBHashKey
+    private Integer shardId;
+
+    @DynamoDBRangeKey
+    private String eventId;
+
+    @DynamoDBAttribute
+    private String userId;
+
+    @DynamoDBAttribute
+    private String eventType;
+
+    @DynamoDBAttribute
+    private String payload;
+
+    @DynamoDBAttribute
+    private String createdAt;
+
+    public UserProfileOutboxEO(Integer shardId) {
+        this.shardId = shardId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.crafts.profileservice.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum ImportResultStatusEnum {
+
+	CREATED("Created"),
+	DUPLICATE("Duplicate"),
+	INVALID("Invalid"),
+	FAILED("Failed");
+	private final String status;
+
+	ImportResultStatusEnum(String status) {
+		this.status = status;
+	}
+
+}
@@ -15,4 +15,39 @@ public enum ValidationStatusEnum {
 		this.status = status;
 	}
 
+	/**
+	 * Resolves a status by its stored value or its name, so both "Not Complete" and NOT_COMPLETE
+	 * are accepted.
+	 *
+	 * @throws IllegalArgumentException for an unknown status
+	 */
+	public static ValidationStatusEnum fromStatus(String value) {
+		for (ValidationStatusEnum validationStatus : values()) {
+			if (validationStatus.status.equalsIgnoreCase(value) || validationStatus.name().equalsIgnoreCase(value)) {
+				return validationStatus;
+			}
+		}
+		throw new IllegalArgumentException("Unknown status: " + value);
+	}
+
+	/**
+	 * Whether a profile in this status still waits for a validation result, only those profiles
+	 * are kept on the status index.
+	 */
+	public boolean isPending() {
+		return this == IN_PROGRESS || this == NOT_COMPLETE;
+	}
+
+	/**
+	 * The stored value of a pending status, null for any other or an unknown status.
+	 */
+	public static String toPendingStatus(String value) {
+		for (ValidationStatusEnum validationStatus : values()) {
+			if (validationStatus.isPending() && (validationStatus.status.equalsIgnoreCase(value) || validationStatus.name().equalsIgnoreCase(value))) {
+				return validationStatus.status;
+			}
+		}
+		return null;
+	}
+
 }
@@ -0,0 +1,163 @@
+package com.crafts.profileservice.event;
+
+import com.crafts.profileservice.dto.TaxIdentifiersDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.exception.EventCodecException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static com.crafts.profileservice.cache.codec.BinaryCodecSupport.*;
+
+/**
+ * Binary encoding of profile events. An event starts with a bitmap of the schema's fields that are
+ * set, followed by the values of those fields in schema order, so unset fields cost one bit and no
+ * field names are written. A new field is appended to {@link #FIELDS} and registered as a new schema
+ * version; consumers have to know a field before producers write it.
+ */
+public final class ProfileEventCodec {
+
+    private static final Map<String, Field> FIELD_CODECS = new LinkedHashMap<>();
+
+    static {
+        field("userId", profile -> profile.getUserId() != null,
+                (out, profile) -> writeString(out, profile.getUserId()), (in, profile) -> profile.setUserId(readString(in)));
+        field("idempotencyKey", profile -> profile.getIdempotencyKey() != null,
+                (out, profile) -> writeString(out, profile.getIdempotencyKey()), (in, profile) -> profile.setIdempotencyKey(readString(in)));
+        field("productId", profile -> profile.getProductId() != null,
+                (out, profile) -> writeString(out, profile.getProductId()), (in, profile) -> profile.setProductId(readString(in)));
+        field("createFlow", UserProfileDTO::isCreateFlow,
+                (out, profile) -> { }, (in, profile) -> profile.setCreateFlow(true));
+        field("companyName", profile -> profile.getCompanyName() != null,
+                (out, profile) -> writeString(out, profile.getCompanyName()), (in, profile) -> profile.setCompanyName(readString(in)));
+        field("legalName", profile -> profile.getLegalName() != null,
+                (out, profile) -> writeString(out, profile.getLegalName()), (in, profile) -> profile.setLegalName(readString(in)));
+        field("businessAddress", profile -> profile.getBusinessAddress() != null,
+                (out, profile) -> writeAddress(out, profile.getBusinessAddress()), (in, profile) -> profile.setBusinessAddress(readAddress(in)));
+        field("legalAddress", profile -> profile.getLegalAddress() != null,
+                (out, profile) -> writeAddress(out, profile.getLegalAddress()), (in, profile) -> profile.setLegalAddress(readAddress(in)));
+        field("taxIdentifiers", profile -> profile.getTaxIdentifiers() != null,
+                (out, profile) -> {
+                    writeString(out, profile.getTaxIdentifiers().getPan());
+                    writeString(out, profile.getTaxIdentifiers().getEin());
+                },
+                (in, profile) -> profile.setTaxIdentifiers(new TaxIdentifiersDTO(readString(in), readString(in))));
+        field("email", profile -> profile.getEmail() != null,
+                (out, profile) -> writeString(out, profile.getEmail()), (in, profile) -> profile.setEmail(readString(in)));
+        field("website", profile -> profile.getWebsite() != null,
+                (out, profile) -> writeString(out, profile.getWebsite()), (in, profile) -> profile.setWebsite(readString(in)));
+        field("consolidatedStatus", profile -> profile.getConsolidatedStatus() != null,
+                (out, profile) -> writeString(out, profile.getConsolidatedStatus()), (in, profile) -> profile.setConsolidatedStatus(readString(in)));
+        field("consolidatedMessage", profile -> profile.getConsolidatedMessage() != null,
+                (out, profile) -> writeString(out, profile.getConsolidatedMessage()), (in, profile) -> profile.setConsolidatedMessage(readString(in)));
+        field("timestamp", profile -> profile.getTimestamp() != null,
+                (out, profile) -> writeString(out, profile.getTimestamp()), (in, profile) -> profile.setTimestamp(readString(in)));
+        field("subscriptions", profile -> profile.getSubscriptions() != null,
+                (out, profile) -> writeStringList(out, profile.getSubscriptions()), (in, profile) -> profile.setSubscriptions(readStringList(in)));
+        field("existingSubscriptions", profile -> profile.getExistingSubscriptions() != null,
+                (out, profile) -> writeStringList(out, profile.getExistingSubscriptions()),
+                (in, profile) -> profile.setExistingSubscriptions(readStringList(in)));
+        field("subscriptionValidations", profile -> profile.getSubscriptionValidations() != null,
+                (out, profile) -> writeValidations(out, profile.getSubscriptionValidations()),
+                (in, profile) -> profile.setSubscriptionValidations(readValidations(in)));
+        field("version", profile -> profile.getVersion() != null,
+                (out, profile) -> out.writeLong(profile.getVersion()), (in, profile) -> profile.setVersion(in.readLong()));
+    }
+
+    /**
+     * The layout this service writes.
+     */
+    public static final List<String> FIELDS = List.copyOf(FIELD_CODECS.keySet());
+
+    private ProfileEventCodec() {
+    }
+
+    public static byte[] encode(UserProfileDTO profile, ProfileEventSchema schema) {
+        List<Field> fields = resolve(schema);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            int presence = 0;
+            for (int i = 0; i < fields.size(); i++) {
+                if (fields.get(i).present.test(profile)) {
+                    presence |= 1 << i;
+                }
+            }
+            writeVarInt(out, presence);
+            for (int i = 0; i < fields.size(); i++) {
+                if ((presence & (1 << i)) != 0) {
+                    fields.get(i).writer.write(out, profile);
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new EventCodecException("Failed to encode event of userId " + profile.getUserId(), e);
+        }
+    }
+
+    public static UserProfileDTO decode(byte[] payload, ProfileEventSchema schema) {
+        List<Field> fields = resolve(schema);
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            int presence = readVarInt(in);
+            UserProfileDTO profile = new UserProfileDTO();
+            // absent in the event means absent, not the DTO's empty default
+            profile.setSubscriptionValidations(null);
+            for (int i = 0; i < fields.size(); i++) {
+                if ((presence & (1 << i)) != 0) {
+                    fields.get(i).reader.read(in, profile);
+                }
+            }
+            return profile;
+        } catch (IOException e) {
+            throw new EventCodecException("Failed to decode event with schema " + schema.getId(), e);
+        }
+    }
+
+    private static List<Field> resolve(ProfileEventSchema schema) {
+        if (schema.getFields().size() > Integer.SIZE - 1) {
+            throw new EventCodecException("Event schema " + schema.getId() + " has too many fields");
+        }
+        return schema.getFields().stream()
+                .map(name -> {
+                    Field field = FIELD_CODECS.get(name);
+                    if (field == null) {
+                        throw new EventCodecException("Event schema " + schema.getId() + " has unknown field " + name);
+                    }
+                    return field;
+                })
+                .toList();
+    }
+
+    private static void field(String name, Predicate<UserProfileDTO> present, FieldWriter writer, FieldReader reader) {
+        FIELD_CODECS.put(name, new Field(present, writer, reader));
+    }
+
+    private interface FieldWriter {
+        void write(DataOutputStream out, UserProfileDTO profile) throws IOException;
+    }
+
+    private interface FieldReader {
+        void read(DataInputStream in, UserProfileDTO profile) throws IOException;
+    }
+
+    private static final class Field {
+        private final Predicate<UserProfileDTO> present;
+        private final FieldWriter writer;
+        private final FieldReader reader;
+
+        private Field(Predicate<UserProfileDTO> present, FieldWriter writer, FieldReader reader) {
+            this.present = present;
+            this.writer = writer;
+            this.reader = reader;
+        }
+    }
+}
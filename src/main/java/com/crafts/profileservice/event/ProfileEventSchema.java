@@ -0,0 +1,26 @@
+package com.crafts.profileservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A registered layout of a profile event: the fields written, in order. The id travels with every
+ * binary event, so a consumer decodes with the layout the event was written with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileEventSchema {
+
+    private int id;
+
+    private String subject;
+
+    private int version;
+
+    private List<String> fields;
+
+}
@@ -0,0 +1,127 @@
+package com.crafts.profileservice.event;
+
+import com.crafts.profileservice.config.props.EventCodecPropsConfig;
+import com.crafts.profileservice.exception.EventCodecException;
+import com.crafts.profileservice.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File-backed stand-in for a schema registry, so binary events work without an external service.
+ * Schemas are kept as a JSON array and only ever appended; registration holds a lock on a sibling
+ * lock file, so instances sharing the file agree on the ids. Every instance that produces or consumes
+ * events must use the same file on shared storage, an instance with a file of its own would give ids
+ * another meaning. The registry is created lazily, see {@link ProfileEventSerializer}. Lookups are
+ * served from memory and re-read the file once for an id registered by another instance.
+ */
+@Component
+@Lazy
+@Slf4j
+public class ProfileEventSchemaRegistry {
+
+    private final Path registryFile;
+    private final Path lockFile;
+    private final Map<Integer, ProfileEventSchema> schemasById = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalStateException when no registry file is configured
+     */
+    @Autowired
+    public ProfileEventSchemaRegistry(EventCodecPropsConfig eventCodecPropsConfig) {
+        this(Path.of(requireRegistryFile(eventCodecPropsConfig.getSchemaRegistryFile())));
+    }
+
+    ProfileEventSchemaRegistry(Path registryFile) {
+        this.registryFile = registryFile.toAbsolutePath();
+        this.lockFile = this.registryFile.resolveSibling(this.registryFile.getFileName() + ".lock");
+    }
+
+    private static String requireRegistryFile(String schemaRegistryFile) {
+        if (schemaRegistryFile == null || schemaRegistryFile.isBlank()) {
+            throw new IllegalStateException("event.schema.registry.file must point to a schema registry file shared by all instances");
+        }
+        return schemaRegistryFile;
+    }
+
+    /**
+     * Returns the schema of the subject with exactly these fields, registering it as the next
+     * version of the subject when it is new.
+     *
+     * @throws EventCodecException when the registry file cannot be read or written
+     */
+    public synchronized ProfileEventSchema register(String subject, List<String> fields) {
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockChannel.lock()) {
+            List<ProfileEventSchema> schemas = read();
+            schemas.forEach(schema -> schemasById.put(schema.getId(), schema));
+            int version = 0;
+            int maxId = 0;
+            for (ProfileEventSchema schema : schemas) {
+                if (schema.getSubject().equals(subject)) {
+                    if (schema.getFields().equals(fields)) {
+                        return schema;
+                    }
+                    version = Math.max(version, schema.getVersion());
+                }
+                maxId = Math.max(maxId, schema.getId());
+            }
+            ProfileEventSchema schema = new ProfileEventSchema(maxId + 1, subject, version + 1, List.copyOf(fields));
+            schemas.add(schema);
+            write(schemas);
+            schemasById.put(schema.getId(), schema);
+            log.info("Registered event schema {} as version {} of {}", schema.getId(), schema.getVersion(), subject);
+            return schema;
+        } catch (IOException e) {
+            throw new EventCodecException("Failed to register event schema of " + subject, e);
+        }
+    }
+
+    /**
+     * @throws EventCodecException when no schema is registered under the id
+     */
+    public ProfileEventSchema getSchema(int id) {
+        ProfileEventSchema schema = schemasById.get(id);
+        if (schema != null) {
+            return schema;
+        }
+        try {
+            read().forEach(registered -> schemasById.put(registered.getId(), registered));
+        } catch (IOException e) {
+            throw new EventCodecException("Failed to read event schema registry " + registryFile, e);
+        }
+        schema = schemasById.get(id);
+        if (schema == null) {
+            throw new EventCodecException("Unknown event schema id " + id);
+        }
+        return schema;
+    }
+
+    private List<ProfileEventSchema> read() throws IOException {
+        if (!Files.exists(registryFile)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(JsonUtil.readValue(Files.readAllBytes(registryFile), ProfileEventSchema[].class)));
+    }
+
+    private void write(List<ProfileEventSchema> schemas) throws IOException {
+        // readers never see a partially written file
+        Path tempFile = registryFile.resolveSibling(registryFile.getFileName() + ".tmp");
+        Files.write(tempFile, JsonUtil.writeToJsonBytes(schemas));
+        Files.move(tempFile, registryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
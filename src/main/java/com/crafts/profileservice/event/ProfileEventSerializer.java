@@ -0,0 +1,105 @@
+package com.crafts.profileservice.event;
+
+import com.crafts.profileservice.config.props.EventCodecPropsConfig;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.exception.EventCodecException;
+import com.crafts.profileservice.util.JsonUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Turns profile events into Kafka payloads and back. With the binary encoding the create, update
+ * and add subscription events are written with {@link ProfileEventCodec} and carry the id of their
+ * schema in the {@value #SCHEMA_ID_HEADER} header; everything else stays JSON. Payloads are decoded
+ * by that header, so JSON and binary events can be mixed on a topic while producers migrate. The
+ * schema registry is only created for the first binary event, or at startup when binary encoding is
+ * configured, so the JSON encoding needs no registry file.
+ */
+@Component
+public class ProfileEventSerializer {
+
+    public static final String SCHEMA_ID_HEADER = "SCHEMA_ID";
+    public static final String JSON = "json";
+    public static final String BINARY = "binary";
+
+    private static final Set<String> BINARY_EVENT_TYPES = Set.of("USER_PROFILE_CREATE", "USER_PROFILE_UPDATE", "USER_PROFILE_ADD_SUBSCRIPTION");
+
+    private final Supplier<ProfileEventSchemaRegistry> schemaRegistry;
+    private final EventCodecPropsConfig eventCodecPropsConfig;
+    private final Map<String, ProfileEventSchema> schemasByEventType = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProfileEventSerializer(ObjectProvider<ProfileEventSchemaRegistry> schemaRegistry, EventCodecPropsConfig eventCodecPropsConfig) {
+        this.schemaRegistry = schemaRegistry::getObject;
+        this.eventCodecPropsConfig = eventCodecPropsConfig;
+    }
+
+    public ProfileEventSerializer(ProfileEventSchemaRegistry schemaRegistry, EventCodecPropsConfig eventCodecPropsConfig) {
+        this.schemaRegistry = () -> schemaRegistry;
+        this.eventCodecPropsConfig = eventCodecPropsConfig;
+    }
+
+    /**
+     * A misconfigured registry fails the startup instead of the first binary event.
+     */
+    @PostConstruct
+    public void init() {
+        if (BINARY.equalsIgnoreCase(eventCodecPropsConfig.getEncoding())) {
+            schemaRegistry.get();
+        }
+    }
+
+    public SerializedEvent serialize(UserProfileDTO userProfileDTO, String eventType) {
+        if (BINARY.equalsIgnoreCase(eventCodecPropsConfig.getEncoding()) && BINARY_EVENT_TYPES.contains(eventType)) {
+            ProfileEventSchema schema = schemasByEventType.computeIfAbsent(eventType,
+                    subject -> schemaRegistry.get().register(subject, ProfileEventCodec.FIELDS));
+            return new SerializedEvent(ProfileEventCodec.encode(userProfileDTO, schema), schema.getId());
+        }
+        return new SerializedEvent(JsonUtil.writeToJsonBytes(userProfileDTO), null);
+    }
+
+    /**
+     * @throws EventCodecException                                             for a malformed binary event
+     * @throws com.crafts.profileservice.exception.JsonDeserializationException for a malformed JSON event
+     */
+    public UserProfileDTO deserialize(byte[] payload, Headers headers) {
+        Header schemaIdHeader = headers.lastHeader(SCHEMA_ID_HEADER);
+        if (schemaIdHeader == null) {
+            return JsonUtil.readValue(payload, UserProfileDTO.class);
+        }
+        int schemaId;
+        try {
+            schemaId = Integer.parseInt(new String(schemaIdHeader.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            throw new EventCodecException("Malformed event schema id", e);
+        }
+        return ProfileEventCodec.decode(payload, schemaRegistry.get().getSchema(schemaId));
+    }
+
+    @Getter
+    public static final class SerializedEvent {
+        private final byte[] payload;
+        // null for JSON
+        private final Integer schemaId;
+
+        private SerializedEvent(byte[] payload, Integer schemaId) {
+            this.payload = payload;
+            this.schemaId = schemaId;
+        }
+
+        public String getEncoding() {
+            return schemaId != null ? BINARY : JSON;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.crafts.profileservice.exception;
+
+public class CacheCodecException extends RuntimeException {
+    public CacheCodecException(String message) {
+        super(message);
+    }
+
+    public CacheCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.crafts.profileservice.exception;
+
+public class DuplicateUserProfileException extends UserProfileRepositoryException {
+
+    public DuplicateUserProfileException(String message) {
+        super(message);
+    }
+
+    public DuplicateUserProfileException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
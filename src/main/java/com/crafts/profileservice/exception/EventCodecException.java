@@ -0,0 +1,11 @@
+package com.crafts.profileservice.exception;
+
+public class EventCodecException extends RuntimeException {
+    public EventCodecException(String message) {
+        super(message);
+    }
+
+    public EventCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
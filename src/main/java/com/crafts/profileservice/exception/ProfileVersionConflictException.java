@@ -0,0 +1,11 @@
+package com.crafts.profileservice.exception;
+
+/**
+ * The profile kept changing between reading it and writing a change, after all retries.
+ */
+public class ProfileVersionConflictException extends UserProfileRepositoryException {
+
+    public ProfileVersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -20,6 +20,7 @@ public interface UserProfileMapper {
 
     @Mapping(target = "consolidatedStatus", expression = "java(userProfile.getConsolidatedStatus() != null ? userProfile.getConsolidatedStatus() : String.valueOf(com.crafts.profileservice.enums.ValidationStatusEnum.IN_PROGRESS))")
     @Mapping(target = "timestamp", expression = "java(java.time.Instant.now().toString())")
+    @Mapping(target = "pendingStatus", ignore = true)
     UserProfileEO convertDTOTOEO(UserProfileDTO userProfile);
 
 }
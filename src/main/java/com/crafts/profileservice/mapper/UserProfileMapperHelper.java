@@ -1,12 +1,201 @@
 package com.crafts.profileservice.mapper;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.constans.ServiceConstants;
 import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.util.PageCursorUtil;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 public class UserProfileMapperHelper {
+
+    public static final String STATUS_PROJECTION = "consolidatedStatus, consolidatedMessage, subscriptionValidations";
+
+    /**
+     * Profile fields a read can be restricted to. The id and version are always included, the
+     * version identifies the representation for the ETag.
+     */
+    public static final Set<String> PROJECTABLE_FIELDS = Set.of("userId", "companyName", "legalName", "businessAddress", "legalAddress",
+            "taxIdentifiers", "email", "website", "consolidatedStatus", "consolidatedMessage", "timestamp", "subscriptions",
+            "subscriptionValidations", "version");
+    private static final List<String> ALWAYS_PROJECTED_FIELDS = List.of("userId", "version");
+
+    /**
+     * Maps the attributes read with {@link #STATUS_PROJECTION} to the validation result, or returns
+     * null when the item has no consolidated status.
+     */
+    public static UserProfileValidationResultDTO mapToValidationResult(String userId, Map<String, AttributeValue> result) {
+        if (result == null || !result.containsKey("consolidatedStatus")) {
+            return null;
+        }
+        UserProfileValidationResultDTO responseDTO = new UserProfileValidationResultDTO();
+        responseDTO.setUserId(userId);
+        responseDTO.setConsolidatedStatus(result.get("consolidatedStatus").getS());
+        if (result.containsKey("consolidatedMessage")) {
+            responseDTO.setConsolidatedMessage(result.get("consolidatedMessage").getS());
+        }
+        // Check if subscriptionValidations exist and is not empty
+        if (result.containsKey("subscriptionValidations") && !result.get("subscriptionValidations").getM().isEmpty()) {
+            Map<String, AttributeValue> subscriptionValidations = result.get("subscriptionValidations").getM();
+            for (Map.Entry<String, AttributeValue> entry : subscriptionValidations.entrySet()) {
+                ProductValidationStatus status = mapToProductValidationStatus(entry.getValue());
+                responseDTO.getSubscriptions().put(entry.getKey(), status);
+            }
+        }
+        return responseDTO;
+    }
+
+    /**
+     * The validation result of a full profile, the same view {@link #mapToValidationResult} builds
+     * from the status projection.
+     */
+    public static UserProfileValidationResultDTO toValidationResult(UserProfileDTO userProfileDTO) {
+        UserProfileValidationResultDTO responseDTO = new UserProfileValidationResultDTO();
+        responseDTO.setUserId(userProfileDTO.getUserId());
+        responseDTO.setConsolidatedStatus(userProfileDTO.getConsolidatedStatus());
+        responseDTO.setConsolidatedMessage(userProfileDTO.getConsolidatedMessage());
+        if (userProfileDTO.getSubscriptionValidations() != null) {
+            responseDTO.getSubscriptions().putAll(userProfileDTO.getSubscriptionValidations());
+        }
+        return responseDTO;
+    }
+
+    /**
+     * Validates the page size of a status listing, the default applies when none is given.
+     *
+     * @throws IllegalArgumentException for a size outside 1..{@value ServiceConstants#MAX_STATUS_PAGE_SIZE}
+     */
+    public static int toStatusPageSize(Integer limit) {
+        if (limit == null) {
+            return ServiceConstants.DEFAULT_STATUS_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > ServiceConstants.MAX_STATUS_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + ServiceConstants.MAX_STATUS_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    /**
+     * Replaces the validation results of a request with the stored ones, which the validation
+     * consolidates over, and fills in the stored subscriptions when the request has none.
+     */
+    public static UserProfileDTO withStoredValidations(UserProfileDTO userProfileDTO, UserProfileDTO storedProfileDTO) {
+        if (userProfileDTO.getSubscriptions() == null || userProfileDTO.getSubscriptions().isEmpty()) {
+            userProfileDTO.setSubscriptions(storedProfileDTO.getSubscriptions());
+        }
+        userProfileDTO.setSubscriptionValidations(storedProfileDTO.getSubscriptionValidations() == null
+                ? new HashMap<>() : new HashMap<>(storedProfileDTO.getSubscriptionValidations()));
+        return userProfileDTO;
+    }
+
+    /**
+     * The stored value of a status that can be listed, only profiles that wait for a validation
+     * result are on the status index.
+     *
+     * @throws IllegalArgumentException for an unknown status or one that is not pending
+     */
+    public static String toListedStatus(String status) {
+        ValidationStatusEnum validationStatus = ValidationStatusEnum.fromStatus(status);
+        if (!validationStatus.isPending()) {
+            throw new IllegalArgumentException("Only profiles " + ValidationStatusEnum.IN_PROGRESS.getStatus() + " or "
+                    + ValidationStatusEnum.NOT_COMPLETE.getStatus() + " can be listed by status");
+        }
+        return validationStatus.getStatus();
+    }
+
+    /**
+     * The start key of the next page of a status listing, null for the first page.
+     *
+     * @throws IllegalArgumentException for an invalid cursor or one of a listing of another status
+     */
+    public static Map<String, AttributeValue> toStatusStartKey(String cursor, String consolidatedStatus) {
+        if (cursor == null) {
+            return null;
+        }
+        Map<String, AttributeValue> exclusiveStartKey = PageCursorUtil.decode(cursor);
+        AttributeValue cursorStatus = exclusiveStartKey.get("pendingStatus");
+        if (cursorStatus == null || !consolidatedStatus.equals(cursorStatus.getS())) {
+            throw new IllegalArgumentException("The cursor belongs to a listing of another status");
+        }
+        return exclusiveStartKey;
+    }
+
+    /**
+     * The status update that marks a profile as not validated after its event could not be sent.
+     */
+    public static UserProfileDTO toNotCompleteStatus(String userId) {
+        UserProfileDTO failedUserProfileDTO = new UserProfileDTO();
+        failedUserProfileDTO.setUserId(userId);
+        failedUserProfileDTO.setConsolidatedStatus(ValidationStatusEnum.NOT_COMPLETE.getStatus());
+        failedUserProfileDTO.setConsolidatedMessage("Could not perform profile validation due to some unexpected error from a subscribed product.");
+        return failedUserProfileDTO;
+    }
+
+    /**
+     * A new consolidated status without a message clears the message left by the previous validation.
+     */
+    public static List<String> getRemovedAttributes(UserProfileDTO userProfileDTO) {
+        if (userProfileDTO.getConsolidatedStatus() != null && userProfileDTO.getConsolidatedMessage() == null) {
+            return List.of("consolidatedMessage");
+        }
+        return List.of();
+    }
+
+    /**
+     * Validates the requested fields and adds the ones every projection carries.
+     *
+     * @throws IllegalArgumentException for a field that is not in {@link #PROJECTABLE_FIELDS}
+     */
+    public static Set<String> toProjectedFields(Collection<String> fields) {
+        Set<String> projectedFields = new LinkedHashSet<>(ALWAYS_PROJECTED_FIELDS);
+        for (String field : fields) {
+            String trimmed = field.trim();
+            if (!PROJECTABLE_FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown profile field: " + trimmed + ". Supported fields are " + new TreeSet<>(PROJECTABLE_FIELDS));
+            }
+            projectedFields.add(trimmed);
+        }
+        return projectedFields;
+    }
+
+    /**
+     * A copy of the profile with only the {@code fields} set, see {@link #toProjectedFields}.
+     */
+    public static UserProfileDTO project(UserProfileDTO userProfileDTO, Set<String> fields) {
+        UserProfileDTO projected = new UserProfileDTO();
+        projected.setSubscriptionValidations(null);
+        for (String field : fields) {
+            switch (field) {
+                case "userId" -> projected.setUserId(userProfileDTO.getUserId());
+                case "companyName" -> projected.setCompanyName(userProfileDTO.getCompanyName());
+                case "legalName" -> projected.setLegalName(userProfileDTO.getLegalName());
+                case "businessAddress" -> projected.setBusinessAddress(userProfileDTO.getBusinessAddress());
+                case "legalAddress" -> projected.setLegalAddress(userProfileDTO.getLegalAddress());
+                case "taxIdentifiers" -> projected.setTaxIdentifiers(userProfileDTO.getTaxIdentifiers());
+                case "email" -> projected.setEmail(userProfileDTO.getEmail());
+                case "website" -> projected.setWebsite(userProfileDTO.getWebsite());
+                case "consolidatedStatus" -> projected.setConsolidatedStatus(userProfileDTO.getConsolidatedStatus());
+                case "consolidatedMessage" -> projected.setConsolidatedMessage(userProfileDTO.getConsolidatedMessage());
+                case "timestamp" -> projected.setTimestamp(userProfileDTO.getTimestamp());
+                case "subscriptions" -> projected.setSubscriptions(userProfileDTO.getSubscriptions());
+                case "subscriptionValidations" -> projected.setSubscriptionValidations(userProfileDTO.getSubscriptionValidations());
+                case "version" -> projected.setVersion(userProfileDTO.getVersion());
+                default -> throw new IllegalArgumentException("Unknown profile field: " + field);
+            }
+        }
+        return projected;
+    }
+
     public static ProductValidationStatus mapToProductValidationStatus(AttributeValue value) {
         if (value == null || value.getM() == null) {
             return null;
@@ -0,0 +1,139 @@
+package com.crafts.profileservice.metrics;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.crafts.profileservice.constans.MetricsConstants.*;
+
+/**
+ * Times every DynamoDB API call made through the client, including the calls the mapper issues for
+ * load, save, query and transactions, and records the capacity units consumed per table. Timers are
+ * tagged with the API operation (GetItem, UpdateItem, Query, ...), since that is what DynamoDB bills
+ * and throttles on. Requests that did not ask for consumed capacity are switched to TOTAL.
+ */
+public class DynamoDBMetricsRequestHandler extends RequestHandler2 {
+
+    private static final String TOTAL_CONSUMED_CAPACITY = ReturnConsumedCapacity.TOTAL.toString();
+    private static final HandlerContextKey<Long> START_NANOS = new HandlerContextKey<>("ProfileServiceStartNanos");
+
+    private final MeterRegistry meterRegistry;
+
+    public DynamoDBMetricsRequestHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest getItemRequest && getItemRequest.getReturnConsumedCapacity() == null) {
+            getItemRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof PutItemRequest putItemRequest && putItemRequest.getReturnConsumedCapacity() == null) {
+            putItemRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof UpdateItemRequest updateItemRequest && updateItemRequest.getReturnConsumedCapacity() == null) {
+            updateItemRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof DeleteItemRequest deleteItemRequest && deleteItemRequest.getReturnConsumedCapacity() == null) {
+            deleteItemRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof QueryRequest queryRequest && queryRequest.getReturnConsumedCapacity() == null) {
+            queryRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof ScanRequest scanRequest && scanRequest.getReturnConsumedCapacity() == null) {
+            scanRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof BatchGetItemRequest batchGetItemRequest && batchGetItemRequest.getReturnConsumedCapacity() == null) {
+            batchGetItemRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof BatchWriteItemRequest batchWriteItemRequest && batchWriteItemRequest.getReturnConsumedCapacity() == null) {
+            batchWriteItemRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof TransactWriteItemsRequest transactWriteItemsRequest && transactWriteItemsRequest.getReturnConsumedCapacity() == null) {
+            transactWriteItemsRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        } else if (request instanceof TransactGetItemsRequest transactGetItemsRequest && transactGetItemsRequest.getReturnConsumedCapacity() == null) {
+            transactGetItemsRequest.setReturnConsumedCapacity(TOTAL_CONSUMED_CAPACITY);
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        request.addHandlerContext(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        String operation = operationName(request);
+        recordLatency(request, operation, OUTCOME_SUCCESS);
+        if (response != null) {
+            for (ConsumedCapacity consumedCapacity : consumedCapacity(response.getAwsResponse())) {
+                if (consumedCapacity != null && consumedCapacity.getCapacityUnits() != null) {
+                    Counter.builder(DYNAMODB_CONSUMED_CAPACITY)
+                            .baseUnit("capacity.units")
+                            .tag(TAG_OPERATION, operation)
+                            .tag(TAG_TABLE, String.valueOf(consumedCapacity.getTableName()))
+                            .register(meterRegistry)
+                            .increment(consumedCapacity.getCapacityUnits());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        recordLatency(request, operationName(request), OUTCOME_ERROR);
+    }
+
+    private void recordLatency(Request<?> request, String operation, String outcome) {
+        Long startNanos = request.getHandlerContext(START_NANOS);
+        if (startNanos == null) {
+            return;
+        }
+        Timer.builder(DYNAMODB_OPERATION_TIMER)
+                .tag(TAG_OPERATION, operation)
+                .tag(TAG_OUTCOME, outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String operationName(Request<?> request) {
+        String operationName = request.getHandlerContext(HandlerContextKey.OPERATION_NAME);
+        if (operationName != null) {
+            return operationName;
+        }
+        return request.getOriginalRequest().getClass().getSimpleName().replace("Request", "");
+    }
+
+    private List<ConsumedCapacity> consumedCapacity(Object result) {
+        if (result instanceof GetItemResult getItemResult) {
+            return Collections.singletonList(getItemResult.getConsumedCapacity());
+        } else if (result instanceof PutItemResult putItemResult) {
+            return Collections.singletonList(putItemResult.getConsumedCapacity());
+        } else if (result instanceof UpdateItemResult updateItemResult) {
+            return Collections.singletonList(updateItemResult.getConsumedCapacity());
+        } else if (result instanceof DeleteItemResult deleteItemResult) {
+            return Collections.singletonList(deleteItemResult.getConsumedCapacity());
+        } else if (result instanceof QueryResult queryResult) {
+            return Collections.singletonList(queryResult.getConsumedCapacity());
+        } else if (result instanceof ScanResult scanResult) {
+            return Collections.singletonList(scanResult.getConsumedCapacity());
+        } else if (result instanceof BatchGetItemResult batchGetItemResult) {
+            return nullToEmpty(batchGetItemResult.getConsumedCapacity());
+        } else if (result instanceof BatchWriteItemResult batchWriteItemResult) {
+            return nullToEmpty(batchWriteItemResult.getConsumedCapacity());
+        } else if (result instanceof TransactWriteItemsResult transactWriteItemsResult) {
+            return nullToEmpty(transactWriteItemsResult.getConsumedCapacity());
+        } else if (result instanceof TransactGetItemsResult transactGetItemsResult) {
+            return nullToEmpty(transactGetItemsResult.getConsumedCapacity());
+        }
+        return Collections.emptyList();
+    }
+
+    private List<ConsumedCapacity> nullToEmpty(List<ConsumedCapacity> consumedCapacity) {
+        return consumedCapacity == null ? Collections.emptyList() : consumedCapacity;
+    }
+}
@@ -0,0 +1,29 @@
+package com.crafts.profileservice.migration;
+
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the idempotency marker of every profile created before markers existed, after which a
+ * duplicate create with their key is rejected by the create transaction alone. Until it finished,
+ * keys without a marker are only caught with aws.dynamoDB.idempotency-index-fallback-enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.idempotency-markers.enabled", havingValue = "true")
+public class IdempotencyMarkerMigration extends UserProfileMigration {
+
+    private final UserProfileRepositoryImpl userProfileRepository;
+
+    public IdempotencyMarkerMigration(UserProfileRepositoryImpl userProfileRepository) {
+        super(userProfileRepository);
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    @Override
+    protected boolean migrate(UserProfileEO userProfileEO) {
+        return userProfileEO.getIdempotencyKey() != null
+                && userProfileRepository.backfillIdempotencyMarker(userProfileEO.getIdempotencyKey(), userProfileEO.getUserId());
+    }
+}
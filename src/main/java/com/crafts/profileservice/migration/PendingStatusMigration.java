@@ -0,0 +1,32 @@
+package com.crafts.profileservice.migration;
+
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the pending status of the In Progress and Not Complete profiles written before the status
+ * index was keyed on it. A stuck profile gets no further status write by itself, so without the
+ * migration neither the status listing nor the re-drive worker would ever find it.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.pending-status.enabled", havingValue = "true")
+public class PendingStatusMigration extends UserProfileMigration {
+
+    private final UserProfileRepositoryImpl userProfileRepository;
+
+    public PendingStatusMigration(UserProfileRepositoryImpl userProfileRepository) {
+        super(userProfileRepository);
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    @Override
+    protected boolean migrate(UserProfileEO userProfileEO) {
+        // the pending status of the loaded profile is derived from its status, the stored one may be missing
+        String pendingStatus = ValidationStatusEnum.toPendingStatus(userProfileEO.getConsolidatedStatus());
+        return pendingStatus != null
+                && userProfileRepository.backfillPendingStatus(userProfileEO.getUserId(), userProfileEO.getConsolidatedStatus(), pendingStatus);
+    }
+}
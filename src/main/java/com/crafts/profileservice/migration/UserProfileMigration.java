@@ -0,0 +1,54 @@
+package com.crafts.profileservice.migration;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.util.Map;
+
+/**
+ * A one-off migration of the existing profiles. It scans the profile table once at startup, before
+ * the instance reports ready, so it is enabled on a single instance, e.g. a job started with the
+ * release, and switched off again once it finished. Migrations are idempotent, an interrupted run is
+ * simply started again.
+ */
+@Slf4j
+public abstract class UserProfileMigration implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final UserProfileRepositoryImpl userProfileRepository;
+
+    protected UserProfileMigration(UserProfileRepositoryImpl userProfileRepository) {
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String name = getClass().getSimpleName();
+        log.info("Starting {}", name);
+        long scanned = 0;
+        long migrated = 0;
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanResultPage<UserProfileEO> page = userProfileRepository.scanSegment(0, 1, exclusiveStartKey, null, PAGE_SIZE);
+            for (UserProfileEO userProfileEO : page.getResults()) {
+                scanned++;
+                if (migrate(userProfileEO)) {
+                    migrated++;
+                }
+            }
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null);
+        log.info("Finished {}, migrated {} of {} profiles", name, migrated, scanned);
+    }
+
+    /**
+     * @return whether the profile was changed
+     */
+    protected abstract boolean migrate(UserProfileEO userProfileEO);
+}
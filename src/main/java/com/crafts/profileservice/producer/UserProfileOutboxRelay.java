@@ -0,0 +1,153 @@
+package com.crafts.profileservice.producer;
+
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.JsonDeserializationException;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.impl.UserProfileLeaseRepositoryImpl;
+import com.crafts.profileservice.repository.impl.UserProfileOutboxRepositoryImpl;
+import com.crafts.profileservice.util.JsonUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the profile event outbox to Kafka. An instance only relays the shards it holds a lease for,
+ * so each shard has one relay at a time. Each batch holds the oldest events of a shard, is published
+ * without waiting in between, and the events up to the first one the broker did not acknowledge are
+ * deleted. Everything after that is sent again, so delivery is at-least-once. Events of a user are
+ * sent in outbox order, but a send retry or a re-sent batch can deliver an older event after a newer
+ * one, so consumers must tolerate duplicates and out-of-order events. A run relays at most
+ * {@code outbox.relay.max.batches.per.run} batches per shard, so a large backlog does not hold up the
+ * other shards and the scheduler.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class UserProfileOutboxRelay {
+
+    private static final String LEASE_KEY_PREFIX = "outbox-relay-";
+
+    private final UserProfileOutboxRepositoryImpl userProfileOutboxRepository;
+    private final UserProfileLeaseRepositoryImpl userProfileLeaseRepository;
+    private final UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+    private final OutboxPropsConfig outboxPropsConfig;
+    private final String owner = UUID.randomUUID().toString();
+    private final Set<Integer> heldShards = ConcurrentHashMap.newKeySet();
+
+    public UserProfileOutboxRelay(UserProfileOutboxRepositoryImpl userProfileOutboxRepository, UserProfileLeaseRepositoryImpl userProfileLeaseRepository,
+                                  UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer, OutboxPropsConfig outboxPropsConfig) {
+        this.userProfileOutboxRepository = userProfileOutboxRepository;
+        this.userProfileLeaseRepository = userProfileLeaseRepository;
+        this.userProfileSubmissionKafkaProducer = userProfileSubmissionKafkaProducer;
+        this.outboxPropsConfig = outboxPropsConfig;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Hand the shards over right away instead of after the lease expired
+        for (Integer shardId : heldShards) {
+            try {
+                userProfileLeaseRepository.release(LEASE_KEY_PREFIX + shardId, owner);
+            } catch (UserProfileRepositoryException e) {
+                log.warn("Failed to release outbox relay lease of shard {}", shardId, e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval.ms:500}")
+    public void relay() {
+        for (int shardId = 0; shardId < outboxPropsConfig.getShardCount(); shardId++) {
+            try {
+                // Keep draining a shard while it returns full batches that were relayed completely
+                for (int batch = 0; batch < outboxPropsConfig.getRelayMaxBatchesPerRun(); batch++) {
+                    if (!holdLease(shardId) || relayShard(shardId) < outboxPropsConfig.getRelayBatchSize()) {
+                        break;
+                    }
+                    log.debug("Outbox shard {} has more events, relaying next batch", shardId);
+                }
+            } catch (UserProfileRepositoryException e) {
+                log.error("Failed to relay outbox events of shard {}", shardId, e);
+            }
+        }
+    }
+
+    /**
+     * Acquires or renews the lease of a shard, renewing before every batch keeps a slow batch from
+     * outliving the lease.
+     */
+    private boolean holdLease(int shardId) {
+        if (!userProfileLeaseRepository.tryAcquire(LEASE_KEY_PREFIX + shardId, owner, outboxPropsConfig.getRelayLeaseDurationMs())) {
+            heldShards.remove(shardId);
+            return false;
+        }
+        heldShards.add(shardId);
+        return true;
+    }
+
+    /**
+     * Relays one batch of a shard and returns the number of events that were published and deleted.
+     */
+    public int relayShard(int shardId) {
+        List<UserProfileOutboxEO> events = userProfileOutboxRepository.findEvents(shardId, outboxPropsConfig.getRelayBatchSize());
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<?>> acknowledgements = new ArrayList<>(events.size());
+        for (UserProfileOutboxEO event : events) {
+            acknowledgements.add(send(event));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(outboxPropsConfig.getRelaySendTimeoutMs());
+        List<UserProfileOutboxEO> relayed = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            if (!awaitAcknowledgement(acknowledgements.get(i), deadline, events.get(i))) {
+                break;
+            }
+            relayed.add(events.get(i));
+        }
+        if (!relayed.isEmpty()) {
+            userProfileOutboxRepository.delete(relayed);
+        }
+        log.info("Relayed {} of {} outbox events from shard {}", relayed.size(), events.size(), shardId);
+        return relayed.size();
+    }
+
+    /**
+     * Outbox payloads are stored as JSON and re-encoded with the configured event encoding.
+     */
+    private CompletableFuture<?> send(UserProfileOutboxEO event) {
+        try {
+            UserProfileDTO userProfileDTO = JsonUtil.readValue(event.getPayload(), UserProfileDTO.class);
+            return userProfileSubmissionKafkaProducer.send(userProfileDTO, event.getEventType(), event.getUserId());
+        } catch (KafkaProcessingException | JsonDeserializationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitAcknowledgement(CompletableFuture<?> acknowledgement, long deadline, UserProfileOutboxEO event) {
+        try {
+            acknowledgement.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Outbox event {} of userId {} was not acknowledged, it will be relayed again", event.getEventId(), event.getUserId(), e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.crafts.profileservice.producer;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.config.props.RedrivePropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.constans.ProfileServiceCache;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.mapper.UserProfileMapperHelper;
+import com.crafts.profileservice.repository.impl.UserProfileLeaseRepositoryImpl;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.ProductValidationService;
+import com.crafts.profileservice.service.UserProfileService;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Re-publishes the events of profiles that got stuck: NOT_COMPLETE after a failed send, or
+ * IN_PROGRESS without a validation response for too long. Profiles are split into shards by user id
+ * and an instance only works on the shards it holds a lease for, which it keeps renewing until it
+ * stops. Each profile is claimed with a write that is conditional on the status and timestamp it was
+ * found with, so a profile is re-driven once even when a lease changes hands mid run. The claim
+ * refreshes the timestamp, so a re-driven profile is only picked up again once it aged again.
+ * Each stuck status is queried once per run and the profiles are split between the held shards
+ * afterwards. Sends are rate limited and capped per shard and run to not flood the validators after
+ * an outage. With fan-out enabled the profiles are validated in this service instead of over Kafka.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "redrive.enabled", havingValue = "true")
+public class UserProfileRedriveWorker {
+
+    private static final String LEASE_KEY_PREFIX = "profile-redrive-";
+
+    private final UserProfileRepositoryImpl userProfileRepository;
+    private final UserProfileLeaseRepositoryImpl userProfileLeaseRepository;
+    private final UserProfileMapper userProfileMapper;
+    private final UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+    private final CacheManager cacheManager;
+    private final RedrivePropsConfig redrivePropsConfig;
+    private final ProductValidationService productValidationService;
+    private final UserProfileService userProfileService;
+    private final ValidationPropsConfig validationPropsConfig;
+    private final String owner = UUID.randomUUID().toString();
+    private final Set<Integer> heldShards = ConcurrentHashMap.newKeySet();
+    private RateLimiter rateLimiter;
+
+    public UserProfileRedriveWorker(UserProfileRepositoryImpl userProfileRepository, UserProfileLeaseRepositoryImpl userProfileLeaseRepository,
+                                    UserProfileMapper userProfileMapper, UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer,
+                                    CacheManager cacheManager, RedrivePropsConfig redrivePropsConfig,
+                                    ProductValidationService productValidationService, UserProfileService userProfileService,
+                                    ValidationPropsConfig validationPropsConfig) {
+        this.userProfileRepository = userProfileRepository;
+        this.userProfileLeaseRepository = userProfileLeaseRepository;
+        this.userProfileMapper = userProfileMapper;
+        this.userProfileSubmissionKafkaProducer = userProfileSubmissionKafkaProducer;
+        this.cacheManager = cacheManager;
+        this.redrivePropsConfig = redrivePropsConfig;
+        this.productValidationService = productValidationService;
+        this.userProfileService = userProfileService;
+        this.validationPropsConfig = validationPropsConfig;
+    }
+
+    @PostConstruct
+    public void init() {
+        rateLimiter = RateLimiter.of("profile-redrive", RateLimiterConfig.custom()
+                .limitForPeriod(redrivePropsConfig.getRatePerSecond())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMillis(redrivePropsConfig.getSendTimeoutMs()))
+                .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Hand the shards over right away instead of after the lease expired
+        for (Integer shardId : heldShards) {
+            try {
+                userProfileLeaseRepository.release(LEASE_KEY_PREFIX + shardId, owner);
+            } catch (UserProfileRepositoryException e) {
+                log.warn("Failed to release re-drive lease of shard {}", shardId, e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${redrive.interval.ms:60000}")
+    public void redrive() {
+        Set<Integer> shardIds = acquireShards();
+        if (!shardIds.isEmpty()) {
+            redriveShards(shardIds);
+        }
+    }
+
+    private Set<Integer> acquireShards() {
+        Set<Integer> shardIds = new HashSet<>();
+        for (int shardId = 0; shardId < redrivePropsConfig.getShardCount(); shardId++) {
+            try {
+                if (userProfileLeaseRepository.tryAcquire(LEASE_KEY_PREFIX + shardId, owner, redrivePropsConfig.getLeaseDurationMs())) {
+                    heldShards.add(shardId);
+                    shardIds.add(shardId);
+                } else {
+                    heldShards.remove(shardId);
+                }
+            } catch (UserProfileRepositoryException e) {
+                log.error("Failed to acquire re-drive lease of shard {}", shardId, e);
+            }
+        }
+        return shardIds;
+    }
+
+    /**
+     * Claims up to a batch of the stuck profiles of each given shard, publishes their events and
+     * rolls the ones that were not acknowledged back to NOT_COMPLETE. Returns the number of
+     * acknowledged events.
+     */
+    public int redriveShards(Set<Integer> shardIds) {
+        Instant now = Instant.now();
+        Map<Integer, List<UserProfileDTO>> claimed = new LinkedHashMap<>();
+        shardIds.forEach(shardId -> claimed.put(shardId, new ArrayList<>()));
+        try {
+            claim(ValidationStatusEnum.NOT_COMPLETE, now.minusMillis(redrivePropsConfig.getNotCompleteAfterMs()), claimed);
+            claim(ValidationStatusEnum.IN_PROGRESS, now.minusMillis(redrivePropsConfig.getInProgressAfterMs()), claimed);
+        } catch (UserProfileRepositoryException e) {
+            // The profiles claimed so far are IN_PROGRESS already and still have to be sent
+            log.error("Failed to claim stuck profiles of shards {}", shardIds, e);
+        }
+        List<UserProfileDTO> profiles = claimed.values().stream().flatMap(List::stream).toList();
+        if (profiles.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<?>> acknowledgements = new ArrayList<>(profiles.size());
+        for (UserProfileDTO userProfileDTO : profiles) {
+            acknowledgements.add(send(userProfileDTO));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(redrivePropsConfig.getSendTimeoutMs());
+        int acknowledged = 0;
+        for (int i = 0; i < profiles.size(); i++) {
+            if (awaitAcknowledgement(acknowledgements.get(i), deadline, profiles.get(i))) {
+                acknowledged++;
+            } else {
+                handleRollback(profiles.get(i).getUserId());
+            }
+        }
+        log.info("Re-drove {} of {} stuck profiles of shards {}", acknowledged, profiles.size(), shardIds);
+        return acknowledged;
+    }
+
+    private void claim(ValidationStatusEnum status, Instant updatedBefore, Map<Integer, List<UserProfileDTO>> claimed) {
+        int batchSize = redrivePropsConfig.getBatchSize();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            QueryResultPage<UserProfileEO> page = userProfileRepository.getUserProfilesByStatus(status.getStatus(), updatedBefore.toString(),
+                    exclusiveStartKey, batchSize * claimed.size());
+            for (UserProfileEO userProfileEO : page.getResults()) {
+                List<UserProfileDTO> shardClaimed = claimed.get(shardOf(userProfileEO.getUserId()));
+                if (shardClaimed != null && shardClaimed.size() < batchSize && claim(userProfileEO)) {
+                    UserProfileDTO userProfileDTO = userProfileMapper.convertEOtoDTO(userProfileEO);
+                    userProfileDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+                    shardClaimed.add(userProfileDTO);
+                }
+            }
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null && claimed.values().stream().anyMatch(shardClaimed -> shardClaimed.size() < batchSize));
+    }
+
+    private boolean claim(UserProfileEO userProfileEO) {
+        UserProfileDTO statusDTO = new UserProfileDTO();
+        statusDTO.setUserId(userProfileEO.getUserId());
+        statusDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+        boolean claimed = userProfileRepository.updateIfUnchanged(userProfileEO.getUserId(), userProfileMapper.convertDTOTOEO(statusDTO),
+                userProfileEO.getConsolidatedStatus(), userProfileEO.getTimestamp());
+        if (claimed) {
+            evictCaches(userProfileEO.getUserId());
+        }
+        return claimed;
+    }
+
+    /**
+     * A profile that never got a validation result is re-driven as a create, any other as an update.
+     */
+    private CompletableFuture<?> send(UserProfileDTO userProfileDTO) {
+        boolean createFlow = userProfileDTO.getSubscriptionValidations() == null || userProfileDTO.getSubscriptionValidations().isEmpty();
+        userProfileDTO.setCreateFlow(createFlow);
+        String eventType = createFlow ? "USER_PROFILE_CREATE" : "USER_PROFILE_UPDATE";
+        try {
+            if (!rateLimiter.acquirePermission()) {
+                return CompletableFuture.failedFuture(new KafkaProcessingException("Timed out waiting for a re-drive permit", null));
+            }
+            if (validationPropsConfig.isFanoutEnabled()) {
+                return validateInService(userProfileDTO);
+            }
+            return userProfileSubmissionKafkaProducer.send(userProfileDTO, eventType, userProfileDTO.getUserId());
+        } catch (KafkaProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Validates in this service like a single create or update. The profile counts as acknowledged
+     * once its result is saved, so a failed or late validation is rolled back like an unacknowledged
+     * send.
+     */
+    private CompletableFuture<?> validateInService(UserProfileDTO userProfileDTO) {
+        return productValidationService.validate(userProfileDTO)
+                .publishOn(Schedulers.boundedElastic())
+                .map(userProfileService::updateAfterValidation)
+                .toFuture();
+    }
+
+    private boolean awaitAcknowledgement(CompletableFuture<?> acknowledgement, long deadline, UserProfileDTO userProfileDTO) {
+        try {
+            acknowledgement.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Re-driven event of userId {} was not acknowledged", userProfileDTO.getUserId(), e);
+            // stops a validation that is still running from saving its result after the rollback
+            acknowledgement.cancel(true);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void handleRollback(String userId) {
+        try {
+            UserProfileDTO failedUserProfileDTO = UserProfileMapperHelper.toNotCompleteStatus(userId);
+            userProfileRepository.update(userId, userProfileMapper.convertDTOTOEO(failedUserProfileDTO));
+            evictCaches(userId);
+        } catch (RuntimeException e) {
+            log.error("Failed to roll back status of re-driven userId {}", userId, e);
+        }
+    }
+
+    private void evictCaches(String userId) {
+        for (String cacheName : List.of(ProfileServiceCache.USER_PROFILE_CACHE, ProfileServiceCache.USER_PROFILE_STATUS_CACHE)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(userId);
+            }
+        }
+    }
+
+    private int shardOf(String userId) {
+        return Math.floorMod(Objects.hashCode(userId), redrivePropsConfig.getShardCount());
+    }
+}
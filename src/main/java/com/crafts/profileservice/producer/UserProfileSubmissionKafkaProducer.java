@@ -1,8 +1,19 @@
 package com.crafts.profileservice.producer;
 
 import com.crafts.profileservice.config.props.KafkaPropsConfig;
+import com.crafts.profileservice.constans.MetricsConstants;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.event.ProfileEventSerializer;
+import com.crafts.profileservice.event.ProfileEventSerializer.SerializedEvent;
 import com.crafts.profileservice.exception.KafkaProcessingException;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
@@ -10,42 +21,169 @@ import org.apache.kafka.common.header.internals.RecordHeader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Publishes user profile events without waiting for broker acknowledgements.
+ * <p>
+ * Events are keyed by userId, so all events of a user land on the same partition in the order they
+ * were sent and consumers can shard their state by user. Payloads are JSON or binary as configured
+ * for {@link ProfileEventSerializer}, their size is recorded per encoding.
+ * <p>
+ * At most {@code spring.kafka.producer.max.in.flight.records} records are unacknowledged per instance.
+ * When the window is full the caller waits for a short, bounded time and is then rejected with a
+ * {@link KafkaProcessingException}, which pushes back on request threads instead of buffering without
+ * limit. The permit is taken before the retry, so the rejection reaches the caller synchronously and is
+ * never retried, and it is held until the last attempt completes. Failed sends are retried
+ * asynchronously with the {@code kafka-producer-retry} instance and the future completes exceptionally
+ * once retries are exhausted. Returned futures complete on a dedicated callback pool, never on the
+ * Kafka I/O thread, so dependent actions such as a status rollback may block.
+ */
 @Component
 @Slf4j
 public class UserProfileSubmissionKafkaProducer {
     @Autowired
     private KafkaPropsConfig kafkaPropsConfig;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ProfileEventSerializer profileEventSerializer;
+    private final Retry retry;
+    private Semaphore inFlightPermits;
+    private ScheduledExecutorService callbackExecutor;
 
-    public UserProfileSubmissionKafkaProducer(@Qualifier("userProfileSubmissionKafkaTemplate") KafkaTemplate<String, String> kafkaTemplate) {
+    public UserProfileSubmissionKafkaProducer(@Qualifier("userProfileSubmissionKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate,
+                                              MeterRegistry meterRegistry, ProfileEventSerializer profileEventSerializer, RetryRegistry retryRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.profileEventSerializer = profileEventSerializer;
+        this.retry = retryRegistry.retry("kafka-producer-retry");
     }
 
-    @Retry(name = "kafka-producer-retry", fallbackMethod = "sendFallback")
-    public <T> void send(String message, String eventType, String key) throws KafkaProcessingException {
+    @PostConstruct
+    public void init() {
+        inFlightPermits = new Semaphore(kafkaPropsConfig.getProducerMaxInFlightRecords());
+        Gauge.builder(MetricsConstants.KAFKA_IN_FLIGHT, this, UserProfileSubmissionKafkaProducer::getInFlightRecords)
+                .description("Records sent to the broker and not yet acknowledged")
+                .register(meterRegistry);
+        // Also schedules the retry backoffs
+        callbackExecutor = Executors.newScheduledThreadPool(kafkaPropsConfig.getProducerCallbackThreads(),
+                new CustomizableThreadFactory("kafka-send-callback-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackExecutor.shutdown();
+    }
+
+    public CompletableFuture<SendResult<String, byte[]>> send(UserProfileDTO userProfileDTO, String eventType, String key) throws KafkaProcessingException {
         String userProfileSubmissionTopic = kafkaPropsConfig.getUserProfileSubmissionTopic();
         if (null==userProfileSubmissionTopic) {
-            log.error("User profile submission topic is not available ignoring message {}, Event type {}", message, eventType);
-            return;
+            log.error("User profile submission topic is not available ignoring message of userId {}, Event type {}", key, eventType);
+            return CompletableFuture.completedFuture(null);
+        }
+        acquireInFlightPermit(userProfileSubmissionTopic, eventType);
+        ProducerRecord<String, byte[]> producerRecord;
+        try {
+            SerializedEvent event = profileEventSerializer.serialize(userProfileDTO, eventType);
+            List<Header> headers = new ArrayList<>(List.of(new RecordHeader("EVENT_TYPE", eventType.getBytes()), new RecordHeader("USER_ID", key.getBytes())));
+            if (event.getSchemaId() != null) {
+                headers.add(new RecordHeader(ProfileEventSerializer.SCHEMA_ID_HEADER, event.getSchemaId().toString().getBytes(StandardCharsets.UTF_8)));
+            }
+            recordPayloadSize(eventType, event);
+            producerRecord = new ProducerRecord<>(userProfileSubmissionTopic, null, null, key, event.getPayload(), headers);
+        } catch (Exception e) {
+            inFlightPermits.release();
+            recordFailure(eventType, "serialize");
+            throw new KafkaProcessingException("Error while serializing message to :" + userProfileSubmissionTopic, e);
         }
+        CompletableFuture<SendResult<String, byte[]>> result = new CompletableFuture<>();
+        retry.executeCompletionStage(callbackExecutor, () -> sendOnce(producerRecord, eventType))
+                .whenComplete((sendResult, ex) -> {
+                    inFlightPermits.release();
+                    if (ex == null) {
+                        result.complete(sendResult);
+                        return;
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    log.error("Failed to send message after retries for userId: {}. Reason: {}", key, cause.getMessage());
+                    recordFailure(eventType, "retries.exhausted");
+                    result.completeExceptionally(new KafkaProcessingException("Failed to send message for userId " + key + " after retries", cause));
+                });
+        return result;
+    }
+
+    /**
+     * One attempt of a send, a failure to hand the record to the producer completes the future
+     * exceptionally like a broker rejection, so both are retried.
+     */
+    private CompletableFuture<SendResult<String, byte[]>> sendOnce(ProducerRecord<String, byte[]> producerRecord, String eventType) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            List<Header> headers = Arrays.asList(new RecordHeader("EVENT_TYPE", eventType.getBytes()), new RecordHeader("USER_ID", key.getBytes()));
-            ProducerRecord<String, String> producerRecord = new ProducerRecord<>(
-                    userProfileSubmissionTopic, null, null, null, message, headers);
-            log.info("Sending message to Topic: {}, Event type {}", userProfileSubmissionTopic, eventType);
-            kafkaTemplate.send(producerRecord);
-        }catch (Exception e){
-            log.info("Exception in sending message to Topic: {}, Event type {}", userProfileSubmissionTopic, eventType);
-            throw new KafkaProcessingException("Error while sending message to :" + userProfileSubmissionTopic, e);
+            log.info("Sending message to Topic: {}, Event type {}", producerRecord.topic(), eventType);
+            return kafkaTemplate.send(producerRecord).whenCompleteAsync((result, ex) -> {
+                recordSend(sample, eventType, ex == null ? MetricsConstants.OUTCOME_SUCCESS : MetricsConstants.OUTCOME_ERROR);
+                if (ex != null) {
+                    recordFailure(eventType, "broker");
+                    log.error("Broker rejected message to Topic: {}, Event type {}, userId {}", producerRecord.topic(), eventType, producerRecord.key(), ex);
+                }
+            }, callbackExecutor);
+        } catch (Exception e) {
+            recordSend(sample, eventType, MetricsConstants.OUTCOME_ERROR);
+            recordFailure(eventType, "send");
+            log.info("Exception in sending message to Topic: {}, Event type {}", producerRecord.topic(), eventType);
+            return CompletableFuture.failedFuture(new KafkaProcessingException("Error while sending message to :" + producerRecord.topic(), e));
         }
     }
-    // Fallback method
-    public <T> void sendFallback(String message, String eventType, String key, Exception e) {
-        log.error("Failed to send message after validation for userId: {}. Reason: {}", key, e.getMessage());
+
+    public int getInFlightRecords() {
+        return kafkaPropsConfig.getProducerMaxInFlightRecords() - inFlightPermits.availablePermits();
+    }
+
+    private void recordSend(Timer.Sample sample, String eventType, String outcome) {
+        sample.stop(Timer.builder(MetricsConstants.KAFKA_SEND_TIMER)
+                .tag(MetricsConstants.TAG_EVENT_TYPE, eventType)
+                .tag(MetricsConstants.TAG_OUTCOME, outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private void recordPayloadSize(String eventType, SerializedEvent event) {
+        DistributionSummary.builder(MetricsConstants.KAFKA_PAYLOAD_SIZE)
+                .baseUnit("bytes")
+                .tag(MetricsConstants.TAG_EVENT_TYPE, eventType)
+                .tag(MetricsConstants.TAG_ENCODING, event.getEncoding())
+                .register(meterRegistry)
+                .record(event.getPayload().length);
+    }
+
+    private void recordFailure(String eventType, String reason) {
+        meterRegistry.counter(MetricsConstants.KAFKA_SEND_FAILURES,
+                MetricsConstants.TAG_EVENT_TYPE, eventType, MetricsConstants.TAG_REASON, reason).increment();
+    }
+
+    private void acquireInFlightPermit(String topic, String eventType) throws KafkaProcessingException {
+        try {
+            if (!inFlightPermits.tryAcquire(kafkaPropsConfig.getProducerInFlightAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                recordFailure(eventType, "backpressure");
+                log.error("In-flight window of {} records is full, rejecting message to Topic: {}, Event type {}",
+                        kafkaPropsConfig.getProducerMaxInFlightRecords(), topic, eventType);
+                throw new KafkaProcessingException("Too many unacknowledged messages to :" + topic, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaProcessingException("Interrupted while waiting to send message to :" + topic, e);
+        }
     }
 }
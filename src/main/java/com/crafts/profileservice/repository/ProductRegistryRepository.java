@@ -0,0 +1,9 @@
+package com.crafts.profileservice.repository;
+
+import com.crafts.profileservice.entity.ProductRegistryEO;
+
+import java.util.List;
+
+public interface ProductRegistryRepository {
+    List<ProductRegistryEO> findAll();
+}
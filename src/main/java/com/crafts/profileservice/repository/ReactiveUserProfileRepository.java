@@ -0,0 +1,38 @@
+package com.crafts.profileservice.repository;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link UserProfileRepository}. Signals the same exceptions as the
+ * blocking repository as errors, a profile that does not exist completes empty.
+ */
+public interface ReactiveUserProfileRepository {
+
+    Mono<UserProfileEO> save(UserProfileEO userProfile, UserProfileOutboxEO outboxEvent);
+
+    Mono<UserProfileEO> getUserProfileById(String userId);
+
+    Mono<UserProfileEO> getUserProfileById(String userId, Collection<String> attributeNames);
+
+    Flux<UserProfileEO> getUserProfilesByIds(Collection<String> userIds);
+
+    Mono<QueryResultPage<UserProfileEO>> getUserProfilesByStatus(String consolidatedStatus, Map<String, AttributeValue> exclusiveStartKey, int limit);
+
+    Mono<Void> delete(String userId);
+
+    Mono<UserProfileEO> update(String userId, UserProfileEO userProfile, UserProfileOutboxEO outboxEvent);
+
+    Mono<UserProfileEO> updateChanges(String userId, UserProfileEO currentProfile, UserProfileEO changes, Collection<String> removedAttributes);
+
+    Mono<Void> saveOutboxEvent(UserProfileOutboxEO outboxEvent);
+
+    Mono<Map<String, AttributeValue>> getUserProfileAttributesById(String userId, String projectionExpression);
+}
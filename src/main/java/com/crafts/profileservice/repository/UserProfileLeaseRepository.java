@@ -0,0 +1,7 @@
+package com.crafts.profileservice.repository;
+
+public interface UserProfileLeaseRepository {
+    boolean tryAcquire(String leaseKey, String owner, long durationMillis);
+
+    void release(String leaseKey, String owner);
+}
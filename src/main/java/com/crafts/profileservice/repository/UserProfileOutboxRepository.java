@@ -0,0 +1,13 @@
+package com.crafts.profileservice.repository;
+
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+
+import java.util.List;
+
+public interface UserProfileOutboxRepository {
+    void save(UserProfileOutboxEO outboxEvent);
+
+    List<UserProfileOutboxEO> findEvents(int shardId, int limit);
+
+    void delete(List<UserProfileOutboxEO> outboxEvents);
+}
@@ -1,20 +1,48 @@
 package com.crafts.profileservice.repository;
 
 import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public interface UserProfileRepository {
     UserProfileEO save(UserProfileEO userProfile);
 
+    UserProfileEO save(UserProfileEO userProfile, UserProfileOutboxEO outboxEvent);
+
     UserProfileEO getUserProfileById(String userId);
 
+    UserProfileEO getUserProfileById(String userId, Collection<String> attributeNames);
+
+    List<UserProfileEO> getUserProfilesByIds(Collection<String> userIds);
+
+    QueryResultPage<UserProfileEO> getUserProfilesByStatus(String consolidatedStatus, Map<String, AttributeValue> exclusiveStartKey, int limit);
+
+    boolean updateIfUnchanged(String userId, UserProfileEO userProfile, String expectedStatus, String expectedTimestamp);
+
+    QueryResultPage<UserProfileEO> getUserProfilesByStatus(String consolidatedStatus, String updatedBefore, Map<String, AttributeValue> exclusiveStartKey, int limit);
+
+    ScanResultPage<UserProfileEO> scanSegment(int segment, int totalSegments, Map<String, AttributeValue> exclusiveStartKey,
+                                              String consolidatedStatus, int limit);
+
+    Map<String, String> findUserIdsByIdempotencyKeys(Collection<String> idempotencyKeys);
+
+    Map<String, UserProfileRepositoryException> saveAll(List<UserProfileEO> userProfiles, Map<String, UserProfileOutboxEO> outboxEventsByUserId);
+
     void delete(String userId);
 
     UserProfileEO update(String userId, UserProfileEO userProfile);
 
+    UserProfileEO update(String userId, UserProfileEO userProfile, UserProfileOutboxEO outboxEvent);
+
+    UserProfileEO updateChanges(String userId, UserProfileEO currentProfile, UserProfileEO changes, Collection<String> removedAttributes);
+
     Map<String,AttributeValue> getUserProfileAttributesById(String userId, String projectExpression);
-    boolean existsByIdempotencyKey(String idempotencyKey);
 }
@@ -0,0 +1,34 @@
+package com.crafts.profileservice.repository.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.model.AmazonDynamoDBException;
+import com.crafts.profileservice.entity.ProductRegistryEO;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.ProductRegistryRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class ProductRegistryRepositoryImpl implements ProductRegistryRepository {
+
+    private final DynamoDBMapper dynamoDBMapper;
+
+    public ProductRegistryRepositoryImpl(DynamoDBMapper dynamoDBMapper) {
+        this.dynamoDBMapper = dynamoDBMapper;
+    }
+
+    /**
+     * Reads the whole registry. It holds a handful of products, so this is a scan of a page or two.
+     */
+    public List<ProductRegistryEO> findAll() {
+        try {
+            // the paginated list loads lazily, copy it while the errors are still mapped here
+            return new ArrayList<>(dynamoDBMapper.scan(ProductRegistryEO.class, new DynamoDBScanExpression()));
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to read product registry due to DynamoDB error", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.crafts.profileservice.repository.impl;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * ProjectionExpression over top-level profile attributes, with name placeholders since some
+ * attribute names, such as timestamp, are DynamoDB reserved words.
+ */
+final class ProfileProjectionExpression {
+
+    private final String expression;
+    private final Map<String, String> names = new HashMap<>();
+
+    ProfileProjectionExpression(Collection<String> attributeNames) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (String attributeName : attributeNames) {
+            String placeholder = "#p" + names.size();
+            names.put(placeholder, attributeName);
+            joiner.add(placeholder);
+        }
+        this.expression = joiner.toString();
+    }
+
+    String getExpression() {
+        return expression;
+    }
+
+    Map<String, String> getNames() {
+        return names;
+    }
+}
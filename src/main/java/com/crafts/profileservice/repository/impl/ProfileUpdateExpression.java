@@ -0,0 +1,264 @@
+package com.crafts.profileservice.repository.impl;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * UpdateItem expression with generated attribute name and value placeholders, so attribute names
+ * never clash with DynamoDB reserved words. Paths into map attributes are written as
+ * {@code #a0.#a1}, which lets an update touch single keys of a map such as subscriptionValidations.
+ * The versioned factories also maintain the profile's {@value #VERSION} attribute for optimistic locking,
+ * and drop {@value #PENDING_STATUS} when a new consolidated status is not pending, which takes the
+ * profile off the status index.
+ */
+final class ProfileUpdateExpression {
+
+    static final String USER_ID = "userId";
+    static final String VERSION = "version";
+    static final String SUBSCRIPTION_VALIDATIONS = "subscriptionValidations";
+    static final String CONSOLIDATED_STATUS = "consolidatedStatus";
+    static final String PENDING_STATUS = "pendingStatus";
+
+    private final StringJoiner setClauses = new StringJoiner(", ", "SET ", "");
+    private final StringJoiner removeClauses = new StringJoiner(", ", "REMOVE ", "");
+    private final Map<String, String> placeholdersByName = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final Map<String, AttributeValue> values = new HashMap<>();
+    private final StringJoiner conditions = new StringJoiner(" AND ");
+    private Map<String, AttributeValue> updatedItem;
+    private int setCount;
+    private int removeCount;
+
+    /**
+     * SETs every given attribute, the equivalent of a mapper save with UPDATE_SKIP_NULL_ATTRIBUTES
+     * when the attributes come from the table model, which leaves out null fields.
+     */
+    static ProfileUpdateExpression setAll(Map<String, AttributeValue> attributes) {
+        ProfileUpdateExpression updateExpression = new ProfileUpdateExpression();
+        attributes.forEach(updateExpression::set);
+        return updateExpression;
+    }
+
+    /**
+     * Blind update of the given attributes that still increments the version, so that concurrent
+     * {@link #versionedChanges} writers notice it. Requires the profile to exist.
+     */
+    static ProfileUpdateExpression versionedSetAll(Map<String, AttributeValue> attributes) {
+        ProfileUpdateExpression updateExpression = new ProfileUpdateExpression();
+        attributes.forEach((name, value) -> {
+            if (!USER_ID.equals(name) && !VERSION.equals(name)) {
+                updateExpression.set(name, value);
+            }
+        });
+        if (leavesPendingStatus(attributes)) {
+            updateExpression.remove(List.of(PENDING_STATUS));
+        }
+        if (!updateExpression.isEmpty()) {
+            updateExpression.increment(VERSION);
+        }
+        updateExpression.requireExists(USER_ID);
+        return updateExpression;
+    }
+
+    /**
+     * Optimistic update of the profile read as {@code current}: the {@code changes} are merged in, see
+     * {@link #merge}, the {@code removedAttributes} are dropped and only the difference is written,
+     * conditional on the stored version still being the one that was read. The version is incremented.
+     */
+    static ProfileUpdateExpression versionedChanges(Map<String, AttributeValue> current, Map<String, AttributeValue> changes,
+                                                    Collection<String> removedAttributes) {
+        Map<String, AttributeValue> filteredChanges = new HashMap<>(changes);
+        filteredChanges.remove(USER_ID);
+        filteredChanges.remove(VERSION);
+        Map<String, AttributeValue> updated = merge(current, filteredChanges);
+        removedAttributes.forEach(updated::remove);
+        if (leavesPendingStatus(filteredChanges)) {
+            updated.remove(PENDING_STATUS);
+        }
+        ProfileUpdateExpression updateExpression = diff(current, updated);
+        if (updateExpression.isEmpty()) {
+            updateExpression.updatedItem = current;
+            return updateExpression;
+        }
+        AttributeValue currentVersion = current.get(VERSION);
+        long nextVersion = currentVersion == null ? 1 : Long.parseLong(currentVersion.getN()) + 1;
+        AttributeValue nextVersionValue = new AttributeValue().withN(Long.toString(nextVersion));
+        updateExpression.set(List.of(VERSION), nextVersionValue);
+        updated.put(VERSION, nextVersionValue);
+        updateExpression.requireExists(USER_ID);
+        updateExpression.requireVersion(currentVersion);
+        updateExpression.updatedItem = updated;
+        return updateExpression;
+    }
+
+    /**
+     * The minimal update that turns the {@code current} item into the {@code updated} one. Changed
+     * attributes are SET and attributes missing from {@code updated} are REMOVEd. Maps present on
+     * both sides are compared key by key, so only the changed entries are written.
+     */
+    static ProfileUpdateExpression diff(Map<String, AttributeValue> current, Map<String, AttributeValue> updated) {
+        ProfileUpdateExpression updateExpression = new ProfileUpdateExpression();
+        updateExpression.diff(List.of(), current, updated);
+        return updateExpression;
+    }
+
+    /**
+     * Applies the {@code changes} to the {@code current} attributes. The {@value #SUBSCRIPTION_VALIDATIONS}
+     * map is merged product by product so results of other products are kept, each product's status
+     * is replaced whole. Any other attribute is replaced.
+     */
+    static Map<String, AttributeValue> merge(Map<String, AttributeValue> current, Map<String, AttributeValue> changes) {
+        Map<String, AttributeValue> merged = new HashMap<>(current);
+        changes.forEach((name, value) -> {
+            AttributeValue existing = merged.get(name);
+            if (SUBSCRIPTION_VALIDATIONS.equals(name) && existing != null && existing.getM() != null && value.getM() != null) {
+                Map<String, AttributeValue> validations = new HashMap<>(existing.getM());
+                validations.putAll(value.getM());
+                merged.put(name, new AttributeValue().withM(validations));
+            } else {
+                merged.put(name, value);
+            }
+        });
+        return merged;
+    }
+
+    /**
+     * The table model leaves out the null pending status of a status that is not pending, so it has
+     * to be removed explicitly.
+     */
+    private static boolean leavesPendingStatus(Map<String, AttributeValue> attributes) {
+        return attributes.containsKey(CONSOLIDATED_STATUS) && !attributes.containsKey(PENDING_STATUS);
+    }
+
+    void set(String attributeName, AttributeValue value) {
+        set(List.of(attributeName), value);
+    }
+
+    void set(List<String> path, AttributeValue value) {
+        setCount++;
+        setClauses.add(toPath(path) + " = " + addValue(value));
+    }
+
+    /**
+     * Increments a number attribute, starting from zero when the item does not have it yet.
+     */
+    void increment(String attributeName) {
+        String path = toPath(List.of(attributeName));
+        String zero = addValue(new AttributeValue().withN("0"));
+        String one = addValue(new AttributeValue().withN("1"));
+        setCount++;
+        setClauses.add(path + " = if_not_exists(" + path + ", " + zero + ") + " + one);
+    }
+
+    void requireExists(String attributeName) {
+        conditions.add("attribute_exists(" + toPath(List.of(attributeName)) + ")");
+    }
+
+    void requireNotExists(String attributeName) {
+        conditions.add("attribute_not_exists(" + toPath(List.of(attributeName)) + ")");
+    }
+
+    void requireEquals(String attributeName, AttributeValue expected) {
+        conditions.add(toPath(List.of(attributeName)) + " = " + addValue(expected));
+    }
+
+    void remove(List<String> path) {
+        removeCount++;
+        removeClauses.add(toPath(path));
+    }
+
+    boolean isEmpty() {
+        return setCount == 0 && removeCount == 0;
+    }
+
+    String getExpression() {
+        StringJoiner expression = new StringJoiner(" ");
+        if (setCount > 0) {
+            expression.add(setClauses.toString());
+        }
+        if (removeCount > 0) {
+            expression.add(removeClauses.toString());
+        }
+        return expression.toString();
+    }
+
+    /**
+     * The condition the write depends on, null when there is none.
+     */
+    String getCondition() {
+        return conditions.length() == 0 ? null : conditions.toString();
+    }
+
+    /**
+     * The item as it is stored after a successful {@link #versionedChanges} update.
+     */
+    Map<String, AttributeValue> getUpdatedItem() {
+        return updatedItem;
+    }
+
+    Map<String, String> getNames() {
+        return names;
+    }
+
+    /**
+     * Value placeholders, null when the expression only removes attributes since DynamoDB rejects
+     * an empty value map.
+     */
+    Map<String, AttributeValue> getValues() {
+        return values.isEmpty() ? null : values;
+    }
+
+    private void diff(List<String> parent, Map<String, AttributeValue> current, Map<String, AttributeValue> updated) {
+        updated.forEach((name, value) -> {
+            AttributeValue existing = current.get(name);
+            if (value.equals(existing)) {
+                return;
+            }
+            List<String> path = append(parent, name);
+            if (existing != null && existing.getM() != null && value.getM() != null) {
+                diff(path, existing.getM(), value.getM());
+            } else {
+                set(path, value);
+            }
+        });
+        current.keySet().stream()
+                .filter(name -> !updated.containsKey(name))
+                .forEach(name -> remove(append(parent, name)));
+    }
+
+    private void requireVersion(AttributeValue expectedVersion) {
+        String path = toPath(List.of(VERSION));
+        conditions.add(expectedVersion == null ? "attribute_not_exists(" + path + ")" : path + " = " + addValue(expectedVersion));
+    }
+
+    private String addValue(AttributeValue value) {
+        String placeholder = ":a" + values.size();
+        values.put(placeholder, value);
+        return placeholder;
+    }
+
+    private String toPath(Collection<String> path) {
+        StringJoiner joiner = new StringJoiner(".");
+        for (String name : path) {
+            joiner.add(placeholdersByName.computeIfAbsent(name, key -> {
+                String placeholder = "#a" + names.size();
+                names.put(placeholder, key);
+                return placeholder;
+            }));
+        }
+        return joiner.toString();
+    }
+
+    private static List<String> append(List<String> parent, String name) {
+        List<String> path = new ArrayList<>(parent.size() + 1);
+        path.addAll(parent);
+        path.add(name);
+        return path;
+    }
+}
@@ -0,0 +1,306 @@
+package com.crafts.profileservice.repository.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.ReactiveUserProfileRepository;
+import com.crafts.profileservice.util.AttributeValueConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static com.crafts.profileservice.repository.impl.UserProfileDynamoDBSupport.*;
+
+/**
+ * {@link ReactiveUserProfileRepository} on the async DynamoDB client. Items are converted with the
+ * table models of the {@link DynamoDBMapper}, so both repositories read and write the same item layout.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserProfileRepositoryImpl implements ReactiveUserProfileRepository {
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDBMapper dynamoDBMapper;
+    private final DynamoDBPropsConfig dynamoDBPropsConfig;
+    private final UserProfileDynamoDBSupport support;
+
+    public ReactiveUserProfileRepositoryImpl(DynamoDbAsyncClient dynamoDbAsyncClient, DynamoDBMapper dynamoDBMapper, DynamoDBPropsConfig dynamoDBPropsConfig) {
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.dynamoDBPropsConfig = dynamoDBPropsConfig;
+        this.support = new UserProfileDynamoDBSupport(dynamoDBMapper, dynamoDBPropsConfig);
+    }
+
+    @Override
+    public Mono<UserProfileEO> getUserProfileById(String userId) {
+        return getUserProfileById(userId, false);
+    }
+
+    /**
+     * Loads only the given top-level attributes, the other fields of the emitted profile are null.
+     */
+    @Override
+    public Mono<UserProfileEO> getUserProfileById(String userId, Collection<String> attributeNames) {
+        ProfileProjectionExpression projection = new ProfileProjectionExpression(attributeNames);
+        return getUserProfile(GetItemRequest.builder()
+                .tableName(support.getProfileTable())
+                .key(key(userId))
+                .projectionExpression(projection.getExpression())
+                .expressionAttributeNames(projection.getNames())
+                .build());
+    }
+
+    private Mono<UserProfileEO> getUserProfileById(String userId, boolean consistentRead) {
+        return getUserProfile(GetItemRequest.builder()
+                .tableName(support.getProfileTable())
+                .key(key(userId))
+                .consistentRead(consistentRead)
+                .build());
+    }
+
+    private Mono<UserProfileEO> getUserProfile(GetItemRequest request) {
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.getItem(request))
+                .filter(response -> response.hasItem() && !response.item().isEmpty())
+                .map(response -> dynamoDBMapper.getTableModel(UserProfileEO.class).unconvert(AttributeValueConverter.toV1(response.item())))
+                .onErrorMap(e -> !(e instanceof UserProfileRepositoryException),
+                        e -> new UserProfileRepositoryException("Failed to load user profile by ID", e));
+    }
+
+    @Override
+    public Flux<UserProfileEO> getUserProfilesByIds(Collection<String> userIds) {
+        List<Map<String, AttributeValue>> keys = userIds.stream().map(this::key).toList();
+        List<List<Map<String, AttributeValue>>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += BATCH_GET_MAX_KEYS) {
+            chunks.add(keys.subList(from, Math.min(from + BATCH_GET_MAX_KEYS, keys.size())));
+        }
+        return Flux.fromIterable(chunks)
+                .concatMap(chunk -> batchGetItems(Map.of(support.getProfileTable(), KeysAndAttributes.builder().keys(chunk).build()), 0))
+                .map(item -> dynamoDBMapper.getTableModel(UserProfileEO.class).unconvert(AttributeValueConverter.toV1(item)))
+                .onErrorMap(e -> !(e instanceof UserProfileRepositoryException),
+                        e -> new UserProfileRepositoryException("Failed to batch load user profiles by ID", e));
+    }
+
+    @Override
+    public Mono<QueryResultPage<UserProfileEO>> getUserProfilesByStatus(String consolidatedStatus,
+                                                                        Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue> exclusiveStartKey, int limit) {
+        QueryRequest request = QueryRequest.builder()
+                .tableName(support.getProfileTable())
+                .indexName(STATUS_INDEX)
+                .keyConditionExpression("#status = :status")
+                .expressionAttributeNames(Map.of("#status", PENDING_STATUS))
+                .expressionAttributeValues(Map.of(":status", AttributeValue.builder().s(consolidatedStatus).build()))
+                .scanIndexForward(true)
+                .exclusiveStartKey(exclusiveStartKey == null ? null : AttributeValueConverter.toV2(exclusiveStartKey))
+                .limit(limit)
+                .build();
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.query(request))
+                .map(response -> {
+                    DynamoDBMapperTableModel<UserProfileEO> tableModel = dynamoDBMapper.getTableModel(UserProfileEO.class);
+                    QueryResultPage<UserProfileEO> page = new QueryResultPage<>();
+                    page.setResults(response.items().stream().map(item -> tableModel.unconvert(AttributeValueConverter.toV1(item))).toList());
+                    page.setLastEvaluatedKey(response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                            ? AttributeValueConverter.toV1(response.lastEvaluatedKey()) : null);
+                    return page;
+                })
+                .onErrorMap(e -> new UserProfileRepositoryException("Failed to query user profiles by status", e));
+    }
+
+    @Override
+    public Mono<Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue>> getUserProfileAttributesById(String userId, String projectionExpression) {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(support.getProfileTable())
+                .key(key(userId))
+                .projectionExpression(projectionExpression)
+                .build();
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.getItem(request))
+                .filter(response -> response.hasItem())
+                .map(response -> AttributeValueConverter.toV1(response.item()))
+                .onErrorMap(ResourceNotFoundException.class, e -> new NoSuchElementException("The specified table was not found"))
+                .onErrorMap(DynamoDbException.class, e -> new UserProfileRepositoryException("Failed to retrieve user profile due to DynamoDB error", e));
+    }
+
+    /**
+     * Same transaction as the blocking repository: the profile, the idempotency marker when the profile
+     * has a key and the outbox event when given, the first two conditional on not existing yet. Keys
+     * get the same idempotency GSI fallback as in the blocking repository.
+     */
+    @Override
+    public Mono<UserProfileEO> save(UserProfileEO userProfile, UserProfileOutboxEO outboxEvent) {
+        Mono<Void> legacyCheck = userProfile.getIdempotencyKey() != null && dynamoDBPropsConfig.isIdempotencyIndexFallbackEnabled()
+                ? findLegacyUserId(userProfile.getIdempotencyKey())
+                        .flatMap(userId -> Mono.<Void>error(new DuplicateUserProfileException("User profile already exists with the given idempotency key")))
+                : Mono.empty();
+        return legacyCheck.then(Mono.defer(() -> {
+            if (userProfile.getUserId() == null) {
+                userProfile.setUserId(UUID.randomUUID().toString());
+            }
+            userProfile.setVersion(1L);
+            return transactWrite(support.createItems(userProfile, outboxEvent));
+        })).thenReturn(userProfile).onErrorMap(e -> saveFailure(e, userProfile.getIdempotencyKey() != null));
+    }
+
+    /**
+     * Applies the non-null attributes of the profile to an existing profile, with the outbox event in
+     * the same transaction when one is given.
+     */
+    @Override
+    public Mono<UserProfileEO> update(String userId, UserProfileEO userProfile, UserProfileOutboxEO outboxEvent) {
+        return Mono.defer(() -> {
+            Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue> attributes = dynamoDBMapper.getTableModel(UserProfileEO.class).convert(userProfile);
+            ProfileUpdateExpression updateExpression = ProfileUpdateExpression.versionedSetAll(attributes);
+            if (outboxEvent == null) {
+                if (updateExpression.isEmpty()) {
+                    return Mono.empty();
+                }
+                return Mono.fromFuture(() -> dynamoDbAsyncClient.updateItem(updateItemRequest(userId, updateExpression)));
+            }
+            return transactWrite(support.updateItems(userId, updateExpression, outboxEvent));
+        }).thenReturn(userProfile).onErrorMap(UserProfileDynamoDBSupport::updateFailure);
+    }
+
+    /**
+     * Writes only the difference between the stored profile and the profile with the changes applied,
+     * with the same optimistic retries as {@link UserProfileRepositoryImpl#updateChanges}. Backoffs
+     * run on a timer.
+     */
+    @Override
+    public Mono<UserProfileEO> updateChanges(String userId, UserProfileEO currentProfile, UserProfileEO changes, Collection<String> removedAttributes) {
+        return Mono.defer(() -> updateChanges(userId, currentProfile, dynamoDBMapper.getTableModel(UserProfileEO.class).convert(changes), removedAttributes, 1))
+                .onErrorMap(UserProfileDynamoDBSupport::updateFailure);
+    }
+
+    private Mono<UserProfileEO> updateChanges(String userId, UserProfileEO profile, Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue> changedAttributes,
+                                              Collection<String> removedAttributes, int attempt) {
+        DynamoDBMapperTableModel<UserProfileEO> tableModel = dynamoDBMapper.getTableModel(UserProfileEO.class);
+        ProfileUpdateExpression updateExpression = ProfileUpdateExpression.versionedChanges(tableModel.convert(profile), changedAttributes, removedAttributes);
+        UserProfileEO updatedProfile = tableModel.unconvert(updateExpression.getUpdatedItem());
+        if (updateExpression.isEmpty()) {
+            return Mono.just(updatedProfile);
+        }
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.updateItem(updateItemRequest(userId, updateExpression)))
+                .thenReturn(updatedProfile)
+                .onErrorResume(ConditionalCheckFailedException.class, e -> {
+                    if (attempt == VERSION_CONFLICT_MAX_ATTEMPTS) {
+                        return Mono.error(versionConflict(userId, attempt, e));
+                    }
+                    return Mono.delay(Duration.ofMillis(backoffMillis(attempt)))
+                            .then(getUserProfileById(userId, true))
+                            .switchIfEmpty(Mono.error(() -> new NoSuchElementException("User profile not found for ID: " + userId)))
+                            .flatMap(freshProfile -> updateChanges(userId, freshProfile, changedAttributes, removedAttributes, attempt + 1));
+                });
+    }
+
+    @Override
+    public Mono<Void> saveOutboxEvent(UserProfileOutboxEO outboxEvent) {
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.putItem(PutItemRequest.builder()
+                        .tableName(support.getOutboxTable())
+                        .item(AttributeValueConverter.toV2(dynamoDBMapper.getTableModel(UserProfileOutboxEO.class).convert(outboxEvent)))
+                        .build()))
+                .then()
+                .onErrorMap(DynamoDbException.class, e -> new UserProfileRepositoryException("Failed to save outbox event due to DynamoDB error", e));
+    }
+
+    @Override
+    public Mono<Void> delete(String userId) {
+        return getUserProfileById(userId)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("User profile not found for ID: " + userId)))
+                .flatMap(userProfile -> {
+                    if (userProfile.getIdempotencyKey() == null) {
+                        return Mono.fromFuture(() -> dynamoDbAsyncClient.deleteItem(DeleteItemRequest.builder()
+                                .tableName(support.getProfileTable()).key(key(userId)).build()));
+                    }
+                    // Release the idempotency key together with the profile so the user can be created again
+                    return transactWrite(support.deleteItems(userProfile));
+                })
+                .then()
+                .onErrorMap(UserProfileDynamoDBSupport::deleteFailure);
+    }
+
+    /**
+     * Finds the profile of an idempotency key on the idempotencyKey GSI, see
+     * {@link UserProfileRepositoryImpl}. Completes empty when no profile has the key.
+     */
+    private Mono<String> findLegacyUserId(String idempotencyKey) {
+        QueryRequest request = QueryRequest.builder()
+                .tableName(support.getProfileTable())
+                .indexName(IDEMPOTENCY_INDEX)
+                .keyConditionExpression(IDEMPOTENCY_KEY_CONDITION)
+                .expressionAttributeNames(Map.of("#key", IDEMPOTENCY_KEY))
+                .expressionAttributeValues(Map.of(":key", AttributeValue.builder().s(idempotencyKey).build()))
+                .limit(1)
+                .build();
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.query(request))
+                .filter(response -> response.hasItems() && !response.items().isEmpty())
+                .map(response -> response.items().get(0).get(USER_ID).s())
+                .onErrorMap(e -> new UserProfileRepositoryException("Failed to query by idempotency key due to DynamoDB error", e));
+    }
+
+    /**
+     * BatchGetItem of one chunk of keys, keys returned as unprocessed are requested again after an
+     * exponential backoff that is scheduled on a timer instead of sleeping.
+     */
+    private Flux<Map<String, AttributeValue>> batchGetItems(Map<String, KeysAndAttributes> requestItems, int attempt) {
+        if (attempt == BATCH_MAX_ATTEMPTS) {
+            return Flux.error(new UserProfileRepositoryException("Unprocessed keys remained after " + BATCH_MAX_ATTEMPTS + " batch get attempts on " + support.getProfileTable()));
+        }
+        BatchGetItemRequest request = BatchGetItemRequest.builder().requestItems(requestItems).build();
+        Mono<Void> backoff = attempt == 0 ? Mono.empty() : Mono.delay(Duration.ofMillis(backoffMillis(attempt))).then();
+        return backoff.then(Mono.fromFuture(() -> dynamoDbAsyncClient.batchGetItem(request)))
+                .flatMapMany(response -> {
+                    Flux<Map<String, AttributeValue>> items = Flux.fromIterable(response.responses().getOrDefault(support.getProfileTable(), List.of()));
+                    if (response.unprocessedKeys().isEmpty()) {
+                        return items;
+                    }
+                    return items.concatWith(batchGetItems(response.unprocessedKeys(), attempt + 1));
+                });
+    }
+
+    private UpdateItemRequest updateItemRequest(String userId, ProfileUpdateExpression updateExpression) {
+        return UpdateItemRequest.builder()
+                .tableName(support.getProfileTable())
+                .key(key(userId))
+                .updateExpression(updateExpression.getExpression())
+                .conditionExpression(updateExpression.getCondition())
+                .expressionAttributeNames(updateExpression.getNames())
+                .expressionAttributeValues(AttributeValueConverter.toV2(updateExpression.getValues()))
+                .build();
+    }
+
+    private Mono<?> transactWrite(List<com.amazonaws.services.dynamodbv2.model.TransactWriteItem> items) {
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+                .transactItems(items.stream().map(AttributeValueConverter::toV2).toList())
+                .build();
+        return Mono.fromFuture(() -> dynamoDbAsyncClient.transactWriteItems(request));
+    }
+
+    private Map<String, AttributeValue> key(String userId) {
+        return Map.of(USER_ID, AttributeValue.builder().s(userId).build());
+    }
+}
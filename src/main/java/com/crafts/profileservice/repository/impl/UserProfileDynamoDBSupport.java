@@ -0,0 +1,261 @@
+package com.crafts.profileservice.repository.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AmazonDynamoDBException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionCheck;
+import com.amazonaws.services.dynamodbv2.model.Delete;
+import com.amazonaws.services.dynamodbv2.model.Put;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileIdempotencyEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.ProfileVersionConflictException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * What the blocking and the reactive user profile repository share: the table names, the items of
+ * the create, update and delete transactions, the retry limits and backoff, and the translation of
+ * errors of either SDK into repository exceptions. Items are built with the v1 model from the
+ * mapper's table models, the reactive repository converts them with
+ * {@link com.crafts.profileservice.util.AttributeValueConverter}.
+ */
+final class UserProfileDynamoDBSupport {
+
+    static final String USER_PROFILE_TABLE = "user_profile";
+    static final String USER_PROFILE_OUTBOX_TABLE = "user_profile_outbox";
+    static final String USER_PROFILE_IDEMPOTENCY_TABLE = "user_profile_idempotency";
+    static final String USER_PROFILE_LEASE_TABLE = "user_profile_lease";
+    static final String STATUS_INDEX = "pendingStatus-timestamp-index";
+    static final String IDEMPOTENCY_INDEX = "idempotencyKey-index";
+    static final String USER_ID = "userId";
+    static final String IDEMPOTENCY_KEY = "idempotencyKey";
+    static final String CONSOLIDATED_STATUS = "consolidatedStatus";
+    static final String PENDING_STATUS = "pendingStatus";
+    static final String TIMESTAMP = "timestamp";
+    // Key condition of the idempotency GSI lookup, with the key as :key
+    static final String IDEMPOTENCY_KEY_CONDITION = "#key = :key";
+    // DynamoDB limit for keys in a single BatchGetItem request
+    static final int BATCH_GET_MAX_KEYS = 100;
+    static final int BATCH_MAX_ATTEMPTS = 5;
+    static final int VERSION_CONFLICT_MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 25;
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+    // Positions of the items in the create and update transactions, used to interpret cancellation reasons
+    private static final int PROFILE_ITEM_INDEX = 0;
+    private static final int IDEMPOTENCY_ITEM_INDEX = 1;
+
+    private final DynamoDBMapper dynamoDBMapper;
+    private final String profileTable;
+    private final String outboxTable;
+    private final String idempotencyTable;
+
+    UserProfileDynamoDBSupport(DynamoDBMapper dynamoDBMapper, DynamoDBPropsConfig dynamoDBPropsConfig) {
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.profileTable = tableName(dynamoDBPropsConfig, USER_PROFILE_TABLE);
+        this.outboxTable = tableName(dynamoDBPropsConfig, USER_PROFILE_OUTBOX_TABLE);
+        this.idempotencyTable = tableName(dynamoDBPropsConfig, USER_PROFILE_IDEMPOTENCY_TABLE);
+    }
+
+    /**
+     * The configured name of a table, the same prefix the mapper is configured with in
+     * DynamoDBConfiguration.
+     */
+    static String tableName(DynamoDBPropsConfig dynamoDBPropsConfig, String baseName) {
+        String prefix = dynamoDBPropsConfig.getTableNamePrefix();
+        return prefix == null ? baseName : prefix + baseName;
+    }
+
+    String getProfileTable() {
+        return profileTable;
+    }
+
+    String getOutboxTable() {
+        return outboxTable;
+    }
+
+    String getIdempotencyTable() {
+        return idempotencyTable;
+    }
+
+    static Map<String, AttributeValue> key(String userId) {
+        return Collections.singletonMap(USER_ID, new AttributeValue().withS(userId));
+    }
+
+    static Map<String, AttributeValue> idempotencyKey(String idempotencyKey) {
+        return Collections.singletonMap(IDEMPOTENCY_KEY, new AttributeValue().withS(idempotencyKey));
+    }
+
+    Map<String, AttributeValue> idempotencyMarker(String idempotencyKey, String userId, String createdAt) {
+        return dynamoDBMapper.getTableModel(UserProfileIdempotencyEO.class).convert(new UserProfileIdempotencyEO(idempotencyKey, userId, createdAt));
+    }
+
+    /**
+     * The profile, its idempotency marker when it has a key and the outbox event when given. The
+     * profile and the marker are conditional on not existing yet, so duplicate creates are rejected
+     * atomically, see {@link #saveFailure}.
+     */
+    List<TransactWriteItem> createItems(UserProfileEO userProfile, UserProfileOutboxEO outboxEvent) {
+        List<TransactWriteItem> items = new ArrayList<>(3);
+        items.add(new TransactWriteItem().withPut(new Put()
+                .withTableName(profileTable)
+                .withItem(dynamoDBMapper.getTableModel(UserProfileEO.class).convert(userProfile))
+                .withConditionExpression("attribute_not_exists(" + USER_ID + ")")));
+        if (userProfile.getIdempotencyKey() != null) {
+            items.add(new TransactWriteItem().withPut(new Put()
+                    .withTableName(idempotencyTable)
+                    .withItem(idempotencyMarker(userProfile.getIdempotencyKey(), userProfile.getUserId(), Instant.now().toString()))
+                    .withConditionExpression("attribute_not_exists(" + IDEMPOTENCY_KEY + ")")));
+        }
+        if (outboxEvent != null) {
+            items.add(outboxPut(outboxEvent));
+        }
+        return items;
+    }
+
+    /**
+     * The update of the profile, or only its existence check when nothing changed, and the outbox
+     * event.
+     */
+    List<TransactWriteItem> updateItems(String userId, ProfileUpdateExpression updateExpression, UserProfileOutboxEO outboxEvent) {
+        TransactWriteItem profileItem;
+        if (updateExpression.isEmpty()) {
+            profileItem = new TransactWriteItem().withConditionCheck(new ConditionCheck()
+                    .withTableName(profileTable).withKey(key(userId))
+                    .withConditionExpression(updateExpression.getCondition())
+                    .withExpressionAttributeNames(updateExpression.getNames()));
+        } else {
+            profileItem = new TransactWriteItem().withUpdate(new Update()
+                    .withTableName(profileTable).withKey(key(userId))
+                    .withUpdateExpression(updateExpression.getExpression())
+                    .withConditionExpression(updateExpression.getCondition())
+                    .withExpressionAttributeNames(updateExpression.getNames())
+                    .withExpressionAttributeValues(updateExpression.getValues()));
+        }
+        return List.of(profileItem, outboxPut(outboxEvent));
+    }
+
+    /**
+     * Deletes the profile and releases its idempotency key, so the user can be created again.
+     */
+    List<TransactWriteItem> deleteItems(UserProfileEO userProfile) {
+        List<TransactWriteItem> items = new ArrayList<>(2);
+        items.add(new TransactWriteItem().withDelete(new Delete().withTableName(profileTable).withKey(key(userProfile.getUserId()))));
+        if (userProfile.getIdempotencyKey() != null) {
+            items.add(new TransactWriteItem().withDelete(new Delete().withTableName(idempotencyTable)
+                    .withKey(idempotencyKey(userProfile.getIdempotencyKey()))));
+        }
+        return items;
+    }
+
+    private TransactWriteItem outboxPut(UserProfileOutboxEO outboxEvent) {
+        return new TransactWriteItem().withPut(new Put()
+                .withTableName(outboxTable)
+                .withItem(dynamoDBMapper.getTableModel(UserProfileOutboxEO.class).convert(outboxEvent)));
+    }
+
+    /**
+     * Exponential backoff before the given retry attempt, none before the first attempt.
+     */
+    static long backoffMillis(int attempt) {
+        return attempt == 0 ? 0 : BASE_BACKOFF_MILLIS << (attempt - 1);
+    }
+
+    static ProfileVersionConflictException versionConflict(String userId, int attempt, Throwable e) {
+        return new ProfileVersionConflictException("User profile " + userId + " was modified concurrently " + attempt + " times in a row", e);
+    }
+
+    static UserProfileRepositoryException saveFailure(Throwable e, boolean hasIdempotencyKey) {
+        if (e instanceof UserProfileRepositoryException repositoryException) {
+            return repositoryException;
+        }
+        List<String> cancellationCodes = cancellationCodes(e);
+        if (cancellationCodes != null) {
+            if (hasIdempotencyKey && isConditionalCheckFailure(cancellationCodes, IDEMPOTENCY_ITEM_INDEX)) {
+                return new DuplicateUserProfileException("User profile already exists with the given idempotency key", e);
+            }
+            if (isConditionalCheckFailure(cancellationCodes, PROFILE_ITEM_INDEX)) {
+                return new UserProfileRepositoryException("User profile already exists with the given ID", e);
+            }
+            return new UserProfileRepositoryException("Failed to save user profile, transaction was cancelled", e);
+        }
+        if (isConditionalCheckFailure(e)) {
+            return new UserProfileRepositoryException("User profile already exists with the given ID", e);
+        }
+        if (isDynamoDBException(e)) {
+            return new UserProfileRepositoryException("Failed to save user profile due to DynamoDB error", e);
+        }
+        return new UserProfileRepositoryException("An unexpected error occurred while saving the user profile", e);
+    }
+
+    static RuntimeException updateFailure(Throwable e) {
+        if (e instanceof NoSuchElementException || e instanceof UserProfileRepositoryException) {
+            return (RuntimeException) e;
+        }
+        List<String> cancellationCodes = cancellationCodes(e);
+        if (isConditionalCheckFailure(e) || cancellationCodes != null && isConditionalCheckFailure(cancellationCodes, PROFILE_ITEM_INDEX)) {
+            return new NoSuchElementException("User profile ID mismatch or condition check failed", e);
+        }
+        if (cancellationCodes != null) {
+            return new UserProfileRepositoryException("Failed to update user profile, transaction was cancelled", e);
+        }
+        if (isDynamoDBException(e)) {
+            return new UserProfileRepositoryException("Failed to update user profile due to DynamoDB error", e);
+        }
+        return new UserProfileRepositoryException("An unexpected error occurred while updating the user profile", e);
+    }
+
+    static RuntimeException deleteFailure(Throwable e) {
+        if (e instanceof NoSuchElementException || e instanceof UserProfileRepositoryException) {
+            return (RuntimeException) e;
+        }
+        if (cancellationCodes(e) != null) {
+            return new UserProfileRepositoryException("Failed to delete user profile, transaction was cancelled", e);
+        }
+        if (isDynamoDBException(e)) {
+            return new UserProfileRepositoryException("Failed to delete user profile due to DynamoDB error", e);
+        }
+        return new UserProfileRepositoryException("An unexpected error occurred while deleting the user profile", e);
+    }
+
+    static boolean isConditionalCheckFailure(Throwable e) {
+        return e instanceof com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException
+                || e instanceof software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+    }
+
+    private static boolean isDynamoDBException(Throwable e) {
+        return e instanceof AmazonDynamoDBException || e instanceof DynamoDbException;
+    }
+
+    /**
+     * The cancellation reason codes of a cancelled transaction of either SDK, null for other errors.
+     */
+    private static List<String> cancellationCodes(Throwable e) {
+        if (e instanceof com.amazonaws.services.dynamodbv2.model.TransactionCanceledException cancelled) {
+            List<CancellationReason> reasons = cancelled.getCancellationReasons();
+            return reasons == null ? List.of() : reasons.stream().map(CancellationReason::getCode).toList();
+        }
+        if (e instanceof software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException cancelled) {
+            return cancelled.hasCancellationReasons()
+                    ? cancelled.cancellationReasons().stream().map(software.amazon.awssdk.services.dynamodb.model.CancellationReason::code).toList()
+                    : List.of();
+        }
+        return null;
+    }
+
+    private static boolean isConditionalCheckFailure(List<String> cancellationCodes, int itemIndex) {
+        return cancellationCodes.size() > itemIndex && CONDITIONAL_CHECK_FAILED.equals(cancellationCodes.get(itemIndex));
+    }
+}
@@ -0,0 +1,86 @@
+package com.crafts.profileservice.repository.impl;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AmazonDynamoDBException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.UserProfileLeaseRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leases on the {@code user_profile_lease} table, keyed by {@code leaseKey} with the holding
+ * {@code owner} and the epoch millis it {@code expiresAt}. Acquiring and releasing are single
+ * conditional writes, so two instances never hold the same lease at the same time, and the lease
+ * of a crashed instance is taken over once it expired.
+ */
+@Repository
+public class UserProfileLeaseRepositoryImpl implements UserProfileLeaseRepository {
+
+    private static final String LEASE_KEY = "leaseKey";
+
+    private final AmazonDynamoDB dynamoDBClient;
+    private final String leaseTable;
+
+    public UserProfileLeaseRepositoryImpl(AmazonDynamoDB dynamoDBClient, DynamoDBPropsConfig dynamoDBPropsConfig) {
+        this.dynamoDBClient = dynamoDBClient;
+        this.leaseTable = UserProfileDynamoDBSupport.tableName(dynamoDBPropsConfig, UserProfileDynamoDBSupport.USER_PROFILE_LEASE_TABLE);
+    }
+
+    /**
+     * Takes the lease when it is free, expired or already held by {@code owner}, in which case it
+     * is extended.
+     *
+     * @return whether {@code owner} holds the lease for the next {@code durationMillis}
+     */
+    public boolean tryAcquire(String leaseKey, String owner, long durationMillis) {
+        long now = System.currentTimeMillis();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":owner", new AttributeValue().withS(owner));
+        values.put(":now", new AttributeValue().withN(Long.toString(now)));
+        values.put(":expiresAt", new AttributeValue().withN(Long.toString(now + durationMillis)));
+        try {
+            dynamoDBClient.updateItem(new UpdateItemRequest()
+                    .withTableName(leaseTable)
+                    .withKey(key(leaseKey))
+                    .withUpdateExpression("SET #owner = :owner, #expiresAt = :expiresAt")
+                    .withConditionExpression("attribute_not_exists(#owner) OR #expiresAt < :now OR #owner = :owner")
+                    .withExpressionAttributeNames(Map.of("#owner", "owner", "#expiresAt", "expiresAt"))
+                    .withExpressionAttributeValues(values));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to acquire lease " + leaseKey, e);
+        }
+    }
+
+    /**
+     * Gives the lease up early, a lease that was taken over by another owner is left alone.
+     */
+    public void release(String leaseKey, String owner) {
+        try {
+            dynamoDBClient.deleteItem(new DeleteItemRequest()
+                    .withTableName(leaseTable)
+                    .withKey(key(leaseKey))
+                    .withConditionExpression("#owner = :owner")
+                    .withExpressionAttributeNames(Collections.singletonMap("#owner", "owner"))
+                    .withExpressionAttributeValues(Collections.singletonMap(":owner", new AttributeValue().withS(owner))));
+        } catch (ConditionalCheckFailedException e) {
+            // expired and taken over, nothing to release
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to release lease " + leaseKey, e);
+        }
+    }
+
+    private Map<String, AttributeValue> key(String leaseKey) {
+        return Collections.singletonMap(LEASE_KEY, new AttributeValue().withS(leaseKey));
+    }
+}
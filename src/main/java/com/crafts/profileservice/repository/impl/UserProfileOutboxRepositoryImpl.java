@@ -0,0 +1,56 @@
+package com.crafts.profileservice.repository.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.model.AmazonDynamoDBException;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.UserProfileOutboxRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class UserProfileOutboxRepositoryImpl implements UserProfileOutboxRepository {
+
+    private final DynamoDBMapper dynamoDBMapper;
+
+    public UserProfileOutboxRepositoryImpl(DynamoDBMapper dynamoDBMapper) {
+        this.dynamoDBMapper = dynamoDBMapper;
+    }
+
+    public void save(UserProfileOutboxEO outboxEvent) {
+        try {
+            dynamoDBMapper.save(outboxEvent);
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to save outbox event due to DynamoDB error", e);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the oldest events of a shard, in the order they were written.
+     */
+    public List<UserProfileOutboxEO> findEvents(int shardId, int limit) {
+        try {
+            DynamoDBQueryExpression<UserProfileOutboxEO> queryExpression = new DynamoDBQueryExpression<UserProfileOutboxEO>()
+                    .withHashKeyValues(new UserProfileOutboxEO(shardId))
+                    .withScanIndexForward(true)
+                    .withLimit(limit);
+            return dynamoDBMapper.queryPage(UserProfileOutboxEO.class, queryExpression).getResults();
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to read outbox events of shard " + shardId, e);
+        }
+    }
+
+    public void delete(List<UserProfileOutboxEO> outboxEvents) {
+        try {
+            // The mapper splits the deletes into BatchWriteItem requests of 25 and retries unprocessed items
+            List<DynamoDBMapper.FailedBatch> failedBatches = dynamoDBMapper.batchDelete(outboxEvents);
+            if (!failedBatches.isEmpty()) {
+                throw new UserProfileRepositoryException("Failed to delete relayed outbox events", failedBatches.get(0).getException());
+            }
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to delete relayed outbox events due to DynamoDB error", e);
+        }
+    }
+}
@@ -3,27 +3,64 @@ package com.crafts.profileservice.repository.impl;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
 import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
 import com.crafts.profileservice.exception.UserProfileRepositoryException;
 import com.crafts.profileservice.repository.UserProfileRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.crafts.profileservice.repository.impl.UserProfileDynamoDBSupport.*;
 
 @Repository
 public class UserProfileRepositoryImpl implements UserProfileRepository {
 
     private final DynamoDBMapper dynamoDBMapper;
     private final AmazonDynamoDB dynamoDBClient;
+    private final DynamoDBPropsConfig dynamoDBPropsConfig;
+    private final UserProfileDynamoDBSupport support;
+    private ExecutorService bulkWriteExecutor;
 
-    public UserProfileRepositoryImpl(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB dynamoDBClient) {
+    public UserProfileRepositoryImpl(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB dynamoDBClient, DynamoDBPropsConfig dynamoDBPropsConfig) {
         this.dynamoDBMapper = dynamoDBMapper;
         this.dynamoDBClient = dynamoDBClient;
+        this.dynamoDBPropsConfig = dynamoDBPropsConfig;
+        this.support = new UserProfileDynamoDBSupport(dynamoDBMapper, dynamoDBPropsConfig);
+    }
+
+    @PostConstruct
+    public void init() {
+        bulkWriteExecutor = Executors.newFixedThreadPool(dynamoDBPropsConfig.getBulkWriteThreads(),
+                new CustomizableThreadFactory("profile-bulk-write-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkWriteExecutor.shutdown();
     }
 
     public UserProfileEO getUserProfileById(String userId) {
@@ -34,11 +71,46 @@ public class UserProfileRepositoryImpl implements UserProfileRepository {
         }
     }
 
+    /**
+     * Loads only the given top-level attributes, the other fields of the returned profile are null.
+     * Returns null when the profile does not exist.
+     */
+    public UserProfileEO getUserProfileById(String userId, Collection<String> attributeNames) {
+        try {
+            ProfileProjectionExpression projection = new ProfileProjectionExpression(attributeNames);
+            GetItemRequest request = new GetItemRequest()
+                    .withTableName(support.getProfileTable())
+                    .withKey(key(userId))
+                    .withProjectionExpression(projection.getExpression())
+                    .withExpressionAttributeNames(projection.getNames());
+            Map<String, AttributeValue> item = dynamoDBClient.getItem(request).getItem();
+            return item == null ? null : dynamoDBMapper.getTableModel(UserProfileEO.class).unconvert(item);
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to retrieve user profile due to DynamoDB error", e);
+        } catch (Exception e) {
+            throw new UserProfileRepositoryException("Failed to load user profile by ID", e);
+        }
+    }
+
+    public List<UserProfileEO> getUserProfilesByIds(Collection<String> userIds) {
+        try {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>(userIds.size());
+            for (String userId : userIds) {
+                keys.add(key(userId));
+            }
+            return dynamoDBMapper.marshallIntoObjects(UserProfileEO.class, batchGetItems(support.getProfileTable(), keys, false));
+        } catch (UserProfileRepositoryException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UserProfileRepositoryException("Failed to batch load user profiles by ID", e);
+        }
+    }
+
     public Map<String, AttributeValue> getUserProfileAttributesById(String userId, String projectionExpression) {
         try {
             GetItemRequest request = new GetItemRequest()
-                    .withTableName("user_profile")
-                    .withKey(Collections.singletonMap("userId", new AttributeValue().withS(userId)))
+                    .withTableName(support.getProfileTable())
+                    .withKey(key(userId))
                     .withProjectionExpression(projectionExpression);
 
             return dynamoDBClient.getItem(request).getItem();
@@ -51,60 +123,396 @@ public class UserProfileRepositoryImpl implements UserProfileRepository {
         }
     }
 
+    /**
+     * Reads one page of the profiles with the given pending status from the sparse status index,
+     * oldest write first. Only In Progress and Not Complete profiles are on the index. The index is
+     * eventually consistent, a profile can be listed briefly after it left the status.
+     */
+    public QueryResultPage<UserProfileEO> getUserProfilesByStatus(String consolidatedStatus, Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        return getUserProfilesByStatus(consolidatedStatus, null, exclusiveStartKey, limit);
+    }
+
+    /**
+     * Like {@link #getUserProfilesByStatus(String, Map, int)}, limited to profiles last written
+     * before {@code updatedBefore}, an ISO-8601 instant. The bound is a key condition on the index
+     * sort key, so younger profiles are not read at all.
+     */
+    public QueryResultPage<UserProfileEO> getUserProfilesByStatus(String consolidatedStatus, String updatedBefore, Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        try {
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            names.put("#status", PENDING_STATUS);
+            values.put(":status", new AttributeValue().withS(consolidatedStatus));
+            String keyCondition = "#status = :status";
+            if (updatedBefore != null) {
+                names.put("#timestamp", TIMESTAMP);
+                values.put(":updatedBefore", new AttributeValue().withS(updatedBefore));
+                keyCondition += " AND #timestamp < :updatedBefore";
+            }
+            DynamoDBQueryExpression<UserProfileEO> queryExpression = new DynamoDBQueryExpression<UserProfileEO>()
+                    .withIndexName(STATUS_INDEX)
+                    .withConsistentRead(false)
+                    .withKeyConditionExpression(keyCondition)
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values)
+                    .withScanIndexForward(true)
+                    .withExclusiveStartKey(exclusiveStartKey)
+                    .withLimit(limit);
+            return dynamoDBMapper.queryPage(UserProfileEO.class, queryExpression);
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to query user profiles by status", e);
+        }
+    }
+
+    /**
+     * Reads one page of a segment of a parallel scan. Continue the segment with the returned page's
+     * last evaluated key until it is null. The status filter is applied after the read, so a page
+     * can be empty while the segment has more items.
+     */
+    public ScanResultPage<UserProfileEO> scanSegment(int segment, int totalSegments, Map<String, AttributeValue> exclusiveStartKey,
+                                                     String consolidatedStatus, int limit) {
+        try {
+            DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                    .withSegment(segment)
+                    .withTotalSegments(totalSegments)
+                    .withExclusiveStartKey(exclusiveStartKey)
+                    .withLimit(limit);
+            if (consolidatedStatus != null) {
+                scanExpression.withFilterExpression("#status = :status")
+                        .withExpressionAttributeNames(Collections.singletonMap("#status", CONSOLIDATED_STATUS))
+                        .withExpressionAttributeValues(Collections.singletonMap(":status", new AttributeValue().withS(consolidatedStatus)));
+            }
+            return dynamoDBMapper.scanPage(UserProfileEO.class, scanExpression);
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to scan segment " + segment + " of user profiles", e);
+        }
+    }
+
+    /**
+     * Looks up the idempotency markers of the given keys with consistent reads, so markers written by
+     * a preceding {@link #saveAll} are seen. Keys without a marker are looked up on the idempotency
+     * GSI while the fallback is enabled, see {@link #findLegacyUserId}.
+     *
+     * @return the user id of every key that is already taken
+     */
+    public Map<String, String> findUserIdsByIdempotencyKeys(Collection<String> idempotencyKeys) {
+        try {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>(idempotencyKeys.size());
+            for (String idempotencyKey : idempotencyKeys) {
+                keys.add(idempotencyKey(idempotencyKey));
+            }
+            Map<String, String> userIdsByKey = new HashMap<>();
+            for (Map<String, AttributeValue> item : batchGetItems(support.getIdempotencyTable(), keys, true)) {
+                AttributeValue userId = item.get(USER_ID);
+                userIdsByKey.put(item.get(IDEMPOTENCY_KEY).getS(), userId != null ? userId.getS() : null);
+            }
+            if (dynamoDBPropsConfig.isIdempotencyIndexFallbackEnabled()) {
+                for (String idempotencyKey : idempotencyKeys) {
+                    if (!userIdsByKey.containsKey(idempotencyKey)) {
+                        String legacyUserId = findLegacyUserId(idempotencyKey);
+                        if (legacyUserId != null) {
+                            userIdsByKey.put(idempotencyKey, legacyUserId);
+                        }
+                    }
+                }
+            }
+            return userIdsByKey;
+        } catch (UserProfileRepositoryException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UserProfileRepositoryException("Failed to look up idempotency keys", e);
+        }
+    }
+
     public UserProfileEO save(UserProfileEO userProfile) {
+        return save(userProfile, null);
+    }
+
+    /**
+     * Bulk create. Each profile is written in its own transaction with its idempotency marker and,
+     * when given, its outbox event, the same transaction as {@link #save(UserProfileEO, UserProfileOutboxEO)},
+     * so a key taken concurrently is rejected and no profile is ever written partially. The
+     * transactions are independent and run in parallel on the bulk write threads. Callers check the keys with
+     * {@link #findUserIdsByIdempotencyKeys} first, profiles without a marker are not looked up again.
+     *
+     * @return the failure of every profile that was not written, a {@link DuplicateUserProfileException}
+     * when its idempotency key is already taken
+     */
+    public Map<String, UserProfileRepositoryException> saveAll(List<UserProfileEO> userProfiles, Map<String, UserProfileOutboxEO> outboxEventsByUserId) {
+        Map<String, UserProfileRepositoryException> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>(userProfiles.size());
+        for (UserProfileEO userProfile : userProfiles) {
+            userProfile.setVersion(1L);
+            writes.add(CompletableFuture.runAsync(() -> {
+                try {
+                    dynamoDBClient.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(
+                            support.createItems(userProfile, outboxEventsByUserId.get(userProfile.getUserId()))));
+                } catch (Exception e) {
+                    failures.put(userProfile.getUserId(), saveFailure(e, userProfile.getIdempotencyKey() != null));
+                }
+            }, bulkWriteExecutor));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        return failures;
+    }
+
+    /**
+     * Saves a new user profile. When the profile carries an idempotency key, the profile and an
+     * idempotency marker item are written in one transaction, both conditional on not existing yet,
+     * so duplicate creates are rejected atomically. A non-null outbox event is committed in the same
+     * transaction. Profiles created before markers existed have no marker, while the fallback is
+     * enabled their keys are additionally checked on the idempotency GSI, see {@link #findLegacyUserId}.
+     */
+    public UserProfileEO save(UserProfileEO userProfile, UserProfileOutboxEO outboxEvent) {
+        if (userProfile.getIdempotencyKey() != null && dynamoDBPropsConfig.isIdempotencyIndexFallbackEnabled()
+                && findLegacyUserId(userProfile.getIdempotencyKey()) != null) {
+            throw new DuplicateUserProfileException("User profile already exists with the given idempotency key");
+        }
         try {
-            dynamoDBMapper.save(userProfile);
+            userProfile.setVersion(1L);
+            if (userProfile.getIdempotencyKey() == null && outboxEvent == null) {
+                dynamoDBMapper.save(userProfile);
+                return userProfile;
+            }
+            if (userProfile.getUserId() == null) {
+                userProfile.setUserId(UUID.randomUUID().toString());
+            }
+            dynamoDBClient.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(support.createItems(userProfile, outboxEvent)));
             return userProfile;
-        } catch (ConditionalCheckFailedException e) {
-            throw new UserProfileRepositoryException("User profile already exists with the given ID", e);
-        } catch (AmazonDynamoDBException e) {
-            throw new UserProfileRepositoryException("Failed to save user profile due to DynamoDB error", e);
         } catch (Exception e) {
-            throw new UserProfileRepositoryException("An unexpected error occurred while saving the user profile", e);
+            throw saveFailure(e, userProfile.getIdempotencyKey() != null);
         }
     }
 
+    /**
+     * Applies the non-null attributes of the profile with a single UpdateItem, only those attributes
+     * are sent. The write is unconditional apart from the profile having to exist, it increments the
+     * version so that concurrent {@link #updateChanges} calls re-read. Fails with
+     * {@link NoSuchElementException} when the profile does not exist.
+     */
     public UserProfileEO update(String userId, UserProfileEO userProfile) {
         try {
-              /* Save user profile based on certain conditions
-               Here, We are checking if the user_id is matching with the userId of the UserProfile object
-             */
-            DynamoDBSaveExpression saveExpression = new DynamoDBSaveExpression().withExpectedEntry("userId",
-                    new ExpectedAttributeValue(new AttributeValue().withS(userId)));
-            dynamoDBMapper.save(userProfile, saveExpression, DynamoDBMapperConfig.SaveBehavior.UPDATE_SKIP_NULL_ATTRIBUTES.config());
+            Map<String, AttributeValue> attributes = dynamoDBMapper.getTableModel(UserProfileEO.class).convert(userProfile);
+            updateItem(userId, ProfileUpdateExpression.versionedSetAll(attributes));
             return userProfile;
+        } catch (Exception e) {
+            throw updateFailure(e);
+        }
+    }
+
+    /**
+     * Blind update like {@link #update(String, UserProfileEO)} that only applies while the profile is
+     * still in {@code expectedStatus} as of {@code expectedTimestamp}. Of several writers that read
+     * the same state, exactly one succeeds.
+     *
+     * @return false when the profile was written since it was read
+     */
+    public boolean updateIfUnchanged(String userId, UserProfileEO userProfile, String expectedStatus, String expectedTimestamp) {
+        try {
+            Map<String, AttributeValue> attributes = dynamoDBMapper.getTableModel(UserProfileEO.class).convert(userProfile);
+            ProfileUpdateExpression updateExpression = ProfileUpdateExpression.versionedSetAll(attributes);
+            updateExpression.requireEquals(CONSOLIDATED_STATUS, new AttributeValue().withS(expectedStatus));
+            updateExpression.requireEquals(TIMESTAMP, new AttributeValue().withS(expectedTimestamp));
+            updateItem(userId, updateExpression);
+            return true;
         } catch (ConditionalCheckFailedException e) {
-            throw new NoSuchElementException("User profile ID mismatch or condition check failed", e);
+            return false;
         } catch (AmazonDynamoDBException e) {
             throw new UserProfileRepositoryException("Failed to update user profile due to DynamoDB error", e);
+        }
+    }
+
+    /**
+     * Sets the pending status of a profile written before the status index was keyed on it, see
+     * {@link com.crafts.profileservice.migration.PendingStatusMigration}. Conditional on the status
+     * being unchanged and the pending status still missing. The version is left alone, the write
+     * changes nothing a concurrent update could lose.
+     *
+     * @return false when the profile changed status meanwhile or already has its pending status
+     */
+    public boolean backfillPendingStatus(String userId, String consolidatedStatus, String pendingStatus) {
+        try {
+            ProfileUpdateExpression updateExpression = ProfileUpdateExpression.setAll(
+                    Collections.singletonMap(PENDING_STATUS, new AttributeValue().withS(pendingStatus)));
+            updateExpression.requireEquals(CONSOLIDATED_STATUS, new AttributeValue().withS(consolidatedStatus));
+            updateExpression.requireNotExists(PENDING_STATUS);
+            updateItem(userId, updateExpression);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to backfill pending status due to DynamoDB error", e);
+        }
+    }
+
+    /**
+     * Applies the non-null attributes of {@code changes} to the stored {@code currentProfile} and writes
+     * only the difference. Map attributes are merged key by key, so a validation result of one product
+     * becomes a {@code SET subscriptionValidations.#p} that leaves the results of other products alone.
+     * The {@code removedAttributes} are REMOVEd from the profile.
+     * <p>
+     * The write is conditional on the version of {@code currentProfile}. When another writer got there
+     * first, the profile is read again and the changes are merged into the fresh copy, up to
+     * {@value UserProfileDynamoDBSupport#VERSION_CONFLICT_MAX_ATTEMPTS} attempts, so concurrent changes to other fields or other
+     * products are kept and only the same field changed twice resolves to the last writer.
+     *
+     * @return the profile as stored after the update
+     * @throws com.crafts.profileservice.exception.ProfileVersionConflictException when every attempt lost against a concurrent write
+     */
+    public UserProfileEO updateChanges(String userId, UserProfileEO currentProfile, UserProfileEO changes, Collection<String> removedAttributes) {
+        try {
+            DynamoDBMapperTableModel<UserProfileEO> tableModel = dynamoDBMapper.getTableModel(UserProfileEO.class);
+            Map<String, AttributeValue> changedAttributes = tableModel.convert(changes);
+            UserProfileEO profile = currentProfile;
+            for (int attempt = 1; ; attempt++) {
+                ProfileUpdateExpression updateExpression = ProfileUpdateExpression.versionedChanges(tableModel.convert(profile), changedAttributes, removedAttributes);
+                try {
+                    updateItem(userId, updateExpression);
+                    return tableModel.unconvert(updateExpression.getUpdatedItem());
+                } catch (ConditionalCheckFailedException e) {
+                    if (attempt == VERSION_CONFLICT_MAX_ATTEMPTS) {
+                        throw versionConflict(userId, attempt, e);
+                    }
+                    backoff(attempt);
+                    profile = dynamoDBMapper.load(UserProfileEO.class, userId, DynamoDBMapperConfig.ConsistentReads.CONSISTENT.config());
+                    if (profile == null) {
+                        throw new NoSuchElementException("User profile not found for ID: " + userId);
+                    }
+                }
+            }
         } catch (Exception e) {
-            throw new UserProfileRepositoryException("An unexpected error occurred while updating the user profile", e);
+            throw updateFailure(e);
         }
     }
 
-    public void delete(String userId) {
-        UserProfileEO userProfile = dynamoDBMapper.load(UserProfileEO.class, userId);
-        if (userProfile != null) {
-            dynamoDBMapper.delete(userProfile);
-        } else {
-            throw new NoSuchElementException("User profile not found for ID: " + userId);
+    /**
+     * Applies the non-null attributes of the profile, like {@link #update(String, UserProfileEO)}, and
+     * commits the outbox event in the same transaction. The mapper cannot express a skip-null update
+     * inside a transaction, so the update expression is built from the mapper's table model.
+     */
+    public UserProfileEO update(String userId, UserProfileEO userProfile, UserProfileOutboxEO outboxEvent) {
+        if (outboxEvent == null) {
+            return update(userId, userProfile);
+        }
+        try {
+            Map<String, AttributeValue> attributes = dynamoDBMapper.getTableModel(UserProfileEO.class).convert(userProfile);
+            ProfileUpdateExpression updateExpression = ProfileUpdateExpression.versionedSetAll(attributes);
+            dynamoDBClient.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(support.updateItems(userId, updateExpression, outboxEvent)));
+            return userProfile;
+        } catch (Exception e) {
+            throw updateFailure(e);
         }
     }
 
-    public boolean existsByIdempotencyKey(String idempotencyKey) {
-        QueryRequest queryRequest = new QueryRequest()
-                .withTableName("user_profile")
-                .withIndexName("idempotencyKey-index")
-                .withKeyConditionExpression("idempotencyKey = :idempotencyKeyVal")
-                .withExpressionAttributeValues(Collections.singletonMap(":idempotencyKeyVal", new AttributeValue().withS(idempotencyKey)));
+    public void delete(String userId) {
+        try {
+            UserProfileEO userProfile = dynamoDBMapper.load(UserProfileEO.class, userId);
+            if (userProfile == null) {
+                throw new NoSuchElementException("User profile not found for ID: " + userId);
+            }
+            if (userProfile.getIdempotencyKey() == null) {
+                dynamoDBMapper.delete(userProfile);
+                return;
+            }
+            // Release the idempotency key together with the profile so the user can be created again
+            dynamoDBClient.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(support.deleteItems(userProfile)));
+        } catch (Exception e) {
+            throw deleteFailure(e);
+        }
+    }
 
+    /**
+     * Finds the profile of an idempotency key on the idempotencyKey GSI, the lookup used before
+     * markers existed. Only used while aws.dynamoDB.idempotency-index-fallback-enabled is switched on
+     * for the time until the markers of existing profiles are backfilled, the check is not part of
+     * the create transaction.
+     *
+     * @return the user id, or null when no profile has the key
+     */
+    private String findLegacyUserId(String idempotencyKey) {
         try {
-            QueryResult queryResult = dynamoDBClient.query(queryRequest);
-            return !queryResult.getItems().isEmpty();
+            QueryRequest queryRequest = new QueryRequest()
+                    .withTableName(support.getProfileTable())
+                    .withIndexName(IDEMPOTENCY_INDEX)
+                    .withKeyConditionExpression(IDEMPOTENCY_KEY_CONDITION)
+                    .withExpressionAttributeNames(Collections.singletonMap("#key", IDEMPOTENCY_KEY))
+                    .withExpressionAttributeValues(Collections.singletonMap(":key", new AttributeValue().withS(idempotencyKey)))
+                    .withLimit(1);
+            List<Map<String, AttributeValue>> items = dynamoDBClient.query(queryRequest).getItems();
+            if (items == null || items.isEmpty()) {
+                return null;
+            }
+            return items.get(0).get(USER_ID).getS();
         } catch (AmazonDynamoDBException e) {
             throw new UserProfileRepositoryException("Failed to query by idempotency key due to DynamoDB error", e);
         }
     }
 
+    /**
+     * Writes the idempotency marker of a profile created before markers existed, see
+     * {@link com.crafts.profileservice.migration.IdempotencyMarkerMigration}.
+     *
+     * @return false when the key already has a marker
+     */
+    public boolean backfillIdempotencyMarker(String idempotencyKey, String userId) {
+        try {
+            dynamoDBClient.putItem(new PutItemRequest()
+                    .withTableName(support.getIdempotencyTable())
+                    .withItem(support.idempotencyMarker(idempotencyKey, userId, Instant.now().toString()))
+                    .withConditionExpression("attribute_not_exists(" + IDEMPOTENCY_KEY + ")"));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } catch (AmazonDynamoDBException e) {
+            throw new UserProfileRepositoryException("Failed to backfill idempotency marker due to DynamoDB error", e);
+        }
+    }
 
+    private void updateItem(String userId, ProfileUpdateExpression updateExpression) {
+        if (updateExpression.isEmpty()) {
+            return;
+        }
+        dynamoDBClient.updateItem(new UpdateItemRequest()
+                .withTableName(support.getProfileTable())
+                .withKey(key(userId))
+                .withUpdateExpression(updateExpression.getExpression())
+                .withConditionExpression(updateExpression.getCondition())
+                .withExpressionAttributeNames(updateExpression.getNames())
+                .withExpressionAttributeValues(updateExpression.getValues()));
+    }
+
+    /**
+     * Loads items with BatchGetItem in chunks of {@value UserProfileDynamoDBSupport#BATCH_GET_MAX_KEYS} keys. Keys returned as
+     * unprocessed (throttling, 16MB response limit) are retried with exponential backoff.
+     */
+    private List<Map<String, AttributeValue>> batchGetItems(String tableName, List<Map<String, AttributeValue>> keys, boolean consistentRead) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += BATCH_GET_MAX_KEYS) {
+            Map<String, KeysAndAttributes> requestItems = Collections.singletonMap(tableName,
+                    new KeysAndAttributes().withKeys(keys.subList(from, Math.min(from + BATCH_GET_MAX_KEYS, keys.size())))
+                            .withConsistentRead(consistentRead));
+            for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                if (attempt == BATCH_MAX_ATTEMPTS) {
+                    throw new UserProfileRepositoryException("Unprocessed keys remained after " + BATCH_MAX_ATTEMPTS + " batch get attempts on " + tableName);
+                }
+                backoff(attempt);
+                BatchGetItemResult result = dynamoDBClient.batchGetItem(new BatchGetItemRequest().withRequestItems(requestItems));
+                items.addAll(result.getResponses().getOrDefault(tableName, Collections.emptyList()));
+                requestItems = result.getUnprocessedKeys() == null ? Collections.emptyMap() : result.getUnprocessedKeys();
+            }
+        }
+        return items;
+    }
+
+    private void backoff(int attempt) {
+        if (attempt == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(backoffMillis(attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserProfileRepositoryException("Interrupted while backing off before a retry", e);
+        }
+    }
 }
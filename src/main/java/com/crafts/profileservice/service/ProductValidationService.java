@@ -0,0 +1,9 @@
+package com.crafts.profileservice.service;
+
+import com.crafts.profileservice.dto.UserProfileDTO;
+import reactor.core.publisher.Mono;
+
+public interface ProductValidationService {
+
+    Mono<UserProfileDTO> validate(UserProfileDTO userProfile);
+}
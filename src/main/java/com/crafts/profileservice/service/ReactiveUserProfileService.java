@@ -0,0 +1,40 @@
+package com.crafts.profileservice.service;
+
+import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reactive variant of {@link UserProfileService} with the same validations and error signals.
+ */
+public interface ReactiveUserProfileService {
+
+    Mono<UserProfileValidationResultDTO> getStatus(String userId);
+
+    Flux<UserProfileValidationResultDTO> streamStatus(String userId);
+
+    Mono<UserProfileDTO> saveUserProfile(UserProfileDTO userProfile);
+
+    Mono<UserProfileDTO> getUserProfileById(String userId);
+
+    Mono<UserProfileDTO> getUserProfileById(String userId, Collection<String> fields);
+
+    Mono<UserProfileBatchResponseDTO> getUserProfilesByIds(List<String> userIds);
+
+    Mono<UserProfilePageDTO> getUserProfilesByStatus(String status, String cursor, Integer limit);
+
+    Mono<Void> delete(String userId);
+
+    Mono<UserProfileDTO> updateAfterValidation(UserProfileDTO userProfile);
+
+    Mono<Void> update(String userId, UserProfileDTO userProfile);
+
+    Mono<Void> addSubscription(String userId, SubscriptionRequestDTO subscriptionRequestDTO);
+}
@@ -0,0 +1,9 @@
+package com.crafts.profileservice.service;
+
+import com.crafts.profileservice.dto.UserProfileExportPageDTO;
+import reactor.core.publisher.Flux;
+
+public interface UserProfileExportService {
+
+    Flux<UserProfileExportPageDTO> exportProfiles(String consolidatedStatus, Integer segments, String checkpoint);
+}
@@ -0,0 +1,10 @@
+package com.crafts.profileservice.service;
+
+import com.crafts.profileservice.dto.UserProfileImportResultDTO;
+
+import java.util.List;
+
+public interface UserProfileImportService {
+
+    List<UserProfileImportResultDTO> importProfiles(List<String> lines, long firstLineNumber);
+}
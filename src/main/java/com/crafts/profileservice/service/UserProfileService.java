@@ -1,17 +1,32 @@
 package com.crafts.profileservice.service;
 
 import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
 import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
 import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
 
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+
 public interface UserProfileService {
 
     UserProfileValidationResultDTO getStatus(String userId);
 
+    Flux<UserProfileValidationResultDTO> streamStatus(String userId);
+
     UserProfileDTO saveUserProfile(UserProfileDTO userProfile);
 
     UserProfileDTO getUserProfileById(String userId);
 
+    UserProfileDTO getUserProfileById(String userId, Collection<String> fields);
+
+    UserProfileBatchResponseDTO getUserProfilesByIds(List<String> userIds);
+
+    UserProfilePageDTO getUserProfilesByStatus(String status, String cursor, Integer limit);
+
     void delete(String userId);
 
     UserProfileDTO updateAfterValidation(UserProfileDTO userProfile);
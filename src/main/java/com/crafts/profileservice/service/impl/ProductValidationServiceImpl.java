@@ -0,0 +1,221 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.constans.MetricsConstants;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResponseDTO;
+import com.crafts.profileservice.entity.ProductRegistryEO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.service.ProductValidationService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.annotation.Timed;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates a profile against the validation endpoints of its subscribed products, as registered in
+ * the product registry. All products are called at once, so the decision takes as long as the
+ * slowest validator. Each product gets its own connection pool, bulkhead and circuit breaker, so a
+ * slow or failing validator neither starves the others nor gets called while it is down. A product
+ * that could not be validated is reported as NOT_COMPLETE rather than failing the whole profile.
+ */
+@Service
+@Slf4j
+@Timed(value = MetricsConstants.SERVICE_TIMER, histogram = true)
+public class ProductValidationServiceImpl implements ProductValidationService {
+
+    private final ProductRegistry productRegistry;
+    private final WebClient webClient;
+    private final ValidationPropsConfig validationPropsConfig;
+    private final Map<String, ProductValidator> validators = new ConcurrentHashMap<>();
+
+    public ProductValidationServiceImpl(ProductRegistry productRegistry, WebClient webClient, ValidationPropsConfig validationPropsConfig) {
+        this.productRegistry = productRegistry;
+        this.webClient = webClient;
+        this.validationPropsConfig = validationPropsConfig;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validators.values().forEach(validator -> validator.connectionProvider.dispose());
+    }
+
+    /**
+     * Validates the products in {@code subscriptions} and returns the changes to apply with
+     * {@code updateAfterValidation}: their results and the status consolidated over these and the
+     * stored results, which the caller passes in the profile's subscription validations. When a product is added to existing subscriptions, the subscriptions are
+     * extended unless the product rejected the profile.
+     *
+     * @throws IllegalArgumentException when the profile has no subscriptions
+     */
+    @Override
+    public Mono<UserProfileDTO> validate(UserProfileDTO userProfileDTO) {
+        if (userProfileDTO.getSubscriptions() == null || userProfileDTO.getSubscriptions().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("User should be subscribed to at least one product"));
+        }
+        List<String> productIds = List.copyOf(new LinkedHashSet<>(userProfileDTO.getSubscriptions()));
+        return Flux.fromIterable(productIds)
+                .flatMap(productId -> validateProduct(productId, userProfileDTO).map(status -> Map.entry(productId, status)), productIds.size())
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(results -> toValidatedProfile(userProfileDTO, results));
+    }
+
+    private Mono<ProductValidationStatus> validateProduct(String productId, UserProfileDTO userProfileDTO) {
+        String validationUrl = productRegistry.getProduct(productId).map(ProductRegistryEO::getProductValidationUrl).orElse(null);
+        if (validationUrl == null) {
+            return Mono.just(notComplete("No validation endpoint registered for product " + productId));
+        }
+        ProductValidator validator = validators.computeIfAbsent(productId, this::newValidator);
+        Mono<UserProfileValidationResponseDTO> call = Mono.defer(() -> validator.call(validationUrl, userProfileDTO));
+        long hedgeAfterMs = validationPropsConfig.getHedgeAfterMs();
+        // The first answer wins and cancels the other call, both count against the product's bulkhead
+        Mono<UserProfileValidationResponseDTO> response = hedgeAfterMs > 0
+                ? Mono.firstWithValue(call, Mono.delay(Duration.ofMillis(hedgeAfterMs)).then(call))
+                : call;
+        return response
+                .map(ProductValidationServiceImpl::toStatus)
+                .defaultIfEmpty(notComplete("Empty response from validator"))
+                .onErrorResume(e -> {
+                    log.warn("Validation of userId {} by product {} failed", userProfileDTO.getUserId(), productId, e);
+                    return Mono.just(notComplete(toFailureMessage(e)));
+                });
+    }
+
+    private ProductValidator newValidator(String productId) {
+        String name = "product-validation-" + productId;
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(validationPropsConfig.getMaxConnectionsPerProduct())
+                .pendingAcquireTimeout(Duration.ofMillis(validationPropsConfig.getPendingAcquireTimeoutMs()))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, validationPropsConfig.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(validationPropsConfig.getResponseTimeoutMs()));
+        WebClient productWebClient = webClient.mutate()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(name, CircuitBreakerConfig.custom()
+                .failureRateThreshold(validationPropsConfig.getCircuitFailureRateThreshold())
+                .waitDurationInOpenState(Duration.ofMillis(validationPropsConfig.getCircuitOpenMs()))
+                // a full bulkhead says nothing about the health of the validator
+                .ignoreExceptions(RejectedExecutionException.class)
+                .build());
+        return new ProductValidator(connectionProvider, productWebClient, validationPropsConfig.getMaxConcurrentCallsPerProduct(), circuitBreaker);
+    }
+
+    static UserProfileDTO toValidatedProfile(UserProfileDTO userProfileDTO, Map<String, ProductValidationStatus> results) {
+        UserProfileDTO validatedProfileDTO = new UserProfileDTO();
+        validatedProfileDTO.setUserId(userProfileDTO.getUserId());
+        validatedProfileDTO.setSubscriptionValidations(new HashMap<>(results));
+        if (userProfileDTO.getExistingSubscriptions() != null) {
+            Set<String> subscriptions = new LinkedHashSet<>(userProfileDTO.getExistingSubscriptions());
+            results.forEach((productId, status) -> {
+                if (!ValidationStatusEnum.REJECTED.getStatus().equals(status.getStatus())) {
+                    subscriptions.add(productId);
+                }
+            });
+            validatedProfileDTO.setSubscriptions(new ArrayList<>(subscriptions));
+        }
+
+        Map<String, ProductValidationStatus> allResults = new TreeMap<>();
+        if (userProfileDTO.getSubscriptionValidations() != null) {
+            allResults.putAll(userProfileDTO.getSubscriptionValidations());
+        }
+        allResults.putAll(results);
+        List<String> rejectedBy = new ArrayList<>();
+        List<String> notCompletedBy = new ArrayList<>();
+        allResults.forEach((productId, status) -> {
+            if (ValidationStatusEnum.REJECTED.getStatus().equals(status.getStatus())) {
+                rejectedBy.add(productId);
+            } else if (!ValidationStatusEnum.SUCCESS.getStatus().equals(status.getStatus())) {
+                notCompletedBy.add(productId);
+            }
+        });
+        if (!rejectedBy.isEmpty()) {
+            validatedProfileDTO.setConsolidatedStatus(ValidationStatusEnum.REJECTED.getStatus());
+            validatedProfileDTO.setConsolidatedMessage("Rejected by " + String.join(", ", rejectedBy));
+        } else if (!notCompletedBy.isEmpty()) {
+            validatedProfileDTO.setConsolidatedStatus(ValidationStatusEnum.NOT_COMPLETE.getStatus());
+            validatedProfileDTO.setConsolidatedMessage("Validation not complete for " + String.join(", ", notCompletedBy));
+        } else {
+            validatedProfileDTO.setConsolidatedStatus(ValidationStatusEnum.SUCCESS.getStatus());
+        }
+        return validatedProfileDTO;
+    }
+
+    private static ProductValidationStatus toStatus(UserProfileValidationResponseDTO responseDTO) {
+        if (responseDTO.getErrors() == null || responseDTO.getErrors().isEmpty()) {
+            return new ProductValidationStatus(ValidationStatusEnum.SUCCESS.getStatus(), new ArrayList<>());
+        }
+        return new ProductValidationStatus(ValidationStatusEnum.REJECTED.getStatus(), new ArrayList<>(responseDTO.getErrors()));
+    }
+
+    private static ProductValidationStatus notComplete(String error) {
+        return new ProductValidationStatus(ValidationStatusEnum.NOT_COMPLETE.getStatus(), new ArrayList<>(List.of(error)));
+    }
+
+    private static String toFailureMessage(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return "Validator is unavailable";
+        }
+        if (e instanceof RejectedExecutionException) {
+            return "Validator is busy";
+        }
+        return "Validator call failed";
+    }
+
+    /**
+     * The connection pool, bulkhead and circuit breaker of one product. The bulkhead caps the calls
+     * in flight and rejects the ones beyond instead of queueing them behind a slow validator.
+     */
+    private static final class ProductValidator {
+        private final ConnectionProvider connectionProvider;
+        private final WebClient webClient;
+        private final int maxConcurrentCalls;
+        private final AtomicInteger callsInFlight = new AtomicInteger();
+        private final CircuitBreaker circuitBreaker;
+
+        private ProductValidator(ConnectionProvider connectionProvider, WebClient webClient, int maxConcurrentCalls, CircuitBreaker circuitBreaker) {
+            this.connectionProvider = connectionProvider;
+            this.webClient = webClient;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        private Mono<UserProfileValidationResponseDTO> call(String validationUrl, UserProfileDTO userProfileDTO) {
+            return Mono.defer(() -> {
+                        if (callsInFlight.incrementAndGet() > maxConcurrentCalls) {
+                            callsInFlight.decrementAndGet();
+                            return Mono.error(new RejectedExecutionException("Too many calls in flight to " + validationUrl));
+                        }
+                        return webClient.post()
+                                .uri(validationUrl)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(userProfileDTO)
+                                .retrieve()
+                                .bodyToMono(UserProfileValidationResponseDTO.class)
+                                .doFinally(signal -> callsInFlight.decrementAndGet());
+                    })
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        }
+    }
+}
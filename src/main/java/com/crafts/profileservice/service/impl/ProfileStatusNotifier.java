@@ -0,0 +1,84 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.config.props.StatusStreamPropsConfig;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fans validation status changes out to the open status streams of this instance. A result
+ * written by another instance is not published here, so streams also re-check the status
+ * periodically; both sources are de-duplicated, so clients only see changes.
+ */
+@Component
+public class ProfileStatusNotifier {
+
+    private final StatusStreamPropsConfig statusStreamPropsConfig;
+    private final ConcurrentMap<String, StatusSink> sinks = new ConcurrentHashMap<>();
+
+    public ProfileStatusNotifier(StatusStreamPropsConfig statusStreamPropsConfig) {
+        this.statusStreamPropsConfig = statusStreamPropsConfig;
+    }
+
+    public void publish(UserProfileValidationResultDTO statusDTO) {
+        StatusSink statusSink = sinks.get(statusDTO.getUserId());
+        if (statusSink != null) {
+            // Results of several products can be published at once, a sink rejects concurrent emits
+            synchronized (statusSink) {
+                statusSink.sink.tryEmitNext(statusDTO);
+            }
+        }
+    }
+
+    /**
+     * Emits {@code initialStatus} and every later change of the status, and completes once the
+     * status is no longer in progress or the stream timeout has passed.
+     *
+     * @param currentStatus re-reads the status, subscribed once per re-check interval
+     */
+    public Flux<UserProfileValidationResultDTO> stream(UserProfileValidationResultDTO initialStatus,
+                                                       Mono<UserProfileValidationResultDTO> currentStatus) {
+        if (!isInProgress(initialStatus)) {
+            return Flux.just(initialStatus);
+        }
+        String userId = initialStatus.getUserId();
+        Duration recheckInterval = Duration.ofMillis(statusStreamPropsConfig.getRecheckIntervalMs());
+        Flux<UserProfileValidationResultDTO> rechecks = Flux.interval(recheckInterval, recheckInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> currentStatus.onErrorResume(e -> Mono.empty()));
+        return Flux.merge(updates(userId), rechecks)
+                .startWith(initialStatus)
+                .distinctUntilChanged()
+                .takeUntil(statusDTO -> !isInProgress(statusDTO))
+                .take(Duration.ofMillis(statusStreamPropsConfig.getTimeoutMs()));
+    }
+
+    private Flux<UserProfileValidationResultDTO> updates(String userId) {
+        return Flux.defer(() -> {
+            // Streams are counted under the map lock, so a sink is only dropped once its last stream ended
+            StatusSink statusSink = sinks.compute(userId, (key, current) -> {
+                StatusSink result = current != null ? current : new StatusSink();
+                result.streams++;
+                return result;
+            });
+            return statusSink.sink.asFlux().doFinally(signal -> sinks.computeIfPresent(userId,
+                    (key, current) -> --current.streams == 0 ? null : current));
+        });
+    }
+
+    private static boolean isInProgress(UserProfileValidationResultDTO statusDTO) {
+        return ValidationStatusEnum.IN_PROGRESS.getStatus().equals(statusDTO.getConsolidatedStatus());
+    }
+
+    private static final class StatusSink {
+        private final Sinks.Many<UserProfileValidationResultDTO> sink = Sinks.many().multicast().directBestEffort();
+        private int streams;
+    }
+}
@@ -0,0 +1,429 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.cache.ReactiveProfileCache;
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.constans.ServiceConstants;
+import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.exception.UserProfileBusinessException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.mapper.UserProfileMapperHelper;
+import com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer;
+import com.crafts.profileservice.repository.ReactiveUserProfileRepository;
+import com.crafts.profileservice.service.ProductValidationService;
+import com.crafts.profileservice.service.ReactiveUserProfileService;
+import com.crafts.profileservice.util.IdempotencyKeyGenerator;
+import com.crafts.profileservice.util.OutboxEventUtil;
+import com.crafts.profileservice.util.PageCursorUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Reactive implementation of the profile flows of {@link UserProfileServiceImpl}. Nothing here blocks
+ * an event loop thread: DynamoDB and memcached are called through their async clients and the Kafka
+ * acknowledgement is awaited as a {@link Mono}, so a failed send is rolled back before the response.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveUserProfileServiceImpl implements ReactiveUserProfileService {
+
+    private static final String KAFKA_FAILURE_MESSAGE = "Failed to send message to kafka to proceed with further validations";
+
+    private final ReactiveUserProfileRepository userProfileRepository;
+    private final UserProfileMapper userProfileMapper;
+    private final UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+    private final ReactiveProfileCache profileCache;
+    private final OutboxPropsConfig outboxPropsConfig;
+    private final ProfileStatusNotifier profileStatusNotifier;
+    private final ProductValidationService productValidationService;
+    private final ValidationPropsConfig validationPropsConfig;
+    private final ProductRegistry productRegistry;
+
+    public ReactiveUserProfileServiceImpl(ReactiveUserProfileRepository userProfileRepository, UserProfileMapper userProfileMapper,
+                                          UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer, ReactiveProfileCache profileCache,
+                                          OutboxPropsConfig outboxPropsConfig, ProfileStatusNotifier profileStatusNotifier,
+                                          ProductValidationService productValidationService, ValidationPropsConfig validationPropsConfig,
+                                          ProductRegistry productRegistry) {
+        this.userProfileRepository = userProfileRepository;
+        this.userProfileMapper = userProfileMapper;
+        this.userProfileSubmissionKafkaProducer = userProfileSubmissionKafkaProducer;
+        this.profileCache = profileCache;
+        this.outboxPropsConfig = outboxPropsConfig;
+        this.profileStatusNotifier = profileStatusNotifier;
+        this.productValidationService = productValidationService;
+        this.validationPropsConfig = validationPropsConfig;
+        this.productRegistry = productRegistry;
+    }
+
+    @Override
+    public Mono<UserProfileDTO> getUserProfileById(String userId) {
+        return profileCache.get(userId)
+                .switchIfEmpty(Mono.defer(() -> userProfileRepository.getUserProfileById(userId)
+                        .map(userProfileMapper::convertEOtoDTO)
+                        .doOnNext(userProfileDTO -> profileCache.put(userId, userProfileDTO))))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No user profile found for user ID: " + userId)))
+                .onErrorMap(UserProfileRepositoryException.class, e -> new UserProfileBusinessException("Error while retrieving user profile.", e));
+    }
+
+    /**
+     * Same projection as the blocking service, partial profiles are not cached.
+     */
+    @Override
+    public Mono<UserProfileDTO> getUserProfileById(String userId, Collection<String> fields) {
+        return Mono.defer(() -> {
+            Set<String> projectedFields = UserProfileMapperHelper.toProjectedFields(fields);
+            return profileCache.get(userId)
+                    .switchIfEmpty(Mono.defer(() -> userProfileRepository.getUserProfileById(userId, projectedFields)
+                            .map(userProfileMapper::convertEOtoDTO)))
+                    .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No user profile found for user ID: " + userId)))
+                    .map(userProfileDTO -> UserProfileMapperHelper.project(userProfileDTO, projectedFields));
+        }).onErrorMap(UserProfileRepositoryException.class, e -> new UserProfileBusinessException("Error while retrieving user profile.", e));
+    }
+
+    @Override
+    public Mono<UserProfileBatchResponseDTO> getUserProfilesByIds(List<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("At least one user ID is required"));
+        }
+        Set<String> uniqueUserIds = new LinkedHashSet<>();
+        userIds.stream().filter(Objects::nonNull).forEach(uniqueUserIds::add);
+        if (uniqueUserIds.size() > ServiceConstants.MAX_BATCH_READ_SIZE) {
+            return Mono.error(new IllegalArgumentException("At most " + ServiceConstants.MAX_BATCH_READ_SIZE + " user IDs can be requested at once"));
+        }
+        // Serve what we can with one cache multi-get, then batch load only the misses
+        return profileCache.getAll(uniqueUserIds)
+                .flatMap(profiles -> {
+                    List<String> misses = uniqueUserIds.stream().filter(userId -> !profiles.containsKey(userId)).toList();
+                    if (misses.isEmpty()) {
+                        return Mono.just(profiles);
+                    }
+                    return userProfileRepository.getUserProfilesByIds(misses)
+                            .map(userProfileMapper::convertEOtoDTO)
+                            .doOnNext(userProfileDTO -> profileCache.put(userProfileDTO.getUserId(), userProfileDTO))
+                            .collectMap(UserProfileDTO::getUserId)
+                            .map(loaded -> {
+                                log.info("Batch lookup of {} user profiles, {} served from cache", uniqueUserIds.size(), uniqueUserIds.size() - misses.size());
+                                profiles.putAll(loaded);
+                                return profiles;
+                            });
+                })
+                .map(profiles -> {
+                    UserProfileBatchResponseDTO responseDTO = new UserProfileBatchResponseDTO();
+                    for (String userId : uniqueUserIds) {
+                        if (profiles.containsKey(userId)) {
+                            responseDTO.getProfiles().add(profiles.get(userId));
+                        } else {
+                            responseDTO.getMissingUserIds().add(userId);
+                        }
+                    }
+                    return responseDTO;
+                })
+                .onErrorMap(UserProfileRepositoryException.class, e -> new UserProfileBusinessException("Error while retrieving user profiles.", e));
+    }
+
+    @Override
+    public Mono<UserProfilePageDTO> getUserProfilesByStatus(String status, String cursor, Integer limit) {
+        return Mono.defer(() -> {
+                    String consolidatedStatus = UserProfileMapperHelper.toListedStatus(status);
+                    int pageSize = UserProfileMapperHelper.toStatusPageSize(limit);
+                    return userProfileRepository.getUserProfilesByStatus(consolidatedStatus,
+                            UserProfileMapperHelper.toStatusStartKey(cursor, consolidatedStatus), pageSize);
+                })
+                .map(page -> {
+                    UserProfilePageDTO pageDTO = new UserProfilePageDTO();
+                    for (UserProfileEO userProfileEO : page.getResults()) {
+                        pageDTO.getProfiles().add(userProfileMapper.convertEOtoDTO(userProfileEO));
+                    }
+                    pageDTO.setNextCursor(PageCursorUtil.encode(page.getLastEvaluatedKey()));
+                    return pageDTO;
+                })
+                .onErrorMap(UserProfileRepositoryException.class, e -> new UserProfileBusinessException("Error while listing user profiles by status.", e));
+    }
+
+    @Override
+    public Mono<UserProfileDTO> saveUserProfile(UserProfileDTO userProfileDTO) {
+        return Mono.defer(() -> {
+            if (userProfileDTO.getSubscriptions().isEmpty()) {
+                return Mono.error(new IllegalArgumentException("User should be subscribed to at least one product"));
+            }
+            productRegistry.requireRegistered(userProfileDTO.getSubscriptions());
+            String idempotencyKey;
+            try {
+                idempotencyKey = IdempotencyKeyGenerator.generate(userProfileDTO.getEmail(), userProfileDTO.getTaxIdentifiers().getPan(), userProfileDTO.getLegalName());
+            } catch (NoSuchAlgorithmException e) {
+                return Mono.error(new UserProfileBusinessException("Unable to generate idempotency key due to missing algorithm.", e));
+            }
+            userProfileDTO.setIdempotencyKey(idempotencyKey);
+            userProfileDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+            UserProfileEO userProfileEO = userProfileMapper.convertDTOTOEO(userProfileDTO);
+            log.info("Saving user details with initial subscription status as IN_PROGRESS");
+            if (outboxPropsConfig.isEnabled()) {
+                if (userProfileEO.getUserId() == null) {
+                    userProfileEO.setUserId(UUID.randomUUID().toString());
+                }
+                UserProfileDTO savedUserDTO = userProfileMapper.convertEOtoDTO(userProfileEO);
+                savedUserDTO.setCreateFlow(true);
+                return userProfileRepository.save(userProfileEO, OutboxEventUtil.newEvent(savedUserDTO, "USER_PROFILE_CREATE", outboxPropsConfig.getShardCount()))
+                        .doOnSuccess(ignored -> putStatus(UserProfileMapperHelper.toValidationResult(savedUserDTO)))
+                        .thenReturn(savedUserDTO);
+            }
+            return userProfileRepository.save(userProfileEO, null)
+                    .map(userProfileMapper::convertEOtoDTO)
+                    .flatMap(savedUserDTO -> {
+                        savedUserDTO.setCreateFlow(true);
+                        putStatus(UserProfileMapperHelper.toValidationResult(savedUserDTO));
+                        return sendMessageToKafka(savedUserDTO, "USER_PROFILE_CREATE").thenReturn(savedUserDTO);
+                    });
+        }).onErrorMap(e -> {
+            if (e instanceof KafkaProcessingException) {
+                log.error("Failed to send message to kafka.", e);
+                return new UserProfileBusinessException(KAFKA_FAILURE_MESSAGE);
+            }
+            if (e instanceof DuplicateUserProfileException) {
+                log.info("Duplicate request detected with idempotency key {}. User profile already exists.", userProfileDTO.getIdempotencyKey());
+                return new UserProfileBusinessException("Duplicate entry detected. User already exists");
+            }
+            if (e instanceof UserProfileRepositoryException) {
+                return new UserProfileBusinessException("Error while saving user profile.", e);
+            }
+            return e;
+        });
+    }
+
+    @Override
+    public Mono<Void> update(String userId, UserProfileDTO userProfileDTO) {
+        return Mono.defer(() -> {
+            UserProfileDTO saveStatusDTO = new UserProfileDTO();
+            saveStatusDTO.setUserId(userId);
+            saveStatusDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+            UserProfileEO saveStatusEO = userProfileMapper.convertDTOTOEO(saveStatusDTO);
+            log.info("Updating status for user {}", userId);
+            if (outboxPropsConfig.isEnabled()) {
+                return userProfileRepository.update(userId, saveStatusEO,
+                        OutboxEventUtil.newEvent(userProfileDTO, "USER_PROFILE_UPDATE", outboxPropsConfig.getShardCount()))
+                        .flatMap(ignored -> updateCachedStatus(saveStatusDTO));
+            }
+            return userProfileRepository.update(userId, saveStatusEO, null)
+                    .flatMap(ignored -> updateCachedStatus(saveStatusDTO))
+                    .then(sendMessageToKafka(userProfileDTO, "USER_PROFILE_UPDATE"));
+        }).onErrorMap(e -> {
+            if (e instanceof KafkaProcessingException) {
+                log.error("Failed to send message to kafka.", e);
+                return new UserProfileBusinessException(KAFKA_FAILURE_MESSAGE);
+            }
+            if (e instanceof UserProfileRepositoryException) {
+                log.error("Failed to update user data with userId {} ", userId, e);
+                return new UserProfileBusinessException("Error while updating user profile.", e);
+            }
+            return e;
+        });
+    }
+
+    @Override
+    public Mono<Void> addSubscription(String userId, SubscriptionRequestDTO subscriptionRequestDTO) {
+        return Mono.defer(() -> {
+            productRegistry.requireRegistered(Collections.singletonList(subscriptionRequestDTO.getProductId()));
+            return getUserProfileById(userId);
+        }).flatMap(userProfileDTO -> {
+            if (userProfileDTO.getConsolidatedStatus().equals(ValidationStatusEnum.REJECTED.getStatus())) {
+                log.error("Error while subscribing to this product, as user profile validation is rejected");
+                return Mono.<Void>error(new UserProfileBusinessException("Error while subscribing to this product, as user profile validation is rejected"));
+            }
+            if (null == userProfileDTO.getSubscriptions()) {
+                return Mono.<Void>empty();
+            }
+            if (!userProfileDTO.getSubscriptions().isEmpty() && userProfileDTO.getSubscriptions().contains(subscriptionRequestDTO.getProductId())) {
+                log.error("Error: User has already subscribed to this product");
+                return Mono.<Void>error(new UserProfileBusinessException("Error: User has already subscribed to this product"));
+            }
+            // run validations only for the current product
+            userProfileDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+            userProfileDTO.setExistingSubscriptions(new ArrayList<>(userProfileDTO.getSubscriptions()));
+            userProfileDTO.getSubscriptions().clear();
+            userProfileDTO.getSubscriptions().add(subscriptionRequestDTO.getProductId());
+            if (outboxPropsConfig.isEnabled()) {
+                return userProfileRepository.saveOutboxEvent(OutboxEventUtil.newEvent(userProfileDTO, "USER_PROFILE_ADD_SUBSCRIPTION", outboxPropsConfig.getShardCount()));
+            }
+            return sendMessageToKafka(userProfileDTO, "USER_PROFILE_ADD_SUBSCRIPTION");
+        }).onErrorMap(e -> {
+            if (e instanceof KafkaProcessingException) {
+                log.error("Failed to send message to kafka.", e);
+                return new UserProfileBusinessException(KAFKA_FAILURE_MESSAGE);
+            }
+            if (e instanceof UserProfileRepositoryException) {
+                log.error("Failed to update user data with userId {} ", userId, e);
+                return new UserProfileBusinessException("Error while updating user profile.", e);
+            }
+            return e;
+        });
+    }
+
+    @Override
+    public Mono<UserProfileDTO> updateAfterValidation(UserProfileDTO userProfileDTO) {
+        return userProfileRepository.getUserProfileById(userProfileDTO.getUserId())
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No user profile found for user ID: " + userProfileDTO.getUserId())))
+                .flatMap(currentProfileEO -> {
+                    UserProfileEO userProfileEO = userProfileMapper.convertDTOTOEO(userProfileDTO);
+                    log.info("Updating user {} with user details {}", userProfileDTO.getUserId(), userProfileDTO.toString());
+                    return userProfileRepository.updateChanges(userProfileDTO.getUserId(), currentProfileEO, userProfileEO,
+                            UserProfileMapperHelper.getRemovedAttributes(userProfileDTO));
+                })
+                .map(userProfileMapper::convertEOtoDTO)
+                .doOnSuccess(updated -> {
+                    profileCache.evict(userProfileDTO.getUserId());
+                    putStatus(UserProfileMapperHelper.toValidationResult(updated));
+                })
+                .onErrorMap(UserProfileRepositoryException.class, e -> {
+                    log.info("Failed to update user data {}", userProfileDTO.getUserId());
+                    return new UserProfileBusinessException("Error while updating user profile after validation", e);
+                });
+    }
+
+    @Override
+    public Mono<Void> delete(String userId) {
+        log.info("Deleting user : {}", userId);
+        return userProfileRepository.delete(userId)
+                .doOnSuccess(ignored -> {
+                    profileCache.evict(userId);
+                    profileCache.evictStatus(userId);
+                    log.info("Deleted user : {}", userId);
+                })
+                .onErrorMap(UserProfileRepositoryException.class, e -> new UserProfileBusinessException("Error while deleting user", e));
+    }
+
+    /**
+     * The status through the status cache, like the cached getStatus of the blocking service.
+     */
+    @Override
+    public Mono<UserProfileValidationResultDTO> getStatus(String userId) {
+        return profileCache.getStatus(userId)
+                .switchIfEmpty(Mono.defer(() -> loadStatus(userId).doOnNext(profileCache::putStatus)));
+    }
+
+    private Mono<UserProfileValidationResultDTO> loadStatus(String userId) {
+        return userProfileRepository.getUserProfileAttributesById(userId, UserProfileMapperHelper.STATUS_PROJECTION)
+                .mapNotNull(result -> UserProfileMapperHelper.mapToValidationResult(userId, result))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("Failed to get status. No user profile found for userId {}", userId);
+                    return new UserProfileBusinessException("No user profile found for user ID:" + userId);
+                }))
+                .onErrorMap(UserProfileRepositoryException.class, e -> {
+                    log.error("Error while retrieving status for the user with userId {}", userId, e);
+                    return new UserProfileBusinessException("Error while retrieving status for the user", e);
+                });
+    }
+
+    /**
+     * Streams the status until validation finished, re-checking through the status cache for changes
+     * made by other instances.
+     */
+    @Override
+    public Flux<UserProfileValidationResultDTO> streamStatus(String userId) {
+        Mono<UserProfileValidationResultDTO> cachedStatus = Mono.defer(() -> getStatus(userId));
+        return cachedStatus.flatMapMany(statusDTO -> profileStatusNotifier.stream(statusDTO, cachedStatus));
+    }
+
+    /**
+     * Completes when the broker acknowledged the event. The producer may wait briefly for an in-flight
+     * permit, so the send is started on the bounded elastic scheduler rather than the event loop.
+     */
+    private Mono<Void> sendMessageToKafka(UserProfileDTO userProfileDTO, String eventType) {
+        if (validationPropsConfig.isFanoutEnabled()) {
+            // assembled before the status write it follows, so start validating only on subscription
+            return Mono.fromRunnable(() -> validateInService(userProfileDTO));
+        }
+        return Mono.defer(() -> {
+                    log.info("Sending {} of userId {} to kafka", eventType, userProfileDTO.getUserId());
+                    try {
+                        return Mono.fromFuture(userProfileSubmissionKafkaProducer.send(userProfileDTO, eventType, userProfileDTO.getUserId()));
+                    } catch (KafkaProcessingException e) {
+                        return Mono.error(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then()
+                .onErrorResume(e -> handleRollback(userProfileDTO)
+                        .then(Mono.error(new KafkaProcessingException(KAFKA_FAILURE_MESSAGE, e))));
+    }
+
+    /**
+     * Validates in this service instead of handing the profile to the external validation consumer.
+     * The request completes right away, the result reaches the status cache and stream once every
+     * validator answered. An update without subscriptions re-validates the stored ones.
+     */
+    private void validateInService(UserProfileDTO userProfileDTO) {
+        withStoredValidations(userProfileDTO)
+                .flatMap(productValidationService::validate)
+                .flatMap(this::updateAfterValidation)
+                .then()
+                .onErrorResume(e -> {
+                    log.error("In-service validation of userId {} failed.", userProfileDTO.getUserId(), e);
+                    return handleRollback(userProfileDTO);
+                })
+                .subscribe(null, e -> log.error("Failed to roll back status of userId {} after validation failure", userProfileDTO.getUserId(), e));
+    }
+
+    /**
+     * The status is consolidated over the stored validation results, not the ones in the request.
+     */
+    private Mono<UserProfileDTO> withStoredValidations(UserProfileDTO userProfileDTO) {
+        return userProfileRepository.getUserProfileById(userProfileDTO.getUserId())
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No user profile found for user ID: " + userProfileDTO.getUserId())))
+                .map(storedProfileEO -> UserProfileMapperHelper.withStoredValidations(userProfileDTO, userProfileMapper.convertEOtoDTO(storedProfileEO)));
+    }
+
+    private Mono<Void> handleRollback(UserProfileDTO userProfileDTO) {
+        log.error("Could not send message to kafka for carrying out validations, logging event as not complete in DB");
+        UserProfileDTO failedUserProfileDTO = UserProfileMapperHelper.toNotCompleteStatus(userProfileDTO.getUserId());
+        UserProfileEO failedUserProfileEO = userProfileMapper.convertDTOTOEO(failedUserProfileDTO);
+        return userProfileRepository.update(userProfileDTO.getUserId(), failedUserProfileEO, null)
+                .flatMap(ignored -> updateCachedStatus(failedUserProfileDTO))
+                .doOnSuccess(ignored -> log.error("Rolled back status from IN_PROGRESS to NOT_COMPLETE due to kafka server error"))
+                .onErrorResume(e -> {
+                    log.error("Failed to roll back status of userId {} after kafka send failure", userProfileDTO.getUserId(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void putStatus(UserProfileValidationResultDTO statusDTO) {
+        profileCache.putStatus(statusDTO);
+        profileStatusNotifier.publish(statusDTO);
+    }
+
+    /**
+     * Applies a blind status write to the cached status, like the blocking service. A profile
+     * without a cached status is left to be loaded by the next read.
+     */
+    private Mono<Void> updateCachedStatus(UserProfileDTO statusUpdateDTO) {
+        return profileCache.getStatus(statusUpdateDTO.getUserId())
+                .doOnNext(cachedStatusDTO -> {
+                    // The near tier hands out shared instances, so write a copy
+                    UserProfileValidationResultDTO statusDTO = new UserProfileValidationResultDTO(cachedStatusDTO.getUserId(),
+                            statusUpdateDTO.getConsolidatedStatus(), cachedStatusDTO.getConsolidatedMessage(), new HashMap<>(cachedStatusDTO.getSubscriptions()));
+                    if (statusUpdateDTO.getConsolidatedMessage() != null) {
+                        statusDTO.setConsolidatedMessage(statusUpdateDTO.getConsolidatedMessage());
+                    }
+                    putStatus(statusDTO);
+                })
+                .then();
+    }
+}
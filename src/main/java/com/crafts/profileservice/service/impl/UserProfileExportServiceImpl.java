@@ -0,0 +1,138 @@
+package com.crafts.profileservice.service.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.config.props.ExportPropsConfig;
+import com.crafts.profileservice.constans.MetricsConstants;
+import com.crafts.profileservice.dto.ProfileExportCheckpointDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileExportPageDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.UserProfileExportService;
+import com.crafts.profileservice.util.ExportCheckpointUtil;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+
+/**
+ * Exports the profile table with a parallel scan. Every segment is read page by page on the bounded
+ * elastic scheduler and only when the consumer asks for more, so memory stays at about two pages
+ * per segment however large the table is.
+ */
+@Service
+@Slf4j
+@Timed(value = MetricsConstants.SERVICE_TIMER, histogram = true)
+public class UserProfileExportServiceImpl implements UserProfileExportService {
+
+    private static final String USER_ID = "userId";
+
+    private final UserProfileRepositoryImpl userProfileRepository;
+    private final UserProfileMapper userProfileMapper;
+    private final ExportPropsConfig exportPropsConfig;
+
+    public UserProfileExportServiceImpl(UserProfileRepositoryImpl userProfileRepository, UserProfileMapper userProfileMapper,
+                                        ExportPropsConfig exportPropsConfig) {
+        this.userProfileRepository = userProfileRepository;
+        this.userProfileMapper = userProfileMapper;
+        this.exportPropsConfig = exportPropsConfig;
+    }
+
+    /**
+     * Pages of the segments interleave in the order they are read. Each page carries the checkpoint
+     * after it; resuming from it exports every page that was not handed out yet, so a consumer that
+     * stops mid page sees that page again.
+     *
+     * @throws IllegalArgumentException for an invalid segment count or checkpoint, or a status that
+     *                                  differs from the one the checkpoint was taken with
+     */
+    @Override
+    public Flux<UserProfileExportPageDTO> exportProfiles(String consolidatedStatus, Integer segments, String checkpoint) {
+        ProfileExportCheckpointDTO start = checkpoint != null
+                ? resumeCheckpoint(checkpoint, consolidatedStatus)
+                : newCheckpoint(segments != null ? segments : exportPropsConfig.getSegments(), consolidatedStatus);
+        int pageSize = exportPropsConfig.getPageSize();
+        return Flux.defer(() -> {
+            ProfileExportCheckpointDTO position = new ProfileExportCheckpointDTO(start.getTotalSegments(), start.getConsolidatedStatus(),
+                    new HashMap<>(start.getLastEvaluatedUserIds()), new HashSet<>(start.getCompletedSegments()));
+            List<Integer> pendingSegments = new ArrayList<>();
+            for (int segment = 0; segment < position.getTotalSegments(); segment++) {
+                if (!position.getCompletedSegments().contains(segment)) {
+                    pendingSegments.add(segment);
+                }
+            }
+            log.info("Exporting {} of {} segments of user profiles", pendingSegments.size(), position.getTotalSegments());
+            return Flux.fromIterable(pendingSegments)
+                    .flatMap(segment -> scanSegment(segment, start, pageSize), Math.max(1, pendingSegments.size()), 1)
+                    // runs serialized after the merge, so the position needs no synchronization
+                    .map(segmentPage -> toExportPage(segmentPage, position));
+        });
+    }
+
+    private Flux<SegmentPage> scanSegment(int segment, ProfileExportCheckpointDTO start, int pageSize) {
+        String startUserId = start.getLastEvaluatedUserIds().get(segment);
+        Map<String, AttributeValue> startKey = startUserId != null
+                ? Collections.singletonMap(USER_ID, new AttributeValue().withS(startUserId))
+                : Collections.emptyMap();
+        return Flux.<SegmentPage, Map<String, AttributeValue>>generate(() -> startKey, (exclusiveStartKey, sink) -> {
+                    ScanResultPage<UserProfileEO> page = userProfileRepository.scanSegment(segment, start.getTotalSegments(),
+                            exclusiveStartKey.isEmpty() ? null : exclusiveStartKey, start.getConsolidatedStatus(), pageSize);
+                    sink.next(new SegmentPage(segment, page.getResults(), page.getLastEvaluatedKey()));
+                    if (page.getLastEvaluatedKey() == null) {
+                        sink.complete();
+                        return Collections.emptyMap();
+                    }
+                    return page.getLastEvaluatedKey();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private UserProfileExportPageDTO toExportPage(SegmentPage segmentPage, ProfileExportCheckpointDTO position) {
+        if (segmentPage.lastEvaluatedKey == null) {
+            position.getLastEvaluatedUserIds().remove(segmentPage.segment);
+            position.getCompletedSegments().add(segmentPage.segment);
+        } else {
+            position.getLastEvaluatedUserIds().put(segmentPage.segment, segmentPage.lastEvaluatedKey.get(USER_ID).getS());
+        }
+        List<UserProfileDTO> profiles = new ArrayList<>(segmentPage.profiles.size());
+        for (UserProfileEO userProfileEO : segmentPage.profiles) {
+            profiles.add(userProfileMapper.convertEOtoDTO(userProfileEO));
+        }
+        return new UserProfileExportPageDTO(profiles, ExportCheckpointUtil.encode(position));
+    }
+
+    private ProfileExportCheckpointDTO newCheckpoint(int segments, String consolidatedStatus) {
+        if (segments < 1 || segments > exportPropsConfig.getMaxSegments()) {
+            throw new IllegalArgumentException("Segments must be between 1 and " + exportPropsConfig.getMaxSegments());
+        }
+        ProfileExportCheckpointDTO checkpoint = new ProfileExportCheckpointDTO();
+        checkpoint.setTotalSegments(segments);
+        checkpoint.setConsolidatedStatus(consolidatedStatus);
+        return checkpoint;
+    }
+
+    private ProfileExportCheckpointDTO resumeCheckpoint(String token, String consolidatedStatus) {
+        ProfileExportCheckpointDTO checkpoint = ExportCheckpointUtil.decode(token);
+        if (consolidatedStatus != null && !consolidatedStatus.equals(checkpoint.getConsolidatedStatus())) {
+            throw new IllegalArgumentException("The checkpoint was taken with a different status filter");
+        }
+        return checkpoint;
+    }
+
+    private static final class SegmentPage {
+        private final int segment;
+        private final List<UserProfileEO> profiles;
+        private final Map<String, AttributeValue> lastEvaluatedKey;
+
+        private SegmentPage(int segment, List<UserProfileEO> profiles, Map<String, AttributeValue> lastEvaluatedKey) {
+            this.segment = segment;
+            this.profiles = profiles;
+            this.lastEvaluatedKey = lastEvaluatedKey;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.config.props.ImportPropsConfig;
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.constans.MetricsConstants;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileImportResultDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.enums.ImportResultStatusEnum;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.JsonDeserializationException;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.mapper.UserProfileMapperHelper;
+import com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.ProductValidationService;
+import com.crafts.profileservice.service.UserProfileImportService;
+import com.crafts.profileservice.service.UserProfileService;
+import com.crafts.profileservice.util.IdempotencyKeyGenerator;
+import com.crafts.profileservice.util.JsonUtil;
+import com.crafts.profileservice.util.OutboxEventUtil;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * Creates profiles in bulk. Each chunk of lines is parsed and keyed in parallel, checked for
+ * duplicates with one batch read of the idempotency markers and written with one transaction per
+ * profile. The events of a chunk are sent together so the producer can batch them, or the profiles
+ * are validated in this service when fan-out is enabled.
+ */
+@Service
+@Slf4j
+@Timed(value = MetricsConstants.SERVICE_TIMER, histogram = true)
+public class UserProfileImportServiceImpl implements UserProfileImportService {
+
+    private static final String CREATE_EVENT = "USER_PROFILE_CREATE";
+
+    private final UserProfileRepositoryImpl userProfileRepository;
+    private final UserProfileMapper userProfileMapper;
+    private final UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+    private final OutboxPropsConfig outboxPropsConfig;
+    private final ImportPropsConfig importPropsConfig;
+    private final ProductRegistry productRegistry;
+    private final UserProfileService userProfileService;
+    private final ProductValidationService productValidationService;
+    private final ValidationPropsConfig validationPropsConfig;
+
+    public UserProfileImportServiceImpl(UserProfileRepositoryImpl userProfileRepository, UserProfileMapper userProfileMapper,
+                                        UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer, OutboxPropsConfig outboxPropsConfig,
+                                        ImportPropsConfig importPropsConfig, ProductRegistry productRegistry, UserProfileService userProfileService,
+                                        ProductValidationService productValidationService, ValidationPropsConfig validationPropsConfig) {
+        this.userProfileRepository = userProfileRepository;
+        this.userProfileMapper = userProfileMapper;
+        this.userProfileSubmissionKafkaProducer = userProfileSubmissionKafkaProducer;
+        this.outboxPropsConfig = outboxPropsConfig;
+        this.importPropsConfig = importPropsConfig;
+        this.productRegistry = productRegistry;
+        this.userProfileService = userProfileService;
+        this.productValidationService = productValidationService;
+        this.validationPropsConfig = validationPropsConfig;
+    }
+
+    /**
+     * Imports one chunk of NDJSON lines and reports a result per non-blank line, in line order.
+     * A profile created concurrently between the duplicate check and the write is reported as a
+     * duplicate, its marker write fails the profile's transaction.
+     */
+    @Override
+    public List<UserProfileImportResultDTO> importProfiles(List<String> lines, long firstLineNumber) {
+        List<ImportRecord> records = IntStream.range(0, lines.size()).parallel()
+                .filter(index -> !lines.get(index).isBlank())
+                .mapToObj(index -> parse(firstLineNumber + index, lines.get(index)))
+                .toList();
+
+        Map<String, ImportRecord> recordsByKey = new LinkedHashMap<>();
+        for (ImportRecord importRecord : records) {
+            if (importRecord.result.getStatus() != null) {
+                continue;
+            }
+            ImportRecord firstRecord = recordsByKey.putIfAbsent(importRecord.idempotencyKey, importRecord);
+            if (firstRecord != null) {
+                importRecord.complete(ImportResultStatusEnum.DUPLICATE, "Duplicate of line " + firstRecord.result.getLine());
+            }
+        }
+        if (!recordsByKey.isEmpty()) {
+            create(recordsByKey);
+        }
+        return records.stream().map(importRecord -> importRecord.result).toList();
+    }
+
+    private ImportRecord parse(long line, String json) {
+        ImportRecord importRecord = new ImportRecord(line);
+        try {
+            UserProfileDTO userProfileDTO = JsonUtil.readValue(json, UserProfileDTO.class);
+            if (userProfileDTO.getSubscriptions() == null || userProfileDTO.getSubscriptions().isEmpty()) {
+                return importRecord.complete(ImportResultStatusEnum.INVALID, "User should be subscribed to at least one product");
+            }
+            productRegistry.requireRegistered(userProfileDTO.getSubscriptions());
+            if (userProfileDTO.getEmail() == null || userProfileDTO.getLegalName() == null
+                    || userProfileDTO.getTaxIdentifiers() == null || userProfileDTO.getTaxIdentifiers().getPan() == null) {
+                return importRecord.complete(ImportResultStatusEnum.INVALID, "Email, legal name and PAN are required");
+            }
+            importRecord.userProfileDTO = userProfileDTO;
+            importRecord.idempotencyKey = IdempotencyKeyGenerator.generate(userProfileDTO.getEmail(), userProfileDTO.getTaxIdentifiers().getPan(), userProfileDTO.getLegalName());
+            return importRecord;
+        } catch (IllegalArgumentException e) {
+            return importRecord.complete(ImportResultStatusEnum.INVALID, e.getMessage());
+        } catch (JsonDeserializationException e) {
+            return importRecord.complete(ImportResultStatusEnum.INVALID, "Malformed profile JSON");
+        } catch (NoSuchAlgorithmException e) {
+            return importRecord.complete(ImportResultStatusEnum.FAILED, "Unable to generate idempotency key due to missing algorithm.");
+        }
+    }
+
+    private void create(Map<String, ImportRecord> recordsByKey) {
+        Map<String, String> existingUserIds;
+        try {
+            existingUserIds = userProfileRepository.findUserIdsByIdempotencyKeys(recordsByKey.keySet());
+        } catch (UserProfileRepositoryException e) {
+            log.error("Failed to check {} imported profiles for duplicates", recordsByKey.size(), e);
+            recordsByKey.values().forEach(importRecord -> importRecord.complete(ImportResultStatusEnum.FAILED, "Error while saving user profile."));
+            return;
+        }
+
+        List<ImportRecord> newRecords = new ArrayList<>(recordsByKey.size());
+        List<UserProfileEO> userProfileEOs = new ArrayList<>(recordsByKey.size());
+        Map<String, UserProfileOutboxEO> outboxEvents = new HashMap<>();
+        for (ImportRecord importRecord : recordsByKey.values()) {
+            if (existingUserIds.containsKey(importRecord.idempotencyKey)) {
+                importRecord.result.setUserId(existingUserIds.get(importRecord.idempotencyKey));
+                importRecord.complete(ImportResultStatusEnum.DUPLICATE, "Duplicate entry detected. User already exists");
+                continue;
+            }
+            UserProfileDTO userProfileDTO = importRecord.userProfileDTO;
+            userProfileDTO.setIdempotencyKey(importRecord.idempotencyKey);
+            userProfileDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
+            UserProfileEO userProfileEO = userProfileMapper.convertDTOTOEO(userProfileDTO);
+            userProfileEO.setUserId(UUID.randomUUID().toString());
+            userProfileEO.setVersion(1L);
+            importRecord.userProfileDTO = userProfileMapper.convertEOtoDTO(userProfileEO);
+            importRecord.userProfileDTO.setCreateFlow(true);
+            importRecord.result.setUserId(userProfileEO.getUserId());
+            if (outboxPropsConfig.isEnabled()) {
+                outboxEvents.put(userProfileEO.getUserId(), OutboxEventUtil.newEvent(importRecord.userProfileDTO, CREATE_EVENT, outboxPropsConfig.getShardCount()));
+            }
+            newRecords.add(importRecord);
+            userProfileEOs.add(userProfileEO);
+        }
+        if (newRecords.isEmpty()) {
+            return;
+        }
+
+        log.info("Saving {} imported user profiles with initial subscription status as IN_PROGRESS", newRecords.size());
+        Map<String, UserProfileRepositoryException> failures = userProfileRepository.saveAll(userProfileEOs, outboxEvents);
+        List<ImportRecord> savedRecords = new ArrayList<>(newRecords.size());
+        for (ImportRecord importRecord : newRecords) {
+            UserProfileRepositoryException failure = failures.get(importRecord.result.getUserId());
+            if (failure instanceof DuplicateUserProfileException) {
+                // the profile that took the key is not known here
+                importRecord.result.setUserId(null);
+                importRecord.complete(ImportResultStatusEnum.DUPLICATE, "Duplicate entry detected. User already exists");
+            } else if (failure != null) {
+                log.error("Failed to save imported userId {}", importRecord.result.getUserId(), failure);
+                importRecord.complete(ImportResultStatusEnum.FAILED, "Error while saving user profile.");
+            } else {
+                savedRecords.add(importRecord);
+            }
+        }
+        if (outboxPropsConfig.isEnabled()) {
+            savedRecords.forEach(importRecord -> importRecord.complete(ImportResultStatusEnum.CREATED, null));
+        } else if (validationPropsConfig.isFanoutEnabled()) {
+            savedRecords.forEach(this::validateInService);
+        } else {
+            sendMessagesToKafka(savedRecords);
+        }
+    }
+
+    /**
+     * Validates in this service instead of handing the profile to the external validation consumer,
+     * like a single create. The import does not wait for the result, which reaches the profile once
+     * every validator answered.
+     */
+    private void validateInService(ImportRecord importRecord) {
+        importRecord.complete(ImportResultStatusEnum.CREATED, null);
+        String userId = importRecord.result.getUserId();
+        productValidationService.validate(importRecord.userProfileDTO)
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(userProfileService::updateAfterValidation, e -> {
+                    log.error("In-service validation of imported userId {} failed.", userId, e);
+                    rollbackStatus(userId);
+                });
+    }
+
+    /**
+     * Sends the events of all saved profiles before waiting on any acknowledgement, so they share
+     * producer batches, and rolls back the status of the profiles whose event was not acknowledged.
+     */
+    private void sendMessagesToKafka(List<ImportRecord> savedRecords) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(savedRecords.size());
+        for (ImportRecord importRecord : savedRecords) {
+            try {
+                sends.add(userProfileSubmissionKafkaProducer.send(importRecord.userProfileDTO, CREATE_EVENT, importRecord.result.getUserId()));
+            } catch (KafkaProcessingException e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(importPropsConfig.getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.error("Kafka did not acknowledge all {} imported profiles within {} ms", sends.size(), importPropsConfig.getSendTimeoutMs());
+        } catch (Exception e) {
+            // individual failures are handled per send below
+        }
+        for (int i = 0; i < savedRecords.size(); i++) {
+            ImportRecord importRecord = savedRecords.get(i);
+            CompletableFuture<?> send = sends.get(i);
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                importRecord.complete(ImportResultStatusEnum.CREATED, null);
+            } else {
+                handleRollback(importRecord);
+            }
+        }
+    }
+
+    private void handleRollback(ImportRecord importRecord) {
+        importRecord.complete(ImportResultStatusEnum.FAILED, "Failed to send message to kafka to proceed with further validations");
+        rollbackStatus(importRecord.result.getUserId());
+    }
+
+    private void rollbackStatus(String userId) {
+        try {
+            UserProfileDTO failedUserProfileDTO = UserProfileMapperHelper.toNotCompleteStatus(userId);
+            userProfileRepository.update(userId, userProfileMapper.convertDTOTOEO(failedUserProfileDTO));
+        } catch (RuntimeException e) {
+            log.error("Failed to roll back status of imported userId {}", userId, e);
+        }
+    }
+
+    private static final class ImportRecord {
+        private final UserProfileImportResultDTO result;
+        private UserProfileDTO userProfileDTO;
+        private String idempotencyKey;
+
+        private ImportRecord(long line) {
+            this.result = new UserProfileImportResultDTO();
+            this.result.setLine(line);
+        }
+
+        private ImportRecord complete(ImportResultStatusEnum status, String message) {
+            result.setStatus(status.getStatus());
+            result.setMessage(message);
+            return this;
+        }
+    }
+}
@@ -1,43 +1,81 @@
 package com.crafts.profileservice.service.impl;
 
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.cache.BulkCacheSupport;
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.constans.MetricsConstants;
 import com.crafts.profileservice.constans.ProfileServiceCache;
-import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.constans.ServiceConstants;
 import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
 import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
 import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
 import com.crafts.profileservice.entity.UserProfileEO;
 import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
 import com.crafts.profileservice.exception.KafkaProcessingException;
 import com.crafts.profileservice.exception.UserProfileBusinessException;
 import com.crafts.profileservice.exception.UserProfileRepositoryException;
 import com.crafts.profileservice.mapper.UserProfileMapper;
 import com.crafts.profileservice.mapper.UserProfileMapperHelper;
 import com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer;
+import com.crafts.profileservice.repository.impl.UserProfileOutboxRepositoryImpl;
 import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.ProductValidationService;
 import com.crafts.profileservice.service.UserProfileService;
-import com.crafts.profileservice.util.JsonUtil;
+import com.crafts.profileservice.util.IdempotencyKeyGenerator;
+import com.crafts.profileservice.util.OutboxEventUtil;
+import com.crafts.profileservice.util.PageCursorUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 @Service
 @Slf4j
+@Timed(value = MetricsConstants.SERVICE_TIMER, histogram = true)
 public class UserProfileServiceImpl implements UserProfileService {
 
+
     private final UserProfileRepositoryImpl userProfileRepository;
     private final UserProfileMapper userProfileMapper;
     private final UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+    private final CacheManager cacheManager;
+    private final UserProfileOutboxRepositoryImpl userProfileOutboxRepository;
+    private final OutboxPropsConfig outboxPropsConfig;
+    private final ProfileStatusNotifier profileStatusNotifier;
+    private final ProductValidationService productValidationService;
+    private final ValidationPropsConfig validationPropsConfig;
+    private final ProductRegistry productRegistry;
 
-    public UserProfileServiceImpl(UserProfileRepositoryImpl userProfileRepository, UserProfileMapper userProfileMapper, UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer) {
+    public UserProfileServiceImpl(UserProfileRepositoryImpl userProfileRepository, UserProfileMapper userProfileMapper, UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer,
+                                  CacheManager cacheManager, UserProfileOutboxRepositoryImpl userProfileOutboxRepository, OutboxPropsConfig outboxPropsConfig,
+                                  ProfileStatusNotifier profileStatusNotifier, ProductValidationService productValidationService,
+                                  ValidationPropsConfig validationPropsConfig, ProductRegistry productRegistry) {
         this.userProfileRepository = userProfileRepository;
         this.userProfileMapper = userProfileMapper;
         this.userProfileSubmissionKafkaProducer = userProfileSubmissionKafkaProducer;
+        this.cacheManager = cacheManager;
+        this.userProfileOutboxRepository = userProfileOutboxRepository;
+        this.outboxPropsConfig = outboxPropsConfig;
+        this.profileStatusNotifier = profileStatusNotifier;
+        this.productValidationService = productValidationService;
+        this.validationPropsConfig = validationPropsConfig;
+        this.productRegistry = productRegistry;
     }
 
     @Override
@@ -55,33 +93,128 @@ public class UserProfileServiceImpl implements UserProfileService {
         }
     }
 
+    /**
+     * The profile restricted to the given fields. A cached full profile is projected in place,
+     * otherwise only the requested attributes are read. Partial profiles are not cached.
+     */
+    @Override
+    public UserProfileDTO getUserProfileById(String userId, Collection<String> fields) {
+        Set<String> projectedFields = UserProfileMapperHelper.toProjectedFields(fields);
+        try {
+            Cache cache = cacheManager.getCache(ProfileServiceCache.USER_PROFILE_CACHE);
+            UserProfileDTO cachedProfile = cache != null ? cache.get(userId, UserProfileDTO.class) : null;
+            if (cachedProfile != null) {
+                return UserProfileMapperHelper.project(cachedProfile, projectedFields);
+            }
+            UserProfileDTO userProfileDTO = userProfileMapper.convertEOtoDTO(
+                    userProfileRepository.getUserProfileById(userId, projectedFields));
+            if (Objects.isNull(userProfileDTO)) {
+                throw new NoSuchElementException("No user profile found for user ID: " + userId);
+            }
+            return UserProfileMapperHelper.project(userProfileDTO, projectedFields);
+        } catch (UserProfileRepositoryException e) {
+            throw new UserProfileBusinessException("Error while retrieving user profile.", e);
+        }
+    }
+
+    @Override
+    public UserProfileBatchResponseDTO getUserProfilesByIds(List<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one user ID is required");
+        }
+        Set<String> uniqueUserIds = new LinkedHashSet<>();
+        userIds.stream().filter(Objects::nonNull).forEach(uniqueUserIds::add);
+        if (uniqueUserIds.size() > ServiceConstants.MAX_BATCH_READ_SIZE) {
+            throw new IllegalArgumentException("At most " + ServiceConstants.MAX_BATCH_READ_SIZE + " user IDs can be requested at once");
+        }
+        try {
+            // Serve what we can with one cache multi-get, then batch load only the misses
+            Cache cache = cacheManager.getCache(ProfileServiceCache.USER_PROFILE_CACHE);
+            Map<String, UserProfileDTO> profiles = BulkCacheSupport.getAll(cache, uniqueUserIds, UserProfileDTO.class);
+            List<String> misses = uniqueUserIds.stream().filter(userId -> !profiles.containsKey(userId)).toList();
+            if (!misses.isEmpty()) {
+                Map<String, UserProfileDTO> loaded = new HashMap<>();
+                for (UserProfileEO userProfileEO : userProfileRepository.getUserProfilesByIds(misses)) {
+                    loaded.put(userProfileEO.getUserId(), userProfileMapper.convertEOtoDTO(userProfileEO));
+                }
+                BulkCacheSupport.putAll(cache, loaded);
+                profiles.putAll(loaded);
+            }
+            log.info("Batch lookup of {} user profiles, {} served from cache", uniqueUserIds.size(), uniqueUserIds.size() - misses.size());
+            UserProfileBatchResponseDTO responseDTO = new UserProfileBatchResponseDTO();
+            for (String userId : uniqueUserIds) {
+                if (profiles.containsKey(userId)) {
+                    responseDTO.getProfiles().add(profiles.get(userId));
+                } else {
+                    responseDTO.getMissingUserIds().add(userId);
+                }
+            }
+            return responseDTO;
+        } catch (UserProfileRepositoryException e) {
+            throw new UserProfileBusinessException("Error while retrieving user profiles.", e);
+        }
+    }
+
+    /**
+     * Lists the profiles with the given status from the status index, oldest write first. The work
+     * per page is proportional to the page, not to the table.
+     */
+    @Override
+    public UserProfilePageDTO getUserProfilesByStatus(String status, String cursor, Integer limit) {
+        String consolidatedStatus = UserProfileMapperHelper.toListedStatus(status);
+        int pageSize = UserProfileMapperHelper.toStatusPageSize(limit);
+        Map<String, AttributeValue> exclusiveStartKey = UserProfileMapperHelper.toStatusStartKey(cursor, consolidatedStatus);
+        try {
+            QueryResultPage<UserProfileEO> page = userProfileRepository.getUserProfilesByStatus(consolidatedStatus, exclusiveStartKey, pageSize);
+            UserProfilePageDTO pageDTO = new UserProfilePageDTO();
+            for (UserProfileEO userProfileEO : page.getResults()) {
+                pageDTO.getProfiles().add(userProfileMapper.convertEOtoDTO(userProfileEO));
+            }
+            pageDTO.setNextCursor(PageCursorUtil.encode(page.getLastEvaluatedKey()));
+            return pageDTO;
+        } catch (UserProfileRepositoryException e) {
+            throw new UserProfileBusinessException("Error while listing user profiles by status.", e);
+        }
+    }
+
     @Override
     public UserProfileDTO saveUserProfile(UserProfileDTO userProfileDTO) {
         try {
             if (userProfileDTO.getSubscriptions().isEmpty()) {
                 throw new IllegalArgumentException("User should be subscribed to at least one product");
             }
+            productRegistry.requireRegistered(userProfileDTO.getSubscriptions());
             // Generate idempotency key based on user details
-            String idempotencyKey = generateIdempotencyKey(userProfileDTO.getEmail(), userProfileDTO.getTaxIdentifiers().getPan(), userProfileDTO.getLegalName());
+            String idempotencyKey = IdempotencyKeyGenerator.generate(userProfileDTO.getEmail(), userProfileDTO.getTaxIdentifiers().getPan(), userProfileDTO.getLegalName());
 
-            // Check if the user profile already exists with the generated idempotency key
-            if (userProfileRepository.existsByIdempotencyKey(idempotencyKey)) {
-                // If the user profile exists, it's a duplicate request. Log and return the existing user profile.
-                log.info("Duplicate request detected with idempotency key {}. User profile already exists.", idempotencyKey);
-                throw new UserProfileBusinessException("Duplicate entry detected. User already exists");
-            }
+            // Duplicates are rejected by the conditional transactional write in the repository
             userProfileDTO.setIdempotencyKey(idempotencyKey);
             userProfileDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
             UserProfileEO userProfileEO = userProfileMapper.convertDTOTOEO(userProfileDTO);
             log.info("Saving user details with initial subscription status as IN_PROGRESS");
+            if (outboxPropsConfig.isEnabled()) {
+                // The event carries the userId, so assign it before the profile and event are written together
+                if (userProfileEO.getUserId() == null) {
+                    userProfileEO.setUserId(UUID.randomUUID().toString());
+                }
+                UserProfileDTO savedUserDTO = userProfileMapper.convertEOtoDTO(userProfileEO);
+                savedUserDTO.setCreateFlow(true);
+                userProfileRepository.save(userProfileEO, OutboxEventUtil.newEvent(savedUserDTO, "USER_PROFILE_CREATE", outboxPropsConfig.getShardCount()));
+                putStatus(UserProfileMapperHelper.toValidationResult(savedUserDTO));
+                return savedUserDTO;
+            }
             userProfileEO = userProfileRepository.save(userProfileEO);
             UserProfileDTO savedUserDTO = userProfileMapper.convertEOtoDTO(userProfileEO);
             savedUserDTO.setCreateFlow(true);
+            putStatus(UserProfileMapperHelper.toValidationResult(savedUserDTO));
             sendMessageToKafka(savedUserDTO, "USER_PROFILE_CREATE");
             return savedUserDTO;
         } catch (KafkaProcessingException e) {
             log.error("Failed to send message to kafka.", e);
             throw new UserProfileBusinessException("Failed to send message to kafka to proceed with further validations");
+        } catch (DuplicateUserProfileException e) {
+            log.info("Duplicate request detected with idempotency key {}. User profile already exists.", userProfileDTO.getIdempotencyKey());
+            throw new UserProfileBusinessException("Duplicate entry detected. User already exists");
         } catch (UserProfileRepositoryException e) {
             throw new UserProfileBusinessException("Error while saving user profile.", e);
         } catch (NoSuchAlgorithmException e) {
@@ -97,7 +230,13 @@ public class UserProfileServiceImpl implements UserProfileService {
             saveStatusDTO.setConsolidatedStatus(ValidationStatusEnum.IN_PROGRESS.getStatus());
             UserProfileEO saveStatusEO = userProfileMapper.convertDTOTOEO(saveStatusDTO);
             log.info("Updating status for user {}", userId);
+            if (outboxPropsConfig.isEnabled()) {
+                userProfileRepository.update(userId, saveStatusEO, OutboxEventUtil.newEvent(userProfileDTO, "USER_PROFILE_UPDATE", outboxPropsConfig.getShardCount()));
+                updateCachedStatus(saveStatusDTO);
+                return;
+            }
             userProfileRepository.update(userId, saveStatusEO);
+            updateCachedStatus(saveStatusDTO);
             sendMessageToKafka(userProfileDTO, "USER_PROFILE_UPDATE");
         } catch (KafkaProcessingException e) {
             log.error("Failed to send message to kafka.", e);
@@ -110,6 +249,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
     @Override
     public void addSubscription(String userId, SubscriptionRequestDTO subscriptionRequestDTO) {
+        productRegistry.requireRegistered(Collections.singletonList(subscriptionRequestDTO.getProductId()));
         try {
             UserProfileDTO userProfileDTO = getUserProfileById(userId);
             if (userProfileDTO.getConsolidatedStatus().equals(ValidationStatusEnum.REJECTED.getStatus())) {
@@ -126,6 +266,10 @@ public class UserProfileServiceImpl implements UserProfileService {
                 userProfileDTO.setExistingSubscriptions(new ArrayList<>(userProfileDTO.getSubscriptions()));
                 userProfileDTO.getSubscriptions().clear();
                 userProfileDTO.getSubscriptions().add(subscriptionRequestDTO.getProductId());
+                if (outboxPropsConfig.isEnabled()) {
+                    userProfileOutboxRepository.save(OutboxEventUtil.newEvent(userProfileDTO, "USER_PROFILE_ADD_SUBSCRIPTION", outboxPropsConfig.getShardCount()));
+                    return;
+                }
                 sendMessageToKafka(userProfileDTO, "USER_PROFILE_ADD_SUBSCRIPTION");
             }
         } catch (KafkaProcessingException e) {
@@ -142,10 +286,17 @@ public class UserProfileServiceImpl implements UserProfileService {
     @CacheEvict(value = ProfileServiceCache.USER_PROFILE_CACHE, key = "#userProfileDTO.userId", condition = "#userProfileDTO != null and #userProfileDTO.userId != null")
     public UserProfileDTO updateAfterValidation(UserProfileDTO userProfileDTO) throws UserProfileBusinessException {
         try {
+            UserProfileEO currentProfileEO = userProfileRepository.getUserProfileById(userProfileDTO.getUserId());
+            if (Objects.isNull(currentProfileEO)) {
+                throw new NoSuchElementException("No user profile found for user ID: " + userProfileDTO.getUserId());
+            }
             UserProfileEO userProfileEO = userProfileMapper.convertDTOTOEO(userProfileDTO);
             log.info("Updating user {} with user details {}", userProfileDTO.getUserId(), userProfileDTO.toString());
-            userProfileRepository.update(userProfileDTO.getUserId(), userProfileEO);
-            return userProfileMapper.convertEOtoDTO(userProfileEO);
+            UserProfileEO updatedProfileEO = userProfileRepository.updateChanges(userProfileDTO.getUserId(), currentProfileEO, userProfileEO,
+                    UserProfileMapperHelper.getRemovedAttributes(userProfileDTO));
+            UserProfileDTO updatedProfileDTO = userProfileMapper.convertEOtoDTO(updatedProfileEO);
+            putStatus(UserProfileMapperHelper.toValidationResult(updatedProfileDTO));
+            return updatedProfileDTO;
         } catch (UserProfileRepositoryException e) {
             log.info("Failed to update user data {}", userProfileDTO.getUserId());
             throw new UserProfileBusinessException("Error while updating user profile after validation", e);
@@ -153,7 +304,10 @@ public class UserProfileServiceImpl implements UserProfileService {
     }
 
     @Override
-    @CacheEvict(value = ProfileServiceCache.USER_PROFILE_CACHE, key = "#userId")
+    @Caching(evict = {
+            @CacheEvict(value = ProfileServiceCache.USER_PROFILE_CACHE, key = "#userId"),
+            @CacheEvict(value = ProfileServiceCache.USER_PROFILE_STATUS_CACHE, key = "#userId")
+    })
     public void delete(String userId) {
         try {
             UserProfileDTO userProfileDTO = userProfileMapper.convertEOtoDTO(
@@ -169,26 +323,18 @@ public class UserProfileServiceImpl implements UserProfileService {
         }
     }
 
+    /**
+     * Served from the status cache, which the writes of this service keep current, so polling
+     * while validation is in progress does not reach DynamoDB.
+     */
     @Override
+    @Cacheable(value = ProfileServiceCache.USER_PROFILE_STATUS_CACHE, key = "#userId", unless = "#result == null")
     public UserProfileValidationResultDTO getStatus(String userId) {
         try {
-            Map<String, AttributeValue> result = userProfileRepository.getUserProfileAttributesById(userId, "consolidatedStatus, consolidatedMessage, subscriptionValidations");
-
-            if (result != null && result.containsKey("consolidatedStatus")) {
-                UserProfileValidationResultDTO responseDTO = new UserProfileValidationResultDTO();
-                responseDTO.setUserId(userId);
-                responseDTO.setConsolidatedStatus(result.get("consolidatedStatus").getS());
-                if (result.containsKey("consolidatedMessage")) {
-                    responseDTO.setConsolidatedMessage(result.get("consolidatedMessage").getS());
-                }
-                // Check if subscriptionValidations exist and is not empty
-                if (result.containsKey("subscriptionValidations") && !result.get("subscriptionValidations").getM().isEmpty()) {
-                    Map<String, AttributeValue> subscriptionValidations = result.get("subscriptionValidations").getM();
-                    for (Map.Entry<String, AttributeValue> entry : subscriptionValidations.entrySet()) {
-                        ProductValidationStatus status = UserProfileMapperHelper.mapToProductValidationStatus(entry.getValue());
-                        responseDTO.getSubscriptions().put(entry.getKey(), status);
-                    }
-                }
+            Map<String, AttributeValue> result = userProfileRepository.getUserProfileAttributesById(userId, UserProfileMapperHelper.STATUS_PROJECTION);
+
+            UserProfileValidationResultDTO responseDTO = UserProfileMapperHelper.mapToValidationResult(userId, result);
+            if (responseDTO != null) {
                 return responseDTO;
             } else {
                 log.error("Failed to get status. No user profile found for userId {}", userId);
@@ -199,17 +345,77 @@ public class UserProfileServiceImpl implements UserProfileService {
             throw new UserProfileBusinessException("Error while retrieving status for the user", e);
         }
     }
-    private String generateIdempotencyKey(String email, String pan, String name) throws NoSuchAlgorithmException, NoSuchAlgorithmException {
-        String input = email + ":" + pan + ":" + name;
-        MessageDigest md = MessageDigest.getInstance("SHA-256");
-        byte[] digest = md.digest(input.getBytes());
-        return Base64.getEncoder().encodeToString(digest);
+
+    /**
+     * Streams the status until validation finished. Changes made by this instance are pushed as they
+     * happen, changes made elsewhere are picked up by re-reading the status cache off the request thread.
+     */
+    @Override
+    public Flux<UserProfileValidationResultDTO> streamStatus(String userId) {
+        UserProfileValidationResultDTO statusDTO = getCachedStatus(userId);
+        return profileStatusNotifier.stream(statusDTO,
+                Mono.fromCallable(() -> getCachedStatus(userId)).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * {@link #getStatus} through the status cache, calls within this class bypass the caching proxy.
+     */
+    private UserProfileValidationResultDTO getCachedStatus(String userId) {
+        Cache cache = cacheManager.getCache(ProfileServiceCache.USER_PROFILE_STATUS_CACHE);
+        UserProfileValidationResultDTO statusDTO = cache != null ? cache.get(userId, UserProfileValidationResultDTO.class) : null;
+        if (statusDTO == null) {
+            statusDTO = getStatus(userId);
+            if (cache != null) {
+                cache.put(userId, statusDTO);
+            }
+        }
+        return statusDTO;
+    }
+
+    private void putStatus(UserProfileValidationResultDTO statusDTO) {
+        Cache cache = cacheManager.getCache(ProfileServiceCache.USER_PROFILE_STATUS_CACHE);
+        if (cache != null) {
+            cache.put(statusDTO.getUserId(), statusDTO);
+        }
+        profileStatusNotifier.publish(statusDTO);
+    }
+
+    /**
+     * Applies a blind status write to the cached status. The write does not return the stored item,
+     * so a profile without a cached status is left to be loaded by the next read.
+     */
+    private void updateCachedStatus(UserProfileDTO statusUpdateDTO) {
+        Cache cache = cacheManager.getCache(ProfileServiceCache.USER_PROFILE_STATUS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        UserProfileValidationResultDTO cachedStatusDTO = cache.get(statusUpdateDTO.getUserId(), UserProfileValidationResultDTO.class);
+        if (cachedStatusDTO != null) {
+            // The near tier hands out shared instances, so write a copy
+            UserProfileValidationResultDTO statusDTO = new UserProfileValidationResultDTO(cachedStatusDTO.getUserId(),
+                    statusUpdateDTO.getConsolidatedStatus(), cachedStatusDTO.getConsolidatedMessage(), new HashMap<>(cachedStatusDTO.getSubscriptions()));
+            if (statusUpdateDTO.getConsolidatedMessage() != null) {
+                statusDTO.setConsolidatedMessage(statusUpdateDTO.getConsolidatedMessage());
+            }
+            putStatus(statusDTO);
+        }
     }
+
     private void sendMessageToKafka(UserProfileDTO userProfileDTO, String eventType) throws KafkaProcessingException {
+        if (validationPropsConfig.isFanoutEnabled()) {
+            validateInService(userProfileDTO);
+            return;
+        }
         try {
-            String jsonMessage = JsonUtil.writeToJson(userProfileDTO);
-            log.info("Sending message to kafka with user details {}", jsonMessage);
-            userProfileSubmissionKafkaProducer.send(jsonMessage, eventType, userProfileDTO.getUserId());
+            log.info("Sending {} of userId {} to kafka", eventType, userProfileDTO.getUserId());
+            // The broker acknowledgement arrives on the producer's callback pool, roll back from there on failure
+            userProfileSubmissionKafkaProducer.send(userProfileDTO, eventType, userProfileDTO.getUserId())
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Asynchronous send of {} for userId {} failed.", eventType, userProfileDTO.getUserId(), ex);
+                            handleAsyncRollback(userProfileDTO);
+                        }
+                    });
         } catch (KafkaProcessingException e) {
             handleRollback(userProfileDTO);
             log.error("Failed to send message to kafka.", e);
@@ -217,14 +423,60 @@ public class UserProfileServiceImpl implements UserProfileService {
         }
     }
 
+    /**
+     * Validates in this service instead of handing the profile to the external validation consumer.
+     * The request returns right away, the result reaches the status cache and stream once every
+     * validator answered. An update without subscriptions re-validates the stored ones.
+     */
+    private void validateInService(UserProfileDTO userProfileDTO) {
+        Mono.fromCallable(() -> withStoredValidations(userProfileDTO))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(productValidationService::validate)
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(this::applyValidation, e -> {
+                    log.error("In-service validation of userId {} failed.", userProfileDTO.getUserId(), e);
+                    handleAsyncRollback(userProfileDTO);
+                });
+    }
+
+    /**
+     * The status is consolidated over the stored validation results, not the ones in the request.
+     */
+    private UserProfileDTO withStoredValidations(UserProfileDTO userProfileDTO) {
+        UserProfileDTO storedProfileDTO = userProfileMapper.convertEOtoDTO(userProfileRepository.getUserProfileById(userProfileDTO.getUserId()));
+        if (Objects.isNull(storedProfileDTO)) {
+            throw new NoSuchElementException("No user profile found for user ID: " + userProfileDTO.getUserId());
+        }
+        return UserProfileMapperHelper.withStoredValidations(userProfileDTO, storedProfileDTO);
+    }
+
+    private void applyValidation(UserProfileDTO validatedProfileDTO) {
+        try {
+            updateAfterValidation(validatedProfileDTO);
+            // calls within this class bypass the caching proxy
+            Cache cache = cacheManager.getCache(ProfileServiceCache.USER_PROFILE_CACHE);
+            if (cache != null) {
+                cache.evict(validatedProfileDTO.getUserId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to save validation result of userId {}", validatedProfileDTO.getUserId(), e);
+        }
+    }
+
+    private void handleAsyncRollback(UserProfileDTO userProfileDTO) {
+        try {
+            handleRollback(userProfileDTO);
+        } catch (RuntimeException e) {
+            log.error("Failed to roll back status of userId {} after kafka send failure", userProfileDTO.getUserId(), e);
+        }
+    }
+
     private void handleRollback(UserProfileDTO userProfileDTO) {
         log.error("Could not send message to kafka for carrying out validations, logging event as not complete in DB");
-        UserProfileDTO failedUserProfileDTO = new UserProfileDTO();
-        failedUserProfileDTO.setUserId(userProfileDTO.getUserId());
-        failedUserProfileDTO.setConsolidatedStatus(ValidationStatusEnum.NOT_COMPLETE.getStatus());
-        failedUserProfileDTO.setConsolidatedMessage("Could not perform profile validation due to some unexpected error from a subscribed product.");
+        UserProfileDTO failedUserProfileDTO = UserProfileMapperHelper.toNotCompleteStatus(userProfileDTO.getUserId());
         UserProfileEO failedUserProfileEO = userProfileMapper.convertDTOTOEO(failedUserProfileDTO);
         userProfileRepository.update(userProfileDTO.getUserId(), failedUserProfileEO);
+        updateCachedStatus(failedUserProfileDTO);
         log.error("Rolled back status from IN_PROGRESS to NOT_COMPLETE due to kafka server error");
     }
 
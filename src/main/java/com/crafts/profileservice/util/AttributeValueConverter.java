@@ -0,0 +1,147 @@
+package com.crafts.profileservice.util;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts attribute values between the v1 SDK, whose mapper annotations and table models describe
+ * the entities, and the v2 SDK used by the async DynamoDB client. This lets the reactive repository
+ * reuse the mapper's conversion of entities to items and the transaction items of the blocking one.
+ */
+public final class AttributeValueConverter {
+
+    private AttributeValueConverter() {
+    }
+
+    public static Map<String, AttributeValue> toV2(Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue> item) {
+        if (item == null) {
+            return null;
+        }
+        Map<String, AttributeValue> converted = new HashMap<>(item.size());
+        item.forEach((name, value) -> converted.put(name, toV2(value)));
+        return converted;
+    }
+
+    public static Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue> toV1(Map<String, AttributeValue> item) {
+        if (item == null) {
+            return null;
+        }
+        Map<String, com.amazonaws.services.dynamodbv2.model.AttributeValue> converted = new HashMap<>(item.size());
+        item.forEach((name, value) -> converted.put(name, toV1(value)));
+        return converted;
+    }
+
+    public static AttributeValue toV2(com.amazonaws.services.dynamodbv2.model.AttributeValue value) {
+        AttributeValue.Builder builder = AttributeValue.builder();
+        if (value.getS() != null) {
+            builder.s(value.getS());
+        } else if (value.getN() != null) {
+            builder.n(value.getN());
+        } else if (value.getB() != null) {
+            builder.b(SdkBytes.fromByteBuffer(value.getB().duplicate()));
+        } else if (value.getSS() != null) {
+            builder.ss(value.getSS());
+        } else if (value.getNS() != null) {
+            builder.ns(value.getNS());
+        } else if (value.getBS() != null) {
+            List<SdkBytes> bytes = new ArrayList<>(value.getBS().size());
+            value.getBS().forEach(buffer -> bytes.add(SdkBytes.fromByteBuffer(buffer.duplicate())));
+            builder.bs(bytes);
+        } else if (value.getM() != null) {
+            builder.m(toV2(value.getM()));
+        } else if (value.getL() != null) {
+            List<AttributeValue> list = new ArrayList<>(value.getL().size());
+            value.getL().forEach(element -> list.add(toV2(element)));
+            builder.l(list);
+        } else if (value.getBOOL() != null) {
+            builder.bool(value.getBOOL());
+        } else if (Boolean.TRUE.equals(value.getNULL())) {
+            builder.nul(true);
+        }
+        return builder.build();
+    }
+
+    public static com.amazonaws.services.dynamodbv2.model.AttributeValue toV1(AttributeValue value) {
+        com.amazonaws.services.dynamodbv2.model.AttributeValue converted = new com.amazonaws.services.dynamodbv2.model.AttributeValue();
+        if (value.s() != null) {
+            converted.setS(value.s());
+        } else if (value.n() != null) {
+            converted.setN(value.n());
+        } else if (value.b() != null) {
+            converted.setB(value.b().asByteBuffer());
+        } else if (value.hasSs()) {
+            converted.setSS(value.ss());
+        } else if (value.hasNs()) {
+            converted.setNS(value.ns());
+        } else if (value.hasBs()) {
+            List<ByteBuffer> buffers = new ArrayList<>(value.bs().size());
+            value.bs().forEach(bytes -> buffers.add(bytes.asByteBuffer()));
+            converted.setBS(buffers);
+        } else if (value.hasM()) {
+            converted.setM(toV1(value.m()));
+        } else if (value.hasL()) {
+            List<com.amazonaws.services.dynamodbv2.model.AttributeValue> list = new ArrayList<>(value.l().size());
+            value.l().forEach(element -> list.add(toV1(element)));
+            converted.setL(list);
+        } else if (value.bool() != null) {
+            converted.setBOOL(value.bool());
+        } else if (Boolean.TRUE.equals(value.nul())) {
+            converted.setNULL(true);
+        }
+        return converted;
+    }
+
+    public static TransactWriteItem toV2(com.amazonaws.services.dynamodbv2.model.TransactWriteItem item) {
+        TransactWriteItem.Builder builder = TransactWriteItem.builder();
+        if (item.getPut() != null) {
+            com.amazonaws.services.dynamodbv2.model.Put put = item.getPut();
+            builder.put(Put.builder()
+                    .tableName(put.getTableName())
+                    .item(toV2(put.getItem()))
+                    .conditionExpression(put.getConditionExpression())
+                    .expressionAttributeNames(put.getExpressionAttributeNames())
+                    .expressionAttributeValues(toV2(put.getExpressionAttributeValues()))
+                    .build());
+        } else if (item.getUpdate() != null) {
+            com.amazonaws.services.dynamodbv2.model.Update update = item.getUpdate();
+            builder.update(Update.builder()
+                    .tableName(update.getTableName())
+                    .key(toV2(update.getKey()))
+                    .updateExpression(update.getUpdateExpression())
+                    .conditionExpression(update.getConditionExpression())
+                    .expressionAttributeNames(update.getExpressionAttributeNames())
+                    .expressionAttributeValues(toV2(update.getExpressionAttributeValues()))
+                    .build());
+        } else if (item.getConditionCheck() != null) {
+            com.amazonaws.services.dynamodbv2.model.ConditionCheck conditionCheck = item.getConditionCheck();
+            builder.conditionCheck(ConditionCheck.builder()
+                    .tableName(conditionCheck.getTableName())
+                    .key(toV2(conditionCheck.getKey()))
+                    .conditionExpression(conditionCheck.getConditionExpression())
+                    .expressionAttributeNames(conditionCheck.getExpressionAttributeNames())
+                    .expressionAttributeValues(toV2(conditionCheck.getExpressionAttributeValues()))
+                    .build());
+        } else if (item.getDelete() != null) {
+            com.amazonaws.services.dynamodbv2.model.Delete delete = item.getDelete();
+            builder.delete(Delete.builder()
+                    .tableName(delete.getTableName())
+                    .key(toV2(delete.getKey()))
+                    .conditionExpression(delete.getConditionExpression())
+                    .expressionAttributeNames(delete.getExpressionAttributeNames())
+                    .expressionAttributeValues(toV2(delete.getExpressionAttributeValues()))
+                    .build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.crafts.profileservice.util;
+
+import com.crafts.profileservice.dto.UserProfileDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.TreeSet;
+
+public final class ETagUtil {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int CONTENT_HASH_BYTES = 16;
+    private static final int FIELDS_HASH_BYTES = 8;
+
+    private ETagUtil() {
+    }
+
+    /**
+     * Strong entity tag of a profile, unquoted. Every write increments the stored version, so the
+     * version identifies the representation; profiles written before versioning fall back to a hash
+     * of their JSON.
+     */
+    public static String profileETag(UserProfileDTO userProfileDTO) {
+        if (userProfileDTO.getVersion() != null) {
+            return "v" + userProfileDTO.getVersion();
+        }
+        return hash(JsonUtil.writeToJson(userProfileDTO), CONTENT_HASH_BYTES);
+    }
+
+    /**
+     * Entity tag of a profile read with a {@code fields} projection. A projection is a different
+     * representation of the same version, so the tag also carries a hash of the requested fields,
+     * independent of their order, and never matches the tag of the full profile or another projection.
+     */
+    public static String profileETag(UserProfileDTO userProfileDTO, Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return profileETag(userProfileDTO);
+        }
+        TreeSet<String> sortedFields = new TreeSet<>();
+        fields.forEach(field -> sortedFields.add(field.trim()));
+        return profileETag(userProfileDTO) + "-" + hash(String.join(",", sortedFields), FIELDS_HASH_BYTES);
+    }
+
+    private static String hash(String value, int length) {
+        try {
+            byte[] digest = MessageDigest.getInstance(ALGORITHM).digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, length);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
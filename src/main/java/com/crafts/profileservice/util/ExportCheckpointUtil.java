@@ -0,0 +1,36 @@
+package com.crafts.profileservice.util;
+
+import com.crafts.profileservice.dto.ProfileExportCheckpointDTO;
+import com.crafts.profileservice.exception.JsonDeserializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class ExportCheckpointUtil {
+
+    private ExportCheckpointUtil() {
+    }
+
+    /**
+     * URL safe token of the checkpoint, to be passed back to resume the export.
+     */
+    public static String encode(ProfileExportCheckpointDTO checkpoint) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonUtil.writeToJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException for a token that was not created by {@link #encode}
+     */
+    public static ProfileExportCheckpointDTO decode(String token) {
+        try {
+            ProfileExportCheckpointDTO checkpoint = JsonUtil.readValue(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8),
+                    ProfileExportCheckpointDTO.class);
+            if (checkpoint.getTotalSegments() < 1) {
+                throw new IllegalArgumentException("Invalid export checkpoint");
+            }
+            return checkpoint;
+        } catch (IllegalArgumentException | JsonDeserializationException e) {
+            throw new IllegalArgumentException("Invalid export checkpoint", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.crafts.profileservice.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+public final class IdempotencyKeyGenerator {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private IdempotencyKeyGenerator() {
+    }
+
+    /**
+     * Derives the create idempotency key from the identifying details of a user, as the Base64 encoded
+     * SHA-256 of {@code email:pan:name}.
+     */
+    public static String generate(String email, String pan, String name) throws NoSuchAlgorithmException {
+        String input = email + ":" + pan + ":" + name;
+        MessageDigest md = MessageDigest.getInstance(ALGORITHM);
+        byte[] digest = md.digest(input.getBytes());
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
@@ -5,22 +5,46 @@ import com.crafts.profileservice.exception.JsonSerializationException;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+
 @Slf4j
 public final class JsonUtil {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // Configured once, so writes never change the settings the readers share
+    private static final ObjectWriter NON_NULL_WRITER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writer();
 
     public static String writeToJson(Object content) {
         try {
-            OBJECT_MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-            return OBJECT_MAPPER.writeValueAsString(content);
+            return NON_NULL_WRITER.writeValueAsString(content);
+        } catch (JsonProcessingException e) {
+            log.error("JSON serialization error: {}", e.getMessage());
+            throw new JsonSerializationException("JSON serialization error", e);
+        }
+    }
+
+    public static byte[] writeToJsonBytes(Object content) {
+        try {
+            return NON_NULL_WRITER.writeValueAsBytes(content);
         } catch (JsonProcessingException e) {
             log.error("JSON serialization error: {}", e.getMessage());
             throw new JsonSerializationException("JSON serialization error", e);
         }
     }
 
+    public static <T> T readValue(byte[] content, Class<T> valueType) {
+        try {
+            return OBJECT_MAPPER.readValue(content, valueType);
+        } catch (IOException e) {
+            log.error("JSON deserialization error: {}", e.getMessage());
+            throw new JsonDeserializationException("JSON deserialization error", e);
+        }
+    }
+
     public static <T> T readValue(String content, Class<T> valueType) {
         try {
             return OBJECT_MAPPER.readValue(content, valueType);
@@ -0,0 +1,26 @@
+package com.crafts.profileservice.util;
+
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+public final class OutboxEventUtil {
+
+    private OutboxEventUtil() {
+    }
+
+    /**
+     * Builds the outbox item for an event. All events of a user land on the same shard, and the
+     * event id starts with the zero-padded creation time so the relay reads them in write order.
+     */
+    public static UserProfileOutboxEO newEvent(UserProfileDTO userProfileDTO, String eventType, int shardCount) {
+        String userId = userProfileDTO.getUserId();
+        int shardId = Math.floorMod(Objects.hashCode(userId), shardCount);
+        Instant now = Instant.now();
+        String eventId = String.format("%013d-%s", now.toEpochMilli(), UUID.randomUUID());
+        return new UserProfileOutboxEO(shardId, eventId, userId, eventType, JsonUtil.writeToJson(userProfileDTO), now.toString());
+    }
+}
@@ -0,0 +1,51 @@
+package com.crafts.profileservice.util;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.exception.JsonDeserializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opaque cursors over the LastEvaluatedKey of a query. Only string key attributes are supported,
+ * which covers the keys of the profile table and its indexes.
+ */
+public final class PageCursorUtil {
+
+    private PageCursorUtil() {
+    }
+
+    /**
+     * @return the cursor of the next page, or null when {@code lastEvaluatedKey} is null
+     */
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null) {
+            return null;
+        }
+        Map<String, String> key = new HashMap<>();
+        lastEvaluatedKey.forEach((name, value) -> key.put(name, value.getS()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonUtil.writeToJson(key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException for a cursor that was not created by {@link #encode}
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, AttributeValue> decode(String cursor) {
+        try {
+            Map<String, Object> key = JsonUtil.readValue(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8), Map.class);
+            Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+            key.forEach((name, value) -> {
+                if (!(value instanceof String)) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                exclusiveStartKey.put(name, new AttributeValue().withS((String) value));
+            });
+            return exclusiveStartKey;
+        } catch (IllegalArgumentException | JsonDeserializationException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.crafts.profileservice.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads while the service is still compiled for Java 17. The executor is looked
+ * up reflectively, so the same artifact uses virtual threads on a Java 21 runtime and reports them as
+ * unavailable on older runtimes (or on 19/20 without preview features).
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) factory.invoke(null));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Virtual threads are not available on Java {}: {}", Runtime.version(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
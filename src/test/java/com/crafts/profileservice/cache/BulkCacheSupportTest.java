@@ -0,0 +1,35 @@
+package com.crafts.profileservice.cache;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.PrefixedCacheImpl;
+import com.google.code.ssm.spring.SSMCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BulkCacheSupportTest {
+
+    private static final String SEPARATOR = "#";
+
+    @Test
+    public void testRemoteKey_MatchesTheKeysSsmWritesAndReads() throws Exception {
+        Cache memcached = mock(Cache.class);
+        when(memcached.getName()).thenReturn("profileServiceCache");
+        when(memcached.isEnabled()).thenReturn(true);
+        SSMCache ssmCache = new SSMCache(new PrefixedCacheImpl(memcached, "profileServiceCache", SEPARATOR), 60);
+        String remoteKey = BulkCacheSupport.remoteKey(ssmCache, SEPARATOR, "user1");
+        when(memcached.getBulk(anyCollection(), any())).thenReturn(Map.of(remoteKey, "profile"));
+
+        ssmCache.put("user1", "profile");
+        Map<String, String> values = BulkCacheSupport.getAll(ssmCache, List.of("user1"), String.class);
+
+        verify(memcached).set(eq(remoteKey), anyInt(), eq("profile"), any());
+        verify(memcached).getBulk(eq(List.of(remoteKey)), any());
+        assertEquals(Map.of("user1", "profile"), values);
+    }
+}
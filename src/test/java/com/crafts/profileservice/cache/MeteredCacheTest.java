@@ -0,0 +1,83 @@
+package com.crafts.profileservice.cache;
+
+import com.crafts.profileservice.dto.UserProfileDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MeteredCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredCache meteredCache;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        meteredCache = new MeteredCache(new ConcurrentMapCache("USER_PROFILE_CACHE"), meterRegistry);
+    }
+
+    @Test
+    public void testGet_CountsHitsAndMisses() {
+        meteredCache.put("user1", new UserProfileDTO());
+
+        assertNotNull(meteredCache.get("user1"));
+        assertNotNull(meteredCache.get("user1", UserProfileDTO.class));
+        assertNull(meteredCache.get("user2"));
+
+        assertEquals(2, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    public void testGet_CountsErrorsAndRethrows() {
+        Cache failingCache = mock(Cache.class);
+        when(failingCache.getName()).thenReturn("USER_PROFILE_CACHE");
+        when(failingCache.get(any())).thenThrow(new IllegalStateException("memcached unavailable"));
+        doThrow(new IllegalStateException("memcached unavailable")).when(failingCache).evict(any());
+        MeteredCache cache = new MeteredCache(failingCache, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("user1"));
+        assertThrows(IllegalStateException.class, () -> cache.evict("user1"));
+
+        assertEquals(1, meterRegistry.get("profile.cache.errors").tag("operation", "get").counter().count());
+        assertEquals(1, meterRegistry.get("profile.cache.errors").tag("operation", "evict").counter().count());
+    }
+
+    @Test
+    public void testBulkGet_ThroughDecorators() {
+        meteredCache.put("user1", new UserProfileDTO());
+
+        Map<String, UserProfileDTO> values = BulkCacheSupport.getAll(new TransactionAwareCacheDecorator(meteredCache),
+                List.of("user1", "user2"), UserProfileDTO.class);
+
+        assertEquals(1, values.size());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    public void testCacheManager_DecoratesCaches() {
+        MeteredCacheManager cacheManager = new MeteredCacheManager(new ConcurrentMapCacheManager("USER_PROFILE_CACHE"), meterRegistry);
+
+        Cache cache = cacheManager.getCache("USER_PROFILE_CACHE");
+        assertInstanceOf(MeteredCache.class, cache);
+        assertSame(cache, cacheManager.getCache("USER_PROFILE_CACHE"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("profile.cache.gets").tag("cache", "USER_PROFILE_CACHE").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,95 @@
+package com.crafts.profileservice.cache;
+
+import com.crafts.profileservice.entity.ProductRegistryEO;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.repository.impl.ProductRegistryRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductRegistryTest {
+
+    @Mock
+    private ProductRegistryRepositoryImpl productRegistryRepository;
+
+    private ProductRegistry productRegistry;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        productRegistry = new ProductRegistry(productRegistryRepository);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testLookupsAreServedFromTheSnapshot() {
+        when(productRegistryRepository.findAll()).thenReturn(List.of(new ProductRegistryEO("QB", "http://qb/validate")));
+        productRegistry.init();
+
+        assertEquals("http://qb/validate", productRegistry.getProduct("QB").get().getProductValidationUrl());
+        assertTrue(productRegistry.getProduct("QBO").isEmpty());
+        productRegistry.requireRegistered(List.of("QB"));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> productRegistry.requireRegistered(List.of("QB", "QBO", "PAYROLL")));
+        assertEquals("Unknown product: PAYROLL, QBO", exception.getMessage());
+        verify(productRegistryRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testRefreshSwapsTheSnapshot() {
+        when(productRegistryRepository.findAll())
+                .thenReturn(List.of(new ProductRegistryEO("QB", "http://qb/validate")))
+                .thenReturn(List.of(new ProductRegistryEO("QB", "http://qb/v2/validate"), new ProductRegistryEO("QBO", "http://qbo/validate")));
+        productRegistry.init();
+
+        assertEquals(2, productRegistry.refresh());
+        assertEquals("http://qb/v2/validate", productRegistry.getProduct("QB").get().getProductValidationUrl());
+        productRegistry.requireRegistered(List.of("QB", "QBO"));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsTheSnapshot() {
+        when(productRegistryRepository.findAll())
+                .thenReturn(List.of(new ProductRegistryEO("QB", "http://qb/validate")))
+                .thenThrow(new UserProfileRepositoryException("DynamoDB error"));
+        productRegistry.init();
+
+        productRegistry.scheduledRefresh();
+
+        assertTrue(productRegistry.getProduct("QB").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> productRegistry.requireRegistered(List.of("QBO")));
+    }
+
+    @Test
+    public void testNothingIsRejectedBeforeTheFirstLoad() {
+        when(productRegistryRepository.findAll()).thenThrow(new UserProfileRepositoryException("DynamoDB error"));
+        productRegistry.init();
+
+        assertTrue(productRegistry.getProduct("QB").isEmpty());
+        productRegistry.requireRegistered(List.of("QB"));
+    }
+
+    @Test
+    public void testEmptyRegistryRejectsNothing() {
+        when(productRegistryRepository.findAll())
+                .thenReturn(List.of(new ProductRegistryEO("QB", "http://qb/validate")))
+                .thenReturn(List.of());
+        productRegistry.init();
+
+        assertEquals(0, productRegistry.refresh());
+        assertTrue(productRegistry.getProduct("QB").isEmpty());
+        productRegistry.requireRegistered(List.of("QBO"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.crafts.profileservice.cache;
+
+import com.crafts.profileservice.dto.UserProfileDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TwoTierCacheTest {
+
+    private ConcurrentMapCache nearCache;
+    private ConcurrentMapCache remoteCache;
+    private TwoTierCache twoTierCache;
+
+    @BeforeEach
+    public void setUp() {
+        nearCache = new ConcurrentMapCache("near");
+        remoteCache = new ConcurrentMapCache("remote");
+        twoTierCache = new TwoTierCache(nearCache, remoteCache);
+    }
+
+    @Test
+    public void testGet_RemoteHitBackfillsNearCache() {
+        UserProfileDTO profile = new UserProfileDTO();
+        remoteCache.put("user1", profile);
+
+        assertSame(profile, twoTierCache.get("user1", UserProfileDTO.class));
+        assertNotNull(nearCache.get("user1"));
+
+        remoteCache.evict("user1");
+        assertSame(profile, twoTierCache.get("user1", UserProfileDTO.class));
+    }
+
+    @Test
+    public void testGet_MissInBothTiers() {
+        assertNull(twoTierCache.get("user1"));
+        assertNull(nearCache.get("user1"));
+    }
+
+    @Test
+    public void testPut_WritesBothTiers() {
+        UserProfileDTO profile = new UserProfileDTO();
+        twoTierCache.put("user1", profile);
+
+        assertSame(profile, nearCache.get("user1").get());
+        assertSame(profile, remoteCache.get("user1").get());
+    }
+
+    @Test
+    public void testEvict_InvalidatesBothTiers() {
+        twoTierCache.put("user1", new UserProfileDTO());
+        twoTierCache.evict("user1");
+
+        assertNull(nearCache.get("user1"));
+        assertNull(remoteCache.get("user1"));
+        assertNull(twoTierCache.get("user1"));
+    }
+
+    @Test
+    public void testCacheManager_AliasesShareNearCache() {
+        ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager("USER_PROFILE_CACHE");
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(remoteCacheManager, 100, Duration.ofSeconds(5));
+
+        Cache cache = cacheManager.getCache("USER_PROFILE_CACHE");
+        assertInstanceOf(TwoTierCache.class, cache);
+        assertSame(cache, cacheManager.getCache("USER_PROFILE_CACHE"));
+        assertNull(cacheManager.getCache("UNKNOWN_CACHE"));
+    }
+}
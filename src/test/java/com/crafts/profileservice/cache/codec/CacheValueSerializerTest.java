@@ -0,0 +1,128 @@
+package com.crafts.profileservice.cache.codec;
+
+import com.crafts.profileservice.dto.AddressDTO;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.TaxIdentifiersDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.exception.CacheCodecException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheValueSerializerTest {
+
+    private final CacheValueSerializer binarySerializer = CacheValueCodecFactory.getSerializer(CacheValueCodecFactory.BINARY);
+    private final CacheValueSerializer jsonSerializer = CacheValueCodecFactory.getSerializer(CacheValueCodecFactory.JSON);
+
+    @Test
+    public void testBinaryRoundTrip() {
+        UserProfileDTO profile = buildProfile();
+
+        byte[] data = binarySerializer.serialize(profile);
+
+        assertEquals(BinaryCacheValueCodec.CODEC_ID, data[1]);
+        assertEquals(profile, binarySerializer.deserialize(data));
+    }
+
+    @Test
+    public void testBinaryRoundTrip_NullFields() {
+        UserProfileDTO profile = new UserProfileDTO();
+        profile.setSubscriptionValidations(null);
+
+        assertEquals(profile, binarySerializer.deserialize(binarySerializer.serialize(profile)));
+    }
+
+    @Test
+    public void testBinarySchemaVersion1EntriesDecode() {
+        UserProfileDTO profile = buildProfile();
+        profile.setVersion(null);
+        byte[] data = binarySerializer.serialize(profile);
+        // A version 1 entry is the same layout without the trailing version presence flag
+        byte[] legacy = Arrays.copyOf(data, data.length - 1);
+        legacy[2] = 1;
+
+        assertEquals(profile, binarySerializer.deserialize(legacy));
+    }
+
+    @Test
+    public void testBinaryIsSmallerThanJavaSerialization() throws IOException {
+        UserProfileDTO profile = buildProfile();
+
+        assertTrue(binarySerializer.serialize(profile).length < javaSerialize(profile).length / 2);
+    }
+
+    @Test
+    public void testUnsupportedTypeFallsBackToJson() {
+        UserProfileValidationResultDTO result = new UserProfileValidationResultDTO();
+        result.setUserId("user1");
+        result.setConsolidatedStatus("In Progress");
+
+        byte[] data = binarySerializer.serialize(result);
+
+        assertEquals(JsonCacheValueCodec.CODEC_ID, data[1]);
+        assertEquals(result, binarySerializer.deserialize(data));
+    }
+
+    @Test
+    public void testEntriesAreReadableAcrossCodecs() {
+        UserProfileDTO profile = buildProfile();
+
+        assertEquals(profile, binarySerializer.deserialize(jsonSerializer.serialize(profile)));
+        assertEquals(profile, jsonSerializer.deserialize(binarySerializer.serialize(profile)));
+    }
+
+    @Test
+    public void testLegacyJavaSerializedEntriesDecode() throws IOException {
+        UserProfileDTO profile = buildProfile();
+
+        assertEquals(profile, binarySerializer.deserialize(javaSerialize(profile)));
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(javaSerialize(profile));
+        }
+        assertEquals(profile, binarySerializer.deserialize(compressed.toByteArray()));
+    }
+
+    @Test
+    public void testUnknownFormatIsRejected() {
+        assertThrows(CacheCodecException.class, () -> binarySerializer.deserialize(new byte[]{1, 2, 3}));
+        assertThrows(CacheCodecException.class, () -> binarySerializer.deserialize(new byte[]{CacheValueSerializer.MAGIC, 9, 1}));
+    }
+
+    private UserProfileDTO buildProfile() {
+        UserProfileDTO profile = new UserProfileDTO();
+        profile.setUserId("5f1c4d2e-8b7a-4c1e-9a4b-2f6d8e0c1a3b");
+        profile.setIdempotencyKey("r4nd0mK3y==");
+        profile.setCompanyName("Ganesh Flowers");
+        profile.setLegalName("Ganesh Flowers Pvt Ltd");
+        profile.setBusinessAddress(new AddressDTO("12 MG Road", null, "Bengaluru", "KA", "560001", "IN"));
+        profile.setLegalAddress(new AddressDTO("12 MG Road", "Floor 2", "Bengaluru", "KA", "560001", "IN"));
+        profile.setTaxIdentifiers(new TaxIdentifiersDTO("ABCDE1234F", null));
+        profile.setEmail("ganesh@flowers.com");
+        profile.setWebsite("https://flowers.com");
+        profile.setConsolidatedStatus("Success");
+        profile.setTimestamp("2023-11-01T10:15:30Z");
+        profile.setVersion(7L);
+        profile.setSubscriptions(List.of("product_1", "product_2"));
+        profile.getSubscriptionValidations().put("product_1", new ProductValidationStatus("Success", List.of()));
+        profile.getSubscriptionValidations().put("product_2", new ProductValidationStatus("Rejected", List.of("Invalid EIN")));
+        return profile;
+    }
+
+    private byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+}
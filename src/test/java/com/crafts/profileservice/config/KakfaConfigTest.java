@@ -0,0 +1,42 @@
+package com.crafts.profileservice.config;
+
+import com.crafts.profileservice.config.props.KafkaPropsConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KakfaConfigTest {
+
+    @Test
+    public void testGetProducerProfile_DefaultKeepsClientDefaults() {
+        KafkaPropsConfig kafkaPropsConfig = new KafkaPropsConfig();
+        kafkaPropsConfig.setProducerPartitionByKey(true);
+        kafkaPropsConfig.setProducerProfile("default");
+
+        assertTrue(KakfaConfig.getProducerProfile(kafkaPropsConfig).isEmpty());
+    }
+
+    @Test
+    public void testGetProducerProfile_ThroughputBatchesAndCompresses() {
+        KafkaPropsConfig kafkaPropsConfig = new KafkaPropsConfig();
+        kafkaPropsConfig.setProducerPartitionByKey(false);
+        kafkaPropsConfig.setProducerProfile("throughput");
+        kafkaPropsConfig.setProducerThroughputCompressionType("zstd");
+        kafkaPropsConfig.setProducerThroughputLingerMs(20);
+        kafkaPropsConfig.setProducerThroughputBatchSize(131072);
+        kafkaPropsConfig.setProducerThroughputBufferMemory(67108864L);
+
+        Map<String, Object> props = KakfaConfig.getProducerProfile(kafkaPropsConfig);
+
+        assertEquals(true, props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("all", props.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals("zstd", props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(20, props.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(131072, props.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(67108864L, props.get(ProducerConfig.BUFFER_MEMORY_CONFIG));
+        assertEquals(true, props.get(ProducerConfig.PARTITIONER_IGNORE_KEYS_CONFIG));
+    }
+}
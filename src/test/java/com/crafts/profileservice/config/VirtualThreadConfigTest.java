@@ -0,0 +1,50 @@
+package com.crafts.profileservice.config;
+
+import com.crafts.profileservice.config.props.VirtualThreadPropsConfig;
+import com.crafts.profileservice.metrics.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(RefreshAutoConfiguration.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(VirtualThreadPropsConfig.class)
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    public void testDisabledByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+        });
+    }
+
+    @Test
+    public void testDisabled() {
+        contextRunner.withPropertyValues("server.virtual-threads.enabled=false").run(context -> {
+            assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+        });
+    }
+
+    @Test
+    public void testEnabled() {
+        contextRunner.withPropertyValues("server.virtual-threads.enabled=true", "server.virtual-threads.pinned.threshold.ms=5").run(context -> {
+            assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context.getBean(VirtualThreadPropsConfig.class).getPinnedThresholdMs()).isEqualTo(5);
+            // without virtual threads there is nothing to monitor
+            assertThat(context.getBeansOfType(VirtualThreadPinningMonitor.class))
+                    .hasSize(JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE) ? 1 : 0);
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.crafts.profileservice.consumer;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionOffsetTrackerTest {
+
+    private final TopicPartition partition = new TopicPartition("validation-result", 0);
+
+    @Test
+    public void testCommittableOffsets_OnlyAdvancePastContiguousCompletions() {
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        tracker.dispatched(partition, 0);
+        tracker.dispatched(partition, 1);
+        tracker.dispatched(partition, 2);
+
+        tracker.completed(partition, 1);
+        tracker.completed(partition, 2);
+        Map<TopicPartition, OffsetAndMetadata> offsets = tracker.committableOffsets();
+        assertEquals(0, offsets.get(partition).offset());
+        assertTrue(tracker.committableOffsets().isEmpty());
+
+        tracker.completed(partition, 0);
+        assertEquals(3, tracker.committableOffsets().get(partition).offset());
+        assertEquals(0, tracker.inFlight());
+    }
+
+    @Test
+    public void testRemove_ForgetsRevokedPartitions() {
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        tracker.dispatched(partition, 5);
+        assertEquals(1, tracker.inFlight(List.of(partition)));
+
+        tracker.remove(List.of(partition));
+        tracker.completed(partition, 5);
+
+        assertEquals(0, tracker.inFlight());
+        assertTrue(tracker.committableOffsets().isEmpty());
+    }
+}
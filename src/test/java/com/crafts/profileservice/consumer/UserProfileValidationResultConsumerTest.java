@@ -0,0 +1,196 @@
+package com.crafts.profileservice.consumer;
+
+import com.crafts.profileservice.config.props.EventCodecPropsConfig;
+import com.crafts.profileservice.config.props.ValidationResultConsumerPropsConfig;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.event.ProfileEventSchemaRegistry;
+import com.crafts.profileservice.event.ProfileEventSerializer;
+import com.crafts.profileservice.exception.UserProfileBusinessException;
+import com.crafts.profileservice.service.UserProfileService;
+import com.crafts.profileservice.util.JsonUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UserProfileValidationResultConsumerTest {
+
+    private static final String TOPIC = "validation-result";
+
+    private final TopicPartition partition0 = new TopicPartition(TOPIC, 0);
+    private final TopicPartition partition1 = new TopicPartition(TOPIC, 1);
+
+    private MockConsumer<String, byte[]> consumer;
+    private UserProfileValidationResultConsumer resultConsumer;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @TempDir
+    private Path tempDir;
+
+    private ProfileEventSerializer profileEventSerializer;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        ValidationResultConsumerPropsConfig consumerPropsConfig = new ValidationResultConsumerPropsConfig();
+        consumerPropsConfig.setWorkers(4);
+        consumerPropsConfig.setMaxInFlight(100);
+        consumerPropsConfig.setPollTimeoutMs(10);
+        consumerPropsConfig.setMaxAttempts(2);
+        consumerPropsConfig.setRetryBackoffMs(1);
+        consumerPropsConfig.setDrainTimeoutMs(5000);
+        EventCodecPropsConfig eventCodecPropsConfig = new EventCodecPropsConfig();
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.JSON);
+        eventCodecPropsConfig.setSchemaRegistryFile(tempDir.resolve("event-schemas.json").toString());
+        profileEventSerializer = new ProfileEventSerializer(new ProfileEventSchemaRegistry(eventCodecPropsConfig), eventCodecPropsConfig);
+        resultConsumer = new UserProfileValidationResultConsumer(consumer, TOPIC, userProfileService, profileEventSerializer, consumerPropsConfig);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testConsume_AppliesResultsOfAUserInOrderAndCommitsAll() throws Exception {
+        Map<String, List<String>> applied = Collections.synchronizedMap(new HashMap<>());
+        when(userProfileService.updateAfterValidation(any())).thenAnswer(invocation -> {
+            UserProfileDTO userProfileDTO = invocation.getArgument(0);
+            if ("user1".equals(userProfileDTO.getUserId())) {
+                // slow user, the others must not wait for it
+                Thread.sleep(5);
+            }
+            applied.computeIfAbsent(userProfileDTO.getUserId(), ignored -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(userProfileDTO.getConsolidatedMessage());
+            return userProfileDTO;
+        });
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int offset = 0; offset < 20; offset++) {
+            String userId = "user" + (offset % 4);
+            records.add(new ConsumerRecord<>(TOPIC, offset % 2, offset / 2, userId, result(userId, "result" + offset)));
+        }
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(partition0, partition1));
+            consumer.updateBeginningOffsets(Map.of(partition0, 0L, partition1, 0L));
+            records.forEach(consumer::addRecord);
+        });
+
+        resultConsumer.start();
+        awaitCommitted(Map.of(partition0, 10L, partition1, 10L));
+        resultConsumer.stop();
+
+        assertEquals(List.of("result1", "result5", "result9", "result13", "result17"), applied.get("user1"));
+        assertEquals(List.of("result2", "result6", "result10", "result14", "result18"), applied.get("user2"));
+        assertTrue(consumer.closed());
+    }
+
+    @Test
+    public void testConsume_SkipsMalformedAndFailingResults() throws Exception {
+        when(userProfileService.updateAfterValidation(any()))
+                .thenThrow(new UserProfileBusinessException("Error while updating user profile after validation"));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(partition0));
+            consumer.updateBeginningOffsets(Map.of(partition0, 0L));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "user1", "not-json".getBytes(StandardCharsets.UTF_8)));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, "user1", result("user1", "result1")));
+        });
+
+        resultConsumer.start();
+        awaitCommitted(Map.of(partition0, 2L));
+        resultConsumer.stop();
+
+        verify(userProfileService, times(2)).updateAfterValidation(any());
+    }
+
+    @Test
+    public void testConsume_KeepsPollingAfterAFailedPoll() throws Exception {
+        when(userProfileService.updateAfterValidation(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(partition0));
+            consumer.updateBeginningOffsets(Map.of(partition0, 0L));
+            consumer.setPollException(new KafkaException("Broker unreachable"));
+        });
+        consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "user1", result("user1", "result1"))));
+
+        resultConsumer.start();
+        awaitCommitted(Map.of(partition0, 1L));
+        resultConsumer.stop();
+
+        verify(userProfileService).updateAfterValidation(any());
+        assertTrue(consumer.closed());
+    }
+
+    @Test
+    public void testConsume_DecodesBinaryResults() throws Exception {
+        UserProfileDTO validatedProfileDTO = new UserProfileDTO();
+        validatedProfileDTO.setUserId("user1");
+        validatedProfileDTO.setConsolidatedStatus("Success");
+        ProfileEventSerializer.SerializedEvent event = binarySerializer().serialize(validatedProfileDTO, "USER_PROFILE_UPDATE");
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(new RecordHeader(ProfileEventSerializer.SCHEMA_ID_HEADER, event.getSchemaId().toString().getBytes(StandardCharsets.UTF_8)));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(partition0));
+            consumer.updateBeginningOffsets(Map.of(partition0, 0L));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, ConsumerRecord.NO_TIMESTAMP, TimestampType.NO_TIMESTAMP_TYPE,
+                    ConsumerRecord.NULL_SIZE, ConsumerRecord.NULL_SIZE, "user1", event.getPayload(), headers, Optional.empty()));
+        });
+
+        resultConsumer.start();
+        awaitCommitted(Map.of(partition0, 1L));
+        resultConsumer.stop();
+
+        verify(userProfileService).updateAfterValidation(validatedProfileDTO);
+    }
+
+    private ProfileEventSerializer binarySerializer() {
+        EventCodecPropsConfig eventCodecPropsConfig = new EventCodecPropsConfig();
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.BINARY);
+        eventCodecPropsConfig.setSchemaRegistryFile(tempDir.resolve("event-schemas.json").toString());
+        return new ProfileEventSerializer(new ProfileEventSchemaRegistry(eventCodecPropsConfig), eventCodecPropsConfig);
+    }
+
+    private void awaitCommitted(Map<TopicPartition, Long> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(expected.keySet());
+            boolean complete = expected.entrySet().stream()
+                    .allMatch(entry -> committed.get(entry.getKey()) != null && committed.get(entry.getKey()).offset() == entry.getValue());
+            if (complete) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Offsets " + expected + " were not committed");
+    }
+
+    private static byte[] result(String userId, String message) {
+        UserProfileDTO userProfileDTO = new UserProfileDTO();
+        userProfileDTO.setUserId(userId);
+        userProfileDTO.setConsolidatedMessage(message);
+        return JsonUtil.writeToJsonBytes(userProfileDTO);
+    }
+}
@@ -1,11 +1,20 @@
 package com.crafts.profileservice.controller;
 
 import com.crafts.profileservice.advice.CustomControllerAdvice;
+import com.crafts.profileservice.config.props.ImportPropsConfig;
+import com.crafts.profileservice.config.props.StatusStreamPropsConfig;
 import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
 import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileExportPageDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
 import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
 import com.crafts.profileservice.exception.UserProfileBusinessException;
+import com.crafts.profileservice.service.UserProfileExportService;
+import com.crafts.profileservice.service.UserProfileImportService;
 import com.crafts.profileservice.service.UserProfileService;
+import com.crafts.profileservice.util.ETagUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,11 +25,20 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
 import java.util.NoSuchElementException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class UserProfileControllerTest {
@@ -29,11 +47,18 @@ public class UserProfileControllerTest {
     private AutoCloseable closeable;
     @Mock
     private UserProfileService userProfileService;
+    @Mock
+    private UserProfileImportService userProfileImportService;
+    @Mock
+    private UserProfileExportService userProfileExportService;
 
     @BeforeEach
     public void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        UserProfileController userProfileController = new UserProfileController(userProfileService);
+        StatusStreamPropsConfig statusStreamPropsConfig = new StatusStreamPropsConfig();
+        statusStreamPropsConfig.setTimeoutMs(5000);
+        UserProfileController userProfileController = new UserProfileController(userProfileService, statusStreamPropsConfig,
+                userProfileImportService, new ImportPropsConfig(), userProfileExportService);
         this.mockMvc = MockMvcBuilders.standaloneSetup(userProfileController)
                 .setControllerAdvice(new CustomControllerAdvice())
                 .build();
@@ -57,6 +82,26 @@ public class UserProfileControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testGetUserProfiles() throws Exception {
+        UserProfileBatchResponseDTO mockResponse = new UserProfileBatchResponseDTO();
+        mockResponse.getMissingUserIds().add("2");
+        when(userProfileService.getUserProfilesByIds(List.of("1", "2"))).thenReturn(mockResponse);
+        String requestJson = new ObjectMapper().writeValueAsString(new UserProfileBatchRequestDTO(List.of("1", "2")));
+
+        mockMvc.perform(post("/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"missingUserIds\":[\"2\"]}"));
+
+        when(userProfileService.getUserProfilesByIds(any())).thenThrow(new IllegalArgumentException("At least one user ID is required"));
+        mockMvc.perform(post("/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testCreateUserProfile() throws Exception {
         UserProfileDTO mockProfile = new UserProfileDTO();
@@ -131,6 +176,47 @@ public class UserProfileControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testGetUserProfile_ConditionalGet() throws Exception {
+        UserProfileDTO mockProfile = new UserProfileDTO();
+        mockProfile.setUserId("1");
+        mockProfile.setVersion(3L);
+        when(userProfileService.getUserProfileById("1")).thenReturn(mockProfile);
+
+        mockMvc.perform(get("/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v3\""));
+
+        mockMvc.perform(get("/user/1").header("If-None-Match", "\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/user/1").header("If-None-Match", "\"v2\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetUserProfile_Fields() throws Exception {
+        UserProfileDTO projected = new UserProfileDTO();
+        projected.setUserId("1");
+        projected.setCompanyName("Acme");
+        projected.setVersion(2L);
+        projected.setSubscriptionValidations(null);
+        when(userProfileService.getUserProfileById("1", List.of("companyName", "consolidatedStatus"))).thenReturn(projected);
+
+        mockMvc.perform(get("/user/1").param("fields", "companyName,consolidatedStatus"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"userId\":\"1\",\"companyName\":\"Acme\",\"version\":2}"))
+                .andExpect(header().string("ETag", "\"" + ETagUtil.profileETag(projected, List.of("consolidatedStatus", "companyName")) + "\""));
+        // The projection never revalidates against the tag of the full profile
+        mockMvc.perform(get("/user/1").param("fields", "companyName,consolidatedStatus").header("If-None-Match", "\"v2\""))
+                .andExpect(status().isOk());
+
+        when(userProfileService.getUserProfileById("1", List.of("idempotencyKey"))).thenThrow(new IllegalArgumentException("Unknown profile field"));
+        mockMvc.perform(get("/user/1").param("fields", "idempotencyKey"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetStatus() throws Exception {
         UserProfileValidationResultDTO mockResult = new UserProfileValidationResultDTO();
@@ -143,4 +229,62 @@ public class UserProfileControllerTest {
         mockMvc.perform(get("/user/status/2"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    public void testStreamStatus() throws Exception {
+        UserProfileValidationResultDTO inProgress = new UserProfileValidationResultDTO("1", "In Progress", null, new HashMap<>());
+        UserProfileValidationResultDTO success = new UserProfileValidationResultDTO("1", "Success", null, new HashMap<>());
+        when(userProfileService.streamStatus("1")).thenReturn(Flux.just(inProgress, success));
+
+        MvcResult result = mockMvc.perform(get("/user/status/1/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertEquals(2, body.split("event:status").length - 1);
+        assertTrue(body.contains("\"consolidatedStatus\":\"Success\""));
+
+        when(userProfileService.streamStatus("2")).thenThrow(new NoSuchElementException("User not found"));
+        mockMvc.perform(get("/user/status/2/stream"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetUserProfilesByStatus() throws Exception {
+        UserProfileDTO userProfile = new UserProfileDTO();
+        userProfile.setUserId("1");
+        when(userProfileService.getUserProfilesByStatus("NOT_COMPLETE", "cursor1", 10))
+                .thenReturn(new UserProfilePageDTO(List.of(userProfile), "cursor2"));
+
+        mockMvc.perform(get("/user").param("status", "NOT_COMPLETE").param("cursor", "cursor1").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"profiles\":[{\"userId\":\"1\"}],\"nextCursor\":\"cursor2\"}"));
+
+        when(userProfileService.getUserProfilesByStatus("STUCK", null, null)).thenThrow(new IllegalArgumentException("Unknown status: STUCK"));
+        mockMvc.perform(get("/user").param("status", "STUCK"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testExportUserProfiles() throws Exception {
+        UserProfileDTO userProfile = new UserProfileDTO();
+        userProfile.setUserId("1");
+        when(userProfileExportService.exportProfiles("Success", 2, null))
+                .thenReturn(Flux.just(new UserProfileExportPageDTO(List.of(userProfile), "checkpoint1")));
+
+        MvcResult result = mockMvc.perform(get("/user/export").param("status", "Success").param("segments", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"userId\":\"1\""));
+        assertEquals("{\"checkpoint\":\"checkpoint1\"}", lines[1]);
+
+        when(userProfileExportService.exportProfiles(null, 100, null)).thenThrow(new IllegalArgumentException("Segments must be between 1 and 64"));
+        mockMvc.perform(get("/user/export").param("segments", "100"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,137 @@
+package com.crafts.profileservice.event;
+
+import com.crafts.profileservice.config.props.EventCodecPropsConfig;
+import com.crafts.profileservice.dto.AddressDTO;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.TaxIdentifiersDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.exception.EventCodecException;
+import com.crafts.profileservice.util.JsonUtil;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileEventSerializerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private EventCodecPropsConfig eventCodecPropsConfig;
+
+    private ProfileEventSerializer profileEventSerializer;
+
+    @BeforeEach
+    public void setUp() {
+        eventCodecPropsConfig = new EventCodecPropsConfig();
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.BINARY);
+        eventCodecPropsConfig.setSchemaRegistryFile(tempDir.resolve("event-schemas.json").toString());
+        profileEventSerializer = new ProfileEventSerializer(new ProfileEventSchemaRegistry(eventCodecPropsConfig), eventCodecPropsConfig);
+    }
+
+    @Test
+    public void testSerialize_BinaryRoundTripIsSmallerThanJson() {
+        UserProfileDTO userProfileDTO = profile();
+
+        ProfileEventSerializer.SerializedEvent event = profileEventSerializer.serialize(userProfileDTO, "USER_PROFILE_CREATE");
+
+        assertNotNull(event.getSchemaId());
+        assertEquals(ProfileEventSerializer.BINARY, event.getEncoding());
+        assertTrue(event.getPayload().length < JsonUtil.writeToJsonBytes(userProfileDTO).length / 2);
+        assertEquals(userProfileDTO, profileEventSerializer.deserialize(event.getPayload(), schemaHeader(event.getSchemaId())));
+    }
+
+    @Test
+    public void testSerialize_JsonWhenConfiguredAndForOtherEvents() {
+        UserProfileDTO userProfileDTO = profile();
+        assertNull(profileEventSerializer.serialize(userProfileDTO, "USER_PROFILE_DELETE").getSchemaId());
+
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.JSON);
+        ProfileEventSerializer.SerializedEvent event = profileEventSerializer.serialize(userProfileDTO, "USER_PROFILE_CREATE");
+
+        assertNull(event.getSchemaId());
+        assertEquals(userProfileDTO, profileEventSerializer.deserialize(event.getPayload(), new RecordHeaders()));
+    }
+
+    @Test
+    public void testDeserialize_ResolvesSchemasRegisteredByAnotherInstance() {
+        ProfileEventSerializer.SerializedEvent event = profileEventSerializer.serialize(profile(), "USER_PROFILE_UPDATE");
+        ProfileEventSchemaRegistry otherRegistry = new ProfileEventSchemaRegistry(eventCodecPropsConfig);
+        ProfileEventSerializer otherSerializer = new ProfileEventSerializer(otherRegistry, eventCodecPropsConfig);
+
+        assertEquals(profile(), otherSerializer.deserialize(event.getPayload(), schemaHeader(event.getSchemaId())));
+        assertEquals(event.getSchemaId(), otherRegistry.register("USER_PROFILE_UPDATE", ProfileEventCodec.FIELDS).getId());
+        assertThrows(EventCodecException.class, () -> otherSerializer.deserialize(event.getPayload(), schemaHeader(99)));
+    }
+
+    @Test
+    public void testRegister_NewLayoutIsTheNextVersionOfTheSubject() {
+        ProfileEventSchemaRegistry registry = new ProfileEventSchemaRegistry(eventCodecPropsConfig);
+        ProfileEventSchema first = registry.register("USER_PROFILE_CREATE", List.of("userId", "email"));
+        ProfileEventSchema second = registry.register("USER_PROFILE_CREATE", List.of("userId", "email", "website"));
+
+        assertEquals(1, first.getVersion());
+        assertEquals(2, second.getVersion());
+        assertNotEquals(first.getId(), second.getId());
+
+        UserProfileDTO userProfileDTO = profile();
+        UserProfileDTO decoded = ProfileEventCodec.decode(ProfileEventCodec.encode(userProfileDTO, first), first);
+        assertEquals("user1", decoded.getUserId());
+        assertEquals(userProfileDTO.getEmail(), decoded.getEmail());
+        assertNull(decoded.getWebsite());
+    }
+
+    @Test
+    public void testRegistryIsOnlyRequiredForBinaryEncoding() {
+        eventCodecPropsConfig.setSchemaRegistryFile(" ");
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        ObjectProvider<ProfileEventSchemaRegistry> schemaRegistry = beanFactory.getBeanProvider(ProfileEventSchemaRegistry.class);
+
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.JSON);
+        ProfileEventSerializer jsonSerializer = new ProfileEventSerializer(schemaRegistry, eventCodecPropsConfig);
+        jsonSerializer.init();
+        assertEquals(profile(), jsonSerializer.deserialize(jsonSerializer.serialize(profile(), "USER_PROFILE_CREATE").getPayload(), new RecordHeaders()));
+
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.BINARY);
+        assertThrows(IllegalStateException.class, () -> new ProfileEventSchemaRegistry(eventCodecPropsConfig));
+        assertThrows(NoSuchBeanDefinitionException.class, () -> new ProfileEventSerializer(schemaRegistry, eventCodecPropsConfig).init());
+    }
+
+    private static RecordHeaders schemaHeader(int schemaId) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(new RecordHeader(ProfileEventSerializer.SCHEMA_ID_HEADER, Integer.toString(schemaId).getBytes(StandardCharsets.UTF_8)));
+        return headers;
+    }
+
+    private static UserProfileDTO profile() {
+        UserProfileDTO userProfileDTO = new UserProfileDTO();
+        userProfileDTO.setUserId("user1");
+        userProfileDTO.setCreateFlow(true);
+        userProfileDTO.setCompanyName("Crafts Inc");
+        userProfileDTO.setLegalName("Crafts Incorporated");
+        userProfileDTO.setBusinessAddress(new AddressDTO("1 Main St", null, "Springfield", "IL", "62701", "US"));
+        userProfileDTO.setTaxIdentifiers(new TaxIdentifiersDTO("ABCDE1234F", "12-3456789"));
+        userProfileDTO.setEmail("owner@crafts.example");
+        userProfileDTO.setWebsite("https://crafts.example");
+        userProfileDTO.setConsolidatedStatus("In progress");
+        userProfileDTO.setSubscriptions(new ArrayList<>(List.of("QB", "QBO")));
+        Map<String, ProductValidationStatus> validations = new HashMap<>();
+        validations.put("QB", new ProductValidationStatus("Success", new ArrayList<>()));
+        userProfileDTO.setSubscriptionValidations(validations);
+        userProfileDTO.setVersion(3L);
+        return userProfileDTO;
+    }
+}
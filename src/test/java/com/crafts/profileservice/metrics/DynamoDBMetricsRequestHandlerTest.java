@@ -0,0 +1,58 @@
+package com.crafts.profileservice.metrics;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DynamoDBMetricsRequestHandlerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DynamoDBMetricsRequestHandler requestHandler;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestHandler = new DynamoDBMetricsRequestHandler(meterRegistry);
+    }
+
+    @Test
+    public void testBeforeExecution_RequestsConsumedCapacity() {
+        GetItemRequest request = (GetItemRequest) requestHandler.beforeExecution(new GetItemRequest());
+        assertEquals(ReturnConsumedCapacity.TOTAL.toString(), request.getReturnConsumedCapacity());
+
+        GetItemRequest explicit = new GetItemRequest().withReturnConsumedCapacity(ReturnConsumedCapacity.NONE);
+        assertEquals(ReturnConsumedCapacity.NONE.toString(), ((GetItemRequest) requestHandler.beforeExecution(explicit)).getReturnConsumedCapacity());
+    }
+
+    @Test
+    public void testAfterResponse_RecordsLatencyAndCapacity() {
+        DefaultRequest<GetItemRequest> request = new DefaultRequest<>(new GetItemRequest(), "DynamoDB");
+        request.addHandlerContext(HandlerContextKey.OPERATION_NAME, "GetItem");
+        requestHandler.beforeRequest(request);
+        GetItemResult result = new GetItemResult().withConsumedCapacity(new ConsumedCapacity().withTableName("user_profile").withCapacityUnits(0.5));
+
+        requestHandler.afterResponse(request, new Response<>(result, null));
+
+        assertEquals(1, meterRegistry.get("profile.dynamodb.operation").tag("operation", "GetItem").tag("outcome", "success").timer().count());
+        assertEquals(0.5, meterRegistry.get("profile.dynamodb.consumed.capacity").tag("table", "user_profile").counter().count());
+    }
+
+    @Test
+    public void testAfterError_RecordsFailedOperation() {
+        DefaultRequest<GetItemRequest> request = new DefaultRequest<>(new GetItemRequest(), "DynamoDB");
+        requestHandler.beforeRequest(request);
+
+        requestHandler.afterError(request, null, new RuntimeException("throttled"));
+
+        assertEquals(1, meterRegistry.get("profile.dynamodb.operation").tag("operation", "GetItem").tag("outcome", "error").timer().count());
+    }
+}
@@ -0,0 +1,75 @@
+package com.crafts.profileservice.migration;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyMarkerMigrationTest {
+
+    @Mock
+    private UserProfileRepositoryImpl userProfileRepository;
+
+    private IdempotencyMarkerMigration idempotencyMarkerMigration;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        idempotencyMarkerMigration = new IdempotencyMarkerMigration(userProfileRepository);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testRun_BackfillsTheMarkersOfAllPages() {
+        Map<String, AttributeValue> lastKey = Collections.singletonMap("userId", new AttributeValue().withS("user1"));
+        when(userProfileRepository.scanSegment(eq(0), eq(1), isNull(), isNull(), eq(200)))
+                .thenReturn(page(lastKey, profile("user1", "key1"), profile("user2", null)));
+        when(userProfileRepository.scanSegment(eq(0), eq(1), eq(lastKey), isNull(), eq(200)))
+                .thenReturn(page(null, profile("user3", "key3")));
+        // user3 got its marker from an earlier, interrupted run
+        when(userProfileRepository.backfillIdempotencyMarker("key3", "user3")).thenReturn(false);
+
+        idempotencyMarkerMigration.run(null);
+
+        verify(userProfileRepository).backfillIdempotencyMarker("key1", "user1");
+        verify(userProfileRepository).backfillIdempotencyMarker("key3", "user3");
+        verify(userProfileRepository, never()).backfillIdempotencyMarker(anyString(), eq("user2"));
+        verify(userProfileRepository, never()).save(any());
+    }
+
+    private static UserProfileEO profile(String userId, String idempotencyKey) {
+        UserProfileEO userProfileEO = new UserProfileEO();
+        userProfileEO.setUserId(userId);
+        userProfileEO.setIdempotencyKey(idempotencyKey);
+        return userProfileEO;
+    }
+
+    private static ScanResultPage<UserProfileEO> page(Map<String, AttributeValue> lastEvaluatedKey, UserProfileEO... profiles) {
+        ScanResultPage<UserProfileEO> page = new ScanResultPage<>();
+        page.setResults(List.of(profiles));
+        page.setLastEvaluatedKey(lastEvaluatedKey);
+        return page;
+    }
+}
@@ -0,0 +1,61 @@
+package com.crafts.profileservice.migration;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PendingStatusMigrationTest {
+
+    @Mock
+    private UserProfileRepositoryImpl userProfileRepository;
+
+    private PendingStatusMigration pendingStatusMigration;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        pendingStatusMigration = new PendingStatusMigration(userProfileRepository);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testRun_BackfillsPendingProfilesOnly() {
+        ScanResultPage<UserProfileEO> page = new ScanResultPage<>();
+        page.setResults(List.of(profile("user1", "In Progress"), profile("user2", "NOT_COMPLETE"), profile("user3", "Success")));
+        when(userProfileRepository.scanSegment(eq(0), eq(1), any(), any(), anyInt())).thenReturn(page);
+
+        pendingStatusMigration.run(null);
+
+        verify(userProfileRepository).backfillPendingStatus("user1", "In Progress", "In Progress");
+        // the condition compares the stored value, the index gets the normalized one
+        verify(userProfileRepository).backfillPendingStatus("user2", "NOT_COMPLETE", "Not Complete");
+        verify(userProfileRepository, never()).backfillPendingStatus(eq("user3"), anyString(), anyString());
+    }
+
+    private static UserProfileEO profile(String userId, String consolidatedStatus) {
+        UserProfileEO userProfileEO = new UserProfileEO();
+        userProfileEO.setUserId(userId);
+        userProfileEO.setConsolidatedStatus(consolidatedStatus);
+        return userProfileEO;
+    }
+}
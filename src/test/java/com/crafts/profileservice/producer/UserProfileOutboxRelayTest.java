@@ -0,0 +1,121 @@
+package com.crafts.profileservice.producer;
+
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.repository.impl.UserProfileLeaseRepositoryImpl;
+import com.crafts.profileservice.repository.impl.UserProfileOutboxRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserProfileOutboxRelayTest {
+
+    @Mock
+    private UserProfileOutboxRepositoryImpl userProfileOutboxRepository;
+
+    @Mock
+    private UserProfileLeaseRepositoryImpl userProfileLeaseRepository;
+
+    @Mock
+    private UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+
+    private UserProfileOutboxRelay userProfileOutboxRelay;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        OutboxPropsConfig outboxPropsConfig = new OutboxPropsConfig();
+        outboxPropsConfig.setShardCount(1);
+        outboxPropsConfig.setRelayBatchSize(10);
+        outboxPropsConfig.setRelaySendTimeoutMs(1000);
+        outboxPropsConfig.setRelayMaxBatchesPerRun(3);
+        outboxPropsConfig.setRelayLeaseDurationMs(30000);
+        userProfileOutboxRelay = new UserProfileOutboxRelay(userProfileOutboxRepository, userProfileLeaseRepository,
+                userProfileSubmissionKafkaProducer, outboxPropsConfig);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testRelayShard_DeletesAcknowledgedEvents() throws KafkaProcessingException {
+        UserProfileOutboxEO first = event("1", "user1");
+        UserProfileOutboxEO second = event("2", "user2");
+        when(userProfileOutboxRepository.findEvents(0, 10)).thenReturn(List.of(first, second));
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(2, userProfileOutboxRelay.relayShard(0));
+        verify(userProfileOutboxRepository).delete(List.of(first, second));
+    }
+
+    @Test
+    public void testRelayShard_KeepsEventsFromFirstFailure() throws KafkaProcessingException {
+        UserProfileOutboxEO first = event("1", "user1");
+        UserProfileOutboxEO second = event("2", "user2");
+        UserProfileOutboxEO third = event("3", "user3");
+        when(userProfileOutboxRepository.findEvents(0, 10)).thenReturn(List.of(first, second, third));
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), eq("user2")))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaProcessingException("Broker unavailable", null)));
+
+        assertEquals(1, userProfileOutboxRelay.relayShard(0));
+        verify(userProfileOutboxRepository).delete(List.of(first));
+    }
+
+    @Test
+    public void testRelayShard_EmptyShard() {
+        when(userProfileOutboxRepository.findEvents(0, 10)).thenReturn(Collections.emptyList());
+
+        assertEquals(0, userProfileOutboxRelay.relayShard(0));
+        verify(userProfileOutboxRepository, never()).delete(anyList());
+    }
+
+    @Test
+    public void testRelay_SkipsShardsLeasedByOtherInstances() {
+        when(userProfileLeaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(false);
+
+        userProfileOutboxRelay.relay();
+        verify(userProfileOutboxRepository, never()).findEvents(0, 10);
+    }
+
+    @Test
+    public void testRelay_CapsBatchesPerRun() throws KafkaProcessingException {
+        List<UserProfileOutboxEO> fullBatch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            fullBatch.add(event(Integer.toString(i), "user" + i));
+        }
+        when(userProfileLeaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(true);
+        when(userProfileOutboxRepository.findEvents(0, 10)).thenReturn(fullBatch);
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        userProfileOutboxRelay.relay();
+        verify(userProfileOutboxRepository, times(3)).findEvents(0, 10);
+        verify(userProfileLeaseRepository, times(3)).tryAcquire(eq("outbox-relay-0"), anyString(), eq(30000L));
+    }
+
+    private UserProfileOutboxEO event(String eventId, String userId) {
+        return new UserProfileOutboxEO(0, eventId, userId, "USER_PROFILE_CREATE", "{}", null);
+    }
+}
@@ -0,0 +1,231 @@
+package com.crafts.profileservice.producer;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.crafts.profileservice.config.props.RedrivePropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.constans.ProfileServiceCache;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.repository.impl.UserProfileLeaseRepositoryImpl;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.ProductValidationService;
+import com.crafts.profileservice.service.UserProfileService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserProfileRedriveWorkerTest {
+
+    @Mock
+    private UserProfileRepositoryImpl userProfileRepository;
+
+    @Mock
+    private UserProfileLeaseRepositoryImpl userProfileLeaseRepository;
+
+    @Mock
+    private UserProfileMapper userProfileMapper;
+
+    @Mock
+    private UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+
+    @Mock
+    private ProductValidationService productValidationService;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    private CacheManager cacheManager;
+    private RedrivePropsConfig redrivePropsConfig;
+    private ValidationPropsConfig validationPropsConfig;
+    private UserProfileRedriveWorker userProfileRedriveWorker;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(userProfileMapper.convertEOtoDTO(any())).thenAnswer(invocation -> {
+            UserProfileEO userProfileEO = invocation.getArgument(0);
+            UserProfileDTO userProfileDTO = new UserProfileDTO();
+            userProfileDTO.setUserId(userProfileEO.getUserId());
+            return userProfileDTO;
+        });
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(new UserProfileEO());
+        when(userProfileRepository.getUserProfilesByStatus(anyString(), anyString(), any(), anyInt())).thenReturn(page());
+        cacheManager = new ConcurrentMapCacheManager(ProfileServiceCache.USER_PROFILE_CACHE, ProfileServiceCache.USER_PROFILE_STATUS_CACHE);
+        redrivePropsConfig = new RedrivePropsConfig();
+        redrivePropsConfig.setShardCount(1);
+        redrivePropsConfig.setBatchSize(10);
+        redrivePropsConfig.setRatePerSecond(100);
+        redrivePropsConfig.setSendTimeoutMs(1000);
+        validationPropsConfig = new ValidationPropsConfig();
+        createWorker();
+    }
+
+    private void createWorker() {
+        userProfileRedriveWorker = new UserProfileRedriveWorker(userProfileRepository, userProfileLeaseRepository, userProfileMapper,
+                userProfileSubmissionKafkaProducer, cacheManager, redrivePropsConfig, productValidationService, userProfileService,
+                validationPropsConfig);
+        userProfileRedriveWorker.init();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testRedriveShard_SendsClaimedProfilesOnly() throws KafkaProcessingException {
+        when(userProfileRepository.getUserProfilesByStatus(eq("Not Complete"), anyString(), isNull(), eq(10)))
+                .thenReturn(page(profile("user1", "Not Complete"), profile("user2", "Not Complete")));
+        when(userProfileRepository.updateIfUnchanged(eq("user1"), any(), eq("Not Complete"), any())).thenReturn(true);
+        // another instance re-drove user2 after it was read
+        when(userProfileRepository.updateIfUnchanged(eq("user2"), any(), any(), any())).thenReturn(false);
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        cacheManager.getCache(ProfileServiceCache.USER_PROFILE_CACHE).put("user1", new UserProfileDTO());
+
+        assertEquals(1, userProfileRedriveWorker.redriveShards(Set.of(0)));
+        verify(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_CREATE"), eq("user1"));
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), eq("user2"));
+        verify(userProfileRepository, never()).update(any(), any());
+        assertNull(cacheManager.getCache(ProfileServiceCache.USER_PROFILE_CACHE).get("user1"));
+    }
+
+    @Test
+    public void testRedriveShard_RollsBackUnacknowledgedSends() throws KafkaProcessingException {
+        UserProfileEO validated = profile("user2", "In Progress");
+        when(userProfileMapper.convertEOtoDTO(validated)).thenAnswer(invocation -> {
+            UserProfileDTO userProfileDTO = new UserProfileDTO();
+            userProfileDTO.setUserId("user2");
+            userProfileDTO.getSubscriptionValidations().put("QB", new ProductValidationStatus());
+            return userProfileDTO;
+        });
+        when(userProfileRepository.getUserProfilesByStatus(eq("In Progress"), anyString(), isNull(), eq(10)))
+                .thenReturn(page(profile("user1", "In Progress"), validated));
+        when(userProfileRepository.updateIfUnchanged(any(), any(), any(), any())).thenReturn(true);
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), eq("user1"))).thenReturn(CompletableFuture.completedFuture(null));
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), eq("user2")))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaProcessingException("Broker unavailable", null)));
+
+        assertEquals(1, userProfileRedriveWorker.redriveShards(Set.of(0)));
+        verify(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_UPDATE"), eq("user2"));
+        verify(userProfileRepository).update(eq("user2"), any());
+        verify(userProfileRepository, never()).update(eq("user1"), any());
+    }
+
+    @Test
+    public void testRedrive_SkipsShardsLeasedByAnotherInstance() {
+        when(userProfileLeaseRepository.tryAcquire(eq("profile-redrive-0"), anyString(), anyLong())).thenReturn(false);
+
+        userProfileRedriveWorker.redrive();
+        userProfileRedriveWorker.shutdown();
+
+        verify(userProfileRepository, never()).getUserProfilesByStatus(any(), any(), any(), anyInt());
+        verify(userProfileLeaseRepository, never()).release(any(), any());
+    }
+
+    @Test
+    public void testRedrive_ReleasesHeldLeasesOnShutdown() {
+        when(userProfileLeaseRepository.tryAcquire(eq("profile-redrive-0"), anyString(), anyLong())).thenReturn(true);
+
+        userProfileRedriveWorker.redrive();
+        userProfileRedriveWorker.shutdown();
+
+        verify(userProfileRepository).getUserProfilesByStatus(eq("Not Complete"), anyString(), isNull(), eq(10));
+        verify(userProfileLeaseRepository).release(eq("profile-redrive-0"), anyString());
+    }
+
+    @Test
+    public void testRedriveShards_QueriesEachStatusOnceForAllShards() throws KafkaProcessingException {
+        redrivePropsConfig.setShardCount(64);
+        redrivePropsConfig.setBatchSize(1);
+        createWorker();
+        // "a" and "b" hash to shards 33 and 34, "c" to 35 which this instance does not hold
+        when(userProfileRepository.getUserProfilesByStatus(eq("Not Complete"), anyString(), isNull(), eq(2)))
+                .thenReturn(page(profile("a", "Not Complete"), profile("b", "Not Complete"), profile("c", "Not Complete")));
+        when(userProfileRepository.updateIfUnchanged(any(), any(), any(), any())).thenReturn(true);
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(2, userProfileRedriveWorker.redriveShards(Set.of(33, 34)));
+        verify(userProfileRepository, times(1)).getUserProfilesByStatus(eq("Not Complete"), anyString(), any(), anyInt());
+        verify(userProfileRepository, times(1)).getUserProfilesByStatus(eq("In Progress"), anyString(), any(), anyInt());
+        verify(userProfileSubmissionKafkaProducer).send(any(), any(), eq("a"));
+        verify(userProfileSubmissionKafkaProducer).send(any(), any(), eq("b"));
+        verify(userProfileRepository, never()).updateIfUnchanged(eq("c"), any(), any(), any());
+    }
+
+    @Test
+    public void testRedriveShards_ValidatesInServiceWithFanout() throws KafkaProcessingException {
+        validationPropsConfig.setFanoutEnabled(true);
+        UserProfileDTO validated = new UserProfileDTO();
+        when(userProfileRepository.getUserProfilesByStatus(eq("Not Complete"), anyString(), isNull(), eq(10)))
+                .thenReturn(page(profile("user1", "Not Complete")));
+        when(userProfileRepository.updateIfUnchanged(any(), any(), any(), any())).thenReturn(true);
+        when(productValidationService.validate(any())).thenReturn(Mono.just(validated));
+        when(userProfileService.updateAfterValidation(validated)).thenReturn(validated);
+
+        assertEquals(1, userProfileRedriveWorker.redriveShards(Set.of(0)));
+        verify(userProfileService).updateAfterValidation(validated);
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+        verify(userProfileRepository, never()).update(any(), any());
+    }
+
+    @Test
+    public void testRedriveShards_RollsBackFailedAndLateInServiceValidations() {
+        validationPropsConfig.setFanoutEnabled(true);
+        redrivePropsConfig.setSendTimeoutMs(100);
+        createWorker();
+        UserProfileEO failing = profile("user1", "Not Complete");
+        UserProfileEO late = profile("user2", "Not Complete");
+        when(userProfileRepository.getUserProfilesByStatus(eq("Not Complete"), anyString(), isNull(), eq(10)))
+                .thenReturn(page(failing, late));
+        when(userProfileRepository.updateIfUnchanged(any(), any(), any(), any())).thenReturn(true);
+        when(productValidationService.validate(argThat(dto -> dto != null && "user1".equals(dto.getUserId()))))
+                .thenReturn(Mono.error(new IllegalStateException("Registry unavailable")));
+        when(productValidationService.validate(argThat(dto -> dto != null && "user2".equals(dto.getUserId())))).thenReturn(Mono.never());
+
+        assertEquals(0, userProfileRedriveWorker.redriveShards(Set.of(0)));
+        verify(userProfileRepository).update(eq("user1"), any());
+        verify(userProfileRepository).update(eq("user2"), any());
+        verify(userProfileService, never()).updateAfterValidation(any());
+    }
+
+    private static UserProfileEO profile(String userId, String consolidatedStatus) {
+        UserProfileEO userProfileEO = new UserProfileEO();
+        userProfileEO.setUserId(userId);
+        userProfileEO.setConsolidatedStatus(consolidatedStatus);
+        userProfileEO.setTimestamp("2023-11-01T10:15:30Z");
+        return userProfileEO;
+    }
+
+    private static QueryResultPage<UserProfileEO> page(UserProfileEO... profiles) {
+        QueryResultPage<UserProfileEO> page = new QueryResultPage<>();
+        page.setResults(List.of(profiles));
+        return page;
+    }
+}
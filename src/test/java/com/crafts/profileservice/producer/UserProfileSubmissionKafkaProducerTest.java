@@ -0,0 +1,110 @@
+package com.crafts.profileservice.producer;
+
+import com.crafts.profileservice.config.props.EventCodecPropsConfig;
+import com.crafts.profileservice.config.props.KafkaPropsConfig;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.event.ProfileEventSchemaRegistry;
+import com.crafts.profileservice.event.ProfileEventSerializer;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserProfileSubmissionKafkaProducerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private UserProfileSubmissionKafkaProducer producer;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        KafkaPropsConfig kafkaPropsConfig = new KafkaPropsConfig();
+        kafkaPropsConfig.setUserProfileSubmissionTopic("topic");
+        kafkaPropsConfig.setProducerMaxInFlightRecords(1);
+        kafkaPropsConfig.setProducerInFlightAcquireTimeoutMs(10);
+        kafkaPropsConfig.setProducerCallbackThreads(1);
+        EventCodecPropsConfig eventCodecPropsConfig = new EventCodecPropsConfig();
+        eventCodecPropsConfig.setEncoding(ProfileEventSerializer.JSON);
+        eventCodecPropsConfig.setSchemaRegistryFile(tempDir.resolve("event-schemas.json").toString());
+        ProfileEventSerializer profileEventSerializer = new ProfileEventSerializer(new ProfileEventSchemaRegistry(eventCodecPropsConfig), eventCodecPropsConfig);
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom().maxAttempts(3).waitDuration(Duration.ofMillis(1)).build());
+        producer = new UserProfileSubmissionKafkaProducer(kafkaTemplate, new SimpleMeterRegistry(), profileEventSerializer, retryRegistry);
+        ReflectionTestUtils.setField(producer, "kafkaPropsConfig", kafkaPropsConfig);
+        producer.init();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        producer.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    public void testSend_RetriesBrokerFailuresAndHoldsPermitUntilDone() throws Exception {
+        CompletableFuture<SendResult<String, byte[]>> failure = CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable"));
+        CompletableFuture<SendResult<String, byte[]>> success = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failure, success);
+
+        producer.send(profile(), "USER_PROFILE_CREATE", "user1").get(5, TimeUnit.SECONDS);
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        assertEquals(0, producer.getInFlightRecords());
+    }
+
+    @Test
+    public void testSend_FailsFutureWhenRetriesAreExhausted() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> producer.send(profile(), "USER_PROFILE_CREATE", "user1").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(KafkaProcessingException.class, exception.getCause());
+        verify(kafkaTemplate, times(3)).send(any(ProducerRecord.class));
+        assertEquals(0, producer.getInFlightRecords());
+    }
+
+    @Test
+    public void testSend_FullWindowIsRejectedSynchronouslyWithoutRetry() throws KafkaProcessingException {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        producer.send(profile(), "USER_PROFILE_CREATE", "user1");
+
+        assertThrows(KafkaProcessingException.class, () -> producer.send(profile(), "USER_PROFILE_CREATE", "user2"));
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+
+    private static UserProfileDTO profile() {
+        UserProfileDTO userProfileDTO = new UserProfileDTO();
+        userProfileDTO.setUserId("user1");
+        userProfileDTO.setCompanyName("Company");
+        return userProfileDTO;
+    }
+}
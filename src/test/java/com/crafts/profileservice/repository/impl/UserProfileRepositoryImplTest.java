@@ -3,21 +3,50 @@ package com.crafts.profileservice.repository.impl;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.crafts.profileservice.config.props.DynamoDBPropsConfig;
 import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileIdempotencyEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.ProfileVersionConflictException;
 import com.crafts.profileservice.exception.UserProfileRepositoryException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserProfileRepositoryImplTest {
@@ -28,17 +57,22 @@ public class UserProfileRepositoryImplTest {
     @Mock
     private AmazonDynamoDB dynamoDBClient;
 
+    private DynamoDBPropsConfig dynamoDBPropsConfig;
     private UserProfileRepositoryImpl userProfileRepository;
     private AutoCloseable closeable;
 
     @BeforeEach
     public void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        userProfileRepository = new UserProfileRepositoryImpl(dynamoDBMapper, dynamoDBClient);
+        dynamoDBPropsConfig = new DynamoDBPropsConfig();
+        dynamoDBPropsConfig.setBulkWriteThreads(4);
+        userProfileRepository = new UserProfileRepositoryImpl(dynamoDBMapper, dynamoDBClient, dynamoDBPropsConfig);
+        userProfileRepository.init();
     }
 
     @AfterEach
     public void tearDown() throws Exception {
+        userProfileRepository.shutdown();
         closeable.close();
     }
 
@@ -51,6 +85,24 @@ public class UserProfileRepositoryImplTest {
         assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.getUserProfileById("testId"));
     }
 
+    @Test
+    public void testGetUserProfilesByIds_ChunksAndRetriesUnprocessedKeys() {
+        List<String> userIds = IntStream.range(0, 150).mapToObj(i -> "user" + i).collect(Collectors.toList());
+        Map<String, KeysAndAttributes> unprocessed = Collections.singletonMap("user_profile",
+                new KeysAndAttributes().withKeys(Collections.singletonMap("userId", new AttributeValue().withS("user7"))));
+        when(dynamoDBClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withResponses(Collections.singletonMap("user_profile", Collections.emptyList())).withUnprocessedKeys(unprocessed))
+                .thenReturn(new BatchGetItemResult().withResponses(Collections.singletonMap("user_profile", Collections.emptyList())));
+        when(dynamoDBMapper.marshallIntoObjects(any(), anyList())).thenReturn(List.of(new UserProfileEO()));
+
+        assertEquals(1, userProfileRepository.getUserProfilesByIds(userIds).size());
+        // two chunks (100 + 50 keys) plus one retry of the unprocessed key
+        verify(dynamoDBClient, times(3)).batchGetItem(any(BatchGetItemRequest.class));
+
+        when(dynamoDBClient.batchGetItem(any(BatchGetItemRequest.class))).thenThrow(new AmazonDynamoDBException("DynamoDB error"));
+        assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.getUserProfilesByIds(userIds));
+    }
+
     @Test
     public void testGetUserProfileAttributesById() {
         when(dynamoDBClient.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult());
@@ -63,6 +115,28 @@ public class UserProfileRepositoryImplTest {
         assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.getUserProfileAttributesById("testId", "projectionExpression"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetUserProfileById_Projection() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        Map<String, AttributeValue> item = Map.of("timestamp", new AttributeValue().withS("2023-11-01T10:15:30Z"));
+        UserProfileEO projected = new UserProfileEO();
+        when(profileModel.unconvert(item)).thenReturn(projected);
+        when(dynamoDBClient.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult().withItem(item));
+
+        assertEquals(projected, userProfileRepository.getUserProfileById("testId", List.of("userId", "timestamp")));
+
+        ArgumentCaptor<GetItemRequest> captor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(dynamoDBClient).getItem(captor.capture());
+        // timestamp is a reserved word, so every name goes through a placeholder
+        assertEquals("#p0, #p1", captor.getValue().getProjectionExpression());
+        assertEquals("timestamp", captor.getValue().getExpressionAttributeNames().get("#p1"));
+
+        when(dynamoDBClient.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult());
+        assertNull(userProfileRepository.getUserProfileById("testId", List.of("userId")));
+    }
+
     @Test
     public void testSaveUserProfile() {
         // No need to stub the dynamoDBMapper.save method when it's a successful save.
@@ -73,16 +147,231 @@ public class UserProfileRepositoryImplTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
+    public void testSaveUserProfile_WithIdempotencyKey() {
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBMapper.getTableModel(UserProfileIdempotencyEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        UserProfileEO userProfile = new UserProfileEO();
+        userProfile.setIdempotencyKey("key");
+        userProfileRepository.save(userProfile);
+        assertNotNull(userProfile.getUserId());
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDBClient).transactWriteItems(captor.capture());
+        List<TransactWriteItem> items = captor.getValue().getTransactItems();
+        assertEquals("user_profile", items.get(0).getPut().getTableName());
+        assertEquals("attribute_not_exists(idempotencyKey)", items.get(1).getPut().getConditionExpression());
+        verify(dynamoDBMapper, never()).save(any(UserProfileEO.class));
+
+        TransactionCanceledException duplicateKey = new TransactionCanceledException("Transaction cancelled")
+                .withCancellationReasons(new CancellationReason().withCode("None"), new CancellationReason().withCode("ConditionalCheckFailed"));
+        doThrow(duplicateKey).when(dynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        assertThrows(DuplicateUserProfileException.class, () -> userProfileRepository.save(userProfile));
+
+        TransactionCanceledException duplicateId = new TransactionCanceledException("Transaction cancelled")
+                .withCancellationReasons(new CancellationReason().withCode("ConditionalCheckFailed"), new CancellationReason().withCode("None"));
+        doThrow(duplicateId).when(dynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        UserProfileRepositoryException exception = assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.save(userProfile));
+        assertEquals(UserProfileRepositoryException.class, exception.getClass());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
     public void testUpdateUserProfile() {
-        // No need to stub the dynamoDBMapper.save method when it's a successful update.
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("userId", new AttributeValue().withS("testId"));
+        attributes.put("consolidatedStatus", new AttributeValue().withS("Success"));
+        when(profileModel.convert(any())).thenReturn(attributes);
+
         userProfileRepository.update("testId", new UserProfileEO());
 
+        // a status that is not pending takes the profile off the status index
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDBClient).updateItem(captor.capture());
+        assertEquals("SET #a0 = :a0, #a2 = if_not_exists(#a2, :a1) + :a2 REMOVE #a1", captor.getValue().getUpdateExpression());
+        assertEquals("pendingStatus", captor.getValue().getExpressionAttributeNames().get("#a1"));
+        assertEquals("version", captor.getValue().getExpressionAttributeNames().get("#a2"));
+        assertEquals("attribute_exists(#a3)", captor.getValue().getConditionExpression());
+
         doThrow(new ConditionalCheckFailedException("Condition failed"))
-                .when(dynamoDBMapper)
-                .save(any(UserProfileEO.class), any(DynamoDBSaveExpression.class), any(DynamoDBMapperConfig.class));
+                .when(dynamoDBClient).updateItem(any(UpdateItemRequest.class));
         assertThrows(NoSuchElementException.class, () -> userProfileRepository.update("testId", new UserProfileEO()));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateChanges_WritesOnlyChangedMapEntries() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        UserProfileEO currentProfile = new UserProfileEO();
+        currentProfile.setUserId("testId");
+        UserProfileEO changes = new UserProfileEO();
+        Map<String, AttributeValue> current = new HashMap<>();
+        current.put("userId", new AttributeValue().withS("testId"));
+        current.put("legalName", new AttributeValue().withS("Acme"));
+        current.put("consolidatedMessage", new AttributeValue().withS("Could not perform profile validation"));
+        current.put("subscriptionValidations", new AttributeValue().withM(Map.of(
+                "QB", new AttributeValue().withM(Map.of("status", new AttributeValue().withS("Success"))),
+                "QBO", new AttributeValue().withM(Map.of("status", new AttributeValue().withS("In Progress"))))));
+        Map<String, AttributeValue> changed = new HashMap<>();
+        changed.put("legalName", new AttributeValue().withS("Acme"));
+        changed.put("subscriptionValidations", new AttributeValue().withM(Map.of(
+                "QBO", new AttributeValue().withM(Map.of("status", new AttributeValue().withS("Rejected"))))));
+        when(profileModel.convert(currentProfile)).thenReturn(current);
+        when(profileModel.convert(changes)).thenReturn(changed);
+
+        userProfileRepository.updateChanges("testId", currentProfile, changes, List.of("consolidatedMessage"));
+
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDBClient).updateItem(captor.capture());
+        UpdateItemRequest request = captor.getValue();
+        assertEquals("SET #a0.#a1.#a2 = :a0, #a4 = :a1 REMOVE #a3", request.getUpdateExpression());
+        assertEquals("subscriptionValidations", request.getExpressionAttributeNames().get("#a0"));
+        assertEquals("QBO", request.getExpressionAttributeNames().get("#a1"));
+        assertEquals("consolidatedMessage", request.getExpressionAttributeNames().get("#a3"));
+        assertEquals("version", request.getExpressionAttributeNames().get("#a4"));
+        assertEquals("Rejected", request.getExpressionAttributeValues().get(":a0").getS());
+        assertEquals("1", request.getExpressionAttributeValues().get(":a1").getN());
+        assertEquals("attribute_exists(#a5) AND attribute_not_exists(#a4)", request.getConditionExpression());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateChanges_ReplacesProductStatusAndOtherMapsWhole() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        UserProfileEO currentProfile = new UserProfileEO();
+        currentProfile.setUserId("testId");
+        UserProfileEO changes = new UserProfileEO();
+        Map<String, AttributeValue> current = new HashMap<>();
+        current.put("userId", new AttributeValue().withS("testId"));
+        current.put("businessAddress", new AttributeValue().withM(Map.of(
+                "line1", new AttributeValue().withS("1 Main St"), "line2", new AttributeValue().withS("Suite 2"))));
+        current.put("subscriptionValidations", new AttributeValue().withM(Map.of(
+                "QB", new AttributeValue().withM(Map.of("status", new AttributeValue().withS("Success"))),
+                "QBO", new AttributeValue().withM(Map.of("status", new AttributeValue().withS("Rejected"),
+                        "errors", new AttributeValue().withL(new AttributeValue().withS("Invalid tax ID")))))));
+        Map<String, AttributeValue> changed = new HashMap<>();
+        changed.put("businessAddress", new AttributeValue().withM(Map.of("line1", new AttributeValue().withS("2 Main St"))));
+        changed.put("subscriptionValidations", new AttributeValue().withM(Map.of(
+                "QBO", new AttributeValue().withM(Map.of("status", new AttributeValue().withS("Success"))))));
+        when(profileModel.convert(currentProfile)).thenReturn(current);
+        when(profileModel.convert(changes)).thenReturn(changed);
+        when(profileModel.unconvert(any())).thenReturn(new UserProfileEO());
+
+        userProfileRepository.updateChanges("testId", currentProfile, changes, List.of());
+
+        ArgumentCaptor<Map<String, AttributeValue>> updatedCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(profileModel).unconvert(updatedCaptor.capture());
+        Map<String, AttributeValue> updated = updatedCaptor.getValue();
+        assertEquals(Set.of("line1"), updated.get("businessAddress").getM().keySet());
+        assertEquals(Set.of("QB", "QBO"), updated.get("subscriptionValidations").getM().keySet());
+        assertEquals(Set.of("status"), updated.get("subscriptionValidations").getM().get("QBO").getM().keySet());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateChanges_VersionConflict_MergesIntoFreshProfile() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        UserProfileEO staleProfile = new UserProfileEO();
+        staleProfile.setUserId("stale");
+        UserProfileEO freshProfile = new UserProfileEO();
+        freshProfile.setUserId("fresh");
+        UserProfileEO changes = new UserProfileEO();
+        when(profileModel.convert(staleProfile)).thenReturn(profileWithValidations(3, Map.of(
+                "QB", new AttributeValue().withS("In Progress"))));
+        // Another product's result landed in between
+        when(profileModel.convert(freshProfile)).thenReturn(profileWithValidations(4, Map.of(
+                "QB", new AttributeValue().withS("Success"))));
+        when(profileModel.convert(changes)).thenReturn(Map.of("subscriptionValidations", new AttributeValue().withM(Map.of(
+                "QBO", new AttributeValue().withS("Rejected")))));
+        when(dynamoDBMapper.load(eq(UserProfileEO.class), eq("testId"), any(DynamoDBMapperConfig.class))).thenReturn(freshProfile);
+        when(dynamoDBClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("Version changed"))
+                .thenReturn(new UpdateItemResult());
+
+        userProfileRepository.updateChanges("testId", staleProfile, changes, List.of());
+
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDBClient, times(2)).updateItem(captor.capture());
+        UpdateItemRequest retry = captor.getAllValues().get(1);
+        assertEquals("SET #a0.#a1 = :a0, #a2 = :a1", retry.getUpdateExpression());
+        assertEquals("QBO", retry.getExpressionAttributeNames().get("#a1"));
+        assertEquals("5", retry.getExpressionAttributeValues().get(":a1").getN());
+        assertEquals("4", retry.getExpressionAttributeValues().get(":a2").getN());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateChanges_VersionConflictOnEveryAttempt() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        UserProfileEO currentProfile = new UserProfileEO();
+        currentProfile.setUserId("testId");
+        UserProfileEO changes = new UserProfileEO();
+        when(profileModel.convert(currentProfile)).thenReturn(profileWithValidations(1, Map.of()));
+        when(profileModel.convert(changes)).thenReturn(Map.of("consolidatedStatus", new AttributeValue().withS("Success")));
+        when(dynamoDBMapper.load(eq(UserProfileEO.class), eq("testId"), any(DynamoDBMapperConfig.class))).thenReturn(currentProfile);
+        when(dynamoDBClient.updateItem(any(UpdateItemRequest.class))).thenThrow(new ConditionalCheckFailedException("Version changed"));
+
+        assertThrows(ProfileVersionConflictException.class,
+                () -> userProfileRepository.updateChanges("testId", currentProfile, changes, List.of()));
+        verify(dynamoDBClient, times(3)).updateItem(any(UpdateItemRequest.class));
+
+        when(dynamoDBMapper.load(eq(UserProfileEO.class), eq("testId"), any(DynamoDBMapperConfig.class))).thenReturn(null);
+        assertThrows(NoSuchElementException.class,
+                () -> userProfileRepository.updateChanges("testId", currentProfile, changes, List.of()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateChanges_NoChanges_SkipsWrite() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        Map<String, AttributeValue> current = new HashMap<>();
+        current.put("userId", new AttributeValue().withS("testId"));
+        current.put("consolidatedStatus", new AttributeValue().withS("Success"));
+        when(profileModel.convert(any())).thenReturn(current);
+
+        userProfileRepository.updateChanges("testId", new UserProfileEO(), new UserProfileEO(), List.of());
+
+        verify(dynamoDBClient, never()).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateUserProfile_WithOutboxEvent() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        DynamoDBMapperTableModel<UserProfileOutboxEO> outboxModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        when(dynamoDBMapper.getTableModel(UserProfileOutboxEO.class)).thenReturn(outboxModel);
+        Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+        attributes.put("userId", new AttributeValue().withS("testId"));
+        attributes.put("consolidatedStatus", new AttributeValue().withS("In Progress"));
+        attributes.put("pendingStatus", new AttributeValue().withS("In Progress"));
+        when(profileModel.convert(any())).thenReturn(attributes);
+        when(outboxModel.convert(any())).thenReturn(Collections.singletonMap("shardId", new AttributeValue().withN("1")));
+
+        userProfileRepository.update("testId", new UserProfileEO(), new UserProfileOutboxEO(1));
+
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDBClient).transactWriteItems(captor.capture());
+        List<TransactWriteItem> items = captor.getValue().getTransactItems();
+        assertEquals(2, items.size());
+        Update update = items.get(0).getUpdate();
+        assertEquals("SET #a0 = :a0, #a1 = :a1, #a2 = if_not_exists(#a2, :a2) + :a3", update.getUpdateExpression());
+        assertEquals("consolidatedStatus", update.getExpressionAttributeNames().get("#a0"));
+        assertEquals("pendingStatus", update.getExpressionAttributeNames().get("#a1"));
+        assertEquals("attribute_exists(#a3)", update.getConditionExpression());
+        assertEquals("user_profile_outbox", items.get(1).getPut().getTableName());
+
+        doThrow(new TransactionCanceledException("Transaction cancelled")
+                .withCancellationReasons(new CancellationReason().withCode("ConditionalCheckFailed"), new CancellationReason().withCode("None")))
+                .when(dynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        assertThrows(NoSuchElementException.class, () -> userProfileRepository.update("testId", new UserProfileEO(), new UserProfileOutboxEO(1)));
+    }
 
     @Test
     public void testDeleteUserProfile() {
@@ -92,4 +381,232 @@ public class UserProfileRepositoryImplTest {
         when(dynamoDBMapper.load(UserProfileEO.class, "testId")).thenReturn(null);
         assertThrows(NoSuchElementException.class, () -> userProfileRepository.delete("testId"));
     }
+
+    @Test
+    public void testDeleteUserProfile_ReleasesIdempotencyKey() {
+        UserProfileEO userProfile = new UserProfileEO();
+        userProfile.setIdempotencyKey("key");
+        when(dynamoDBMapper.load(UserProfileEO.class, "testId")).thenReturn(userProfile);
+
+        userProfileRepository.delete("testId");
+
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDBClient).transactWriteItems(captor.capture());
+        assertEquals("user_profile_idempotency", captor.getValue().getTransactItems().get(1).getDelete().getTableName());
+        verify(dynamoDBMapper, never()).delete(any(UserProfileEO.class));
+
+        doThrow(new AmazonDynamoDBException("Throttled")).when(dynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.delete("testId"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWrites_UseConfiguredTablePrefix() {
+        dynamoDBPropsConfig.setTableNamePrefix("test_");
+        userProfileRepository.shutdown();
+        userProfileRepository = new UserProfileRepositoryImpl(dynamoDBMapper, dynamoDBClient, dynamoDBPropsConfig);
+        userProfileRepository.init();
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBMapper.getTableModel(UserProfileIdempotencyEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBMapper.getTableModel(UserProfileOutboxEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        UserProfileEO userProfile = new UserProfileEO();
+        userProfile.setIdempotencyKey("key");
+
+        userProfileRepository.save(userProfile, new UserProfileOutboxEO(1));
+
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDBClient).transactWriteItems(captor.capture());
+        List<String> tableNames = captor.getValue().getTransactItems().stream().map(item -> item.getPut().getTableName()).toList();
+        assertEquals(List.of("test_user_profile", "test_user_profile_idempotency", "test_user_profile_outbox"), tableNames);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSaveAll_WritesEachProfileInItsOwnTransaction() {
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBMapper.getTableModel(UserProfileIdempotencyEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBMapper.getTableModel(UserProfileOutboxEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        List<UserProfileEO> userProfiles = IntStream.range(0, 10).mapToObj(i -> {
+            UserProfileEO userProfileEO = new UserProfileEO();
+            userProfileEO.setUserId("user" + i);
+            userProfileEO.setIdempotencyKey("key" + i);
+            return userProfileEO;
+        }).collect(Collectors.toList());
+        Map<String, UserProfileOutboxEO> outboxEvents = new HashMap<>();
+        userProfiles.forEach(userProfile -> outboxEvents.put(userProfile.getUserId(), new UserProfileOutboxEO(1, "event", userProfile.getUserId(), "USER_PROFILE_CREATE", "{}", "now")));
+
+        assertTrue(userProfileRepository.saveAll(userProfiles, outboxEvents).isEmpty());
+        ArgumentCaptor<TransactWriteItemsRequest> captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDBClient, times(10)).transactWriteItems(captor.capture());
+        captor.getAllValues().forEach(request -> assertEquals(3, request.getTransactItems().size()));
+        assertEquals(1L, userProfiles.get(0).getVersion());
+
+        // one key was taken concurrently, one write hit a DynamoDB error, the profiles run in parallel
+        doThrow(new TransactionCanceledException("Transaction cancelled")
+                .withCancellationReasons(new CancellationReason().withCode("None"), new CancellationReason().withCode("ConditionalCheckFailed")))
+                .doThrow(new AmazonDynamoDBException("Throttled"))
+                .doReturn(new TransactWriteItemsResult())
+                .when(dynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+        Map<String, UserProfileRepositoryException> failures = userProfileRepository.saveAll(userProfiles.subList(3, 6), outboxEvents);
+        assertEquals(2, failures.size());
+        assertEquals(1, failures.values().stream().filter(DuplicateUserProfileException.class::isInstance).count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateIfUnchanged() {
+        DynamoDBMapperTableModel<UserProfileEO> profileModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(profileModel);
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("consolidatedStatus", new AttributeValue().withS("In Progress"));
+        when(profileModel.convert(any())).thenReturn(attributes);
+
+        assertTrue(userProfileRepository.updateIfUnchanged("testId", new UserProfileEO(), "Not Complete", "2023-11-01T10:15:30Z"));
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDBClient).updateItem(captor.capture());
+        assertTrue(captor.getValue().getConditionExpression().contains(" AND "));
+        assertTrue(captor.getValue().getExpressionAttributeValues().containsValue(new AttributeValue().withS("Not Complete")));
+        assertTrue(captor.getValue().getExpressionAttributeValues().containsValue(new AttributeValue().withS("2023-11-01T10:15:30Z")));
+
+        doThrow(new ConditionalCheckFailedException("Condition failed"))
+                .when(dynamoDBClient).updateItem(any(UpdateItemRequest.class));
+        assertFalse(userProfileRepository.updateIfUnchanged("testId", new UserProfileEO(), "Not Complete", "2023-11-01T10:15:30Z"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetUserProfilesByStatus() {
+        QueryResultPage<UserProfileEO> page = new QueryResultPage<>();
+        when(dynamoDBMapper.queryPage(eq(UserProfileEO.class), any(DynamoDBQueryExpression.class))).thenReturn(page);
+
+        assertEquals(page, userProfileRepository.getUserProfilesByStatus("In Progress", null, 50));
+        ArgumentCaptor<DynamoDBQueryExpression<UserProfileEO>> captor = ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+        verify(dynamoDBMapper).queryPage(eq(UserProfileEO.class), captor.capture());
+        assertEquals("pendingStatus-timestamp-index", captor.getValue().getIndexName());
+        assertEquals("pendingStatus", captor.getValue().getExpressionAttributeNames().get("#status"));
+        assertEquals("#status = :status", captor.getValue().getKeyConditionExpression());
+        assertEquals("In Progress", captor.getValue().getExpressionAttributeValues().get(":status").getS());
+        assertEquals(50, captor.getValue().getLimit());
+
+        when(dynamoDBMapper.queryPage(eq(UserProfileEO.class), any(DynamoDBQueryExpression.class))).thenThrow(new AmazonDynamoDBException("DynamoDB error"));
+        assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.getUserProfilesByStatus("In Progress", null, 50));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testScanSegment() {
+        ScanResultPage<UserProfileEO> page = new ScanResultPage<>();
+        when(dynamoDBMapper.scanPage(eq(UserProfileEO.class), any(DynamoDBScanExpression.class))).thenReturn(page);
+        Map<String, AttributeValue> startKey = Collections.singletonMap("userId", new AttributeValue().withS("user1"));
+
+        assertEquals(page, userProfileRepository.scanSegment(1, 4, startKey, "Success", 100));
+        ArgumentCaptor<DynamoDBScanExpression> captor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+        verify(dynamoDBMapper).scanPage(eq(UserProfileEO.class), captor.capture());
+        assertEquals(1, captor.getValue().getSegment());
+        assertEquals(4, captor.getValue().getTotalSegments());
+        assertEquals(startKey, captor.getValue().getExclusiveStartKey());
+        assertEquals(100, captor.getValue().getLimit());
+        assertEquals("#status = :status", captor.getValue().getFilterExpression());
+        assertEquals("consolidatedStatus", captor.getValue().getExpressionAttributeNames().get("#status"));
+
+        when(dynamoDBMapper.scanPage(eq(UserProfileEO.class), any(DynamoDBScanExpression.class))).thenThrow(new AmazonDynamoDBException("DynamoDB error"));
+        assertThrows(UserProfileRepositoryException.class, () -> userProfileRepository.scanSegment(0, 1, null, null, 100));
+    }
+
+    @Test
+    public void testFindUserIdsByIdempotencyKeys() {
+        Map<String, AttributeValue> marker = new HashMap<>();
+        marker.put("idempotencyKey", new AttributeValue().withS("key1"));
+        marker.put("userId", new AttributeValue().withS("user1"));
+        when(dynamoDBClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withResponses(Collections.singletonMap("user_profile_idempotency", List.of(marker))));
+
+        assertEquals(Map.of("key1", "user1"), userProfileRepository.findUserIdsByIdempotencyKeys(Set.of("key1", "key2")));
+        ArgumentCaptor<BatchGetItemRequest> captor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDBClient).batchGetItem(captor.capture());
+        assertTrue(captor.getValue().getRequestItems().get("user_profile_idempotency").getConsistentRead());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSaveUserProfile_LegacyProfileWithoutMarker() {
+        dynamoDBPropsConfig.setIdempotencyIndexFallbackEnabled(true);
+        when(dynamoDBMapper.getTableModel(UserProfileEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBMapper.getTableModel(UserProfileIdempotencyEO.class)).thenReturn(mock(DynamoDBMapperTableModel.class));
+        when(dynamoDBClient.query(any(QueryRequest.class))).thenReturn(new QueryResult().withItems(List.of(userIdItem("legacyUser"))));
+        UserProfileEO userProfile = new UserProfileEO();
+        userProfile.setIdempotencyKey("key");
+
+        assertThrows(DuplicateUserProfileException.class, () -> userProfileRepository.save(userProfile));
+        ArgumentCaptor<QueryRequest> queryCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDBClient).query(queryCaptor.capture());
+        assertEquals("idempotencyKey-index", queryCaptor.getValue().getIndexName());
+        // markers are backfilled by the migration, never by a lookup
+        verify(dynamoDBClient, never()).putItem(any(PutItemRequest.class));
+        verify(dynamoDBClient, never()).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        when(dynamoDBClient.query(any(QueryRequest.class))).thenReturn(new QueryResult().withItems(List.of()));
+        userProfileRepository.save(userProfile);
+        verify(dynamoDBClient).transactWriteItems(any(TransactWriteItemsRequest.class));
+    }
+
+    @Test
+    public void testFindUserIdsByIdempotencyKeys_FallsBackToIndex() {
+        dynamoDBPropsConfig.setIdempotencyIndexFallbackEnabled(true);
+        when(dynamoDBClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(new BatchGetItemResult().withResponses(Collections.emptyMap()));
+        when(dynamoDBClient.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            String key = request.getExpressionAttributeValues().get(":key").getS();
+            return new QueryResult().withItems("key1".equals(key) ? List.of(userIdItem("legacyUser")) : List.of());
+        });
+
+        assertEquals(Map.of("key1", "legacyUser"), userProfileRepository.findUserIdsByIdempotencyKeys(Set.of("key1", "key2")));
+        verify(dynamoDBClient, times(2)).query(any(QueryRequest.class));
+        verify(dynamoDBClient, never()).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    public void testBackfillPendingStatus() {
+        assertTrue(userProfileRepository.backfillPendingStatus("testId", "IN_PROGRESS", "In Progress"));
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(dynamoDBClient).updateItem(captor.capture());
+        assertEquals("SET #a0 = :a0", captor.getValue().getUpdateExpression());
+        assertEquals("pendingStatus", captor.getValue().getExpressionAttributeNames().get("#a0"));
+        assertEquals("In Progress", captor.getValue().getExpressionAttributeValues().get(":a0").getS());
+        assertEquals("#a1 = :a1 AND attribute_not_exists(#a0)", captor.getValue().getConditionExpression());
+        assertEquals("IN_PROGRESS", captor.getValue().getExpressionAttributeValues().get(":a1").getS());
+
+        doThrow(new ConditionalCheckFailedException("Status changed")).when(dynamoDBClient).updateItem(any(UpdateItemRequest.class));
+        assertFalse(userProfileRepository.backfillPendingStatus("testId", "IN_PROGRESS", "In Progress"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBackfillIdempotencyMarker() {
+        DynamoDBMapperTableModel<UserProfileIdempotencyEO> idempotencyModel = mock(DynamoDBMapperTableModel.class);
+        when(dynamoDBMapper.getTableModel(UserProfileIdempotencyEO.class)).thenReturn(idempotencyModel);
+
+        assertTrue(userProfileRepository.backfillIdempotencyMarker("key", "legacyUser"));
+        ArgumentCaptor<UserProfileIdempotencyEO> markerCaptor = ArgumentCaptor.forClass(UserProfileIdempotencyEO.class);
+        verify(idempotencyModel).convert(markerCaptor.capture());
+        assertEquals("legacyUser", markerCaptor.getValue().getUserId());
+        ArgumentCaptor<PutItemRequest> putCaptor = ArgumentCaptor.forClass(PutItemRequest.class);
+        verify(dynamoDBClient).putItem(putCaptor.capture());
+        assertEquals("attribute_not_exists(idempotencyKey)", putCaptor.getValue().getConditionExpression());
+
+        doThrow(new ConditionalCheckFailedException("Marker exists")).when(dynamoDBClient).putItem(any(PutItemRequest.class));
+        assertFalse(userProfileRepository.backfillIdempotencyMarker("key", "legacyUser"));
+    }
+
+    private static Map<String, AttributeValue> userIdItem(String userId) {
+        return Collections.singletonMap("userId", new AttributeValue().withS(userId));
+    }
+
+    private Map<String, AttributeValue> profileWithValidations(long version, Map<String, AttributeValue> validations) {
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("userId", new AttributeValue().withS("testId"));
+        attributes.put("version", new AttributeValue().withN(Long.toString(version)));
+        attributes.put("subscriptionValidations", new AttributeValue().withM(validations));
+        return attributes;
+    }
 }
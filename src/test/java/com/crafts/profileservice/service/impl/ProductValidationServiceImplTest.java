@@ -0,0 +1,158 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.entity.ProductRegistryEO;
+import com.crafts.profileservice.repository.impl.ProductRegistryRepositoryImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductValidationServiceImplTest {
+
+    private ProductValidationServiceImpl productValidationService;
+
+    @Mock
+    private ProductRegistryRepositoryImpl productRegistryRepository;
+
+    private ValidationPropsConfig validationPropsConfig;
+    private HttpServer validatorServer;
+    private String baseUrl;
+    private final AtomicInteger hedgedCalls = new AtomicInteger();
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        closeable = MockitoAnnotations.openMocks(this);
+        validatorServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        validatorServer.setExecutor(Executors.newCachedThreadPool());
+        validatorServer.createContext("/accept", exchange -> respond(exchange, 200, "{\"errors\":[]}"));
+        validatorServer.createContext("/reject", exchange -> respond(exchange, 200, "{\"errors\":[\"PAN does not match the legal name\"]}"));
+        validatorServer.createContext("/down", exchange -> respond(exchange, 503, "{}"));
+        validatorServer.createContext("/slow-first", exchange -> {
+            if (hedgedCalls.incrementAndGet() == 1) {
+                sleep(3000);
+            }
+            respond(exchange, 200, "{\"errors\":[]}");
+        });
+        validatorServer.start();
+        baseUrl = "http://localhost:" + validatorServer.getAddress().getPort();
+        validationPropsConfig = new ValidationPropsConfig();
+        validationPropsConfig.setConnectTimeoutMs(1000);
+        validationPropsConfig.setResponseTimeoutMs(5000);
+        validationPropsConfig.setMaxConnectionsPerProduct(10);
+        validationPropsConfig.setPendingAcquireTimeoutMs(1000);
+        validationPropsConfig.setMaxConcurrentCallsPerProduct(10);
+        validationPropsConfig.setCircuitFailureRateThreshold(50);
+        validationPropsConfig.setCircuitOpenMs(30000);
+        when(productRegistryRepository.findAll()).thenReturn(List.of(
+                new ProductRegistryEO("QB", baseUrl + "/accept"),
+                new ProductRegistryEO("QBO", baseUrl + "/reject"),
+                new ProductRegistryEO("PAYROLL", baseUrl + "/down"),
+                new ProductRegistryEO("TIMESHEETS", baseUrl + "/slow-first")));
+        ProductRegistry productRegistry = new ProductRegistry(productRegistryRepository);
+        productRegistry.refresh();
+        productValidationService = new ProductValidationServiceImpl(productRegistry, WebClient.builder().build(), validationPropsConfig);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        productValidationService.shutdown();
+        validatorServer.stop(0);
+        closeable.close();
+    }
+
+    @Test
+    public void testValidate_ConsolidatesResultsOfAllProducts() {
+        UserProfileDTO validated = productValidationService.validate(profile("QB", "QBO", "PAYROLL", "UNKNOWN")).block();
+
+        assertEquals("user1", validated.getUserId());
+        assertEquals("Rejected", validated.getConsolidatedStatus());
+        assertEquals("Rejected by QBO", validated.getConsolidatedMessage());
+        assertEquals("Success", validated.getSubscriptionValidations().get("QB").getStatus());
+        assertEquals(List.of("PAN does not match the legal name"), validated.getSubscriptionValidations().get("QBO").getErrors());
+        assertEquals("Not Complete", validated.getSubscriptionValidations().get("PAYROLL").getStatus());
+        assertEquals(List.of("No validation endpoint registered for product UNKNOWN"), validated.getSubscriptionValidations().get("UNKNOWN").getErrors());
+        assertNull(validated.getSubscriptions());
+    }
+
+    @Test
+    public void testValidate_HedgesSlowValidator() {
+        validationPropsConfig.setHedgeAfterMs(100);
+
+        long start = System.nanoTime();
+        UserProfileDTO validated = productValidationService.validate(profile("TIMESHEETS")).block();
+
+        assertEquals("Success", validated.getConsolidatedStatus());
+        assertEquals(2, hedgedCalls.get());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    }
+
+    @Test
+    public void testValidate_WithoutSubscriptions() {
+        assertThrows(IllegalArgumentException.class, () -> productValidationService.validate(new UserProfileDTO()).block());
+    }
+
+    @Test
+    public void testToValidatedProfile_AddedSubscription() {
+        UserProfileDTO userProfileDTO = profile("QBO");
+        userProfileDTO.setExistingSubscriptions(List.of("QB"));
+        userProfileDTO.getSubscriptionValidations().put("QB", new ProductValidationStatus("Success", new ArrayList<>()));
+
+        UserProfileDTO validated = ProductValidationServiceImpl.toValidatedProfile(userProfileDTO,
+                Map.of("QBO", new ProductValidationStatus("Success", new ArrayList<>())));
+
+        assertEquals(List.of("QB", "QBO"), validated.getSubscriptions());
+        assertEquals(Set.of("QBO"), validated.getSubscriptionValidations().keySet());
+        assertEquals("Success", validated.getConsolidatedStatus());
+        assertNull(validated.getConsolidatedMessage());
+
+        validated = ProductValidationServiceImpl.toValidatedProfile(userProfileDTO,
+                Map.of("QBO", new ProductValidationStatus("Rejected", new ArrayList<>(List.of("Unsupported region")))));
+        assertEquals(List.of("QB"), validated.getSubscriptions());
+        assertEquals("Rejected", validated.getConsolidatedStatus());
+    }
+
+    private static UserProfileDTO profile(String... subscriptions) {
+        UserProfileDTO userProfileDTO = new UserProfileDTO();
+        userProfileDTO.setUserId("user1");
+        userProfileDTO.setSubscriptions(new ArrayList<>(List.of(subscriptions)));
+        return userProfileDTO;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
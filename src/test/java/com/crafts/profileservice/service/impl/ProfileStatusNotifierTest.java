@@ -0,0 +1,98 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.config.props.StatusStreamPropsConfig;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileStatusNotifierTest {
+
+    private ProfileStatusNotifier profileStatusNotifier;
+
+    @BeforeEach
+    public void setUp() {
+        StatusStreamPropsConfig statusStreamPropsConfig = new StatusStreamPropsConfig();
+        statusStreamPropsConfig.setRecheckIntervalMs(20);
+        statusStreamPropsConfig.setTimeoutMs(2000);
+        profileStatusNotifier = new ProfileStatusNotifier(statusStreamPropsConfig);
+    }
+
+    @Test
+    public void testStream_CompletedValidation_EmitsOnce() {
+        UserProfileValidationResultDTO success = status(ValidationStatusEnum.SUCCESS);
+
+        List<UserProfileValidationResultDTO> statuses = profileStatusNotifier.stream(success, Mono.error(new IllegalStateException())).collectList().block();
+
+        assertEquals(List.of(success), statuses);
+    }
+
+    @Test
+    public void testStream_PublishedChange_CompletesStream() throws Exception {
+        UserProfileValidationResultDTO inProgress = status(ValidationStatusEnum.IN_PROGRESS);
+        UserProfileValidationResultDTO success = status(ValidationStatusEnum.SUCCESS);
+
+        CompletableFuture<List<UserProfileValidationResultDTO>> statuses = profileStatusNotifier.stream(inProgress, Mono.just(inProgress))
+                .collectList().toFuture();
+        profileStatusNotifier.publish(success);
+
+        // The unchanged re-checks are not emitted
+        assertEquals(List.of(inProgress, success), statuses.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStream_RecheckPicksUpChangeFromOtherInstance() throws Exception {
+        UserProfileValidationResultDTO inProgress = status(ValidationStatusEnum.IN_PROGRESS);
+        UserProfileValidationResultDTO rejected = status(ValidationStatusEnum.REJECTED);
+        AtomicReference<UserProfileValidationResultDTO> stored = new AtomicReference<>(inProgress);
+
+        CompletableFuture<List<UserProfileValidationResultDTO>> statuses = profileStatusNotifier.stream(inProgress, Mono.fromSupplier(stored::get))
+                .collectList().toFuture();
+        stored.set(rejected);
+
+        assertEquals(List.of(inProgress, rejected), statuses.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPublish_ConcurrentPublishersAreAllDelivered() throws Exception {
+        UserProfileValidationResultDTO inProgress = status(ValidationStatusEnum.IN_PROGRESS);
+        CompletableFuture<List<UserProfileValidationResultDTO>> statuses = profileStatusNotifier.stream(inProgress, Mono.empty())
+                .collectList().toFuture();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> publishers = IntStream.range(0, 8).<Future<?>>mapToObj(thread -> executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    UserProfileValidationResultDTO update = status(ValidationStatusEnum.IN_PROGRESS);
+                    update.setConsolidatedMessage(thread + "-" + i);
+                    profileStatusNotifier.publish(update);
+                }
+            })).toList();
+            for (Future<?> publisher : publishers) {
+                publisher.get(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        profileStatusNotifier.publish(status(ValidationStatusEnum.SUCCESS));
+
+        assertEquals(1 + 8 * 50 + 1, statuses.get(1, TimeUnit.SECONDS).size());
+    }
+
+    private UserProfileValidationResultDTO status(ValidationStatusEnum validationStatus) {
+        return new UserProfileValidationResultDTO("user1", validationStatus.getStatus(), null, new HashMap<>());
+    }
+}
@@ -0,0 +1,281 @@
+package com.crafts.profileservice.service.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.cache.ReactiveProfileCache;
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.dto.ProductValidationStatus;
+import com.crafts.profileservice.dto.TaxIdentifiersDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
+import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.exception.UserProfileBusinessException;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer;
+import com.crafts.profileservice.repository.ReactiveUserProfileRepository;
+import com.crafts.profileservice.service.ProductValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReactiveUserProfileServiceImplTest {
+
+    private ReactiveUserProfileServiceImpl userProfileService;
+
+    @Mock
+    private ReactiveUserProfileRepository userProfileRepository;
+
+    @Mock
+    private UserProfileMapper userProfileMapper;
+
+    @Mock
+    private UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+
+    @Mock
+    private ReactiveProfileCache profileCache;
+
+    @Mock
+    private ProfileStatusNotifier profileStatusNotifier;
+
+    @Mock
+    private ProductValidationService productValidationService;
+
+    @Mock
+    private ProductRegistry productRegistry;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        OutboxPropsConfig outboxPropsConfig = new OutboxPropsConfig();
+        outboxPropsConfig.setShardCount(8);
+        userProfileService = new ReactiveUserProfileServiceImpl(userProfileRepository, userProfileMapper, userProfileSubmissionKafkaProducer,
+                profileCache, outboxPropsConfig, profileStatusNotifier, productValidationService, new ValidationPropsConfig(),
+                productRegistry);
+        when(profileCache.getStatus(any())).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testGetUserProfileById_CacheHit_SkipsRepository() {
+        UserProfileDTO cached = new UserProfileDTO();
+        when(profileCache.get("user1")).thenReturn(Mono.just(cached));
+
+        assertSame(cached, userProfileService.getUserProfileById("user1").block());
+        verify(userProfileRepository, never()).getUserProfileById(any());
+    }
+
+    @Test
+    public void testGetUserProfileById_CacheMiss_LoadsAndCaches() {
+        UserProfileEO userProfileEO = new UserProfileEO();
+        UserProfileDTO userProfileDTO = new UserProfileDTO();
+        when(profileCache.get("user1")).thenReturn(Mono.empty());
+        when(userProfileRepository.getUserProfileById("user1")).thenReturn(Mono.just(userProfileEO));
+        when(userProfileMapper.convertEOtoDTO(userProfileEO)).thenReturn(userProfileDTO);
+
+        assertSame(userProfileDTO, userProfileService.getUserProfileById("user1").block());
+        verify(profileCache).put("user1", userProfileDTO);
+    }
+
+    @Test
+    public void testGetUserProfilesByStatus() {
+        UserProfileEO stuckEO = new UserProfileEO();
+        UserProfileDTO stuckDTO = new UserProfileDTO();
+        QueryResultPage<UserProfileEO> page = new QueryResultPage<>();
+        page.setResults(List.of(stuckEO));
+        when(userProfileRepository.getUserProfilesByStatus("In Progress", null, 50)).thenReturn(Mono.just(page));
+        when(userProfileMapper.convertEOtoDTO(stuckEO)).thenReturn(stuckDTO);
+
+        UserProfilePageDTO pageDTO = userProfileService.getUserProfilesByStatus("IN_PROGRESS", null, null).block();
+        assertEquals(List.of(stuckDTO), pageDTO.getProfiles());
+        assertNull(pageDTO.getNextCursor());
+
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByStatus("STUCK", null, null).block());
+    }
+
+    @Test
+    public void testGetUserProfileById_NotFound() {
+        when(profileCache.get("user1")).thenReturn(Mono.empty());
+        when(userProfileRepository.getUserProfileById("user1")).thenReturn(Mono.empty());
+
+        assertThrows(NoSuchElementException.class, () -> userProfileService.getUserProfileById("user1").block());
+    }
+
+    @Test
+    public void testGetUserProfilesByIds_LoadsOnlyCacheMisses() {
+        UserProfileDTO cached = new UserProfileDTO();
+        cached.setUserId("user1");
+        UserProfileEO loadedEO = new UserProfileEO();
+        UserProfileDTO loaded = new UserProfileDTO();
+        loaded.setUserId("user2");
+        when(profileCache.getAll(any())).thenReturn(Mono.just(new HashMap<>(Map.of("user1", cached))));
+        when(userProfileRepository.getUserProfilesByIds(List.of("user2", "user3"))).thenReturn(Flux.just(loadedEO));
+        when(userProfileMapper.convertEOtoDTO(loadedEO)).thenReturn(loaded);
+
+        UserProfileBatchResponseDTO response = userProfileService.getUserProfilesByIds(List.of("user1", "user2", "user3")).block();
+
+        assertEquals(List.of(cached, loaded), response.getProfiles());
+        assertEquals(List.of("user3"), response.getMissingUserIds());
+        verify(profileCache).put("user2", loaded);
+    }
+
+    @Test
+    public void testSaveUserProfile_WaitsForKafkaAck() throws KafkaProcessingException {
+        UserProfileDTO userProfileDTO = newProfile();
+        UserProfileEO userProfileEO = new UserProfileEO();
+        UserProfileDTO savedDTO = new UserProfileDTO();
+        savedDTO.setUserId("user1");
+        CompletableFuture<org.springframework.kafka.support.SendResult<String, String>> ack = new CompletableFuture<>();
+        when(userProfileMapper.convertDTOTOEO(userProfileDTO)).thenReturn(userProfileEO);
+        when(userProfileRepository.save(userProfileEO, null)).thenReturn(Mono.just(userProfileEO));
+        when(userProfileMapper.convertEOtoDTO(userProfileEO)).thenReturn(savedDTO);
+        doReturn(ack).when(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_CREATE"), eq("user1"));
+
+        CompletableFuture<UserProfileDTO> result = userProfileService.saveUserProfile(userProfileDTO).toFuture();
+        assertFalse(result.isDone());
+        ack.complete(null);
+
+        assertSame(savedDTO, result.join());
+        assertTrue(savedDTO.isCreateFlow());
+    }
+
+    @Test
+    public void testSaveUserProfile_KafkaFailure_RollsBackStatus() throws KafkaProcessingException {
+        UserProfileDTO userProfileDTO = newProfile();
+        UserProfileEO userProfileEO = new UserProfileEO();
+        UserProfileDTO savedDTO = new UserProfileDTO();
+        savedDTO.setUserId("user1");
+        UserProfileEO rollbackEO = new UserProfileEO();
+        when(userProfileMapper.convertDTOTOEO(userProfileDTO)).thenReturn(userProfileEO);
+        when(userProfileRepository.save(userProfileEO, null)).thenReturn(Mono.just(userProfileEO));
+        when(userProfileMapper.convertEOtoDTO(userProfileEO)).thenReturn(savedDTO);
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")))
+                .when(userProfileSubmissionKafkaProducer).send(any(), any(), any());
+        ArgumentCaptor<UserProfileDTO> rollbackCaptor = ArgumentCaptor.forClass(UserProfileDTO.class);
+        when(userProfileMapper.convertDTOTOEO(rollbackCaptor.capture())).thenReturn(userProfileEO, rollbackEO);
+        when(userProfileRepository.update("user1", rollbackEO, null)).thenReturn(Mono.just(rollbackEO));
+
+        UserProfileBusinessException exception = assertThrows(UserProfileBusinessException.class,
+                () -> userProfileService.saveUserProfile(userProfileDTO).block());
+
+        assertEquals("Failed to send message to kafka to proceed with further validations", exception.getMessage());
+        assertEquals(ValidationStatusEnum.NOT_COMPLETE.getStatus(), rollbackCaptor.getValue().getConsolidatedStatus());
+        verify(userProfileRepository).update("user1", rollbackEO, null);
+        // the created status is written through, without a cached status the rollback leaves it to the next read
+        verify(profileCache).putStatus(any());
+        verify(profileStatusNotifier).publish(any());
+    }
+
+    @Test
+    public void testUpdate_WritesStatusThroughAndRollsItBackOnKafkaFailure() throws KafkaProcessingException {
+        UserProfileDTO userProfileDTO = newProfile();
+        userProfileDTO.setUserId("user1");
+        UserProfileValidationResultDTO cached = new UserProfileValidationResultDTO("user1", ValidationStatusEnum.SUCCESS.getStatus(),
+                "Validated", new HashMap<>(Map.of("QB", new ProductValidationStatus(ValidationStatusEnum.SUCCESS.getStatus(), List.of()))));
+        when(profileCache.getStatus("user1")).thenReturn(Mono.just(cached));
+        UserProfileEO statusEO = new UserProfileEO();
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(statusEO);
+        when(userProfileRepository.update("user1", statusEO, null)).thenReturn(Mono.just(statusEO));
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")))
+                .when(userProfileSubmissionKafkaProducer).send(any(), any(), any());
+
+        assertThrows(UserProfileBusinessException.class, () -> userProfileService.update("user1", userProfileDTO).block());
+
+        ArgumentCaptor<UserProfileValidationResultDTO> statusCaptor = ArgumentCaptor.forClass(UserProfileValidationResultDTO.class);
+        verify(profileCache, times(2)).putStatus(statusCaptor.capture());
+        verify(profileCache, never()).evictStatus(any());
+        assertEquals(List.of(ValidationStatusEnum.IN_PROGRESS.getStatus(), ValidationStatusEnum.NOT_COMPLETE.getStatus()),
+                statusCaptor.getAllValues().stream().map(UserProfileValidationResultDTO::getConsolidatedStatus).toList());
+        assertEquals(cached.getSubscriptions(), statusCaptor.getValue().getSubscriptions());
+        assertEquals(ValidationStatusEnum.SUCCESS.getStatus(), cached.getConsolidatedStatus());
+        verify(profileStatusNotifier, times(2)).publish(any());
+    }
+
+    @Test
+    public void testSaveUserProfile_Duplicate() throws KafkaProcessingException {
+        UserProfileDTO userProfileDTO = newProfile();
+        UserProfileEO userProfileEO = new UserProfileEO();
+        when(userProfileMapper.convertDTOTOEO(userProfileDTO)).thenReturn(userProfileEO);
+        when(userProfileRepository.save(userProfileEO, null)).thenReturn(Mono.error(new DuplicateUserProfileException("duplicate", null)));
+
+        UserProfileBusinessException exception = assertThrows(UserProfileBusinessException.class,
+                () -> userProfileService.saveUserProfile(userProfileDTO).block());
+
+        assertEquals("Duplicate entry detected. User already exists", exception.getMessage());
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testGetStatus_NotFound() {
+        when(profileCache.getStatus("user1")).thenReturn(Mono.empty());
+        when(userProfileRepository.getUserProfileAttributesById(eq("user1"), any())).thenReturn(Mono.empty());
+
+        assertThrows(UserProfileBusinessException.class, () -> userProfileService.getStatus("user1").block());
+    }
+
+    @Test
+    public void testGetStatus_Success() {
+        when(profileCache.getStatus("user1")).thenReturn(Mono.empty());
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("consolidatedStatus", new AttributeValue().withS(ValidationStatusEnum.SUCCESS.getStatus()));
+        when(userProfileRepository.getUserProfileAttributesById(eq("user1"), any())).thenReturn(Mono.just(item));
+
+        UserProfileValidationResultDTO status = userProfileService.getStatus("user1").block();
+
+        assertEquals("user1", status.getUserId());
+        assertEquals(ValidationStatusEnum.SUCCESS.getStatus(), status.getConsolidatedStatus());
+        verify(profileCache).putStatus(status);
+    }
+
+    @Test
+    public void testGetStatus_CacheHit_SkipsRepository() {
+        UserProfileValidationResultDTO cached = new UserProfileValidationResultDTO();
+        when(profileCache.getStatus("user1")).thenReturn(Mono.just(cached));
+
+        assertSame(cached, userProfileService.getStatus("user1").block());
+        verify(userProfileRepository, never()).getUserProfileAttributesById(any(), any());
+    }
+
+    @Test
+    public void testDelete_EvictsCache() {
+        when(userProfileRepository.delete("user1")).thenReturn(Mono.empty());
+
+        userProfileService.delete("user1").block();
+
+        verify(profileCache).evict("user1");
+    }
+
+    private UserProfileDTO newProfile() {
+        UserProfileDTO userProfileDTO = new UserProfileDTO();
+        userProfileDTO.setEmail("user@example.com");
+        userProfileDTO.setLegalName("User");
+        TaxIdentifiersDTO taxIdentifiersDTO = new TaxIdentifiersDTO();
+        taxIdentifiersDTO.setPan("ABCDE1234F");
+        userProfileDTO.setTaxIdentifiers(taxIdentifiersDTO);
+        userProfileDTO.setSubscriptions(new ArrayList<>(List.of("QB")));
+        return userProfileDTO;
+    }
+}
@@ -0,0 +1,117 @@
+package com.crafts.profileservice.service.impl;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.config.props.ExportPropsConfig;
+import com.crafts.profileservice.dto.ProfileExportCheckpointDTO;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileExportPageDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.util.ExportCheckpointUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class UserProfileExportServiceImplTest {
+
+    private UserProfileExportServiceImpl userProfileExportService;
+
+    @Mock
+    private UserProfileRepositoryImpl userProfileRepository;
+
+    @Mock
+    private UserProfileMapper userProfileMapper;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(userProfileMapper.convertEOtoDTO(any())).thenAnswer(invocation -> {
+            UserProfileDTO userProfileDTO = new UserProfileDTO();
+            userProfileDTO.setUserId(((UserProfileEO) invocation.getArgument(0)).getUserId());
+            return userProfileDTO;
+        });
+        ExportPropsConfig exportPropsConfig = new ExportPropsConfig();
+        exportPropsConfig.setSegments(2);
+        exportPropsConfig.setMaxSegments(8);
+        exportPropsConfig.setPageSize(2);
+        userProfileExportService = new UserProfileExportServiceImpl(userProfileRepository, userProfileMapper, exportPropsConfig);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testExportProfiles_ScansAllSegmentsPageByPage() {
+        when(userProfileRepository.scanSegment(eq(0), eq(2), isNull(), eq("Success"), eq(2)))
+                .thenReturn(page(lastKey("user2"), "user1", "user2"));
+        when(userProfileRepository.scanSegment(0, 2, lastKey("user2"), "Success", 2))
+                .thenReturn(page(null, "user3"));
+        when(userProfileRepository.scanSegment(eq(1), eq(2), isNull(), eq("Success"), eq(2)))
+                .thenReturn(page(null, "user4"));
+
+        List<UserProfileExportPageDTO> pages = userProfileExportService.exportProfiles("Success", null, null).collectList().block();
+
+        assertEquals(3, pages.size());
+        Set<String> userIds = new HashSet<>();
+        pages.forEach(page -> page.getProfiles().forEach(profile -> userIds.add(profile.getUserId())));
+        assertEquals(Set.of("user1", "user2", "user3", "user4"), userIds);
+        ProfileExportCheckpointDTO lastCheckpoint = ExportCheckpointUtil.decode(pages.get(2).getCheckpoint());
+        assertEquals(Set.of(0, 1), lastCheckpoint.getCompletedSegments());
+        assertTrue(lastCheckpoint.getLastEvaluatedUserIds().isEmpty());
+        assertEquals("Success", lastCheckpoint.getConsolidatedStatus());
+    }
+
+    @Test
+    public void testExportProfiles_ResumesFromCheckpoint() {
+        ProfileExportCheckpointDTO checkpoint = new ProfileExportCheckpointDTO(2, null, new HashMap<>(Map.of(0, "user2")), new HashSet<>(Set.of(1)));
+        when(userProfileRepository.scanSegment(0, 2, lastKey("user2"), null, 2)).thenReturn(page(null, "user3"));
+
+        List<UserProfileExportPageDTO> pages = userProfileExportService.exportProfiles(null, null, ExportCheckpointUtil.encode(checkpoint))
+                .collectList().block();
+
+        assertEquals(1, pages.size());
+        assertEquals("user3", pages.get(0).getProfiles().get(0).getUserId());
+        verify(userProfileRepository, never()).scanSegment(eq(1), anyInt(), any(), any(), anyInt());
+        assertEquals(Set.of(0, 1), ExportCheckpointUtil.decode(pages.get(0).getCheckpoint()).getCompletedSegments());
+    }
+
+    @Test
+    public void testExportProfiles_RejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> userProfileExportService.exportProfiles(null, 9, null));
+        assertThrows(IllegalArgumentException.class, () -> userProfileExportService.exportProfiles(null, null, "not-a-checkpoint"));
+        String checkpoint = ExportCheckpointUtil.encode(new ProfileExportCheckpointDTO(2, "Success", new HashMap<>(), new HashSet<>()));
+        assertThrows(IllegalArgumentException.class, () -> userProfileExportService.exportProfiles("Rejected", null, checkpoint));
+        verifyNoInteractions(userProfileRepository);
+    }
+
+    private static ScanResultPage<UserProfileEO> page(Map<String, AttributeValue> lastEvaluatedKey, String... userIds) {
+        List<UserProfileEO> profiles = new ArrayList<>();
+        for (String userId : userIds) {
+            UserProfileEO userProfileEO = new UserProfileEO();
+            userProfileEO.setUserId(userId);
+            profiles.add(userProfileEO);
+        }
+        ScanResultPage<UserProfileEO> page = new ScanResultPage<>();
+        page.setResults(profiles);
+        page.setLastEvaluatedKey(lastEvaluatedKey);
+        return page;
+    }
+
+    private static Map<String, AttributeValue> lastKey(String userId) {
+        return Collections.singletonMap("userId", new AttributeValue().withS(userId));
+    }
+}
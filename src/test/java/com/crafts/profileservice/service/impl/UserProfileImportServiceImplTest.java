@@ -0,0 +1,201 @@
+package com.crafts.profileservice.service.impl;
+
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.config.props.ImportPropsConfig;
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfileImportResultDTO;
+import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
+import com.crafts.profileservice.exception.KafkaProcessingException;
+import com.crafts.profileservice.exception.UserProfileRepositoryException;
+import com.crafts.profileservice.mapper.UserProfileMapper;
+import com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer;
+import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.ProductValidationService;
+import com.crafts.profileservice.service.UserProfileService;
+import com.crafts.profileservice.util.IdempotencyKeyGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserProfileImportServiceImplTest {
+
+    private UserProfileImportServiceImpl userProfileImportService;
+
+    @Mock
+    private UserProfileRepositoryImpl userProfileRepository;
+
+    @Mock
+    private UserProfileMapper userProfileMapper;
+
+    @Mock
+    private UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+
+    @Mock
+    private ProductRegistry productRegistry;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @Mock
+    private ProductValidationService productValidationService;
+
+    private ValidationPropsConfig validationPropsConfig;
+
+    private OutboxPropsConfig outboxPropsConfig;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() throws KafkaProcessingException {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(userProfileMapper.convertDTOTOEO(any())).thenAnswer(invocation -> {
+            UserProfileDTO userProfileDTO = invocation.getArgument(0);
+            UserProfileEO userProfileEO = new UserProfileEO();
+            userProfileEO.setUserId(userProfileDTO.getUserId());
+            userProfileEO.setEmail(userProfileDTO.getEmail());
+            return userProfileEO;
+        });
+        when(userProfileMapper.convertEOtoDTO(any())).thenAnswer(invocation -> {
+            UserProfileEO userProfileEO = invocation.getArgument(0);
+            UserProfileDTO userProfileDTO = new UserProfileDTO();
+            userProfileDTO.setUserId(userProfileEO.getUserId());
+            userProfileDTO.setEmail(userProfileEO.getEmail());
+            return userProfileDTO;
+        });
+        when(userProfileRepository.saveAll(anyList(), anyMap())).thenReturn(Collections.emptyMap());
+        outboxPropsConfig = new OutboxPropsConfig();
+        outboxPropsConfig.setShardCount(8);
+        ImportPropsConfig importPropsConfig = new ImportPropsConfig();
+        importPropsConfig.setSendTimeoutMs(1000);
+        validationPropsConfig = new ValidationPropsConfig();
+        userProfileImportService = new UserProfileImportServiceImpl(userProfileRepository, userProfileMapper, userProfileSubmissionKafkaProducer,
+                outboxPropsConfig, importPropsConfig, productRegistry, userProfileService, productValidationService, validationPropsConfig);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportProfiles() throws Exception {
+        String existingKey = IdempotencyKeyGenerator.generate("existing@crafts.com", "PAN3", "Existing");
+        when(userProfileRepository.findUserIdsByIdempotencyKeys(anyCollection())).thenReturn(Map.of(existingKey, "existingUser"));
+        List<String> lines = List.of(
+                profileLine("first@crafts.com", "PAN1", "First"),
+                "",
+                "{not json",
+                profileLine("first@crafts.com", "PAN1", "First"),
+                profileLine("existing@crafts.com", "PAN3", "Existing"),
+                "{\"email\":\"nosubscription@crafts.com\",\"subscriptions\":[]}",
+                profileLine("second@crafts.com", "PAN2", "Second"));
+
+        List<UserProfileImportResultDTO> results = userProfileImportService.importProfiles(lines, 11);
+
+        // blank lines are skipped, every other line is reported in order
+        assertEquals(List.of(11L, 13L, 14L, 15L, 16L, 17L), results.stream().map(UserProfileImportResultDTO::getLine).toList());
+        assertEquals(List.of("Created", "Invalid", "Duplicate", "Duplicate", "Invalid", "Created"),
+                results.stream().map(UserProfileImportResultDTO::getStatus).toList());
+        assertEquals("Duplicate of line 11", results.get(2).getMessage());
+        assertEquals("existingUser", results.get(3).getUserId());
+        assertNotNull(results.get(0).getUserId());
+
+        ArgumentCaptor<Collection<String>> keysCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(userProfileRepository).findUserIdsByIdempotencyKeys(keysCaptor.capture());
+        assertEquals(3, keysCaptor.getValue().size());
+        ArgumentCaptor<List<UserProfileEO>> profilesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(userProfileRepository).saveAll(profilesCaptor.capture(), eq(Collections.emptyMap()));
+        assertEquals(2, profilesCaptor.getValue().size());
+        verify(userProfileSubmissionKafkaProducer, times(2)).send(any(), eq("USER_PROFILE_CREATE"), any());
+    }
+
+    @Test
+    public void testImportProfiles_RollsBackFailedSendsAndWrites() throws Exception {
+        when(userProfileRepository.saveAll(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<UserProfileEO> userProfiles = invocation.getArgument(0);
+            return Map.of(userProfiles.get(2).getUserId(), new UserProfileRepositoryException("Failed to save user profile due to DynamoDB error"));
+        });
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaProcessingException("Broker unavailable", new RuntimeException())));
+
+        List<UserProfileImportResultDTO> results = userProfileImportService.importProfiles(List.of(
+                profileLine("first@crafts.com", "PAN1", "First"),
+                profileLine("second@crafts.com", "PAN2", "Second"),
+                profileLine("third@crafts.com", "PAN3", "Third")), 1);
+
+        assertEquals(List.of("Created", "Failed", "Failed"), results.stream().map(UserProfileImportResultDTO::getStatus).toList());
+        assertEquals("Error while saving user profile.", results.get(2).getMessage());
+        // only the profile that was written but not announced is rolled back, the unwritten one got no event
+        verify(userProfileSubmissionKafkaProducer, times(2)).send(any(), any(), any());
+        verify(userProfileRepository).update(eq(results.get(1).getUserId()), any(UserProfileEO.class));
+        verify(userProfileRepository, times(1)).update(any(), any(UserProfileEO.class));
+    }
+
+    @Test
+    public void testImportProfiles_WritesOutboxEventsInTheBatch() throws Exception {
+        outboxPropsConfig.setEnabled(true);
+
+        List<UserProfileImportResultDTO> results = userProfileImportService.importProfiles(
+                List.of(profileLine("first@crafts.com", "PAN1", "First")), 1);
+
+        assertEquals("Created", results.get(0).getStatus());
+        verify(userProfileRepository).saveAll(anyList(), argThat(outboxEvents -> outboxEvents.containsKey(results.get(0).getUserId())));
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testImportProfiles_KeyTakenConcurrentlyIsDuplicate() throws Exception {
+        when(userProfileRepository.saveAll(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<UserProfileEO> userProfiles = invocation.getArgument(0);
+            return Map.of(userProfiles.get(0).getUserId(), new DuplicateUserProfileException("User profile already exists with the given idempotency key"));
+        });
+
+        List<UserProfileImportResultDTO> results = userProfileImportService.importProfiles(List.of(
+                profileLine("first@crafts.com", "PAN1", "First"),
+                profileLine("second@crafts.com", "PAN2", "Second")), 1);
+
+        assertEquals(List.of("Duplicate", "Created"), results.stream().map(UserProfileImportResultDTO::getStatus).toList());
+        assertNull(results.get(0).getUserId());
+        verify(userProfileSubmissionKafkaProducer, times(1)).send(any(), any(), any());
+        verify(userProfileRepository, never()).update(any(), any(UserProfileEO.class));
+    }
+
+    @Test
+    public void testImportProfiles_FanoutValidatesInService() throws Exception {
+        validationPropsConfig.setFanoutEnabled(true);
+        UserProfileDTO validated = new UserProfileDTO();
+        when(productValidationService.validate(any())).thenReturn(Mono.just(validated));
+
+        List<UserProfileImportResultDTO> results = userProfileImportService.importProfiles(
+                List.of(profileLine("first@crafts.com", "PAN1", "First")), 1);
+
+        assertEquals("Created", results.get(0).getStatus());
+        verify(userProfileService, timeout(1000)).updateAfterValidation(validated);
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+
+        when(productValidationService.validate(any())).thenReturn(Mono.error(new IllegalStateException("Validator unavailable")));
+        List<UserProfileImportResultDTO> failed = userProfileImportService.importProfiles(
+                List.of(profileLine("second@crafts.com", "PAN2", "Second")), 1);
+        verify(userProfileRepository, timeout(1000)).update(eq(failed.get(0).getUserId()), any(UserProfileEO.class));
+    }
+
+    private static String profileLine(String email, String pan, String legalName) {
+        return "{\"email\":\"" + email + "\",\"legalName\":\"" + legalName + "\",\"taxIdentifiers\":{\"pan\":\"" + pan
+                + "\"},\"subscriptions\":[\"QB\"]}";
+    }
+}
@@ -1,26 +1,41 @@
 package com.crafts.profileservice.service.impl;
 
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.crafts.profileservice.cache.ProductRegistry;
+import com.crafts.profileservice.config.props.OutboxPropsConfig;
+import com.crafts.profileservice.config.props.ValidationPropsConfig;
+import com.crafts.profileservice.dto.ProductValidationStatus;
 import com.crafts.profileservice.dto.SubscriptionRequestDTO;
+import com.crafts.profileservice.dto.UserProfileBatchResponseDTO;
 import com.crafts.profileservice.dto.TaxIdentifiersDTO;
 import com.crafts.profileservice.dto.UserProfileDTO;
+import com.crafts.profileservice.dto.UserProfilePageDTO;
 import com.crafts.profileservice.dto.UserProfileValidationResultDTO;
 import com.crafts.profileservice.entity.UserProfileEO;
+import com.crafts.profileservice.entity.UserProfileOutboxEO;
 import com.crafts.profileservice.enums.ValidationStatusEnum;
+import com.crafts.profileservice.exception.DuplicateUserProfileException;
 import com.crafts.profileservice.exception.KafkaProcessingException;
 import com.crafts.profileservice.exception.UserProfileBusinessException;
 import com.crafts.profileservice.exception.UserProfileRepositoryException;
 import com.crafts.profileservice.mapper.UserProfileMapper;
 import com.crafts.profileservice.producer.UserProfileSubmissionKafkaProducer;
+import com.crafts.profileservice.repository.impl.UserProfileOutboxRepositoryImpl;
 import com.crafts.profileservice.repository.impl.UserProfileRepositoryImpl;
+import com.crafts.profileservice.service.ProductValidationService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import reactor.core.publisher.Mono;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,12 +53,35 @@ public class UserProfileServiceImplTest {
 
     @Mock
     private UserProfileSubmissionKafkaProducer userProfileSubmissionKafkaProducer;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private UserProfileOutboxRepositoryImpl userProfileOutboxRepository;
+
+    @Mock
+    private ProfileStatusNotifier profileStatusNotifier;
+
+    @Mock
+    private ProductValidationService productValidationService;
+
+    @Mock
+    private ProductRegistry productRegistry;
+
+    private OutboxPropsConfig outboxPropsConfig;
+    private ValidationPropsConfig validationPropsConfig;
     private AutoCloseable closeable;
 
     @BeforeEach
-    public void setUp() {
+    public void setUp() throws KafkaProcessingException {
         closeable = MockitoAnnotations.openMocks(this);
-        userProfileService = new UserProfileServiceImpl(userProfileRepository, userProfileMapper, userProfileSubmissionKafkaProducer);
+        when(userProfileSubmissionKafkaProducer.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        outboxPropsConfig = new OutboxPropsConfig();
+        outboxPropsConfig.setShardCount(8);
+        validationPropsConfig = new ValidationPropsConfig();
+        userProfileService = new UserProfileServiceImpl(userProfileRepository, userProfileMapper, userProfileSubmissionKafkaProducer, cacheManager,
+                userProfileOutboxRepository, outboxPropsConfig, profileStatusNotifier, productValidationService, validationPropsConfig, productRegistry);
     }
 
     @AfterEach
@@ -77,6 +115,108 @@ public class UserProfileServiceImplTest {
 
     }
 
+    @Test
+    public void testGetUserProfilesByIds_CacheHitsAndDatabaseMisses() {
+        ConcurrentMapCache cache = new ConcurrentMapCache("USER_PROFILE_CACHE");
+        UserProfileDTO cachedDTO = new UserProfileDTO();
+        cachedDTO.setUserId("user1");
+        cache.put("user1", cachedDTO);
+        when(cacheManager.getCache("USER_PROFILE_CACHE")).thenReturn(cache);
+
+        UserProfileEO loadedEO = new UserProfileEO();
+        loadedEO.setUserId("user2");
+        UserProfileDTO loadedDTO = new UserProfileDTO();
+        loadedDTO.setUserId("user2");
+        when(userProfileRepository.getUserProfilesByIds(List.of("user2", "user3"))).thenReturn(List.of(loadedEO));
+        when(userProfileMapper.convertEOtoDTO(loadedEO)).thenReturn(loadedDTO);
+
+        UserProfileBatchResponseDTO result = userProfileService.getUserProfilesByIds(List.of("user1", "user2", "user3", "user1"));
+
+        assertEquals(List.of(cachedDTO, loadedDTO), result.getProfiles());
+        assertEquals(List.of("user3"), result.getMissingUserIds());
+        assertEquals(loadedDTO, cache.get("user2").get());
+    }
+
+    @Test
+    public void testGetUserProfileById_Fields_ProjectsCachedProfile() {
+        ConcurrentMapCache cache = new ConcurrentMapCache("USER_PROFILE_CACHE");
+        UserProfileDTO cachedProfile = new UserProfileDTO();
+        cachedProfile.setUserId("user1");
+        cachedProfile.setCompanyName("Acme");
+        cachedProfile.setEmail("user@acme.com");
+        cachedProfile.setVersion(4L);
+        cache.put("user1", cachedProfile);
+        when(cacheManager.getCache("USER_PROFILE_CACHE")).thenReturn(cache);
+
+        UserProfileDTO result = userProfileService.getUserProfileById("user1", List.of("companyName"));
+
+        assertEquals("Acme", result.getCompanyName());
+        assertEquals(4L, result.getVersion());
+        assertNull(result.getEmail());
+        assertNull(result.getSubscriptionValidations());
+        verify(userProfileRepository, never()).getUserProfileById(anyString(), anyCollection());
+    }
+
+    @Test
+    public void testGetUserProfileById_Fields_CacheMiss_LoadsProjection() {
+        UserProfileEO projectedEO = new UserProfileEO();
+        UserProfileDTO projectedDTO = new UserProfileDTO();
+        projectedDTO.setConsolidatedStatus("Success");
+        when(userProfileRepository.getUserProfileById("user1", Set.of("userId", "version", "consolidatedStatus"))).thenReturn(projectedEO);
+        when(userProfileMapper.convertEOtoDTO(projectedEO)).thenReturn(projectedDTO);
+
+        assertEquals("Success", userProfileService.getUserProfileById("user1", List.of("consolidatedStatus")).getConsolidatedStatus());
+
+        assertThrows(NoSuchElementException.class, () -> userProfileService.getUserProfileById("user2", List.of("consolidatedStatus")));
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfileById("user1", List.of("idempotencyKey")));
+    }
+
+    @Test
+    public void testGetUserProfilesByIds_TooManyIds_ThrowsException() {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i <= 300; i++) {
+            userIds.add("user" + i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByIds(userIds));
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByIds(Collections.emptyList()));
+    }
+
+    @Test
+    public void testGetUserProfilesByStatus_PagesWithCursor() {
+        UserProfileEO stuckEO = new UserProfileEO();
+        stuckEO.setUserId("user1");
+        UserProfileDTO stuckDTO = new UserProfileDTO();
+        stuckDTO.setUserId("user1");
+        Map<String, AttributeValue> lastKey = new HashMap<>();
+        lastKey.put("userId", new AttributeValue().withS("user1"));
+        lastKey.put("pendingStatus", new AttributeValue().withS("Not Complete"));
+        lastKey.put("timestamp", new AttributeValue().withS("2023-11-01T10:15:30Z"));
+        QueryResultPage<UserProfileEO> firstPage = new QueryResultPage<>();
+        firstPage.setResults(List.of(stuckEO));
+        firstPage.setLastEvaluatedKey(lastKey);
+        QueryResultPage<UserProfileEO> lastPage = new QueryResultPage<>();
+        lastPage.setResults(Collections.emptyList());
+        when(userProfileRepository.getUserProfilesByStatus("Not Complete", null, 1)).thenReturn(firstPage);
+        when(userProfileRepository.getUserProfilesByStatus("Not Complete", lastKey, 1)).thenReturn(lastPage);
+        when(userProfileMapper.convertEOtoDTO(stuckEO)).thenReturn(stuckDTO);
+
+        UserProfilePageDTO page = userProfileService.getUserProfilesByStatus("NOT_COMPLETE", null, 1);
+        assertEquals(List.of(stuckDTO), page.getProfiles());
+        assertNotNull(page.getNextCursor());
+
+        UserProfilePageDTO nextPage = userProfileService.getUserProfilesByStatus("Not Complete", page.getNextCursor(), 1);
+        assertTrue(nextPage.getProfiles().isEmpty());
+        assertNull(nextPage.getNextCursor());
+
+        // a cursor only continues the listing it came from
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByStatus("IN_PROGRESS", page.getNextCursor(), 1));
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByStatus("STUCK", null, null));
+        // only pending profiles are on the status index
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByStatus("SUCCESS", null, null));
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByStatus("IN_PROGRESS", null, 0));
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.getUserProfilesByStatus("IN_PROGRESS", "garbage", null));
+    }
+
     @Test
     public void testSaveUserProfile_ValidProfile_SavesSuccessfully() throws KafkaProcessingException {
         UserProfileDTO mockInputDTO = new UserProfileDTO();
@@ -97,6 +237,60 @@ public class UserProfileServiceImplTest {
         verify(userProfileSubmissionKafkaProducer, times(1)).send(any(), eq("USER_PROFILE_CREATE"), any());
     }
 
+    @Test
+    public void testSaveUserProfile_DuplicateIdempotencyKey_ThrowsException() throws KafkaProcessingException {
+        UserProfileDTO mockInputDTO = new UserProfileDTO();
+        mockInputDTO.setSubscriptions(List.of("product_1"));
+        mockInputDTO.setTaxIdentifiers(new TaxIdentifiersDTO("pan", "ein"));
+        UserProfileEO mockEO = new UserProfileEO();
+
+        when(userProfileMapper.convertDTOTOEO(mockInputDTO)).thenReturn(mockEO);
+        when(userProfileRepository.save(mockEO)).thenThrow(new DuplicateUserProfileException("Duplicate", null));
+
+        UserProfileBusinessException exception = assertThrows(UserProfileBusinessException.class, () -> userProfileService.saveUserProfile(mockInputDTO));
+        assertEquals("Duplicate entry detected. User already exists", exception.getMessage());
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testSaveUserProfile_OutboxEnabled_WritesEventInsteadOfSending() throws KafkaProcessingException {
+        outboxPropsConfig.setEnabled(true);
+        UserProfileDTO mockInputDTO = new UserProfileDTO();
+        mockInputDTO.setSubscriptions(List.of("product_1"));
+        mockInputDTO.setTaxIdentifiers(new TaxIdentifiersDTO("pan", "ein"));
+        UserProfileEO mockEO = new UserProfileEO();
+        UserProfileDTO mockOutputDTO = new UserProfileDTO();
+
+        when(userProfileMapper.convertDTOTOEO(mockInputDTO)).thenReturn(mockEO);
+        when(userProfileMapper.convertEOtoDTO(mockEO)).thenAnswer(invocation -> {
+            mockOutputDTO.setUserId(mockEO.getUserId());
+            return mockOutputDTO;
+        });
+
+        UserProfileDTO result = userProfileService.saveUserProfile(mockInputDTO);
+
+        assertNotNull(mockEO.getUserId());
+        assertTrue(result.isCreateFlow());
+        verify(userProfileRepository).save(eq(mockEO), argThat(event -> "USER_PROFILE_CREATE".equals(event.getEventType())
+                && mockEO.getUserId().equals(event.getUserId())
+                && event.getShardId() >= 0 && event.getShardId() < outboxPropsConfig.getShardCount()));
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testUpdate_OutboxEnabled_WritesStatusAndEventTogether() throws KafkaProcessingException {
+        outboxPropsConfig.setEnabled(true);
+        UserProfileDTO mockDTO = new UserProfileDTO();
+        mockDTO.setUserId("user123");
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(new UserProfileEO());
+
+        userProfileService.update("user123", mockDTO);
+
+        verify(userProfileRepository).update(eq("user123"), any(), any(UserProfileOutboxEO.class));
+        verify(userProfileRepository, never()).update(anyString(), any());
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
     @Test
     public void testSaveUserProfile_EmptySubscriptions_ThrowsException() {
         UserProfileDTO mockInputDTO = new UserProfileDTO();
@@ -106,6 +300,26 @@ public class UserProfileServiceImplTest {
         });
     }
 
+    @Test
+    public void testSaveUserProfile_UnknownProduct_ThrowsException() throws KafkaProcessingException {
+        UserProfileDTO mockInputDTO = new UserProfileDTO();
+        mockInputDTO.setSubscriptions(List.of("QB", "UNKNOWN"));
+        doThrow(new IllegalArgumentException("Unknown product: UNKNOWN")).when(productRegistry).requireRegistered(List.of("QB", "UNKNOWN"));
+
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.saveUserProfile(mockInputDTO));
+        verifyNoInteractions(userProfileRepository);
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testAddSubscription_UnknownProduct_ThrowsException() throws KafkaProcessingException {
+        doThrow(new IllegalArgumentException("Unknown product: UNKNOWN")).when(productRegistry).requireRegistered(List.of("UNKNOWN"));
+
+        assertThrows(IllegalArgumentException.class, () -> userProfileService.addSubscription("user123", new SubscriptionRequestDTO("UNKNOWN")));
+        verifyNoInteractions(userProfileRepository);
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
     @Test
     public void testAddSubscription_ValidInput_AddsSubscription() throws KafkaProcessingException {
         String userId = "product_1";
@@ -142,7 +356,7 @@ public class UserProfileServiceImplTest {
         // Mocking behavior
         when(userProfileMapper.convertDTOTOEO(any())).thenReturn(mockEO);
         userProfileRepository.update(anyString(), any());
-        doNothing().when(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_UPDATE"), any());
+        doReturn(CompletableFuture.completedFuture(null)).when(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_UPDATE"), any());
 
         // Call the method
         userProfileService.update(userId, mockDTO);
@@ -164,6 +378,73 @@ public class UserProfileServiceImplTest {
         });
     }
 
+    @Test
+    public void testUpdate_AsyncSendFailure_RollsBackStatus() throws KafkaProcessingException {
+        String userId = "user123";
+        UserProfileDTO mockDTO = new UserProfileDTO();
+        mockDTO.setUserId(userId);
+
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(new UserProfileEO());
+        doReturn(CompletableFuture.failedFuture(new KafkaProcessingException("Broker unavailable", null)))
+                .when(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_UPDATE"), any());
+
+        userProfileService.update(userId, mockDTO);
+
+        // One update for the profile itself and one for the NOT_COMPLETE rollback
+        verify(userProfileRepository, times(2)).update(eq(userId), any());
+        verify(userProfileMapper).convertDTOTOEO(argThat(dto -> ValidationStatusEnum.NOT_COMPLETE.getStatus().equals(dto.getConsolidatedStatus())));
+    }
+
+    @Test
+    public void testUpdate_FanoutEnabled_ValidatesStoredSubscriptionsInService() throws KafkaProcessingException {
+        String userId = "user123";
+        validationPropsConfig.setFanoutEnabled(true);
+        UserProfileDTO updateDTO = new UserProfileDTO();
+        updateDTO.setUserId(userId);
+        // results in the request body must not feed the consolidated status
+        updateDTO.getSubscriptionValidations().put("QB", new ProductValidationStatus(ValidationStatusEnum.SUCCESS.getStatus(), new ArrayList<>()));
+        UserProfileEO storedEO = new UserProfileEO();
+        UserProfileDTO storedDTO = new UserProfileDTO();
+        storedDTO.setSubscriptions(List.of("QB", "QBO"));
+        storedDTO.getSubscriptionValidations().put("QB", new ProductValidationStatus(ValidationStatusEnum.REJECTED.getStatus(), new ArrayList<>()));
+        storedDTO.getSubscriptionValidations().put("QBO", new ProductValidationStatus(ValidationStatusEnum.SUCCESS.getStatus(), new ArrayList<>()));
+        UserProfileDTO validatedDTO = new UserProfileDTO();
+        validatedDTO.setUserId(userId);
+        validatedDTO.setConsolidatedStatus(ValidationStatusEnum.SUCCESS.getStatus());
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(new UserProfileEO());
+        when(userProfileRepository.getUserProfileById(userId)).thenReturn(storedEO);
+        when(userProfileMapper.convertEOtoDTO(storedEO)).thenReturn(storedDTO);
+        when(productValidationService.validate(any())).thenReturn(Mono.just(validatedDTO));
+        when(userProfileRepository.updateChanges(eq(userId), any(), any(), any())).thenReturn(new UserProfileEO());
+        when(userProfileMapper.convertEOtoDTO(argThat(eo -> eo != storedEO))).thenReturn(validatedDTO);
+        when(cacheManager.getCache(any())).thenReturn(new ConcurrentMapCache("cache"));
+
+        userProfileService.update(userId, updateDTO);
+
+        verify(userProfileRepository, timeout(1000)).updateChanges(eq(userId), eq(storedEO), any(), any());
+        verify(productValidationService).validate(argThat(dto -> List.of("QB", "QBO").equals(dto.getSubscriptions())
+                && storedDTO.getSubscriptionValidations().equals(dto.getSubscriptionValidations())));
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testUpdate_FanoutFailure_RollsBackStatus() throws KafkaProcessingException {
+        String userId = "user123";
+        validationPropsConfig.setFanoutEnabled(true);
+        UserProfileDTO updateDTO = new UserProfileDTO();
+        updateDTO.setUserId(userId);
+        updateDTO.setSubscriptions(List.of("QB"));
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(new UserProfileEO());
+        when(productValidationService.validate(any())).thenReturn(Mono.error(new UserProfileRepositoryException("Registry unavailable", null)));
+
+        userProfileService.update(userId, updateDTO);
+
+        // One update for the IN_PROGRESS status and one for the NOT_COMPLETE rollback
+        verify(userProfileRepository, timeout(1000).times(2)).update(eq(userId), any());
+        verify(userProfileMapper).convertDTOTOEO(argThat(dto -> ValidationStatusEnum.NOT_COMPLETE.getStatus().equals(dto.getConsolidatedStatus())));
+        verify(userProfileSubmissionKafkaProducer, never()).send(any(), any(), any());
+    }
+
     // 3. UserProfileRepositoryException scenario
     @Test
     public void testUpdate_Exception() throws UserProfileBusinessException {
@@ -181,14 +462,70 @@ public class UserProfileServiceImplTest {
     public void testUpdateAfterValidation_Success() throws UserProfileBusinessException {
         UserProfileDTO mockDTO = new UserProfileDTO();
         mockDTO.setUserId("user123");
+        mockDTO.setConsolidatedStatus(ValidationStatusEnum.SUCCESS.getStatus());
+        UserProfileEO currentEO = new UserProfileEO();
         UserProfileEO mockEO = new UserProfileEO();
+        UserProfileEO updatedEO = new UserProfileEO();
 
+        when(userProfileRepository.getUserProfileById("user123")).thenReturn(currentEO);
         when(userProfileMapper.convertDTOTOEO(mockDTO)).thenReturn(mockEO);
-        when(userProfileRepository.update(anyString(), any())).thenReturn(mockEO);
-        when(userProfileMapper.convertEOtoDTO(mockEO)).thenReturn(mockDTO);
+        when(userProfileRepository.updateChanges("user123", currentEO, mockEO, List.of("consolidatedMessage"))).thenReturn(updatedEO);
+        when(userProfileMapper.convertEOtoDTO(updatedEO)).thenReturn(mockDTO);
 
         UserProfileDTO result = userProfileService.updateAfterValidation(mockDTO);
         assertEquals(mockDTO, result);
+        verify(userProfileRepository, never()).update(anyString(), any());
+    }
+
+    @Test
+    public void testUpdateAfterValidation_WritesThroughStatusCache() throws UserProfileBusinessException {
+        ConcurrentMapCache statusCache = new ConcurrentMapCache("USER_PROFILE_STATUS_CACHE");
+        when(cacheManager.getCache("USER_PROFILE_STATUS_CACHE")).thenReturn(statusCache);
+        UserProfileDTO mockDTO = new UserProfileDTO();
+        mockDTO.setUserId("user123");
+        mockDTO.setConsolidatedStatus(ValidationStatusEnum.SUCCESS.getStatus());
+        mockDTO.getSubscriptionValidations().put("QB", new ProductValidationStatus(ValidationStatusEnum.SUCCESS.getStatus(), new ArrayList<>()));
+        UserProfileEO currentEO = new UserProfileEO();
+        UserProfileEO mockEO = new UserProfileEO();
+        UserProfileEO updatedEO = new UserProfileEO();
+        updatedEO.setUserId("user123");
+
+        when(userProfileRepository.getUserProfileById("user123")).thenReturn(currentEO);
+        when(userProfileMapper.convertDTOTOEO(mockDTO)).thenReturn(mockEO);
+        when(userProfileRepository.updateChanges(any(), any(), any(), any())).thenReturn(updatedEO);
+        when(userProfileMapper.convertEOtoDTO(updatedEO)).thenReturn(mockDTO);
+
+        userProfileService.updateAfterValidation(mockDTO);
+
+        UserProfileValidationResultDTO cached = statusCache.get("user123", UserProfileValidationResultDTO.class);
+        assertEquals(ValidationStatusEnum.SUCCESS.getStatus(), cached.getConsolidatedStatus());
+        assertEquals(ValidationStatusEnum.SUCCESS.getStatus(), cached.getSubscriptions().get("QB").getStatus());
+        verify(profileStatusNotifier).publish(cached);
+    }
+
+    @Test
+    public void testUpdate_UpdatesCachedStatus() throws KafkaProcessingException {
+        ConcurrentMapCache statusCache = new ConcurrentMapCache("USER_PROFILE_STATUS_CACHE");
+        UserProfileValidationResultDTO previous = new UserProfileValidationResultDTO("user123", ValidationStatusEnum.SUCCESS.getStatus(), null, new HashMap<>());
+        statusCache.put("user123", previous);
+        when(cacheManager.getCache("USER_PROFILE_STATUS_CACHE")).thenReturn(statusCache);
+        when(userProfileMapper.convertDTOTOEO(any())).thenReturn(new UserProfileEO());
+        doReturn(CompletableFuture.completedFuture(null)).when(userProfileSubmissionKafkaProducer).send(any(), eq("USER_PROFILE_UPDATE"), any());
+
+        userProfileService.update("user123", new UserProfileDTO());
+
+        UserProfileValidationResultDTO cached = statusCache.get("user123", UserProfileValidationResultDTO.class);
+        assertEquals(ValidationStatusEnum.IN_PROGRESS.getStatus(), cached.getConsolidatedStatus());
+        // The cached instance is replaced, not modified
+        assertEquals(ValidationStatusEnum.SUCCESS.getStatus(), previous.getConsolidatedStatus());
+    }
+
+    @Test
+    public void testUpdateAfterValidation_NotFound() {
+        UserProfileDTO mockDTO = new UserProfileDTO();
+        mockDTO.setUserId("user123");
+
+        assertThrows(NoSuchElementException.class, () -> userProfileService.updateAfterValidation(mockDTO));
     }
 
     @Test
@@ -196,8 +533,9 @@ public class UserProfileServiceImplTest {
         UserProfileDTO mockDTO = new UserProfileDTO();
         mockDTO.setUserId("user123");
 
+        when(userProfileRepository.getUserProfileById("user123")).thenReturn(new UserProfileEO());
         when(userProfileMapper.convertDTOTOEO(mockDTO)).thenReturn(new UserProfileEO());
-        when(userProfileRepository.update(anyString(), any())).thenThrow(UserProfileRepositoryException.class);
+        when(userProfileRepository.updateChanges(anyString(), any(), any(), any())).thenThrow(UserProfileRepositoryException.class);
         assertThrows(UserProfileBusinessException.class, () -> {
             userProfileService.updateAfterValidation(mockDTO);
         });